@@ -0,0 +1,115 @@
+package com.pft.benchmark;
+
+import com.pft.entity.Account;
+import com.pft.entity.Budget;
+import com.pft.entity.Category;
+import com.pft.entity.Goal;
+import com.pft.entity.Transaction;
+import com.pft.entity.User;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fully populated entities, shaped like what the services load, shared by the benchmarks.
+ */
+final class BenchmarkData {
+    
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 3, 15, 12, 0);
+    
+    private BenchmarkData() {}
+    
+    static User user() {
+        User user = new User();
+        user.setId(1L);
+        user.setEmail("ann.lee@example.com");
+        user.setFirstName("Ann");
+        user.setLastName("Lee");
+        user.setCurrency("USD");
+        user.setCreatedAt(NOW);
+        user.setUpdatedAt(NOW);
+        return user;
+    }
+    
+    static Account account(User user, long id) {
+        Account account = new Account();
+        account.setId(id);
+        account.setName("Checking " + id);
+        account.setType(Account.AccountType.CHECKING);
+        account.setAccountNumber("0000-" + id);
+        account.setInstitutionName("First Bank");
+        account.setInitialBalance(new BigDecimal("1000.00"));
+        account.setCurrentBalance(new BigDecimal("2534.17"));
+        account.setCreatedAt(NOW);
+        account.setUpdatedAt(NOW);
+        account.setUser(user);
+        return account;
+    }
+    
+    static Category category(User user, long id) {
+        Category category = new Category();
+        category.setId(id);
+        category.setName("Groceries " + id);
+        category.setDescription("Food and household supplies");
+        category.setType(Category.CategoryType.EXPENSE);
+        category.setCreatedAt(NOW);
+        category.setUpdatedAt(NOW);
+        category.setUser(user);
+        return category;
+    }
+    
+    static Budget budget(User user, Category category, long id) {
+        Budget budget = new Budget();
+        budget.setId(id);
+        budget.setName("Monthly groceries " + id);
+        budget.setAmount(new BigDecimal("600.00"));
+        budget.setSpentAmount(new BigDecimal("412.37"));
+        budget.setPeriod(Budget.BudgetPeriod.MONTHLY);
+        budget.setStartDate(NOW.withDayOfMonth(1));
+        budget.setAlertThreshold(80);
+        budget.setCreatedAt(NOW);
+        budget.setUpdatedAt(NOW);
+        budget.setUser(user);
+        budget.setCategory(category);
+        return budget;
+    }
+    
+    static Goal goal(User user, long id) {
+        Goal goal = new Goal();
+        goal.setId(id);
+        goal.setName("Emergency fund " + id);
+        goal.setTargetAmount(new BigDecimal("10000.00"));
+        goal.setCurrentAmount(new BigDecimal("3250.55"));
+        goal.setType(Goal.GoalType.EMERGENCY_FUND);
+        goal.setTargetDate(NOW.plusYears(2));
+        goal.setCreatedAt(NOW);
+        goal.setUpdatedAt(NOW);
+        goal.setUser(user);
+        return goal;
+    }
+    
+    static List<Transaction> transactions(int count) {
+        User user = user();
+        Account account = account(user, 1L);
+        Category category = category(user, 1L);
+        List<Transaction> transactions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Transaction transaction = new Transaction();
+            transaction.setId((long) i + 1);
+            transaction.setDescription("Card payment, store #" + (i % 500));
+            transaction.setAmount(BigDecimal.valueOf(1000 + i * 37L % 90000, 2));
+            transaction.setType(i % 5 == 0 ? Transaction.TransactionType.INCOME : Transaction.TransactionType.EXPENSE);
+            transaction.setTransactionDate(NOW.minusHours(i));
+            transaction.setReferenceNumber("REF-" + i);
+            transaction.setCreatedAt(NOW);
+            transaction.setUpdatedAt(NOW);
+            transaction.setUser(user);
+            transaction.setAccount(account);
+            transaction.setCategory(i % 3 == 0 ? null : category);
+            transactions.add(transaction);
+        }
+        return transactions;
+    }
+}
@@ -0,0 +1,72 @@
+package com.pft.benchmark;
+
+import com.pft.dto.AccountDto;
+import com.pft.dto.BudgetDto;
+import com.pft.dto.CategoryDto;
+import com.pft.dto.GoalDto;
+import com.pft.dto.TransactionDto;
+import com.pft.entity.Account;
+import com.pft.entity.Budget;
+import com.pft.entity.Category;
+import com.pft.entity.Goal;
+import com.pft.entity.Transaction;
+import com.pft.entity.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to DTO mapping, run for every row of every list response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DtoMappingBenchmark {
+    
+    private Transaction transaction;
+    private Account account;
+    private Category category;
+    private Budget budget;
+    private Goal goal;
+    
+    @Setup
+    public void setUp() {
+        User user = BenchmarkData.user();
+        transaction = BenchmarkData.transactions(2).get(1);
+        account = BenchmarkData.account(user, 1L);
+        category = BenchmarkData.category(user, 1L);
+        budget = BenchmarkData.budget(user, category, 1L);
+        goal = BenchmarkData.goal(user, 1L);
+    }
+    
+    @Benchmark
+    public TransactionDto transactionDto() {
+        return TransactionDto.fromEntity(transaction);
+    }
+    
+    @Benchmark
+    public AccountDto accountDto() {
+        return AccountDto.fromEntity(account);
+    }
+    
+    @Benchmark
+    public CategoryDto categoryDto() {
+        return CategoryDto.fromEntity(category);
+    }
+    
+    @Benchmark
+    public BudgetDto budgetDto() {
+        return BudgetDto.fromEntity(budget);
+    }
+    
+    @Benchmark
+    public GoalDto goalDto() {
+        return GoalDto.fromEntity(goal);
+    }
+}
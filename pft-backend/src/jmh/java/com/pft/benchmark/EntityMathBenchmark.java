@@ -0,0 +1,62 @@
+package com.pft.benchmark;
+
+import com.pft.entity.Account;
+import com.pft.entity.Budget;
+import com.pft.entity.Goal;
+import com.pft.entity.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BigDecimal arithmetic on the entities: budget and goal percentages, and balance updates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EntityMathBenchmark {
+    
+    private static final BigDecimal AMOUNT = new BigDecimal("42.17");
+    
+    private Budget budget;
+    private Goal goal;
+    private Account account;
+    
+    @Setup
+    public void setUp() {
+        User user = BenchmarkData.user();
+        budget = BenchmarkData.budget(user, BenchmarkData.category(user, 1L), 1L);
+        goal = BenchmarkData.goal(user, 1L);
+        account = BenchmarkData.account(user, 1L);
+    }
+    
+    @Benchmark
+    public BigDecimal budgetSpentPercentage() {
+        return budget.getSpentPercentage();
+    }
+    
+    @Benchmark
+    public boolean budgetNearLimit() {
+        return budget.isNearLimit();
+    }
+    
+    @Benchmark
+    public BigDecimal goalProgressPercentage() {
+        return goal.getProgressPercentage();
+    }
+    
+    @Benchmark
+    public BigDecimal accountUpdateBalance() {
+        // Alternate credit and debit so the balance keeps its magnitude across iterations
+        account.updateBalance(AMOUNT);
+        account.updateBalance(AMOUNT.negate());
+        return account.getCurrentBalance();
+    }
+}
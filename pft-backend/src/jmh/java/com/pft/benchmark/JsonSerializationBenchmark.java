@@ -0,0 +1,46 @@
+package com.pft.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pft.dto.TransactionDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Serialization of a transaction list response, with an ObjectMapper configured the way Spring
+ * Boot configures the one behind the REST controllers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JsonSerializationBenchmark {
+    
+    @Param({"100", "1000", "10000"})
+    private int size;
+    
+    private ObjectMapper objectMapper;
+    private List<TransactionDto> transactions;
+    
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        transactions = BenchmarkData.transactions(size).stream()
+                .map(TransactionDto::fromEntity)
+                .collect(Collectors.toList());
+    }
+    
+    @Benchmark
+    public byte[] serializeTransactionList() throws Exception {
+        return objectMapper.writeValueAsBytes(transactions);
+    }
+}
@@ -0,0 +1,110 @@
+package com.pft.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.pft.config.JwtAuthenticationFilter;
+import com.pft.security.VerifiedTokenCache;
+import com.pft.service.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.Key;
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issue and verification, and the authentication filter every API request passes through.
+ * {@code legacyValidation} reproduces the pre-caching path (signing key rebuilt per call, token
+ * parsed once for the subject and twice more for validity) as the reference for the filter's
+ * single-parse and cached paths.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtBenchmark {
+    
+    private static final String SECRET = "NDQ0RTYzNTI2NjU1NkE1ODZFNDI3MjM1NzUzODc4MkY0MTNGNDQ0ODQ3MkI0QjYyNTA2NDUzNjc1NkI1OTcw";
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+    
+    private JwtService jwtService;
+    private String token;
+    private JwtAuthenticationFilter uncachedFilter;
+    private JwtAuthenticationFilter cachedFilter;
+    
+    @Setup
+    public void setUp() {
+        // Measure the filter, not the debug logging the application enables for com.pft
+        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+        
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey", SECRET);
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", TimeUnit.DAYS.toMillis(1));
+        ReflectionTestUtils.invokeMethod(jwtService, "init");
+        token = jwtService.generateToken(BenchmarkData.user());
+        
+        uncachedFilter = new JwtAuthenticationFilter(jwtService, null, new VerifiedTokenCache(0, Duration.ofMinutes(5)), new SimpleMeterRegistry());
+        cachedFilter = new JwtAuthenticationFilter(jwtService, null, new VerifiedTokenCache(1000, Duration.ofMinutes(5)), new SimpleMeterRegistry());
+    }
+    
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(BenchmarkData.user());
+    }
+    
+    @Benchmark
+    public Claims extractAllClaims() {
+        return jwtService.extractAllClaims(token);
+    }
+    
+    @Benchmark
+    public boolean legacyValidation() {
+        String subject = legacyClaims().getSubject();
+        Claims claims = legacyClaims();
+        return claims.getSubject().equals(subject) && !legacyClaims().getExpiration().before(new Date());
+    }
+    
+    @Benchmark
+    public Authentication filterUncached() throws Exception {
+        return authenticate(uncachedFilter);
+    }
+    
+    @Benchmark
+    public Authentication filterCached() throws Exception {
+        return authenticate(cachedFilter);
+    }
+    
+    private Claims legacyClaims() {
+        Key key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+        return Jwts.parser()
+                .setSigningKey(key)
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+    
+    private Authentication authenticate(JwtAuthenticationFilter filter) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/transactions");
+        request.addHeader("Authorization", "Bearer " + token);
+        SecurityContextHolder.clearContext();
+        filter.doFilter(request, new MockHttpServletResponse(), NO_OP_CHAIN);
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
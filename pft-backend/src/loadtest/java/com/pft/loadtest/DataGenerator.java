@@ -0,0 +1,518 @@
+package com.pft.loadtest;
+
+import com.pft.PersonalFinanceTrackerApplication;
+import com.pft.entity.Goal;
+import com.pft.service.BudgetRebuildJob;
+import com.pft.service.TransactionRollupService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Seeds a database with synthetic users and their accounts, categories, budgets, goals and
+ * transaction history, for reproducing production-sized data sets locally. Runs inside the
+ * application context (so the schema is migrated, or created on H2, exactly as for the server)
+ * but bulk-loads with batched JDBC inserts instead of going through the services:
+ *
+ * <pre>
+ * mvn -Ploadtest test-compile exec:java@generate-data -Dexec.args="--generator.users=100 --generator.transactions-per-user=20000"
+ * </pre>
+ *
+ * The {@code loadtest} Maven profile activates the {@code loadtest} Spring profile, plus
+ * {@code loadtest-h2} to load an H2 file database instead of PostgreSQL. Every setting is a
+ * {@code generator.*} argument, see {@link Settings}. The same seed always produces the same
+ * data. Ids are reserved above the current maximum of each table, so the
+ * target may already hold data but must not be written to while the generator runs. Balances
+ * are computed while generating; the monthly rollup and the budgets' spent amounts and alert
+ * states are rebuilt afterwards with the application's own rebuild routines. The generated users' emails are
+ * written to {@code generator.users-file} for the {@link LoadDriver}.
+ */
+@Slf4j
+public class DataGenerator {
+    
+    private static final LocalDateTime NOW = LocalDate.now().atStartOfDay();
+    
+    // Expense categories with the median amount and relative frequency of their transactions
+    private static final List<ExpenseProfile> EXPENSE_PROFILES = List.of(
+            new ExpenseProfile("Groceries", new String[] {"FreshMart", "Green Grocer", "SaveMore Foods"}, 48, 30),
+            new ExpenseProfile("Dining", new String[] {"Corner Bistro", "Noodle House", "Coffee Corner"}, 22, 22),
+            new ExpenseProfile("Transport", new String[] {"City Transit", "FuelStop", "RideShare"}, 16, 16),
+            new ExpenseProfile("Shopping", new String[] {"MegaStore", "Online Market", "Book Nook"}, 55, 10),
+            new ExpenseProfile("Entertainment", new String[] {"Cinema Plaza", "Game Hub", "Concert Hall"}, 30, 6),
+            new ExpenseProfile("Subscriptions", new String[] {"StreamFlix", "MusicBox", "CloudDrive"}, 12, 5),
+            new ExpenseProfile("Utilities", new String[] {"PowerCo", "City Water", "FiberNet"}, 85, 4),
+            new ExpenseProfile("Health", new String[] {"Pharmacy Plus", "Dental Care", "Fitness Club"}, 45, 3),
+            new ExpenseProfile("Travel", new String[] {"SkyAir", "Harbor Hotel", "RailWay"}, 280, 2),
+            new ExpenseProfile("Gifts", new String[] {"Gift Gallery", "Flower Shop", "Toy Town"}, 40, 2));
+    
+    private static final String[] ACCOUNT_TYPES = {"CHECKING", "SAVINGS", "CREDIT_CARD", "CASH", "INVESTMENT"};
+    private static final String[] GOAL_TYPES = {"EMERGENCY_FUND", "TRAVEL", "PURCHASE", "SAVINGS", "EDUCATION"};
+    
+    private static final String INSERT_USER = "INSERT INTO users (id, email, password, first_name, last_name, currency, " +
+            "time_zone, status, created_at, updated_at) VALUES (?, ?, ?, ?, ?, 'USD', 'UTC', 'ACTIVE', ?, ?)";
+    private static final String INSERT_ACCOUNT = "INSERT INTO accounts (id, name, type, initial_balance, current_balance, " +
+            "account_number, institution_name, status, is_default, version, created_at, updated_at, user_id) " +
+            "VALUES (?, ?, ?, ?, ?, ?, 'First Bank', 'ACTIVE', ?, 0, ?, ?, ?)";
+    private static final String INSERT_CATEGORY = "INSERT INTO categories (id, name, type, status, is_default, " +
+            "created_at, updated_at, user_id) VALUES (?, ?, ?, 'ACTIVE', false, ?, ?, ?)";
+    private static final String INSERT_BUDGET = "INSERT INTO budgets (id, name, amount, spent_amount, period, start_date, " +
+            "end_date, alert_threshold, alert_state, is_active, status, created_at, updated_at, user_id, category_id) " +
+            "VALUES (?, ?, ?, 0, 'MONTHLY', ?, ?, 80, 'NORMAL', true, 'ACTIVE', ?, ?, ?, ?)";
+    private static final String INSERT_GOAL = "INSERT INTO goals (id, name, target_amount, current_amount, type, " +
+            "target_date, is_primary, alert_state, status, created_at, updated_at, user_id) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, 'ACTIVE', ?, ?, ?)";
+    private static final String INSERT_TRANSACTION = "INSERT INTO transactions (id, amount, description, type, " +
+            "transaction_date, reference_number, is_recurring, status, created_at, updated_at, account_id, category_id, " +
+            "to_account_id, user_id) VALUES (?, ?, ?, ?, ?, ?, false, 'COMPLETED', ?, ?, ?, ?, ?, ?)";
+    
+    private final ConfigurableApplicationContext context;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Settings settings;
+    
+    private DataGenerator(ConfigurableApplicationContext context) {
+        this.context = context;
+        this.jdbcTemplate = context.getBean(JdbcTemplate.class);
+        this.transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        this.settings = Settings.from(context.getEnvironment());
+    }
+    
+    public static void main(String[] args) throws Exception {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(PersonalFinanceTrackerApplication.class)
+                .web(WebApplicationType.NONE)
+                // Background jobs would compete with the load; the budget rebuild is run explicitly
+                .properties("app.recurring.enabled=false", "app.budgets.rebuild.cron=-")
+                .run(args);
+        try {
+            new DataGenerator(context).generate();
+        } finally {
+            context.close();
+        }
+    }
+    
+    private void generate() throws IOException, InterruptedException, ExecutionException {
+        long started = System.currentTimeMillis();
+        IdBlock ids = reserveIds();
+        // One password hash for everybody: hashing per user would dominate small runs
+        String passwordHash = context.getBean(PasswordEncoder.class).encode(settings.password());
+        
+        ExecutorService executor = Executors.newFixedThreadPool(settings.workers());
+        List<Future<String>> emails = new ArrayList<>();
+        AtomicLong transactionsWritten = new AtomicLong();
+        try {
+            for (int userIndex = 0; userIndex < settings.users(); userIndex++) {
+                int index = userIndex;
+                emails.add(executor.submit(() -> transactionTemplate.execute(status -> {
+                    UserData user = generateUser(ids, index, passwordHash);
+                    write(user);
+                    long written = transactionsWritten.addAndGet(user.transactions.size());
+                    if ((index + 1) % 10 == 0 || index + 1 == settings.users()) {
+                        log.info("Generated {} of {} users, {} transactions", index + 1, settings.users(), written);
+                    }
+                    return user.email;
+                })));
+            }
+            List<String> users = new ArrayList<>();
+            for (Future<String> email : emails) {
+                users.add(email.get());
+            }
+            Files.createDirectories(settings.usersFile().toAbsolutePath().getParent());
+            Files.write(settings.usersFile(), users);
+        } finally {
+            executor.shutdownNow();
+        }
+        restartIdGenerators();
+        
+        long rebuildStarted = System.currentTimeMillis();
+        int rollups = context.getBean(TransactionRollupService.class).rebuildAll();
+        context.getBean(BudgetRebuildJob.class).rebuildAll();
+        log.info("Rebuilt {} rollup rows and the budgets' spent amounts in {} ms",
+                rollups, System.currentTimeMillis() - rebuildStarted);
+        log.info("Generated {} users with {} transactions in {} s, emails written to {}", settings.users(),
+                transactionsWritten.get(), (System.currentTimeMillis() - started) / 1000, settings.usersFile());
+    }
+    
+    private IdBlock reserveIds() {
+        return new IdBlock(maxId("users"), maxId("accounts"), maxId("categories"), maxId("budgets"),
+                maxId("goals"), maxId("transactions"));
+    }
+    
+    private long maxId(String table) {
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+        return maxId == null ? 0L : maxId;
+    }
+    
+    /**
+     * Moves the id generators past the explicitly inserted ids, so the application's own inserts
+     * do not collide with them.
+     */
+    private void restartIdGenerators() {
+        for (String table : List.of("users", "accounts", "categories", "budgets", "goals")) {
+            jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + (maxId(table) + 1));
+        }
+        // Pooled optimizer: each sequence value is the top of a block of 50 ids
+        jdbcTemplate.execute("ALTER SEQUENCE transactions_id_seq RESTART WITH " + (maxId("transactions") + 50));
+    }
+    
+    private UserData generateUser(IdBlock ids, int index, String passwordHash) {
+        Random random = new Random(settings.seed() * 1_000_003L + index);
+        UserData user = new UserData();
+        user.id = ids.users + index + 1;
+        user.email = "loadtest-" + user.id + "@example.com";
+        user.passwordHash = passwordHash;
+        user.createdAt = NOW.minusMonths(settings.months()).minusDays(1);
+        
+        for (int i = 0; i < settings.accountsPerUser(); i++) {
+            AccountData account = new AccountData();
+            account.id = ids.accounts + (long) index * settings.accountsPerUser() + i + 1;
+            account.type = ACCOUNT_TYPES[i % ACCOUNT_TYPES.length];
+            account.name = account.type.charAt(0) + account.type.substring(1).toLowerCase().replace('_', ' ')
+                    + (i < ACCOUNT_TYPES.length ? "" : " " + (i / ACCOUNT_TYPES.length + 1));
+            user.accounts.add(account);
+        }
+        
+        int categoriesPerUser = settings.categoriesPerUser();
+        for (int i = 0; i < categoriesPerUser + 2; i++) {
+            CategoryData category = new CategoryData();
+            category.id = ids.categories + (long) index * (categoriesPerUser + 2) + i + 1;
+            if (i < categoriesPerUser) {
+                int round = i / EXPENSE_PROFILES.size();
+                category.profile = EXPENSE_PROFILES.get(i % EXPENSE_PROFILES.size());
+                category.name = category.profile.name() + (round == 0 ? "" : " " + (round + 1));
+                category.type = "EXPENSE";
+            } else {
+                category.name = i == categoriesPerUser ? "Salary" : "Interest";
+                category.type = "INCOME";
+            }
+            user.categories.add(category);
+        }
+        
+        generateTransactions(user, ids.transactions + (long) index * settings.transactionsPerUser(), random);
+        generateBudgets(user, ids.budgets + (long) index * settings.budgetsPerUser(), random);
+        generateGoals(user, ids.goals + (long) index * settings.goalsPerUser(), random);
+        return user;
+    }
+    
+    /**
+     * A monthly salary into the first account, a monthly transfer to savings and interest on it,
+     * and day-to-day expenses spread over the remaining count: categories by frequency, amounts
+     * log-normally around the category's median, more of them on weekends.
+     */
+    private void generateTransactions(UserData user, long firstId, Random random) {
+        AccountData checking = user.accounts.get(0);
+        AccountData savings = user.accounts.size() > 1 ? user.accounts.get(1) : null;
+        AccountData card = user.accounts.size() > 2 ? user.accounts.get(2) : null;
+        CategoryData salary = user.categories.get(user.categories.size() - 2);
+        CategoryData interest = user.categories.get(user.categories.size() - 1);
+        List<CategoryData> expenseCategories = user.categories.subList(0, user.categories.size() - 2);
+        int totalWeight = expenseCategories.stream().mapToInt(category -> category.profile.weight()).sum();
+        
+        BigDecimal monthlySalary = logNormal(random, 3500, 0.35);
+        YearMonth firstMonth = YearMonth.from(NOW).minusMonths(settings.months() - 1L);
+        int limit = settings.transactionsPerUser();
+        List<TransactionData> transactions = user.transactions;
+        
+        for (int m = 0; m < settings.months() && transactions.size() < limit; m++) {
+            YearMonth month = firstMonth.plusMonths(m);
+            LocalDateTime payday = month.atDay(Math.min(25, month.lengthOfMonth())).atTime(9, 0);
+            if (payday.isAfter(NOW)) {
+                continue;
+            }
+            transactions.add(transaction("INCOME", monthlySalary, "Payroll ACME Corp", payday, checking, salary, null));
+            if (savings != null && transactions.size() + 1 < limit) {
+                BigDecimal saved = monthlySalary.divide(BigDecimal.TEN, 2, RoundingMode.HALF_UP);
+                transactions.add(transaction("TRANSFER", saved, "Monthly savings", payday.plusHours(1), checking, null, savings));
+                BigDecimal interestAmount = savings.balance.max(BigDecimal.ZERO)
+                        .multiply(new BigDecimal("0.002")).setScale(2, RoundingMode.HALF_UP).max(new BigDecimal("0.01"));
+                transactions.add(transaction("INCOME", interestAmount, "Interest", month.atEndOfMonth().atTime(23, 0),
+                        savings, interest, null));
+            }
+        }
+        
+        long windowMinutes = Duration.between(firstMonth.atDay(1).atStartOfDay(), NOW).toMinutes();
+        while (transactions.size() < limit && !expenseCategories.isEmpty()) {
+            LocalDateTime date = firstMonth.atDay(1).atStartOfDay().plusMinutes((long) (random.nextDouble() * windowMinutes));
+            DayOfWeek day = date.getDayOfWeek();
+            boolean weekend = day == DayOfWeek.SATURDAY || day == DayOfWeek.SUNDAY;
+            if (!weekend && random.nextDouble() < 0.3) {
+                continue;
+            }
+            date = date.withHour(8 + random.nextInt(14));
+            
+            CategoryData category = pick(expenseCategories, totalWeight, random);
+            String merchant = category.profile.merchants()[random.nextInt(category.profile.merchants().length)];
+            AccountData account = card != null && random.nextDouble() < 0.35 ? card : checking;
+            transactions.add(transaction("EXPENSE", logNormal(random, category.profile.medianAmount(), 0.6),
+                    merchant + " #" + (100 + random.nextInt(900)), date, account, category, null));
+        }
+        
+        transactions.sort(Comparator.comparing((TransactionData transaction) -> transaction.date));
+        for (int i = 0; i < transactions.size(); i++) {
+            TransactionData transaction = transactions.get(i);
+            transaction.id = firstId + i + 1;
+            transaction.referenceNumber = random.nextDouble() < 0.25 ? "REF" + (100_000 + random.nextInt(900_000)) : null;
+        }
+        
+        // Opening balances keep every account at or above its floor after the generated history
+        for (AccountData account : user.accounts) {
+            BigDecimal floor = "CREDIT_CARD".equals(account.type) ? new BigDecimal("-5000.00") : new BigDecimal("2000.00");
+            account.initialBalance = floor.subtract(account.balance).max(BigDecimal.ZERO).setScale(2, RoundingMode.HALF_UP);
+            account.balance = account.initialBalance.add(account.balance);
+        }
+    }
+    
+    private TransactionData transaction(String type, BigDecimal amount, String description, LocalDateTime date,
+                                        AccountData account, CategoryData category, AccountData toAccount) {
+        TransactionData transaction = new TransactionData();
+        transaction.type = type;
+        transaction.amount = amount;
+        transaction.description = description;
+        transaction.date = date;
+        transaction.account = account;
+        transaction.category = category;
+        transaction.toAccount = toAccount;
+        
+        if ("INCOME".equals(type)) {
+            account.balance = account.balance.add(amount);
+        } else {
+            account.balance = account.balance.subtract(amount);
+            if (toAccount != null) {
+                toAccount.balance = toAccount.balance.add(amount);
+            }
+        }
+        return transaction;
+    }
+    
+    /**
+     * Current-month budgets on the first expense categories, sized around what the category
+     * actually costs so some of them are near or over their limit.
+     */
+    private void generateBudgets(UserData user, long firstId, Random random) {
+        LocalDateTime start = NOW.withDayOfMonth(1);
+        LocalDateTime end = YearMonth.from(NOW).atEndOfMonth().atTime(23, 59, 59);
+        int budgets = Math.min(settings.budgetsPerUser(), settings.categoriesPerUser());
+        double totalWeight = user.categories.stream()
+                .filter(category -> category.profile != null)
+                .mapToInt(category -> category.profile.weight())
+                .sum();
+        for (int i = 0; i < budgets; i++) {
+            CategoryData category = user.categories.get(i);
+            ExpenseProfile profile = category.profile;
+            // Expected monthly spend of the category, scaled by a random tightness
+            double expected = profile.medianAmount() * profile.weight() / totalWeight
+                    * settings.transactionsPerUser() / settings.months();
+            BudgetData budget = new BudgetData();
+            budget.id = firstId + i + 1;
+            budget.name = category.name + " budget";
+            budget.amount = BigDecimal.valueOf(Math.max(50, expected * (0.8 + random.nextDouble() * 0.8)))
+                    .setScale(0, RoundingMode.HALF_UP).setScale(2, RoundingMode.UNNECESSARY);
+            budget.startDate = start;
+            budget.endDate = end;
+            budget.category = category;
+            user.budgets.add(budget);
+        }
+    }
+    
+    private void generateGoals(UserData user, long firstId, Random random) {
+        for (int i = 0; i < settings.goalsPerUser(); i++) {
+            GoalData goal = new GoalData();
+            goal.id = firstId + i + 1;
+            goal.type = GOAL_TYPES[i % GOAL_TYPES.length];
+            goal.name = goal.type.charAt(0) + goal.type.substring(1).toLowerCase().replace('_', ' ');
+            goal.targetAmount = BigDecimal.valueOf(1000L * (1 + random.nextInt(30))).setScale(2, RoundingMode.UNNECESSARY);
+            goal.currentAmount = goal.targetAmount.multiply(BigDecimal.valueOf(random.nextDouble()))
+                    .setScale(2, RoundingMode.HALF_UP);
+            goal.targetDate = NOW.plusMonths(3 + random.nextInt(36));
+            user.goals.add(goal);
+        }
+    }
+    
+    private void write(UserData user) {
+        LocalDateTime created = user.createdAt;
+        jdbcTemplate.update(INSERT_USER, user.id, user.email, user.passwordHash, "Load", "Tester " + user.id, created, created);
+        
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < user.accounts.size(); i++) {
+            AccountData account = user.accounts.get(i);
+            rows.add(new Object[] {account.id, account.name, account.type, account.initialBalance, account.balance,
+                    "LT-" + account.id, i == 0, created, NOW, user.id});
+        }
+        insert(INSERT_ACCOUNT, rows);
+        
+        rows = new ArrayList<>();
+        for (CategoryData category : user.categories) {
+            rows.add(new Object[] {category.id, category.name, category.type, created, created, user.id});
+        }
+        insert(INSERT_CATEGORY, rows);
+        
+        rows = new ArrayList<>();
+        for (BudgetData budget : user.budgets) {
+            rows.add(new Object[] {budget.id, budget.name, budget.amount, budget.startDate, budget.endDate,
+                    budget.startDate, budget.startDate, user.id, budget.category.id});
+        }
+        insert(INSERT_BUDGET, rows);
+        
+        rows = new ArrayList<>();
+        for (int i = 0; i < user.goals.size(); i++) {
+            GoalData goal = user.goals.get(i);
+            rows.add(new Object[] {goal.id, goal.name, goal.targetAmount, goal.currentAmount, goal.type,
+                    goal.targetDate, i == 0, Goal.alertStateOf(goal.currentAmount, goal.targetAmount).name(),
+                    created, NOW, user.id});
+        }
+        insert(INSERT_GOAL, rows);
+        
+        rows = new ArrayList<>(settings.batchSize());
+        for (TransactionData transaction : user.transactions) {
+            rows.add(new Object[] {transaction.id, transaction.amount, transaction.description, transaction.type,
+                    transaction.date, transaction.referenceNumber, transaction.date, transaction.date,
+                    transaction.account.id, transaction.category == null ? null : transaction.category.id,
+                    transaction.toAccount == null ? null : transaction.toAccount.id, user.id});
+            if (rows.size() == settings.batchSize()) {
+                insert(INSERT_TRANSACTION, rows);
+                rows.clear();
+            }
+        }
+        insert(INSERT_TRANSACTION, rows);
+    }
+    
+    private void insert(String sql, List<Object[]> rows) {
+        for (int from = 0; from < rows.size(); from += settings.batchSize()) {
+            jdbcTemplate.batchUpdate(sql, rows.subList(from, Math.min(from + settings.batchSize(), rows.size())));
+        }
+    }
+    
+    private static BigDecimal logNormal(Random random, double median, double sigma) {
+        double value = median * Math.exp(sigma * random.nextGaussian());
+        return BigDecimal.valueOf(Math.max(0.5, value)).setScale(2, RoundingMode.HALF_UP);
+    }
+    
+    private static CategoryData pick(List<CategoryData> categories, int totalWeight, Random random) {
+        int target = random.nextInt(totalWeight);
+        for (CategoryData category : categories) {
+            target -= category.profile.weight();
+            if (target < 0) {
+                return category;
+            }
+        }
+        return categories.get(categories.size() - 1);
+    }
+    
+    /**
+     * Generator settings, given as {@code --generator.<name>=<value>} arguments.
+     */
+    record Settings(int users, int accountsPerUser, int categoriesPerUser, int budgetsPerUser, int goalsPerUser,
+                    int transactionsPerUser, int months, long seed, int workers, int batchSize, String password,
+                    Path usersFile) {
+        
+        static Settings from(Environment environment) {
+            Settings settings = new Settings(
+                    environment.getProperty("generator.users", Integer.class, 10),
+                    environment.getProperty("generator.accounts-per-user", Integer.class, 3),
+                    environment.getProperty("generator.categories-per-user", Integer.class, EXPENSE_PROFILES.size()),
+                    environment.getProperty("generator.budgets-per-user", Integer.class, 5),
+                    environment.getProperty("generator.goals-per-user", Integer.class, 3),
+                    environment.getProperty("generator.transactions-per-user", Integer.class, 10_000),
+                    environment.getProperty("generator.months", Integer.class, 24),
+                    environment.getProperty("generator.seed", Long.class, 42L),
+                    environment.getProperty("generator.workers", Integer.class, 4),
+                    environment.getProperty("generator.batch-size", Integer.class, 1000),
+                    environment.getProperty("generator.password", "loadtest-password"),
+                    Path.of(environment.getProperty("generator.users-file", "target/loadtest/users.txt")));
+            if (settings.users() < 1 || settings.accountsPerUser() < 1 || settings.categoriesPerUser() < 1
+                    || settings.months() < 1 || settings.workers() < 1 || settings.batchSize() < 1) {
+                throw new RuntimeException("Invalid generator settings: " + settings);
+            }
+            return settings;
+        }
+    }
+    
+    private record ExpenseProfile(String name, String[] merchants, double medianAmount, int weight) {
+    }
+    
+    // Highest existing id of each table; generated rows are numbered above it
+    private record IdBlock(long users, long accounts, long categories, long budgets, long goals, long transactions) {
+    }
+    
+    private static final class UserData {
+        long id;
+        String email;
+        String passwordHash;
+        LocalDateTime createdAt;
+        final List<AccountData> accounts = new ArrayList<>();
+        final List<CategoryData> categories = new ArrayList<>();
+        final List<BudgetData> budgets = new ArrayList<>();
+        final List<GoalData> goals = new ArrayList<>();
+        final List<TransactionData> transactions = new ArrayList<>();
+    }
+    
+    private static final class AccountData {
+        long id;
+        String name;
+        String type;
+        BigDecimal initialBalance = BigDecimal.ZERO;
+        BigDecimal balance = BigDecimal.ZERO;
+    }
+    
+    private static final class CategoryData {
+        long id;
+        String name;
+        String type;
+        ExpenseProfile profile;
+    }
+    
+    private static final class BudgetData {
+        long id;
+        String name;
+        BigDecimal amount;
+        LocalDateTime startDate;
+        LocalDateTime endDate;
+        CategoryData category;
+    }
+    
+    private static final class GoalData {
+        long id;
+        String name;
+        String type;
+        BigDecimal targetAmount;
+        BigDecimal currentAmount;
+        LocalDateTime targetDate;
+    }
+    
+    private static final class TransactionData {
+        long id;
+        String type;
+        BigDecimal amount;
+        String description;
+        LocalDateTime date;
+        String referenceNumber;
+        AccountData account;
+        CategoryData category;
+        AccountData toAccount;
+    }
+}
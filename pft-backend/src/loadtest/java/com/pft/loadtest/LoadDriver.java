@@ -0,0 +1,315 @@
+package com.pft.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.core.env.SimpleCommandLinePropertySource;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays a mixed workload against a running server as the users created by the
+ * {@link DataGenerator} and reports throughput and latency percentiles per operation:
+ *
+ * <pre>
+ * mvn -Ploadtest test-compile exec:java@load-driver -Dexec.args="--driver.threads=32 --driver.duration-seconds=120"
+ * </pre>
+ *
+ * Each thread repeatedly picks a user and an operation by the configured mix, in a closed loop
+ * (the next request starts when the previous one finished). Requests during the warmup are sent
+ * but not recorded. Settings are {@code --driver.<name>=<value>} arguments, see {@link Settings}.
+ */
+public class LoadDriver {
+    
+    enum Operation {
+        DASHBOARD, LIST, CREATE, TRANSFER
+    }
+    
+    private final Settings settings;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<Operation, LatencyRecorder> recorders = new EnumMap<>(Operation.class);
+    
+    private LoadDriver(Settings settings) {
+        this.settings = settings;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        for (Operation operation : Operation.values()) {
+            recorders.put(operation, new LatencyRecorder());
+        }
+    }
+    
+    public static void main(String[] args) throws Exception {
+        new LoadDriver(Settings.from(new SimpleCommandLinePropertySource(args))).run();
+    }
+    
+    private void run() throws Exception {
+        List<Session> sessions = logIn();
+        System.out.printf("Logged in %d users, running %d threads for %d s (+%d s warmup), mix %s%n",
+                sessions.size(), settings.threads(), settings.durationSeconds(), settings.warmupSeconds(), settings.mix());
+        
+        long warmupEnd = System.nanoTime() + TimeUnit.SECONDS.toNanos(settings.warmupSeconds());
+        long end = warmupEnd + TimeUnit.SECONDS.toNanos(settings.durationSeconds());
+        ExecutorService executor = Executors.newFixedThreadPool(settings.threads());
+        List<Future<?>> workers = new ArrayList<>();
+        for (int i = 0; i < settings.threads(); i++) {
+            Random random = new Random(settings.seed() + i);
+            workers.add(executor.submit(() -> runWorker(sessions, random, warmupEnd, end)));
+        }
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        executor.shutdown();
+        report();
+    }
+    
+    private Void runWorker(List<Session> sessions, Random random, long warmupEnd, long end) {
+        long now;
+        while ((now = System.nanoTime()) < end) {
+            Session session = sessions.get(random.nextInt(sessions.size()));
+            Operation operation = settings.pick(random);
+            boolean ok;
+            try {
+                ok = execute(operation, session, random);
+            } catch (IOException e) {
+                ok = false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            long finished = System.nanoTime();
+            if (now >= warmupEnd) {
+                recorders.get(operation).record(finished - now, ok);
+            }
+        }
+        return null;
+    }
+    
+    private boolean execute(Operation operation, Session session, Random random) throws IOException, InterruptedException {
+        return switch (operation) {
+            case DASHBOARD -> send(session, get("/dashboard/stats"));
+            case LIST -> send(session, get("/transactions/page?size=50"));
+            case CREATE -> send(session, post("/transactions", Map.of(
+                    "type", "EXPENSE",
+                    "amount", amount(random, 5, 80),
+                    "description", "Load test purchase #" + random.nextInt(1000),
+                    "accountId", session.accountId(),
+                    "categoryId", session.categoryIds()[random.nextInt(session.categoryIds().length)])));
+            case TRANSFER -> session.otherAccountId() == null
+                    ? send(session, get("/accounts"))
+                    : send(session, post("/transactions", Map.of(
+                            "type", "TRANSFER",
+                            "amount", amount(random, 10, 50),
+                            "description", "Load test transfer",
+                            "accountId", session.accountId(),
+                            "toAccountId", session.otherAccountId())));
+        };
+    }
+    
+    private List<Session> logIn() throws IOException, InterruptedException {
+        List<String> emails = Files.readAllLines(settings.usersFile()).stream()
+                .filter(email -> !email.isBlank())
+                .limit(settings.maxUsers())
+                .toList();
+        if (emails.isEmpty()) {
+            throw new RuntimeException("No users in " + settings.usersFile() + ", run the data generator first");
+        }
+        
+        List<Session> sessions = new ArrayList<>();
+        for (String email : emails) {
+            HttpResponse<String> response = httpClient.send(post("/auth/login",
+                    Map.of("email", email, "password", settings.password())).build(), HttpResponse.BodyHandlers.ofString());
+            JsonNode token = objectMapper.readTree(response.body()).path("data").path("token");
+            if (response.statusCode() != 200 || token.isMissingNode()) {
+                throw new RuntimeException("Login failed for " + email + ": " + response.body());
+            }
+            Session session = new Session(token.asText(), null, null, null);
+            
+            JsonNode accounts = readJson(session, get("/accounts"));
+            JsonNode categories = readJson(session, get("/categories"));
+            Long accountId = null;
+            Long otherAccountId = null;
+            for (JsonNode account : accounts) {
+                if (accountId == null && "CHECKING".equals(account.path("type").asText())) {
+                    accountId = account.path("id").asLong();
+                } else if (otherAccountId == null && "SAVINGS".equals(account.path("type").asText())) {
+                    otherAccountId = account.path("id").asLong();
+                }
+            }
+            long[] categoryIds = new long[categories.size()];
+            int count = 0;
+            for (JsonNode category : categories) {
+                if ("EXPENSE".equals(category.path("type").asText())) {
+                    categoryIds[count++] = category.path("id").asLong();
+                }
+            }
+            if (accountId == null || count == 0) {
+                throw new RuntimeException("User " + email + " has no checking account or expense category");
+            }
+            sessions.add(new Session(session.token(), accountId, otherAccountId, Arrays.copyOf(categoryIds, count)));
+        }
+        return sessions;
+    }
+    
+    private HttpRequest.Builder get(String path) {
+        return HttpRequest.newBuilder(URI.create(settings.baseUrl() + path)).GET();
+    }
+    
+    private HttpRequest.Builder post(String path, Map<String, Object> body) throws IOException {
+        return HttpRequest.newBuilder(URI.create(settings.baseUrl() + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+    }
+    
+    private boolean send(Session session, HttpRequest.Builder request) throws IOException, InterruptedException {
+        HttpResponse<Void> response = httpClient.send(authorized(session, request), HttpResponse.BodyHandlers.discarding());
+        return response.statusCode() / 100 == 2;
+    }
+    
+    private JsonNode readJson(Session session, HttpRequest.Builder request) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = httpClient.send(authorized(session, request), HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new RuntimeException(request.build().uri() + " returned " + response.statusCode());
+        }
+        return objectMapper.readTree(response.body());
+    }
+    
+    private HttpRequest authorized(Session session, HttpRequest.Builder request) {
+        return request.header("Authorization", "Bearer " + session.token())
+                .timeout(Duration.ofSeconds(30))
+                .build();
+    }
+    
+    private static BigDecimal amount(Random random, int min, int max) {
+        return BigDecimal.valueOf(min * 100L + random.nextInt((max - min) * 100), 2);
+    }
+    
+    private void report() {
+        System.out.printf("%n%-10s %10s %8s %10s %10s %10s %10s %10s%n",
+                "operation", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        long totalRequests = 0;
+        long totalErrors = 0;
+        for (Map.Entry<Operation, LatencyRecorder> entry : recorders.entrySet()) {
+            long[] latencies = entry.getValue().sorted();
+            long errors = entry.getValue().errors();
+            totalRequests += latencies.length;
+            totalErrors += errors;
+            System.out.printf(Locale.ROOT, "%-10s %10d %8d %10.1f %10.2f %10.2f %10.2f %10.2f%n",
+                    entry.getKey().name().toLowerCase(Locale.ROOT), latencies.length, errors,
+                    latencies.length / (double) settings.durationSeconds(),
+                    percentile(latencies, 0.50), percentile(latencies, 0.90), percentile(latencies, 0.99),
+                    percentile(latencies, 1.0));
+        }
+        System.out.printf(Locale.ROOT, "%-10s %10d %8d %10.1f%n", "total", totalRequests, totalErrors,
+                totalRequests / (double) settings.durationSeconds());
+    }
+    
+    private static double percentile(long[] sortedNanos, double percentile) {
+        if (sortedNanos.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(0, index)] / 1_000_000.0;
+    }
+    
+    private record Session(String token, Long accountId, Long otherAccountId, long[] categoryIds) {
+    }
+    
+    /**
+     * Keeps every latency, so percentiles are exact rather than bucketed.
+     */
+    private static final class LatencyRecorder {
+        
+        private long[] latencies = new long[1024];
+        private int count;
+        private long errors;
+        
+        synchronized void record(long nanos, boolean ok) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+            if (!ok) {
+                errors++;
+            }
+        }
+        
+        synchronized long[] sorted() {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+        
+        synchronized long errors() {
+            return errors;
+        }
+    }
+    
+    /**
+     * Driver settings, given as {@code --driver.<name>=<value>} arguments. The mix lists each
+     * operation's relative weight, e.g. {@code dashboard=20,list=50,create=20,transfer=10}.
+     */
+    record Settings(String baseUrl, Path usersFile, String password, int maxUsers, int threads,
+                    int warmupSeconds, int durationSeconds, long seed, String mix, int[] weights) {
+        
+        static Settings from(SimpleCommandLinePropertySource arguments) {
+            String mix = property(arguments, "mix", "dashboard=20,list=50,create=20,transfer=10");
+            int[] weights = new int[Operation.values().length];
+            for (String part : mix.split(",")) {
+                String[] entry = part.trim().split("=");
+                weights[Operation.valueOf(entry[0].trim().toUpperCase(Locale.ROOT)).ordinal()] = Integer.parseInt(entry[1].trim());
+            }
+            Settings settings = new Settings(
+                    property(arguments, "base-url", "http://localhost:8080/api"),
+                    Path.of(property(arguments, "users-file", "target/loadtest/users.txt")),
+                    property(arguments, "password", "loadtest-password"),
+                    Integer.parseInt(property(arguments, "max-users", "50")),
+                    Integer.parseInt(property(arguments, "threads", "16")),
+                    Integer.parseInt(property(arguments, "warmup-seconds", "10")),
+                    Integer.parseInt(property(arguments, "duration-seconds", "60")),
+                    Long.parseLong(property(arguments, "seed", "42")),
+                    mix,
+                    weights);
+            if (settings.threads() < 1 || settings.durationSeconds() < 1 || Arrays.stream(weights).sum() <= 0) {
+                throw new RuntimeException("Invalid driver settings: threads, duration and mix must be positive");
+            }
+            return settings;
+        }
+        
+        private static String property(SimpleCommandLinePropertySource arguments, String name, String defaultValue) {
+            String value = arguments.getProperty("driver." + name);
+            return value == null ? defaultValue : value;
+        }
+        
+        Operation pick(Random random) {
+            int target = random.nextInt(Arrays.stream(weights).sum());
+            for (Operation operation : Operation.values()) {
+                target -= weights[operation.ordinal()];
+                if (target < 0) {
+                    return operation;
+                }
+            }
+            return Operation.LIST;
+        }
+    }
+}
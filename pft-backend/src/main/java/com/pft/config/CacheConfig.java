@@ -0,0 +1,49 @@
+package com.pft.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * In-memory caches for rarely changing reference data (accounts, categories and users) looked
+ * up on most requests. Each cache has its own size and expiry bounds and records hit/miss
+ * statistics, which are published as cache metrics through the actuator. The caches hold
+ * immutable summaries and ids, never entities, so cached values are safe to share between
+ * requests and threads. Setting app.cache.enabled to false turns the annotations into plain
+ * method calls.
+ */
+@Configuration
+@EnableCaching
+@ConditionalOnProperty(prefix = "app.cache", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class CacheConfig {
+    
+    public static final String ACCOUNTS = "accounts";
+    public static final String CATEGORIES = "categories";
+    public static final String USERS = "users";
+    public static final String USERS_BY_EMAIL = "usersByEmail";
+    
+    @Bean
+    public CacheManager cacheManager(@Value("${app.cache.accounts:maximumSize=10000,expireAfterWrite=5m}") String accountsSpec,
+                                     @Value("${app.cache.categories:maximumSize=10000,expireAfterWrite=30m}") String categoriesSpec,
+                                     @Value("${app.cache.users:maximumSize=10000,expireAfterWrite=10m}") String usersSpec) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        // Only the caches registered below exist; a mistyped cache name fails instead of creating an unbounded cache
+        cacheManager.setCacheNames(List.of());
+        cacheManager.registerCustomCache(ACCOUNTS, Caffeine.from(accountsSpec).recordStats().build());
+        cacheManager.registerCustomCache(CATEGORIES, Caffeine.from(categoriesSpec).recordStats().build());
+        cacheManager.registerCustomCache(USERS, Caffeine.from(usersSpec).recordStats().build());
+        cacheManager.registerCustomCache(USERS_BY_EMAIL, Caffeine.from(usersSpec).recordStats().build());
+        
+        // Puts and evictions made inside a database transaction are applied after it commits, so a
+        // concurrent reader cannot re-cache the old row between the eviction and the commit
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
@@ -1,7 +1,13 @@
 package com.pft.config;
 
+import com.pft.entity.User;
+import com.pft.security.AuthenticatedUser;
+import com.pft.security.VerifiedTokenCache;
 import com.pft.service.JwtService;
 import com.pft.service.UserService;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -11,7 +17,6 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -23,8 +28,12 @@ import java.io.IOException;
 @Slf4j
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    public static final String JWT_VALIDATION_METRIC = "pft.jwt.validation";
+
     private final JwtService jwtService;
     private final UserService userService;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final MeterRegistry meterRegistry;
 
     @Override
     protected void doFilterInternal(
@@ -34,7 +43,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     ) throws ServletException, IOException {
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String userEmail;
         
         log.debug("Processing request: {} {}", request.getMethod(), request.getRequestURI());
         
@@ -46,31 +54,26 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         try {
             jwt = authHeader.substring(7);
-            userEmail = jwtService.extractUsername(jwt);
-            
-            log.debug("JWT token extracted, userEmail: {}", userEmail);
             
-            if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = this.userService.loadUserByUsername(userEmail);
-                log.debug("UserDetails loaded for user: {}", userEmail);
+            if (SecurityContextHolder.getContext().getAuthentication() == null) {
+                AuthenticatedUser principal = resolvePrincipal(jwt);
                 
-                if (jwtService.isTokenValid(jwt, userDetails)) {
-                    log.debug("JWT token is valid for user: {}", userEmail);
+                if (principal != null) {
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userDetails,
+                            principal,
                             null,
-                            userDetails.getAuthorities()
+                            principal.getAuthorities()
                     );
                     authToken.setDetails(
                             new WebAuthenticationDetailsSource().buildDetails(request)
                     );
                     SecurityContextHolder.getContext().setAuthentication(authToken);
-                    log.debug("Authentication set in SecurityContext for user: {}", userEmail);
+                    log.debug("Authentication set in SecurityContext for user: {}", principal.getEmail());
                 } else {
-                    log.debug("JWT token is invalid for user: {}", userEmail);
+                    log.debug("JWT token is invalid for request: {}", request.getRequestURI());
                 }
             } else {
-                log.debug("UserEmail is null or authentication already exists for request: {}", request.getRequestURI());
+                log.debug("Authentication already exists for request: {}", request.getRequestURI());
             }
         } catch (Exception e) {
             log.error("Error processing JWT token for request: {}", request.getRequestURI(), e);
@@ -78,4 +81,39 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         filterChain.doFilter(request, response);
     }
+    
+    /**
+     * Verifies the token (parsing it exactly once) and returns its principal. Tokens that carry
+     * identity claims are authenticated without touching the database; older tokens fall back
+     * to loading the user by subject, and are refused once the user is no longer active. Timed
+     * per outcome: cached, verified or invalid.
+     */
+    private AuthenticatedUser resolvePrincipal(String jwt) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "INVALID";
+        try {
+            AuthenticatedUser cached = verifiedTokenCache.get(jwt);
+            if (cached != null) {
+                log.debug("JWT token found in verified token cache for user: {}", cached.getEmail());
+                outcome = "CACHED";
+                return cached;
+            }
+            
+            Claims claims = jwtService.extractAllClaims(jwt);
+            AuthenticatedUser principal = jwtService.toAuthenticatedUser(claims);
+            if (principal == null && claims.getSubject() != null) {
+                User user = userService.getUserEntityByEmail(claims.getSubject());
+                log.debug("User loaded for token without identity claims: {}", claims.getSubject());
+                principal = user.isEnabled() ? AuthenticatedUser.from(user) : null;
+            }
+            
+            if (principal != null) {
+                verifiedTokenCache.put(jwt, principal, claims.getExpiration().getTime());
+                outcome = "VERIFIED";
+            }
+            return principal;
+        } finally {
+            sample.stop(meterRegistry.timer(JWT_VALIDATION_METRIC, "outcome", outcome));
+        }
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,23 @@
+package com.pft.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Application metrics on top of what Spring Boot binds on its own (HTTP, repository, HikariCP,
+ * cache and Hibernate statistics meters): service method timers and the per-request SQL
+ * statement count.
+ */
+@Configuration
+public class MetricsConfig {
+    
+    // Timer for every public method of the classes annotated with @Timed(SERVICE_METRIC)
+    public static final String SERVICE_METRIC = "pft.service";
+    
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatementCounterCustomizer() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new SqlStatementCounter());
+    }
+}
@@ -0,0 +1,55 @@
+package com.pft.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Records how many SQL statements each request runs, per endpoint. Runs ahead of the security
+ * filters so statements issued during authentication are included.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class RequestMetricsFilter extends OncePerRequestFilter {
+    
+    public static final String SQL_STATEMENTS_METRIC = "pft.http.server.requests.sql.statements";
+    
+    private final MeterRegistry meterRegistry;
+    
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        AtomicInteger statements = new AtomicInteger();
+        try (SqlStatementCounter.Scope ignored = SqlStatementCounter.bind(statements)) {
+            filterChain.doFilter(request, response);
+        } finally {
+            // Tag by route pattern rather than raw path to keep the number of series bounded
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            DistributionSummary.builder(SQL_STATEMENTS_METRIC)
+                    .description("SQL statements executed per HTTP request")
+                    .tag("method", request.getMethod())
+                    .tag("uri", pattern != null ? pattern.toString() : "UNKNOWN")
+                    // Statement counts are small integers, a handful of fixed buckets is enough
+                    .serviceLevelObjectives(1, 2, 5, 10, 20, 50, 100, 200, 500)
+                    .register(meterRegistry)
+                    .record(statements.get());
+        }
+    }
+}
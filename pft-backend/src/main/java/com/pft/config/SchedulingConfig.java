@@ -0,0 +1,10 @@
+package com.pft.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+    // This enables @Scheduled background jobs such as recurring transaction processing
+}
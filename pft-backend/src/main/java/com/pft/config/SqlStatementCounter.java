@@ -0,0 +1,47 @@
+package com.pft.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts the SQL statements Hibernate prepares on behalf of the current request. A counter
+ * is bound to the request thread by {@link RequestMetricsFilter}; work handed to other threads
+ * for the same request binds the same counter there, so its statements are counted too.
+ */
+public class SqlStatementCounter implements StatementInspector {
+    
+    private static final ThreadLocal<AtomicInteger> CURRENT = new ThreadLocal<>();
+    
+    @Override
+    public String inspect(String sql) {
+        AtomicInteger counter = CURRENT.get();
+        if (counter != null) {
+            counter.incrementAndGet();
+        }
+        return sql;
+    }
+    
+    /**
+     * The counter bound to the current thread, or null when statements are not being counted.
+     */
+    public static AtomicInteger current() {
+        return CURRENT.get();
+    }
+    
+    /**
+     * Counts statements of the current thread into the given counter (none when null) until the
+     * returned scope is closed, which restores the previous binding.
+     */
+    public static Scope bind(AtomicInteger counter) {
+        AtomicInteger previous = CURRENT.get();
+        CURRENT.set(counter);
+        return () -> CURRENT.set(previous);
+    }
+    
+    public interface Scope extends AutoCloseable {
+        
+        @Override
+        void close();
+    }
+}
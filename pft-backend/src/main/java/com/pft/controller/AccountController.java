@@ -1,13 +1,20 @@
 package com.pft.controller;
 
+import com.pft.dto.AccountBalanceHistoryDto;
 import com.pft.dto.AccountDto;
+import com.pft.entity.UserDataVersion;
+import com.pft.security.CurrentUserId;
+import com.pft.service.AccountBalanceHistoryService;
 import com.pft.service.AccountService;
-import com.pft.service.UserService;
+import com.pft.service.DataVersionService;
+import com.pft.util.Granularity;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -19,32 +26,39 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 public class AccountController {
     
     private final AccountService accountService;
-    private final UserService userService;
+    private final AccountBalanceHistoryService accountBalanceHistoryService;
+    private final DataVersionService dataVersionService;
     
     @GetMapping
-    public ResponseEntity<List<AccountDto>> getCurrentUserAccounts(Authentication authentication) {
-        String userEmail = authentication.getName();
-        Long userId = userService.getUserEntityByEmail(userEmail).getId();
-        List<AccountDto> accounts = accountService.getAccountsByUserId(userId);
-        return ResponseEntity.ok(accounts);
+    public ResponseEntity<List<AccountDto>> getCurrentUserAccounts(@CurrentUserId Long userId, WebRequest request) {
+        String eTag = dataVersionService.getETag(userId, UserDataVersion.DataType.ACCOUNTS);
+        return ConditionalGet.respond(request, eTag, () -> accountService.getAccountsByUserId(userId));
     }
     
     @GetMapping("/{accountId}")
     public ResponseEntity<AccountDto> getAccountById(
             @PathVariable Long accountId,
-            Authentication authentication) {
-        String userEmail = authentication.getName();
-        Long userId = userService.getUserEntityByEmail(userEmail).getId();
+            @CurrentUserId Long userId) {
         AccountDto account = accountService.getAccountById(accountId, userId);
         return ResponseEntity.ok(account);
     }
     
+    @GetMapping("/{accountId}/balance-history")
+    public ResponseEntity<AccountBalanceHistoryDto> getBalanceHistory(
+            @PathVariable Long accountId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "day") String granularity,
+            @CurrentUserId Long userId) {
+        AccountBalanceHistoryDto history = accountBalanceHistoryService.getBalanceHistory(accountId, userId, from, to,
+                Granularity.resolve(granularity));
+        return ResponseEntity.ok(history);
+    }
+    
     @PostMapping
     public ResponseEntity<AccountDto> createAccount(
             @RequestBody AccountDto accountDto,
-            Authentication authentication) {
-        String userEmail = authentication.getName();
-        Long userId = userService.getUserEntityByEmail(userEmail).getId();
+            @CurrentUserId Long userId) {
         AccountDto createdAccount = accountService.createAccount(accountDto, userId);
         return ResponseEntity.ok(createdAccount);
     }
@@ -53,9 +67,7 @@ public class AccountController {
     public ResponseEntity<AccountDto> updateAccount(
             @PathVariable Long accountId,
             @RequestBody AccountDto accountDto,
-            Authentication authentication) {
-        String userEmail = authentication.getName();
-        Long userId = userService.getUserEntityByEmail(userEmail).getId();
+            @CurrentUserId Long userId) {
         AccountDto updatedAccount = accountService.updateAccount(accountId, accountDto, userId);
         return ResponseEntity.ok(updatedAccount);
     }
@@ -63,32 +75,24 @@ public class AccountController {
     @DeleteMapping("/{accountId}")
     public ResponseEntity<Void> deleteAccount(
             @PathVariable Long accountId,
-            Authentication authentication) {
-        String userEmail = authentication.getName();
-        Long userId = userService.getUserEntityByEmail(userEmail).getId();
+            @CurrentUserId Long userId) {
         accountService.deleteAccount(accountId, userId);
         return ResponseEntity.noContent().build();
     }
     
     @GetMapping("/active")
-    public ResponseEntity<List<AccountDto>> getActiveAccounts(Authentication authentication) {
-        String userEmail = authentication.getName();
-        Long userId = userService.getUserEntityByEmail(userEmail).getId();
+    public ResponseEntity<List<AccountDto>> getActiveAccounts(@CurrentUserId Long userId) {
         List<AccountDto> activeAccounts = accountService.getActiveAccountsByUserId(userId);
         return ResponseEntity.ok(activeAccounts);
     }
     
     @GetMapping("/balance/total")
-    public ResponseEntity<Object> getTotalBalance(Authentication authentication) {
-        String userEmail = authentication.getName();
-        Long userId = userService.getUserEntityByEmail(userEmail).getId();
+    public ResponseEntity<Object> getTotalBalance(@CurrentUserId Long userId) {
         return ResponseEntity.ok(Map.of("totalBalance", accountService.getTotalBalanceByUserId(userId)));
     }
     
     @GetMapping("/default")
-    public ResponseEntity<AccountDto> getDefaultAccount(Authentication authentication) {
-        String userEmail = authentication.getName();
-        Long userId = userService.getUserEntityByEmail(userEmail).getId();
+    public ResponseEntity<AccountDto> getDefaultAccount(@CurrentUserId Long userId) {
         AccountDto defaultAccount = accountService.getDefaultAccountByUserId(userId);
         return ResponseEntity.ok(defaultAccount);
     }
@@ -96,17 +100,13 @@ public class AccountController {
     @PutMapping("/{accountId}/default")
     public ResponseEntity<AccountDto> setDefaultAccount(
             @PathVariable Long accountId,
-            Authentication authentication) {
-        String userEmail = authentication.getName();
-        Long userId = userService.getUserEntityByEmail(userEmail).getId();
+            @CurrentUserId Long userId) {
         AccountDto defaultAccount = accountService.setDefaultAccount(accountId, userId);
         return ResponseEntity.ok(defaultAccount);
     }
     
     @GetMapping("/stats")
-    public ResponseEntity<Object> getAccountStatistics(Authentication authentication) {
-        String userEmail = authentication.getName();
-        Long userId = userService.getUserEntityByEmail(userEmail).getId();
+    public ResponseEntity<Object> getAccountStatistics(@CurrentUserId Long userId) {
         long totalAccounts = accountService.getAccountCountByUserId(userId);
         
         return ResponseEntity.ok(Map.of(
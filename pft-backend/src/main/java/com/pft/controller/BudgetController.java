@@ -1,16 +1,20 @@
 package com.pft.controller;
 
 import com.pft.dto.BudgetDto;
+import com.pft.entity.UserDataVersion;
+import com.pft.security.CurrentUserId;
 import com.pft.service.BudgetService;
-import com.pft.service.UserService;
+import com.pft.service.DataVersionService;
+import com.pft.service.QueryFanOut;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Future;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
 @RestController
@@ -20,22 +24,19 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 public class BudgetController {
     
     private final BudgetService budgetService;
-    private final UserService userService;
+    private final DataVersionService dataVersionService;
+    private final QueryFanOut queryFanOut;
     
     @GetMapping
-    public ResponseEntity<List<BudgetDto>> getCurrentUserBudgets(Authentication authentication) {
-        String userEmail = authentication.getName();
-        Long userId = userService.getUserEntityByEmail(userEmail).getId();
-        List<BudgetDto> budgets = budgetService.getBudgetsByUserId(userId);
-        return ResponseEntity.ok(budgets);
+    public ResponseEntity<List<BudgetDto>> getCurrentUserBudgets(@CurrentUserId Long userId, WebRequest request) {
+        String eTag = dataVersionService.getETag(userId, UserDataVersion.DataType.BUDGETS);
+        return ConditionalGet.respond(request, eTag, () -> budgetService.getBudgetsByUserId(userId));
     }
     
     @GetMapping("/{budgetId}")
     public ResponseEntity<BudgetDto> getBudgetById(
             @PathVariable Long budgetId,
-            Authentication authentication) {
-        String userEmail = authentication.getName();
-        Long userId = userService.getUserEntityByEmail(userEmail).getId();
+            @CurrentUserId Long userId) {
         BudgetDto budget = budgetService.getBudgetById(budgetId, userId);
         return ResponseEntity.ok(budget);
     }
@@ -43,9 +44,7 @@ public class BudgetController {
     @PostMapping
     public ResponseEntity<BudgetDto> createBudget(
             @RequestBody BudgetDto budgetDto,
-            Authentication authentication) {
-        String userEmail = authentication.getName();
-        Long userId = userService.getUserEntityByEmail(userEmail).getId();
+            @CurrentUserId Long userId) {
         BudgetDto createdBudget = budgetService.createBudget(budgetDto, userId);
         return ResponseEntity.ok(createdBudget);
     }
@@ -54,9 +53,7 @@ public class BudgetController {
     public ResponseEntity<BudgetDto> updateBudget(
             @PathVariable Long budgetId,
             @RequestBody BudgetDto budgetDto,
-            Authentication authentication) {
-        String userEmail = authentication.getName();
-        Long userId = userService.getUserEntityByEmail(userEmail).getId();
+            @CurrentUserId Long userId) {
         BudgetDto updatedBudget = budgetService.updateBudget(budgetId, budgetDto, userId);
         return ResponseEntity.ok(updatedBudget);
     }
@@ -64,33 +61,25 @@ public class BudgetController {
     @DeleteMapping("/{budgetId}")
     public ResponseEntity<Void> deleteBudget(
             @PathVariable Long budgetId,
-            Authentication authentication) {
-        String userEmail = authentication.getName();
-        Long userId = userService.getUserEntityByEmail(userEmail).getId();
+            @CurrentUserId Long userId) {
         budgetService.deleteBudget(budgetId, userId);
         return ResponseEntity.noContent().build();
     }
     
     @GetMapping("/active")
-    public ResponseEntity<List<BudgetDto>> getActiveBudgets(Authentication authentication) {
-        String userEmail = authentication.getName();
-        Long userId = userService.getUserEntityByEmail(userEmail).getId();
+    public ResponseEntity<List<BudgetDto>> getActiveBudgets(@CurrentUserId Long userId) {
         List<BudgetDto> activeBudgets = budgetService.getActiveBudgetsByUserId(userId);
         return ResponseEntity.ok(activeBudgets);
     }
     
     @GetMapping("/over-budget")
-    public ResponseEntity<List<BudgetDto>> getOverBudgetBudgets(Authentication authentication) {
-        String userEmail = authentication.getName();
-        Long userId = userService.getUserEntityByEmail(userEmail).getId();
+    public ResponseEntity<List<BudgetDto>> getOverBudgetBudgets(@CurrentUserId Long userId) {
         List<BudgetDto> overBudgetBudgets = budgetService.getOverBudgetBudgetsByUserId(userId);
         return ResponseEntity.ok(overBudgetBudgets);
     }
     
     @GetMapping("/near-limit")
-    public ResponseEntity<List<BudgetDto>> getBudgetsNearLimit(Authentication authentication) {
-        String userEmail = authentication.getName();
-        Long userId = userService.getUserEntityByEmail(userEmail).getId();
+    public ResponseEntity<List<BudgetDto>> getBudgetsNearLimit(@CurrentUserId Long userId) {
         List<BudgetDto> budgetsNearLimit = budgetService.getBudgetsNearLimitByUserId(userId);
         return ResponseEntity.ok(budgetsNearLimit);
     }
@@ -99,8 +88,7 @@ public class BudgetController {
     public ResponseEntity<Void> addSpentAmount(
             @PathVariable Long budgetId,
             @RequestParam BigDecimal amount,
-            Authentication authentication) {
-        Long userId = Long.valueOf(authentication.getName());
+            @CurrentUserId Long userId) {
         budgetService.addSpentAmount(budgetId, amount, userId);
         return ResponseEntity.ok().build();
     }
@@ -108,36 +96,40 @@ public class BudgetController {
     @PostMapping("/{budgetId}/reset-spent")
     public ResponseEntity<Void> resetSpentAmount(
             @PathVariable Long budgetId,
-            Authentication authentication) {
-        Long userId = Long.valueOf(authentication.getName());
+            @CurrentUserId Long userId) {
         budgetService.resetSpentAmount(budgetId, userId);
         return ResponseEntity.ok().build();
     }
     
+    @PostMapping("/recalculate-spent")
+    public ResponseEntity<Void> recalculateSpentAmounts(@CurrentUserId Long userId) {
+        budgetService.rebuildSpentAmountsByUserId(userId);
+        return ResponseEntity.ok().build();
+    }
+    
     @GetMapping("/search")
     public ResponseEntity<List<BudgetDto>> searchBudgets(
             @RequestParam String name,
-            Authentication authentication) {
-        String userEmail = authentication.getName();
-        Long userId = userService.getUserEntityByEmail(userEmail).getId();
+            @CurrentUserId Long userId) {
         List<BudgetDto> budgets = budgetService.searchBudgetsByName(name);
         return ResponseEntity.ok(budgets);
     }
     
     @GetMapping("/stats")
-    public ResponseEntity<Object> getBudgetStatistics(Authentication authentication) {
-        String userEmail = authentication.getName();
-        Long userId = userService.getUserEntityByEmail(userEmail).getId();
-        long totalBudgets = budgetService.getBudgetCountByUserId(userId);
-        long activeBudgets = budgetService.getActiveBudgetCountByUserId(userId);
-        BigDecimal totalBudgetAmount = budgetService.getTotalBudgetAmountByUserId(userId);
-        BigDecimal totalSpentAmount = budgetService.getTotalSpentAmountByUserId(userId);
-        
-        return ResponseEntity.ok(Map.of(
-            "totalBudgets", totalBudgets,
-            "activeBudgets", activeBudgets,
-            "totalBudgetAmount", totalBudgetAmount,
-            "totalSpentAmount", totalSpentAmount
-        ));
+    public ResponseEntity<Object> getBudgetStatistics(@CurrentUserId Long userId) {
+        try (QueryFanOut.Request fanOut = queryFanOut.start()) {
+            Future<Long> totalBudgets = fanOut.submit(() -> budgetService.getBudgetCountByUserId(userId));
+            Future<Long> activeBudgets = fanOut.submit(() -> budgetService.getActiveBudgetCountByUserId(userId));
+            Future<BigDecimal> totalBudgetAmount = fanOut.submit(() -> budgetService.getTotalBudgetAmountByUserId(userId));
+            Future<BigDecimal> totalSpentAmount = fanOut.submit(() -> budgetService.getTotalSpentAmountByUserId(userId));
+            
+            return ResponseEntity.ok(Map.of(
+                "totalBudgets", fanOut.get(totalBudgets, 0L),
+                "activeBudgets", fanOut.get(activeBudgets, 0L),
+                "totalBudgetAmount", fanOut.get(totalBudgetAmount, BigDecimal.ZERO),
+                "totalSpentAmount", fanOut.get(totalSpentAmount, BigDecimal.ZERO),
+                "partial", fanOut.isPartial()
+            ));
+        }
     }
 } 
\ No newline at end of file
@@ -1,12 +1,14 @@
 package com.pft.controller;
 
 import com.pft.dto.CategoryDto;
+import com.pft.entity.UserDataVersion;
+import com.pft.security.CurrentUserId;
 import com.pft.service.CategoryService;
-import com.pft.service.UserService;
+import com.pft.service.DataVersionService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Map;
@@ -19,22 +21,18 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 public class CategoryController {
     
     private final CategoryService categoryService;
-    private final UserService userService;
+    private final DataVersionService dataVersionService;
     
     @GetMapping
-    public ResponseEntity<List<CategoryDto>> getCurrentUserCategories(Authentication authentication) {
-        String userEmail = authentication.getName();
-        Long userId = userService.getUserEntityByEmail(userEmail).getId();
-        List<CategoryDto> categories = categoryService.getCategoriesByUserId(userId);
-        return ResponseEntity.ok(categories);
+    public ResponseEntity<List<CategoryDto>> getCurrentUserCategories(@CurrentUserId Long userId, WebRequest request) {
+        String eTag = dataVersionService.getETag(userId, UserDataVersion.DataType.CATEGORIES);
+        return ConditionalGet.respond(request, eTag, () -> categoryService.getCategoriesByUserId(userId));
     }
     
     @GetMapping("/{categoryId}")
     public ResponseEntity<CategoryDto> getCategoryById(
             @PathVariable Long categoryId,
-            Authentication authentication) {
-        String userEmail = authentication.getName();
-        Long userId = userService.getUserEntityByEmail(userEmail).getId();
+            @CurrentUserId Long userId) {
         CategoryDto category = categoryService.getCategoryById(categoryId, userId);
         return ResponseEntity.ok(category);
     }
@@ -42,9 +40,7 @@ public class CategoryController {
     @PostMapping
     public ResponseEntity<CategoryDto> createCategory(
             @RequestBody CategoryDto categoryDto,
-            Authentication authentication) {
-        String userEmail = authentication.getName();
-        Long userId = userService.getUserEntityByEmail(userEmail).getId();
+            @CurrentUserId Long userId) {
         CategoryDto createdCategory = categoryService.createCategory(categoryDto, userId);
         return ResponseEntity.ok(createdCategory);
     }
@@ -53,9 +49,7 @@ public class CategoryController {
     public ResponseEntity<CategoryDto> updateCategory(
             @PathVariable Long categoryId,
             @RequestBody CategoryDto categoryDto,
-            Authentication authentication) {
-        String userEmail = authentication.getName();
-        Long userId = userService.getUserEntityByEmail(userEmail).getId();
+            @CurrentUserId Long userId) {
         CategoryDto updatedCategory = categoryService.updateCategory(categoryId, categoryDto, userId);
         return ResponseEntity.ok(updatedCategory);
     }
@@ -63,9 +57,7 @@ public class CategoryController {
     @DeleteMapping("/{categoryId}")
     public ResponseEntity<Void> deleteCategory(
             @PathVariable Long categoryId,
-            Authentication authentication) {
-        String userEmail = authentication.getName();
-        Long userId = userService.getUserEntityByEmail(userEmail).getId();
+            @CurrentUserId Long userId) {
         categoryService.deleteCategory(categoryId, userId);
         return ResponseEntity.noContent().build();
     }
@@ -79,17 +71,13 @@ public class CategoryController {
     @GetMapping("/search")
     public ResponseEntity<List<CategoryDto>> searchCategories(
             @RequestParam String name,
-            Authentication authentication) {
-        String userEmail = authentication.getName();
-        Long userId = userService.getUserEntityByEmail(userEmail).getId();
+            @CurrentUserId Long userId) {
         List<CategoryDto> categories = categoryService.searchCategoriesByName(name);
         return ResponseEntity.ok(categories);
     }
     
     @GetMapping("/stats")
-    public ResponseEntity<Object> getCategoryStatistics(Authentication authentication) {
-        String userEmail = authentication.getName();
-        Long userId = userService.getUserEntityByEmail(userEmail).getId();
+    public ResponseEntity<Object> getCategoryStatistics(@CurrentUserId Long userId) {
         long totalCategories = categoryService.getCategoryCountByUserId(userId);
         
         return ResponseEntity.ok(Map.of(
@@ -0,0 +1,47 @@
+package com.pft.controller;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.function.Supplier;
+
+/**
+ * Conditional GET for list endpoints with a data-version ETag: a request whose If-None-Match
+ * holds the current ETag gets 304 Not Modified and the body is never built.
+ */
+final class ConditionalGet {
+    
+    // Clients may keep the response but must revalidate it before every use
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+    
+    private ConditionalGet() {}
+    
+    static <T> ResponseEntity<T> respond(WebRequest request, String eTag, Supplier<T> body) {
+        if (matches(request.getHeaderValues(HttpHeaders.IF_NONE_MATCH), eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(REVALIDATE).build();
+        }
+        return ResponseEntity.ok().eTag(eTag).cacheControl(REVALIDATE).body(body.get());
+    }
+    
+    private static boolean matches(String[] ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String header : ifNoneMatch) {
+            for (String candidate : header.split(",")) {
+                String tag = candidate.trim();
+                // If-None-Match uses weak comparison, so a weakened copy of the ETag still matches
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                if (tag.equals("*") || tag.equals(eTag)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
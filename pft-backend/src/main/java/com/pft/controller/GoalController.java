@@ -1,12 +1,14 @@
 package com.pft.controller;
 
 import com.pft.dto.GoalDto;
+import com.pft.entity.UserDataVersion;
+import com.pft.security.CurrentUserId;
 import com.pft.service.GoalService;
-import com.pft.service.UserService;
+import com.pft.service.DataVersionService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Map;
@@ -19,22 +21,18 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 public class GoalController {
     
     private final GoalService goalService;
-    private final UserService userService;
+    private final DataVersionService dataVersionService;
     
     @GetMapping
-    public ResponseEntity<List<GoalDto>> getCurrentUserGoals(Authentication authentication) {
-        String userEmail = authentication.getName();
-        Long userId = userService.getUserEntityByEmail(userEmail).getId();
-        List<GoalDto> goals = goalService.getGoalsByUserId(userId);
-        return ResponseEntity.ok(goals);
+    public ResponseEntity<List<GoalDto>> getCurrentUserGoals(@CurrentUserId Long userId, WebRequest request) {
+        String eTag = dataVersionService.getETag(userId, UserDataVersion.DataType.GOALS);
+        return ConditionalGet.respond(request, eTag, () -> goalService.getGoalsByUserId(userId));
     }
     
     @GetMapping("/{goalId}")
     public ResponseEntity<GoalDto> getGoalById(
             @PathVariable Long goalId,
-            Authentication authentication) {
-        String userEmail = authentication.getName();
-        Long userId = userService.getUserEntityByEmail(userEmail).getId();
+            @CurrentUserId Long userId) {
         GoalDto goal = goalService.getGoalById(goalId, userId);
         return ResponseEntity.ok(goal);
     }
@@ -42,9 +40,7 @@ public class GoalController {
     @PostMapping
     public ResponseEntity<GoalDto> createGoal(
             @RequestBody GoalDto goalDto,
-            Authentication authentication) {
-        String userEmail = authentication.getName();
-        Long userId = userService.getUserEntityByEmail(userEmail).getId();
+            @CurrentUserId Long userId) {
         GoalDto createdGoal = goalService.createGoal(goalDto, userId);
         return ResponseEntity.ok(createdGoal);
     }
@@ -53,9 +49,7 @@ public class GoalController {
     public ResponseEntity<GoalDto> updateGoal(
             @PathVariable Long goalId,
             @RequestBody GoalDto goalDto,
-            Authentication authentication) {
-        String userEmail = authentication.getName();
-        Long userId = userService.getUserEntityByEmail(userEmail).getId();
+            @CurrentUserId Long userId) {
         GoalDto updatedGoal = goalService.updateGoal(goalId, goalDto, userId);
         return ResponseEntity.ok(updatedGoal);
     }
@@ -63,33 +57,25 @@ public class GoalController {
     @DeleteMapping("/{goalId}")
     public ResponseEntity<Void> deleteGoal(
             @PathVariable Long goalId,
-            Authentication authentication) {
-        String userEmail = authentication.getName();
-        Long userId = userService.getUserEntityByEmail(userEmail).getId();
+            @CurrentUserId Long userId) {
         goalService.deleteGoal(goalId, userId);
         return ResponseEntity.noContent().build();
     }
     
     @GetMapping("/active")
-    public ResponseEntity<List<GoalDto>> getActiveGoals(Authentication authentication) {
-        String userEmail = authentication.getName();
-        Long userId = userService.getUserEntityByEmail(userEmail).getId();
+    public ResponseEntity<List<GoalDto>> getActiveGoals(@CurrentUserId Long userId) {
         List<GoalDto> activeGoals = goalService.getActiveGoalsByUserId(userId);
         return ResponseEntity.ok(activeGoals);
     }
     
     @GetMapping("/completed")
-    public ResponseEntity<List<GoalDto>> getCompletedGoals(Authentication authentication) {
-        String userEmail = authentication.getName();
-        Long userId = userService.getUserEntityByEmail(userEmail).getId();
+    public ResponseEntity<List<GoalDto>> getCompletedGoals(@CurrentUserId Long userId) {
         List<GoalDto> completedGoals = goalService.getCompletedGoalsByUserId(userId);
         return ResponseEntity.ok(completedGoals);
     }
     
     @GetMapping("/near-completion")
-    public ResponseEntity<List<GoalDto>> getGoalsNearCompletion(Authentication authentication) {
-        String userEmail = authentication.getName();
-        Long userId = userService.getUserEntityByEmail(userEmail).getId();
+    public ResponseEntity<List<GoalDto>> getGoalsNearCompletion(@CurrentUserId Long userId) {
         List<GoalDto> goalsNearCompletion = goalService.getGoalsNearCompletionByUserId(userId);
         return ResponseEntity.ok(goalsNearCompletion);
     }
@@ -97,17 +83,13 @@ public class GoalController {
     @GetMapping("/search")
     public ResponseEntity<List<GoalDto>> searchGoals(
             @RequestParam String name,
-            Authentication authentication) {
-        String userEmail = authentication.getName();
-        Long userId = userService.getUserEntityByEmail(userEmail).getId();
+            @CurrentUserId Long userId) {
         List<GoalDto> goals = goalService.searchGoalsByName(name);
         return ResponseEntity.ok(goals);
     }
     
     @GetMapping("/stats")
-    public ResponseEntity<Object> getGoalStatistics(Authentication authentication) {
-        String userEmail = authentication.getName();
-        Long userId = userService.getUserEntityByEmail(userEmail).getId();
+    public ResponseEntity<Object> getGoalStatistics(@CurrentUserId Long userId) {
         long totalGoals = goalService.getGoalCountByUserId(userId);
         
         return ResponseEntity.ok(Map.of(
@@ -1,13 +1,34 @@
 package com.pft.controller;
 
+import com.pft.dto.CategoryBreakdownDto;
+import com.pft.dto.CursorPageResponse;
 import com.pft.dto.TransactionDto;
+import com.pft.dto.TransactionImportResultDto;
+import com.pft.entity.Transaction;
+import com.pft.entity.UserDataVersion;
+import com.pft.security.CurrentUserId;
+import com.pft.service.CategoryBreakdownService;
+import com.pft.service.DataVersionService;
+import com.pft.service.TransactionExportService;
+import com.pft.service.TransactionImportService;
+import com.pft.service.TransactionSearchService;
 import com.pft.service.TransactionService;
-import com.pft.service.UserService;
+import com.pft.util.Granularity;
+import com.pft.util.StatementFormat;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Slice;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
@@ -20,22 +41,49 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 public class TransactionController {
     
     private final TransactionService transactionService;
-    private final UserService userService;
+    private final TransactionImportService transactionImportService;
+    private final TransactionExportService transactionExportService;
+    private final TransactionSearchService transactionSearchService;
+    private final CategoryBreakdownService categoryBreakdownService;
+    private final DataVersionService dataVersionService;
     
     @GetMapping
-    public ResponseEntity<List<TransactionDto>> getCurrentUserTransactions(Authentication authentication) {
-        String userEmail = authentication.getName();
-        Long userId = userService.getUserEntityByEmail(userEmail).getId();
-        List<TransactionDto> transactions = transactionService.getTransactionsByUserId(userId);
-        return ResponseEntity.ok(transactions);
+    public ResponseEntity<List<TransactionDto>> getCurrentUserTransactions(@CurrentUserId Long userId, WebRequest request) {
+        String eTag = dataVersionService.getETag(userId, UserDataVersion.DataType.TRANSACTIONS);
+        return ConditionalGet.respond(request, eTag, () -> transactionService.getTransactionsByUserId(userId));
+    }
+    
+    @GetMapping("/page")
+    public ResponseEntity<CursorPageResponse<TransactionDto>> getCurrentUserTransactionsPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @CurrentUserId Long userId,
+            WebRequest request) {
+        String eTag = dataVersionService.getETag(userId, UserDataVersion.DataType.TRANSACTIONS);
+        return ConditionalGet.respond(request, eTag,
+                () -> transactionService.getTransactionsByUserIdAfterCursor(userId, cursor, size));
+    }
+    
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) Long accountId,
+            @RequestParam(required = false) LocalDateTime startDate,
+            @RequestParam(required = false) LocalDateTime endDate,
+            @CurrentUserId Long userId) {
+        TransactionExportService.Format exportFormat = TransactionExportService.Format.resolve(format);
+        StreamingResponseBody body = out -> transactionExportService.exportTransactions(
+                userId, accountId, startDate, endDate, exportFormat, out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"transactions." + exportFormat.getExtension() + "\"")
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .body(body);
     }
     
     @GetMapping("/{transactionId}")
     public ResponseEntity<TransactionDto> getTransactionById(
             @PathVariable Long transactionId,
-            Authentication authentication) {
-        String userEmail = authentication.getName();
-        Long userId = userService.getUserEntityByEmail(userEmail).getId();
+            @CurrentUserId Long userId) {
         TransactionDto transaction = transactionService.getTransactionById(transactionId, userId);
         return ResponseEntity.ok(transaction);
     }
@@ -43,20 +91,29 @@ public class TransactionController {
     @PostMapping
     public ResponseEntity<TransactionDto> createTransaction(
             @RequestBody TransactionDto transactionDto,
-            Authentication authentication) {
-        String userEmail = authentication.getName();
-        Long userId = userService.getUserEntityByEmail(userEmail).getId();
+            @CurrentUserId Long userId) {
         TransactionDto createdTransaction = transactionService.createTransaction(transactionDto, userId);
         return ResponseEntity.ok(createdTransaction);
     }
     
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<TransactionImportResultDto> importTransactions(
+            @RequestParam Long accountId,
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(required = false) String format,
+            @CurrentUserId Long userId) throws IOException {
+        StatementFormat statementFormat = StatementFormat.resolve(format, file.getOriginalFilename());
+        try (InputStream in = file.getInputStream()) {
+            TransactionImportResultDto result = transactionImportService.importTransactions(accountId, statementFormat, in, userId);
+            return ResponseEntity.ok(result);
+        }
+    }
+    
     @PutMapping("/{transactionId}")
     public ResponseEntity<TransactionDto> updateTransaction(
             @PathVariable Long transactionId,
             @RequestBody TransactionDto transactionDto,
-            Authentication authentication) {
-        String userEmail = authentication.getName();
-        Long userId = userService.getUserEntityByEmail(userEmail).getId();
+            @CurrentUserId Long userId) {
         TransactionDto updatedTransaction = transactionService.updateTransaction(transactionId, transactionDto, userId);
         return ResponseEntity.ok(updatedTransaction);
     }
@@ -64,9 +121,7 @@ public class TransactionController {
     @DeleteMapping("/{transactionId}")
     public ResponseEntity<Void> deleteTransaction(
             @PathVariable Long transactionId,
-            Authentication authentication) {
-        String userEmail = authentication.getName();
-        Long userId = userService.getUserEntityByEmail(userEmail).getId();
+            @CurrentUserId Long userId) {
         transactionService.deleteTransaction(transactionId, userId);
         return ResponseEntity.noContent().build();
     }
@@ -74,9 +129,7 @@ public class TransactionController {
     @GetMapping("/account/{accountId}")
     public ResponseEntity<List<TransactionDto>> getTransactionsByAccount(
             @PathVariable Long accountId,
-            Authentication authentication) {
-        String userEmail = authentication.getName();
-        Long userId = userService.getUserEntityByEmail(userEmail).getId();
+            @CurrentUserId Long userId) {
         List<TransactionDto> transactions = transactionService.getTransactionsByAccountId(accountId, userId);
         return ResponseEntity.ok(transactions);
     }
@@ -84,9 +137,7 @@ public class TransactionController {
     @GetMapping("/category/{categoryId}")
     public ResponseEntity<List<TransactionDto>> getTransactionsByCategory(
             @PathVariable Long categoryId,
-            Authentication authentication) {
-        String userEmail = authentication.getName();
-        Long userId = userService.getUserEntityByEmail(userEmail).getId();
+            @CurrentUserId Long userId) {
         List<TransactionDto> transactions = transactionService.getTransactionsByUserIdAndCategoryId(userId, categoryId);
         return ResponseEntity.ok(transactions);
     }
@@ -95,9 +146,7 @@ public class TransactionController {
     public ResponseEntity<List<TransactionDto>> getTransactionsByDateRange(
             @RequestParam LocalDateTime startDate,
             @RequestParam LocalDateTime endDate,
-            Authentication authentication) {
-        String userEmail = authentication.getName();
-        Long userId = userService.getUserEntityByEmail(userEmail).getId();
+            @CurrentUserId Long userId) {
         List<TransactionDto> transactions = transactionService.getTransactionsByUserIdAndDateRange(userId, startDate, endDate);
         return ResponseEntity.ok(transactions);
     }
@@ -109,19 +158,32 @@ public class TransactionController {
     }
     
     @GetMapping("/search")
-    public ResponseEntity<List<TransactionDto>> searchTransactions(
-            @RequestParam String description,
-            Authentication authentication) {
-        String userEmail = authentication.getName();
-        Long userId = userService.getUserEntityByEmail(userEmail).getId();
-        List<TransactionDto> transactions = transactionService.searchTransactionsByDescription(description);
+    public ResponseEntity<Slice<TransactionDto>> searchTransactions(
+            @RequestParam(required = false) String q,
+            // Former name of q, still accepted from older clients
+            @RequestParam(required = false) String description,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            @CurrentUserId Long userId) {
+        Slice<TransactionDto> transactions = transactionSearchService.searchTransactions(userId,
+                q != null ? q : description, page, size);
         return ResponseEntity.ok(transactions);
     }
     
+    @GetMapping("/category-breakdown")
+    public ResponseEntity<CategoryBreakdownDto> getCategoryBreakdown(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "month") String granularity,
+            @RequestParam(required = false) Transaction.TransactionType type,
+            @CurrentUserId Long userId) {
+        CategoryBreakdownDto breakdown = categoryBreakdownService.getCategoryBreakdown(userId, from, to,
+                Granularity.resolve(granularity), type);
+        return ResponseEntity.ok(breakdown);
+    }
+    
     @GetMapping("/stats")
-    public ResponseEntity<Object> getTransactionStatistics(Authentication authentication) {
-        String userEmail = authentication.getName();
-        Long userId = userService.getUserEntityByEmail(userEmail).getId();
+    public ResponseEntity<Object> getTransactionStatistics(@CurrentUserId Long userId) {
         long totalTransactions = transactionService.getTransactionCountByUserId(userId);
         
         return ResponseEntity.ok(Map.of(
@@ -1,10 +1,10 @@
 package com.pft.controller;
 
 import com.pft.dto.UserDto;
+import com.pft.security.CurrentUserId;
 import com.pft.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -18,25 +18,22 @@ public class UserController {
     private final UserService userService;
     
     @GetMapping("/profile")
-    public ResponseEntity<UserDto> getCurrentUserProfile(Authentication authentication) {
-        String userEmail = authentication.getName();
-        UserDto userDto = userService.getUserByEmail(userEmail);
+    public ResponseEntity<UserDto> getCurrentUserProfile(@CurrentUserId Long userId) {
+        UserDto userDto = userService.getUserById(userId);
         return ResponseEntity.ok(userDto);
     }
     
     @PutMapping("/profile")
     public ResponseEntity<UserDto> updateCurrentUserProfile(
             @RequestBody UserDto userDto,
-            Authentication authentication) {
-        String userEmail = authentication.getName();
-        UserDto updatedUser = userService.updateUserProfileByEmail(userEmail, userDto);
+            @CurrentUserId Long userId) {
+        UserDto updatedUser = userService.updateUserProfile(userId, userDto);
         return ResponseEntity.ok(updatedUser);
     }
     
     @DeleteMapping("/profile")
-    public ResponseEntity<Void> deleteCurrentUserProfile(Authentication authentication) {
-        String userEmail = authentication.getName();
-        userService.deleteUserByEmail(userEmail);
+    public ResponseEntity<Void> deleteCurrentUserProfile(@CurrentUserId Long userId) {
+        userService.deleteUser(userId);
         return ResponseEntity.noContent().build();
     }
     
@@ -0,0 +1,29 @@
+package com.pft.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+public class AccountBalanceHistoryDto {
+    
+    private Long accountId;
+    private String accountName;
+    private String granularity;
+    private LocalDate from;
+    private LocalDate to;
+    private List<BalancePoint> points;
+    
+    // Closing balance of the period ending on the date (a day, week or month, cut off at the range end)
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class BalancePoint {
+        private LocalDate date;
+        private BigDecimal balance;
+    }
+}
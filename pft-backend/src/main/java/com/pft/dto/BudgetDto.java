@@ -1,5 +1,6 @@
 package com.pft.dto;
 
+import com.pft.entity.AlertState;
 import com.pft.entity.Budget;
 import lombok.Data;
 
@@ -34,6 +35,7 @@ public class BudgetDto {
     private double percentageUsed;
     private boolean isOverBudget;
     private boolean isNearLimit;
+    private AlertState alertState;
     
     public static BudgetDto fromEntity(Budget budget) {
         BudgetDto dto = new BudgetDto();
@@ -54,8 +56,9 @@ public class BudgetDto {
         // Calculate derived fields
         dto.setRemainingAmount(budget.getAmount().subtract(budget.getSpentAmount()));
         dto.setPercentageUsed(budget.getSpentAmount().divide(budget.getAmount(), 4, BigDecimal.ROUND_HALF_UP).multiply(BigDecimal.valueOf(100)).doubleValue());
-        dto.setOverBudget(budget.getSpentAmount().compareTo(budget.getAmount()) > 0);
-        dto.setNearLimit(dto.getPercentageUsed() >= 80.0);
+        dto.setAlertState(budget.getAlertState());
+        dto.setOverBudget(budget.getAlertState() == AlertState.OVER);
+        dto.setNearLimit(budget.getAlertState() != AlertState.NORMAL);
         
         // User info
         if (budget.getUser() != null) {
@@ -0,0 +1,29 @@
+package com.pft.dto;
+
+import com.pft.entity.Transaction;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+public class CategoryBreakdownDto {
+    
+    private LocalDate from;
+    private LocalDate to;
+    private String granularity;
+    private Transaction.TransactionType type; // Null when every type is included
+    private List<Entry> entries;
+    
+    // Totals of one category and type in the period starting on periodStart
+    @Data
+    public static class Entry {
+        private LocalDate periodStart;
+        private Long categoryId; // Null for uncategorized transactions
+        private String categoryName;
+        private Transaction.TransactionType type;
+        private BigDecimal totalAmount = BigDecimal.ZERO;
+        private long transactionCount;
+    }
+}
@@ -0,0 +1,18 @@
+package com.pft.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageResponse<T> {
+    
+    private List<T> content;
+    private String nextCursor; // Opaque token for the next page, null on the last page
+    private boolean hasMore;
+    private int size;
+}
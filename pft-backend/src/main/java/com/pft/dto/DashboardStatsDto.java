@@ -0,0 +1,24 @@
+package com.pft.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+public class DashboardStatsDto {
+
+    private BigDecimal totalBalance;
+    private BigDecimal monthlyIncome;
+    private BigDecimal monthlyExpenses;
+    private BigDecimal netWorth;
+    private long activeBudgets;
+    private long activeGoals;
+
+    private List<TransactionDto> recentTransactions;
+    private List<BudgetDto> budgetAlerts;
+    private List<GoalDto> goalAlerts;
+    
+    // True when some figures could not be loaded in time and hold defaults instead
+    private boolean partial;
+}
@@ -1,10 +1,13 @@
 package com.pft.dto;
 
+import com.pft.entity.AlertState;
 import com.pft.entity.Goal;
 import lombok.Data;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 
 @Data
 public class GoalDto {
@@ -32,6 +35,7 @@ public class GoalDto {
     private boolean isCompleted;
     private boolean isOverdue;
     private boolean isNearCompletion;
+    private AlertState alertState;
     private long daysRemaining;
     
     public static GoalDto fromEntity(Goal goal) {
@@ -53,12 +57,16 @@ public class GoalDto {
         dto.setRemainingAmount(goal.getTargetAmount().subtract(goal.getCurrentAmount()));
         dto.setPercentageComplete(goal.getCurrentAmount().divide(goal.getTargetAmount(), 4, BigDecimal.ROUND_HALF_UP).multiply(BigDecimal.valueOf(100)).doubleValue());
         dto.setCompleted(goal.getStatus() == Goal.GoalStatus.COMPLETED);
-        dto.setOverdue(goal.getTargetDate().isBefore(LocalDateTime.now()) && goal.getStatus() == Goal.GoalStatus.ACTIVE);
-        dto.setNearCompletion(dto.getPercentageComplete() >= 80.0);
+        // Derived from today's date only, never the time of day: goal ETags carry the date, so
+        // these fields must not change between midnights
+        LocalDate today = LocalDate.now();
+        dto.setOverdue(goal.getTargetDate().toLocalDate().isBefore(today) && goal.getStatus() == Goal.GoalStatus.ACTIVE);
+        dto.setAlertState(goal.getAlertState());
+        dto.setNearCompletion(goal.getAlertState() != AlertState.NORMAL);
         
         // Calculate days remaining
         if (goal.getTargetDate() != null && goal.getStatus() == Goal.GoalStatus.ACTIVE) {
-            dto.setDaysRemaining(java.time.Duration.between(LocalDateTime.now(), goal.getTargetDate()).toDays());
+            dto.setDaysRemaining(ChronoUnit.DAYS.between(today, goal.getTargetDate().toLocalDate()));
         }
         
         // User info
@@ -34,6 +34,19 @@ public class TransactionDto {
     private String userFullName;
     
     public static TransactionDto fromEntity(Transaction transaction) {
+        return fromEntity(transaction,
+                transaction.getAccount() != null ? transaction.getAccount().getName() : null,
+                transaction.getCategory() != null ? transaction.getCategory().getName() : null,
+                transaction.getToAccount() != null ? transaction.getToAccount().getName() : null,
+                transaction.getUser() != null ? transaction.getUser().getFullName() : null);
+    }
+    
+    /**
+     * Maps a transaction whose relationships may be uninitialized references, taking their
+     * names from the caller so that mapping loads nothing.
+     */
+    public static TransactionDto fromEntity(Transaction transaction, String accountName, String categoryName,
+                                            String toAccountName, String userFullName) {
         TransactionDto dto = new TransactionDto();
         dto.setId(transaction.getId());
         dto.setDescription(transaction.getDescription());
@@ -52,25 +65,25 @@ public class TransactionDto {
         // Account info
         if (transaction.getAccount() != null) {
             dto.setAccountId(transaction.getAccount().getId());
-            dto.setAccountName(transaction.getAccount().getName());
+            dto.setAccountName(accountName);
         }
         
         // Category info
         if (transaction.getCategory() != null) {
             dto.setCategoryId(transaction.getCategory().getId());
-            dto.setCategoryName(transaction.getCategory().getName());
+            dto.setCategoryName(categoryName);
         }
         
         // To Account info (for transfers)
         if (transaction.getToAccount() != null) {
             dto.setToAccountId(transaction.getToAccount().getId());
-            dto.setToAccountName(transaction.getToAccount().getName());
+            dto.setToAccountName(toAccountName);
         }
         
         // User info
-        if (transaction.getAccount() != null && transaction.getAccount().getUser() != null) {
-            dto.setUserId(transaction.getAccount().getUser().getId());
-            dto.setUserFullName(transaction.getAccount().getUser().getFullName());
+        if (transaction.getUser() != null) {
+            dto.setUserId(transaction.getUser().getId());
+            dto.setUserFullName(userFullName);
         }
         
         return dto;
@@ -0,0 +1,15 @@
+package com.pft.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+public class TransactionImportResultDto {
+    
+    private Long accountId;
+    private long importedCount;
+    private BigDecimal totalIncome;
+    private BigDecimal totalExpenses;
+    private BigDecimal balanceChange;
+}
@@ -13,7 +13,9 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "accounts")
+@Table(name = "accounts", indexes = {
+        @Index(name = "idx_accounts_user_status", columnList = "user_id, status")
+})
 @EntityListeners(AuditingEntityListener.class)
 public class Account {
     
@@ -63,15 +65,19 @@ public class Account {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
-    // Relationships
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+    
+    // Relationships (no cascades: children are removed with bulk deletes)
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
     
-    @OneToMany(mappedBy = "account", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @OneToMany(mappedBy = "account", fetch = FetchType.LAZY)
     private List<Transaction> transactions = new ArrayList<>();
     
-    @OneToMany(mappedBy = "toAccount", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @OneToMany(mappedBy = "toAccount", fetch = FetchType.LAZY)
     private List<Transaction> incomingTransfers = new ArrayList<>();
     
     // Constructors
@@ -190,6 +196,14 @@ public class Account {
         this.updatedAt = updatedAt;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
     public User getUser() {
         return user;
     }
@@ -218,6 +232,7 @@ public class Account {
     public void addTransaction(Transaction transaction) {
         transactions.add(transaction);
         transaction.setAccount(this);
+        transaction.setUser(user);
     }
     
     public void updateBalance(BigDecimal amount) {
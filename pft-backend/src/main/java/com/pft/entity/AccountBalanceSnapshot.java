@@ -0,0 +1,67 @@
+package com.pft.entity;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Closing balance of an account at the end of a day. Rows are derived from the transactions
+ * table and only exist for days the balance changed, plus the last day covered, so they carry
+ * a plain account id rather than a relationship.
+ */
+@Entity
+@Table(name = "account_balance_snapshots", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_account_balance_snapshots_key", columnNames = {"account_id", "balance_date"})
+})
+public class AccountBalanceSnapshot {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+    
+    @Column(name = "balance_date", nullable = false)
+    private LocalDate balanceDate;
+    
+    @Column(name = "balance", nullable = false, precision = 19, scale = 2)
+    private BigDecimal balance;
+    
+    // Constructors
+    public AccountBalanceSnapshot() {}
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getAccountId() {
+        return accountId;
+    }
+    
+    public void setAccountId(Long accountId) {
+        this.accountId = accountId;
+    }
+    
+    public LocalDate getBalanceDate() {
+        return balanceDate;
+    }
+    
+    public void setBalanceDate(LocalDate balanceDate) {
+        this.balanceDate = balanceDate;
+    }
+    
+    public BigDecimal getBalance() {
+        return balance;
+    }
+    
+    public void setBalance(BigDecimal balance) {
+        this.balance = balance;
+    }
+}
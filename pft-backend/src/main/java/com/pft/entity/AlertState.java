@@ -0,0 +1,22 @@
+package com.pft.entity;
+
+/**
+ * Alert level of a budget (spending against its alert threshold and limit) or a goal (progress
+ * towards its target). Stored with the row and recomputed whenever the amounts it depends on
+ * change, so alert listings are index lookups.
+ */
+public enum AlertState {
+    NORMAL("Normal"),
+    NEAR_LIMIT("Near limit"),
+    OVER("Over");
+    
+    private final String displayName;
+    
+    AlertState(String displayName) {
+        this.displayName = displayName;
+    }
+    
+    public String getDisplayName() {
+        return displayName;
+    }
+}
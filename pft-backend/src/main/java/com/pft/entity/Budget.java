@@ -11,10 +11,16 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "budgets")
+@Table(name = "budgets", indexes = {
+        @Index(name = "idx_budgets_user_status_active", columnList = "user_id, status, is_active"),
+        @Index(name = "idx_budgets_category", columnList = "category_id"),
+        @Index(name = "idx_budgets_alert_state", columnList = "alert_state, user_id")
+})
 @EntityListeners(AuditingEntityListener.class)
 public class Budget {
     
+    public static final int DEFAULT_ALERT_THRESHOLD = 80;
+    
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -47,7 +53,11 @@ public class Budget {
     private String color = "#10B981"; // Default green color
     
     @Column(name = "alert_threshold")
-    private Integer alertThreshold = 80; // Percentage
+    private Integer alertThreshold = DEFAULT_ALERT_THRESHOLD; // Percentage
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "alert_state", nullable = false)
+    private AlertState alertState = AlertState.NORMAL;
     
     @Column(name = "is_active")
     private boolean isActive = true;
@@ -176,6 +186,14 @@ public class Budget {
         this.alertThreshold = alertThreshold;
     }
     
+    public AlertState getAlertState() {
+        return alertState;
+    }
+    
+    public void setAlertState(AlertState alertState) {
+        this.alertState = alertState;
+    }
+    
     public boolean isActive() {
         return isActive;
     }
@@ -245,6 +263,29 @@ public class Budget {
         return getSpentPercentage().compareTo(BigDecimal.valueOf(alertThreshold)) >= 0;
     }
     
+    /**
+     * The alert state the current amounts call for, which may differ from the stored one.
+     */
+    public AlertState calculateAlertState() {
+        return alertStateOf(spentAmount, amount, alertThreshold);
+    }
+    
+    /**
+     * Over once spending exceeds the amount, near the limit from the alert threshold (a
+     * percentage of the amount) on. BudgetRepository#STALE_ALERT_STATE applies the same rule in
+     * queries; V9 backfilled the stored states once with it.
+     */
+    public static AlertState alertStateOf(BigDecimal spentAmount, BigDecimal amount, Integer alertThreshold) {
+        if (spentAmount.compareTo(amount) > 0) {
+            return AlertState.OVER;
+        }
+        int threshold = alertThreshold != null ? alertThreshold : DEFAULT_ALERT_THRESHOLD;
+        if (spentAmount.multiply(BigDecimal.valueOf(100)).compareTo(amount.multiply(BigDecimal.valueOf(threshold))) >= 0) {
+            return AlertState.NEAR_LIMIT;
+        }
+        return AlertState.NORMAL;
+    }
+    
     public boolean isActiveBudget() {
         return isActive && status == BudgetStatus.ACTIVE;
     }
@@ -11,7 +11,10 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "categories")
+@Table(name = "categories", indexes = {
+        @Index(name = "idx_categories_user_status", columnList = "user_id, status"),
+        @Index(name = "idx_categories_user_name", columnList = "user_id, name")
+})
 @EntityListeners(AuditingEntityListener.class)
 public class Category {
     
@@ -51,15 +54,15 @@ public class Category {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
-    // Relationships
+    // Relationships (no cascades: children are removed with bulk deletes)
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
     
-    @OneToMany(mappedBy = "category", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @OneToMany(mappedBy = "category", fetch = FetchType.LAZY)
     private List<Transaction> transactions = new ArrayList<>();
     
-    @OneToMany(mappedBy = "category", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @OneToMany(mappedBy = "category", fetch = FetchType.LAZY)
     private List<Budget> budgets = new ArrayList<>();
     
     // Constructors
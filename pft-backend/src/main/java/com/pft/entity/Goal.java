@@ -11,10 +11,15 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "goals")
+@Table(name = "goals", indexes = {
+        @Index(name = "idx_goals_user_status", columnList = "user_id, status"),
+        @Index(name = "idx_goals_alert_state", columnList = "alert_state, user_id")
+})
 @EntityListeners(AuditingEntityListener.class)
 public class Goal {
     
+    public static final int NEAR_COMPLETION_PERCENTAGE = 80;
+    
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -53,6 +58,10 @@ public class Goal {
     @Column(nullable = false)
     private GoalStatus status = GoalStatus.ACTIVE;
     
+    @Enumerated(EnumType.STRING)
+    @Column(name = "alert_state", nullable = false)
+    private AlertState alertState = AlertState.NORMAL;
+    
     @CreatedDate
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -174,6 +183,14 @@ public class Goal {
         this.status = status;
     }
     
+    public AlertState getAlertState() {
+        return alertState;
+    }
+    
+    public void setAlertState(AlertState alertState) {
+        this.alertState = alertState;
+    }
+    
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -215,6 +232,27 @@ public class Goal {
         return currentAmount.compareTo(targetAmount) >= 0;
     }
     
+    /**
+     * The alert state the current amounts call for, which may differ from the stored one.
+     */
+    public AlertState calculateAlertState() {
+        return alertStateOf(currentAmount, targetAmount);
+    }
+    
+    /**
+     * Over once the target is reached, near the limit from NEAR_COMPLETION_PERCENTAGE of it on.
+     */
+    public static AlertState alertStateOf(BigDecimal currentAmount, BigDecimal targetAmount) {
+        if (currentAmount.compareTo(targetAmount) >= 0) {
+            return AlertState.OVER;
+        }
+        if (currentAmount.multiply(BigDecimal.valueOf(100))
+                .compareTo(targetAmount.multiply(BigDecimal.valueOf(NEAR_COMPLETION_PERCENTAGE))) >= 0) {
+            return AlertState.NEAR_LIMIT;
+        }
+        return AlertState.NORMAL;
+    }
+    
     public boolean isOverdue() {
         return targetDate != null && LocalDateTime.now().isAfter(targetDate) && !isCompleted();
     }
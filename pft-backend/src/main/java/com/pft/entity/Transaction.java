@@ -8,14 +8,23 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+        @Index(name = "idx_transactions_user_date", columnList = "user_id, transaction_date, id"),
+        @Index(name = "idx_transactions_user_category", columnList = "user_id, category_id"),
+        @Index(name = "idx_transactions_account_date", columnList = "account_id, transaction_date, id"),
+        @Index(name = "idx_transactions_category", columnList = "category_id"),
+        @Index(name = "idx_transactions_recurring_next_date", columnList = "is_recurring, next_recurring_date")
+})
 @EntityListeners(AuditingEntityListener.class)
 public class Transaction {
     
+    // Sequence ids (allocated 50 at a time) let Hibernate batch inserts, which IDENTITY prevents
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transactions_id_seq")
+    @SequenceGenerator(name = "transactions_id_seq", sequenceName = "transactions_id_seq", allocationSize = 50)
     private Long id;
     
     @NotNull(message = "Amount is required")
@@ -48,6 +57,17 @@ public class Transaction {
     @Column(name = "next_recurring_date")
     private LocalDateTime nextRecurringDate;
     
+    // Occurrence 0 of the schedule; later occurrences are stepped from it, see RecurringFrequency
+    @Column(name = "recurring_anchor_date")
+    private LocalDateTime recurringAnchorDate;
+    
+    // Runs of the schedule that failed since it last ran, and when the latest one did
+    @Column(name = "recurring_failures", nullable = false)
+    private int recurringFailures = 0;
+    
+    @Column(name = "recurring_failed_at")
+    private LocalDateTime recurringFailedAt;
+    
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private TransactionStatus status = TransactionStatus.COMPLETED;
@@ -65,6 +85,11 @@ public class Transaction {
     @JoinColumn(name = "account_id", nullable = false)
     private Account account;
     
+    // Owner of the account, denormalized so user-scoped queries do not join through accounts
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+    
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id")
     private Category category;
@@ -83,6 +108,7 @@ public class Transaction {
         this.type = type;
         this.transactionDate = transactionDate;
         this.account = account;
+        this.user = account != null ? account.getUser() : null;
     }
     
     public Transaction(BigDecimal amount, String description, TransactionType type, 
@@ -92,6 +118,7 @@ public class Transaction {
         this.type = type;
         this.transactionDate = transactionDate;
         this.account = account;
+        this.user = account != null ? account.getUser() : null;
         this.category = category;
     }
     
@@ -176,6 +203,30 @@ public class Transaction {
         this.nextRecurringDate = nextRecurringDate;
     }
     
+    public LocalDateTime getRecurringAnchorDate() {
+        return recurringAnchorDate;
+    }
+    
+    public void setRecurringAnchorDate(LocalDateTime recurringAnchorDate) {
+        this.recurringAnchorDate = recurringAnchorDate;
+    }
+    
+    public int getRecurringFailures() {
+        return recurringFailures;
+    }
+    
+    public void setRecurringFailures(int recurringFailures) {
+        this.recurringFailures = recurringFailures;
+    }
+    
+    public LocalDateTime getRecurringFailedAt() {
+        return recurringFailedAt;
+    }
+    
+    public void setRecurringFailedAt(LocalDateTime recurringFailedAt) {
+        this.recurringFailedAt = recurringFailedAt;
+    }
+    
     public TransactionStatus getStatus() {
         return status;
     }
@@ -208,6 +259,14 @@ public class Transaction {
         this.account = account;
     }
     
+    public User getUser() {
+        return user;
+    }
+    
+    public void setUser(User user) {
+        this.user = user;
+    }
+    
     public Category getCategory() {
         return category;
     }
@@ -315,19 +374,46 @@ public class Transaction {
     
     // Recurring Frequency Enum
     public enum RecurringFrequency {
-        DAILY("Daily"),
-        WEEKLY("Weekly"),
-        MONTHLY("Monthly"),
-        YEARLY("Yearly");
+        DAILY("Daily", ChronoUnit.DAYS),
+        WEEKLY("Weekly", ChronoUnit.WEEKS),
+        MONTHLY("Monthly", ChronoUnit.MONTHS),
+        YEARLY("Yearly", ChronoUnit.YEARS);
         
         private final String displayName;
+        private final ChronoUnit unit;
         
-        RecurringFrequency(String displayName) {
+        RecurringFrequency(String displayName, ChronoUnit unit) {
             this.displayName = displayName;
+            this.unit = unit;
         }
         
         public String getDisplayName() {
             return displayName;
         }
+        
+        /**
+         * Returns the n-th occurrence after start. Stepping from the same start avoids the
+         * drift of repeatedly adding a month (Jan 31 -> Feb 28 -> Mar 28), as long as the
+         * start is kept rather than replaced by the last occurrence.
+         */
+        public LocalDateTime occurrence(LocalDateTime start, long n) {
+            return start.plus(n, unit);
+        }
+        
+        /**
+         * Returns n such that occurrence(start, n) is the given date, or -1 when the date is not
+         * an occurrence after start.
+         */
+        public long indexOf(LocalDateTime start, LocalDateTime date) {
+            if (date.isBefore(start)) {
+                return -1;
+            }
+            // between() undercounts clipped month ends (Jan 31 to Feb 28 is 0 months)
+            long n = unit.between(start, date);
+            while (occurrence(start, n).isBefore(date)) {
+                n++;
+            }
+            return occurrence(start, n).equals(date) ? n : -1;
+        }
     }
 } 
\ No newline at end of file
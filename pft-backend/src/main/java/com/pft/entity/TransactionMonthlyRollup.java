@@ -0,0 +1,132 @@
+package com.pft.entity;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+/**
+ * Running totals of a user's transactions per calendar month, category and type. Rows are
+ * derived from the transactions table and kept in step by the write paths, so they carry
+ * plain ids rather than relationships.
+ */
+@Entity
+@Table(name = "transaction_monthly_rollup", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_transaction_monthly_rollup_key",
+                columnNames = {"user_id", "year_month", "category_id", "type"})
+})
+public class TransactionMonthlyRollup {
+    
+    // Category id stored for uncategorized transactions, so the key never contains a null
+    public static final long NO_CATEGORY = 0L;
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+    
+    // Calendar month as yyyymm, e.g. 202403
+    @Column(name = "year_month", nullable = false)
+    private Integer yearMonth;
+    
+    @Column(name = "category_id", nullable = false)
+    private Long categoryId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", nullable = false)
+    private Transaction.TransactionType type;
+    
+    @Column(name = "total_amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalAmount = BigDecimal.ZERO;
+    
+    @Column(name = "transaction_count", nullable = false)
+    private Long transactionCount = 0L;
+    
+    // Set when the month's transactions were archived; rebuilds keep the row as it is
+    @Column(name = "archived", nullable = false)
+    private boolean archived = false;
+    
+    // Constructors
+    public TransactionMonthlyRollup() {}
+    
+    // Helper methods
+    public static int toYearMonth(YearMonth month) {
+        return month.getYear() * 100 + month.getMonthValue();
+    }
+    
+    public static int toYearMonth(LocalDateTime dateTime) {
+        return toYearMonth(YearMonth.from(dateTime));
+    }
+    
+    public static long toCategoryId(Category category) {
+        return category != null ? category.getId() : NO_CATEGORY;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+    
+    public Integer getYearMonth() {
+        return yearMonth;
+    }
+    
+    public void setYearMonth(Integer yearMonth) {
+        this.yearMonth = yearMonth;
+    }
+    
+    public Long getCategoryId() {
+        return categoryId;
+    }
+    
+    public void setCategoryId(Long categoryId) {
+        this.categoryId = categoryId;
+    }
+    
+    public Transaction.TransactionType getType() {
+        return type;
+    }
+    
+    public void setType(Transaction.TransactionType type) {
+        this.type = type;
+    }
+    
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+    
+    public void setTotalAmount(BigDecimal totalAmount) {
+        this.totalAmount = totalAmount;
+    }
+    
+    public Long getTransactionCount() {
+        return transactionCount;
+    }
+    
+    public void setTransactionCount(Long transactionCount) {
+        this.transactionCount = transactionCount;
+    }
+    
+    public boolean isArchived() {
+        return archived;
+    }
+    
+    public void setArchived(boolean archived) {
+        this.archived = archived;
+    }
+}
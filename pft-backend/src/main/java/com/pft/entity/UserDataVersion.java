@@ -0,0 +1,100 @@
+package com.pft.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * Change counters for one user's data, one per entity type. A counter only ever increases,
+ * in the same transaction as the write it records, so an unchanged counter means the
+ * corresponding list endpoints would return the same data.
+ */
+@Entity
+@Table(name = "user_data_versions")
+public class UserDataVersion {
+    
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+    
+    @Column(name = "accounts_version", nullable = false)
+    private Long accountsVersion = 0L;
+    
+    @Column(name = "categories_version", nullable = false)
+    private Long categoriesVersion = 0L;
+    
+    @Column(name = "transactions_version", nullable = false)
+    private Long transactionsVersion = 0L;
+    
+    @Column(name = "budgets_version", nullable = false)
+    private Long budgetsVersion = 0L;
+    
+    @Column(name = "goals_version", nullable = false)
+    private Long goalsVersion = 0L;
+    
+    // Constructors
+    public UserDataVersion() {}
+    
+    // Helper methods
+    public long getVersion(DataType type) {
+        return switch (type) {
+            case ACCOUNTS -> accountsVersion;
+            case CATEGORIES -> categoriesVersion;
+            case TRANSACTIONS -> transactionsVersion;
+            case BUDGETS -> budgetsVersion;
+            case GOALS -> goalsVersion;
+        };
+    }
+    
+    // Getters and Setters
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+    
+    public Long getAccountsVersion() {
+        return accountsVersion;
+    }
+    
+    public void setAccountsVersion(Long accountsVersion) {
+        this.accountsVersion = accountsVersion;
+    }
+    
+    public Long getCategoriesVersion() {
+        return categoriesVersion;
+    }
+    
+    public void setCategoriesVersion(Long categoriesVersion) {
+        this.categoriesVersion = categoriesVersion;
+    }
+    
+    public Long getTransactionsVersion() {
+        return transactionsVersion;
+    }
+    
+    public void setTransactionsVersion(Long transactionsVersion) {
+        this.transactionsVersion = transactionsVersion;
+    }
+    
+    public Long getBudgetsVersion() {
+        return budgetsVersion;
+    }
+    
+    public void setBudgetsVersion(Long budgetsVersion) {
+        this.budgetsVersion = budgetsVersion;
+    }
+    
+    public Long getGoalsVersion() {
+        return goalsVersion;
+    }
+    
+    public void setGoalsVersion(Long goalsVersion) {
+        this.goalsVersion = goalsVersion;
+    }
+    
+    // Data Type Enum
+    public enum DataType {
+        ACCOUNTS, CATEGORIES, TRANSACTIONS, BUDGETS, GOALS
+    }
+}
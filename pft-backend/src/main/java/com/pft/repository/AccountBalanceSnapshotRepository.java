@@ -0,0 +1,95 @@
+package com.pft.repository;
+
+import com.pft.entity.AccountBalanceSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AccountBalanceSnapshotRepository extends JpaRepository<AccountBalanceSnapshot, Long> {
+    
+    /**
+     * Balance change of an account per transaction in [:fromDate, :toDate), as
+     * TransactionService#updateAccountBalance applies it: the signed amount on the account, and
+     * the amount on the destination account of a transfer
+     */
+    String BALANCE_CHANGES =
+            "SELECT CAST(t.transaction_date AS DATE) AS balance_date, " +
+            "CASE t.type WHEN 'INCOME' THEN ABS(t.amount) WHEN 'EXPENSE' THEN -ABS(t.amount) ELSE t.amount END AS amount " +
+            "FROM transactions t " +
+            "WHERE t.account_id = :accountId AND t.transaction_date >= :fromDate AND t.transaction_date < :toDate " +
+            "UNION ALL " +
+            "SELECT CAST(t.transaction_date AS DATE), t.amount FROM transactions t " +
+            "WHERE t.to_account_id = :accountId AND t.type = 'TRANSFER' " +
+            "AND t.transaction_date >= :fromDate AND t.transaction_date < :toDate";
+    
+    /**
+     * Find the latest snapshot of an account on or before a date
+     */
+    Optional<AccountBalanceSnapshot> findFirstByAccountIdAndBalanceDateLessThanEqualOrderByBalanceDateDesc(Long accountId, LocalDate balanceDate);
+    
+    /**
+     * Find the snapshots of an account in an inclusive date range
+     */
+    List<AccountBalanceSnapshot> findByAccountIdAndBalanceDateBetweenOrderByBalanceDate(Long accountId, LocalDate startDate, LocalDate endDate);
+    
+    /**
+     * Get the last day covered by an account's snapshots, or null when it has none
+     */
+    @Query("SELECT MAX(s.balanceDate) FROM AccountBalanceSnapshot s WHERE s.accountId = :accountId")
+    LocalDate findLatestBalanceDate(@Param("accountId") Long accountId);
+    
+    /**
+     * Store the closing balance of every day in [:fromDate, :toDate) with transactions, and of
+     * :lastDate (the last day before :toDate), as a running total from an opening balance
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO account_balance_snapshots (account_id, balance_date, balance) " +
+                   "SELECT :accountId, d.balance_date, :openingBalance + SUM(d.amount) OVER (ORDER BY d.balance_date) " +
+                   "FROM (SELECT c.balance_date, SUM(c.amount) AS amount FROM (" + BALANCE_CHANGES + " " +
+                   "UNION ALL SELECT CAST(:lastDate AS DATE), 0) c GROUP BY c.balance_date) d " +
+                   "ON CONFLICT DO NOTHING",
+           nativeQuery = true)
+    int insertDailyBalances(@Param("accountId") Long accountId,
+                            @Param("openingBalance") BigDecimal openingBalance,
+                            @Param("fromDate") LocalDateTime fromDate,
+                            @Param("toDate") LocalDateTime toDate,
+                            @Param("lastDate") LocalDate lastDate);
+    
+    /**
+     * Get the balance change of an account from its transactions in [:fromDate, :toDate)
+     */
+    @Query(value = "SELECT COALESCE(SUM(c.amount), 0) FROM (" + BALANCE_CHANGES + ") c", nativeQuery = true)
+    BigDecimal getBalanceChange(@Param("accountId") Long accountId,
+                                @Param("fromDate") LocalDateTime fromDate,
+                                @Param("toDate") LocalDateTime toDate);
+    
+    /**
+     * Delete the snapshots of an account from a date on
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM AccountBalanceSnapshot s WHERE s.accountId = :accountId AND s.balanceDate >= :fromDate")
+    int deleteFromDate(@Param("accountId") Long accountId, @Param("fromDate") LocalDate fromDate);
+    
+    /**
+     * Delete every snapshot of an account
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM AccountBalanceSnapshot s WHERE s.accountId = :accountId")
+    int deleteByAccountId(@Param("accountId") Long accountId);
+    
+    /**
+     * Delete every snapshot of a user's accounts
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM AccountBalanceSnapshot s WHERE s.accountId IN (SELECT a.id FROM Account a WHERE a.user.id = :userId)")
+    int deleteByUserId(@Param("userId") Long userId);
+}
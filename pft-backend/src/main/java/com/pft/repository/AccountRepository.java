@@ -1,12 +1,15 @@
 package com.pft.repository;
 
 import com.pft.entity.Account;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,37 +19,44 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
     /**
      * Find accounts by user ID
      */
+    @EntityGraph(attributePaths = {"user"})
     List<Account> findByUserId(Long userId);
     
     /**
      * Find accounts by user ID and status
      */
+    @EntityGraph(attributePaths = {"user"})
     List<Account> findByUserIdAndStatus(Long userId, Account.AccountStatus status);
     
     /**
      * Find accounts by type
      */
+    @EntityGraph(attributePaths = {"user"})
     List<Account> findByType(Account.AccountType type);
     
     /**
      * Find default account for a user
      */
+    @EntityGraph(attributePaths = {"user"})
     Optional<Account> findByUserIdAndIsDefaultTrue(Long userId);
     
     /**
      * Find accounts by institution name
      */
+    @EntityGraph(attributePaths = {"user"})
     List<Account> findByInstitutionNameContainingIgnoreCase(String institutionName);
     
     /**
      * Find accounts with balance greater than specified amount
      */
+    @EntityGraph(attributePaths = {"user"})
     @Query("SELECT a FROM Account a WHERE a.currentBalance > :amount")
     List<Account> findAccountsWithBalanceGreaterThan(@Param("amount") BigDecimal amount);
     
     /**
      * Find accounts with balance less than specified amount
      */
+    @EntityGraph(attributePaths = {"user"})
     @Query("SELECT a FROM Account a WHERE a.currentBalance < :amount")
     List<Account> findAccountsWithBalanceLessThan(@Param("amount") BigDecimal amount);
     
@@ -56,6 +66,35 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
     @Query("SELECT COALESCE(SUM(a.currentBalance), 0) FROM Account a WHERE a.user.id = :userId AND a.status = 'ACTIVE'")
     BigDecimal getTotalBalanceByUserId(@Param("userId") Long userId);
     
+    /**
+     * Atomically add a delta to an account's current balance, bumping its version; clears the
+     * persistence context, so no stale balance or version is read or written back afterwards
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Account a SET a.currentBalance = a.currentBalance + :delta, a.version = a.version + 1, " +
+           "a.updatedAt = :updatedAt WHERE a.id = :accountId")
+    int adjustBalance(@Param("accountId") Long accountId,
+                      @Param("delta") BigDecimal delta,
+                      @Param("updatedAt") LocalDateTime updatedAt);
+    
+    /**
+     * Atomically add a delta to an account's current balance if the balance is at least the given
+     * minimum; clears the persistence context like adjustBalance
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Account a SET a.currentBalance = a.currentBalance + :delta, a.version = a.version + 1, " +
+           "a.updatedAt = :updatedAt WHERE a.id = :accountId AND a.currentBalance >= :minimumBalance")
+    int adjustBalanceIfAtLeast(@Param("accountId") Long accountId,
+                               @Param("delta") BigDecimal delta,
+                               @Param("minimumBalance") BigDecimal minimumBalance,
+                               @Param("updatedAt") LocalDateTime updatedAt);
+    
+    /**
+     * Lock an account row until the end of the transaction
+     */
+    @Query(value = "SELECT id FROM accounts WHERE id = :accountId FOR UPDATE", nativeQuery = true)
+    Long lockById(@Param("accountId") Long accountId);
+    
     /**
      * Count accounts by user ID
      */
@@ -69,6 +108,25 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
     /**
      * Find active accounts by user ID
      */
+    @EntityGraph(attributePaths = {"user"})
     @Query("SELECT a FROM Account a WHERE a.user.id = :userId AND a.status = 'ACTIVE'")
     List<Account> findActiveAccountsByUserId(@Param("userId") Long userId);
+    
+    /**
+     * Find the accounts with IDs in an inclusive range
+     */
+    List<Account> findByIdBetween(Long fromId, Long toId);
+    
+    /**
+     * Get the highest account ID, or 0 when there are no accounts
+     */
+    @Query("SELECT COALESCE(MAX(a.id), 0) FROM Account a")
+    long findMaxId();
+    
+    /**
+     * Delete every account of a user
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM Account a WHERE a.user.id = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
 } 
\ No newline at end of file
@@ -1,7 +1,11 @@
 package com.pft.repository;
 
+import com.pft.entity.AlertState;
 import com.pft.entity.Budget;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -14,62 +18,104 @@ import java.util.Optional;
 @Repository
 public interface BudgetRepository extends JpaRepository<Budget, Long> {
     
+    /**
+     * Matches budgets whose stored alert state differs from what their amounts call for; the
+     * rule of Budget#alertStateOf in JPQL, which BudgetServiceTest checks at its boundaries
+     */
+    String STALE_ALERT_STATE = "b.alertState <> CASE " +
+            "WHEN b.spentAmount > b.amount THEN 'OVER' " +
+            "WHEN b.spentAmount * 100 >= b.amount * COALESCE(b.alertThreshold, " + Budget.DEFAULT_ALERT_THRESHOLD + ") " +
+            "THEN 'NEAR_LIMIT' ELSE 'NORMAL' END";
+    
     /**
      * Find budgets by user ID
      */
+    @EntityGraph(attributePaths = {"user", "category"})
     List<Budget> findByUserId(Long userId);
     
     /**
      * Find budgets by user ID and status
      */
+    @EntityGraph(attributePaths = {"user", "category"})
     List<Budget> findByUserIdAndStatus(Long userId, Budget.BudgetStatus status);
     
     /**
      * Find budgets by user ID and period
      */
+    @EntityGraph(attributePaths = {"user", "category"})
     List<Budget> findByUserIdAndPeriod(Long userId, Budget.BudgetPeriod period);
     
     /**
      * Find budgets by category ID
      */
+    @EntityGraph(attributePaths = {"user", "category"})
     List<Budget> findByCategoryId(Long categoryId);
     
     /**
      * Find active budgets by user ID
      */
+    @EntityGraph(attributePaths = {"user", "category"})
     @Query("SELECT b FROM Budget b WHERE b.user.id = :userId AND b.isActive = true AND b.status = 'ACTIVE'")
     List<Budget> findActiveBudgetsByUserId(@Param("userId") Long userId);
     
     /**
      * Find budgets by user ID and date range
      */
+    @EntityGraph(attributePaths = {"user", "category"})
     @Query("SELECT b FROM Budget b WHERE b.user.id = :userId AND b.startDate <= :endDate AND (b.endDate IS NULL OR b.endDate >= :startDate)")
     List<Budget> findBudgetsByUserIdAndDateRange(@Param("userId") Long userId, @Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
     
     /**
      * Find budgets that are over budget
      */
-    @Query("SELECT b FROM Budget b WHERE b.spentAmount > b.amount")
+    @EntityGraph(attributePaths = {"user", "category"})
+    @Query("SELECT b FROM Budget b WHERE b.alertState = 'OVER'")
     List<Budget> findOverBudgetBudgets();
     
     /**
-     * Find budgets that are near limit (80% or more spent)
+     * Find budgets that reached their alert threshold, including those over budget
      */
-    @Query("SELECT b FROM Budget b WHERE (b.spentAmount / b.amount) >= 0.8")
+    @EntityGraph(attributePaths = {"user", "category"})
+    @Query("SELECT b FROM Budget b WHERE b.alertState IN ('NEAR_LIMIT', 'OVER')")
     List<Budget> findBudgetsNearLimit();
     
     /**
      * Find budgets by user ID that are over budget
      */
-    @Query("SELECT b FROM Budget b WHERE b.user.id = :userId AND b.spentAmount > b.amount")
+    @EntityGraph(attributePaths = {"user", "category"})
+    @Query("SELECT b FROM Budget b WHERE b.alertState = 'OVER' AND b.user.id = :userId")
     List<Budget> findOverBudgetBudgetsByUserId(@Param("userId") Long userId);
     
     /**
-     * Find budgets by user ID that are near limit
+     * Find budgets by user ID that reached their alert threshold, including those over budget
      */
-    @Query("SELECT b FROM Budget b WHERE b.user.id = :userId AND (b.spentAmount / b.amount) >= 0.8")
+    @EntityGraph(attributePaths = {"user", "category"})
+    @Query("SELECT b FROM Budget b WHERE b.alertState IN ('NEAR_LIMIT', 'OVER') AND b.user.id = :userId")
     List<Budget> findBudgetsNearLimitByUserId(@Param("userId") Long userId);
     
+    /**
+     * Find a user's budgets whose alert state is out of date after a bulk spent amount update
+     */
+    @Query("SELECT b.id AS id, b.user.id AS userId, b.name AS name, b.alertState AS alertState, " +
+           "b.spentAmount AS spentAmount, b.amount AS amount, b.alertThreshold AS alertThreshold " +
+           "FROM Budget b WHERE b.user.id = :userId AND " + STALE_ALERT_STATE)
+    List<AlertStateView> findStaleAlertStatesByUserId(@Param("userId") Long userId);
+    
+    /**
+     * Find budgets in an id range whose alert state is out of date after a bulk spent amount update
+     */
+    @Query("SELECT b.id AS id, b.user.id AS userId, b.name AS name, b.alertState AS alertState, " +
+           "b.spentAmount AS spentAmount, b.amount AS amount, b.alertThreshold AS alertThreshold " +
+           "FROM Budget b WHERE b.id BETWEEN :fromId AND :toId AND " + STALE_ALERT_STATE)
+    List<AlertStateView> findStaleAlertStatesForIdRange(@Param("fromId") Long fromId, @Param("toId") Long toId);
+    
+    /**
+     * Set the alert state of the given budgets
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Budget b SET b.alertState = :alertState WHERE b.id IN :ids")
+    int updateAlertState(@Param("ids") List<Long> ids, @Param("alertState") AlertState alertState);
+    
     /**
      * Get total budget amount by user ID
      */
@@ -87,6 +133,18 @@ public interface BudgetRepository extends JpaRepository<Budget, Long> {
      */
     long countByUserId(Long userId);
     
+    /**
+     * Find the IDs of active budgets whose window starts before a date, lowest first
+     */
+    @Query("SELECT b.id FROM Budget b WHERE b.isActive = true AND b.status = 'ACTIVE' AND b.startDate < :date ORDER BY b.id")
+    List<Long> findActiveBudgetIdsStartingBefore(@Param("date") LocalDateTime date, Pageable pageable);
+    
+    /**
+     * Count active budgets whose window starts before a date
+     */
+    @Query("SELECT COUNT(b) FROM Budget b WHERE b.isActive = true AND b.status = 'ACTIVE' AND b.startDate < :date")
+    long countActiveBudgetsStartingBefore(@Param("date") LocalDateTime date);
+    
     /**
      * Count active budgets by user ID
      */
@@ -96,10 +154,132 @@ public interface BudgetRepository extends JpaRepository<Budget, Long> {
     /**
      * Find budgets by user ID and category ID
      */
+    @EntityGraph(attributePaths = {"user", "category"})
     List<Budget> findByUserIdAndCategoryId(Long userId, Long categoryId);
     
     /**
      * Find budgets by name containing (case insensitive)
      */
+    @EntityGraph(attributePaths = {"user", "category"})
     List<Budget> findByNameContainingIgnoreCase(String name);
-} 
\ No newline at end of file
+    
+    /**
+     * Add a spending delta to every active budget of the user whose category (or no category, for
+     * overall budgets) and date window match a transaction
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Budget b SET b.spentAmount = b.spentAmount + :delta, b.updatedAt = :updatedAt " +
+           "WHERE b.user.id = :userId AND b.isActive = true AND b.status = 'ACTIVE' " +
+           "AND (b.category IS NULL OR b.category.id = :categoryId) " +
+           "AND b.startDate <= :transactionDate AND (b.endDate IS NULL OR b.endDate >= :transactionDate)")
+    int applySpentDelta(@Param("userId") Long userId,
+                        @Param("categoryId") Long categoryId,
+                        @Param("transactionDate") LocalDateTime transactionDate,
+                        @Param("delta") BigDecimal delta,
+                        @Param("updatedAt") LocalDateTime updatedAt);
+    
+    /**
+     * Get the id and date window of every active budget of the user whose category (or no category,
+     * for overall budgets) matches, in id order
+     */
+    @Query("SELECT b.id AS id, b.startDate AS startDate, b.endDate AS endDate FROM Budget b " +
+           "WHERE b.user.id = :userId AND b.isActive = true AND b.status = 'ACTIVE' " +
+           "AND (b.category IS NULL OR b.category.id = :categoryId) ORDER BY b.id")
+    List<BudgetWindow> findActiveBudgetWindows(@Param("userId") Long userId, @Param("categoryId") Long categoryId);
+    
+    /**
+     * Add a spending delta to one active budget
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Budget b SET b.spentAmount = b.spentAmount + :delta, b.updatedAt = :updatedAt " +
+           "WHERE b.id = :budgetId AND b.isActive = true AND b.status = 'ACTIVE'")
+    int addSpentDelta(@Param("budgetId") Long budgetId,
+                      @Param("delta") BigDecimal delta,
+                      @Param("updatedAt") LocalDateTime updatedAt);
+    
+    /**
+     * Lock the active budgets in an id range until the end of the transaction, in id order
+     */
+    @Query(value = "SELECT id FROM budgets WHERE id BETWEEN :fromId AND :toId AND is_active = TRUE AND status = 'ACTIVE' " +
+                   "ORDER BY id FOR UPDATE", nativeQuery = true)
+    List<Long> lockActiveBudgetsForIdRange(@Param("fromId") Long fromId, @Param("toId") Long toId);
+    
+    /**
+     * Lock a user's active budgets until the end of the transaction, in id order
+     */
+    @Query(value = "SELECT id FROM budgets WHERE user_id = :userId AND is_active = TRUE AND status = 'ACTIVE' " +
+                   "ORDER BY id FOR UPDATE", nativeQuery = true)
+    List<Long> lockActiveBudgetsByUserId(@Param("userId") Long userId);
+    
+    /**
+     * Recompute the spent amount of active budgets in an id range from their matching expenses
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Budget b SET b.spentAmount = (" +
+           "SELECT COALESCE(SUM(t.amount), 0) FROM Transaction t " +
+           "WHERE t.user = b.user AND t.type = 'EXPENSE' " +
+           "AND (b.category IS NULL OR t.category = b.category) " +
+           "AND t.transactionDate >= b.startDate AND (b.endDate IS NULL OR t.transactionDate <= b.endDate)) " +
+           "WHERE b.id BETWEEN :fromId AND :toId AND b.isActive = true AND b.status = 'ACTIVE'")
+    int rebuildSpentAmountsForIdRange(@Param("fromId") Long fromId, @Param("toId") Long toId);
+    
+    /**
+     * Find the users owning active budgets in an id range
+     */
+    @Query("SELECT DISTINCT b.user.id FROM Budget b WHERE b.id BETWEEN :fromId AND :toId AND b.isActive = true AND b.status = 'ACTIVE'")
+    List<Long> findActiveBudgetUserIdsForIdRange(@Param("fromId") Long fromId, @Param("toId") Long toId);
+    
+    /**
+     * Recompute the spent amount of a user's active budgets from their matching expenses
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Budget b SET b.spentAmount = (" +
+           "SELECT COALESCE(SUM(t.amount), 0) FROM Transaction t " +
+           "WHERE t.user = b.user AND t.type = 'EXPENSE' " +
+           "AND (b.category IS NULL OR t.category = b.category) " +
+           "AND t.transactionDate >= b.startDate AND (b.endDate IS NULL OR t.transactionDate <= b.endDate)) " +
+           "WHERE b.user.id = :userId AND b.isActive = true AND b.status = 'ACTIVE'")
+    int rebuildSpentAmountsByUserId(@Param("userId") Long userId);
+    
+    /**
+     * Get the highest budget ID, or 0 when there are no budgets
+     */
+    @Query("SELECT COALESCE(MAX(b.id), 0) FROM Budget b")
+    long findMaxId();
+    
+    /**
+     * The columns a budget's alert state is computed from, read straight from the database
+     */
+    interface AlertStateView {
+        Long getId();
+        Long getUserId();
+        String getName();
+        AlertState getAlertState();
+        BigDecimal getSpentAmount();
+        BigDecimal getAmount();
+        Integer getAlertThreshold();
+    }
+    
+    /**
+     * The date window of an active budget, to which spending is applied
+     */
+    interface BudgetWindow {
+        Long getId();
+        LocalDateTime getStartDate();
+        LocalDateTime getEndDate();
+    }
+    
+    /**
+     * Delete every budget of a category
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM Budget b WHERE b.category.id = :categoryId")
+    int deleteByCategoryId(@Param("categoryId") Long categoryId);
+    
+    /**
+     * Delete every budget of a user
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM Budget b WHERE b.user.id = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+}
\ No newline at end of file
@@ -1,7 +1,9 @@
 package com.pft.repository;
 
 import com.pft.entity.Category;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -15,16 +17,19 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
     /**
      * Find categories by user ID
      */
+    @EntityGraph(attributePaths = {"user"})
     List<Category> findByUserId(Long userId);
     
     /**
      * Find categories by user ID and type
      */
+    @EntityGraph(attributePaths = {"user"})
     List<Category> findByUserIdAndType(Long userId, Category.CategoryType type);
     
     /**
      * Find categories by user ID and status
      */
+    @EntityGraph(attributePaths = {"user"})
     List<Category> findByUserIdAndStatus(Long userId, Category.CategoryStatus status);
     
     /**
@@ -35,22 +40,26 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
     /**
      * Find default categories
      */
+    @EntityGraph(attributePaths = {"user"})
     List<Category> findByIsDefaultTrue();
     
     /**
      * Find categories by name containing (case insensitive)
      */
+    @EntityGraph(attributePaths = {"user"})
     List<Category> findByNameContainingIgnoreCase(String name);
     
     /**
      * Find active categories by user ID
      */
+    @EntityGraph(attributePaths = {"user"})
     @Query("SELECT c FROM Category c WHERE c.user.id = :userId AND c.status = 'ACTIVE'")
     List<Category> findActiveCategoriesByUserId(@Param("userId") Long userId);
     
     /**
      * Find categories by type for a specific user
      */
+    @EntityGraph(attributePaths = {"user"})
     @Query("SELECT c FROM Category c WHERE c.user.id = :userId AND c.type = :type AND c.status = 'ACTIVE'")
     List<Category> findActiveCategoriesByUserIdAndType(@Param("userId") Long userId, @Param("type") Category.CategoryType type);
     
@@ -68,4 +77,11 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
      * Check if category exists by name and user ID
      */
     boolean existsByNameAndUserId(String name, Long userId);
+    
+    /**
+     * Delete every category of a user
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM Category c WHERE c.user.id = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
 } 
\ No newline at end of file
@@ -1,7 +1,9 @@
 package com.pft.repository;
 
 import com.pft.entity.Goal;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -17,80 +19,94 @@ public interface GoalRepository extends JpaRepository<Goal, Long> {
     /**
      * Find goals by user ID
      */
+    @EntityGraph(attributePaths = {"user"})
     List<Goal> findByUserId(Long userId);
     
     /**
      * Find goals by user ID and status
      */
+    @EntityGraph(attributePaths = {"user"})
     List<Goal> findByUserIdAndStatus(Long userId, Goal.GoalStatus status);
     
     /**
      * Find goals by user ID and type
      */
+    @EntityGraph(attributePaths = {"user"})
     List<Goal> findByUserIdAndType(Long userId, Goal.GoalType type);
     
     /**
      * Find active goals by user ID
      */
+    @EntityGraph(attributePaths = {"user"})
     @Query("SELECT g FROM Goal g WHERE g.user.id = :userId AND g.status = 'ACTIVE'")
     List<Goal> findActiveGoalsByUserId(@Param("userId") Long userId);
     
     /**
      * Find completed goals by user ID
      */
+    @EntityGraph(attributePaths = {"user"})
     @Query("SELECT g FROM Goal g WHERE g.user.id = :userId AND g.status = 'COMPLETED'")
     List<Goal> findCompletedGoalsByUserId(@Param("userId") Long userId);
     
     /**
      * Find goals by name containing (case insensitive)
      */
+    @EntityGraph(attributePaths = {"user"})
     List<Goal> findByNameContainingIgnoreCase(String name);
     
     /**
      * Find goals by target date range
      */
+    @EntityGraph(attributePaths = {"user"})
     @Query("SELECT g FROM Goal g WHERE g.targetDate BETWEEN :startDate AND :endDate")
     List<Goal> findByTargetDateBetween(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
     
     /**
      * Find goals by user ID and target date range
      */
+    @EntityGraph(attributePaths = {"user"})
     @Query("SELECT g FROM Goal g WHERE g.user.id = :userId AND g.targetDate BETWEEN :startDate AND :endDate")
     List<Goal> findByUserIdAndTargetDateBetween(@Param("userId") Long userId, @Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
     
     /**
      * Find goals that are due soon (within 30 days)
      */
+    @EntityGraph(attributePaths = {"user"})
     @Query("SELECT g FROM Goal g WHERE g.targetDate BETWEEN :now AND :thirtyDaysFromNow AND g.status = 'ACTIVE'")
     List<Goal> findGoalsDueSoon(@Param("now") LocalDateTime now, @Param("thirtyDaysFromNow") LocalDateTime thirtyDaysFromNow);
     
     /**
      * Find goals by user ID that are due soon
      */
+    @EntityGraph(attributePaths = {"user"})
     @Query("SELECT g FROM Goal g WHERE g.user.id = :userId AND g.targetDate BETWEEN :now AND :thirtyDaysFromNow AND g.status = 'ACTIVE'")
     List<Goal> findGoalsDueSoonByUserId(@Param("userId") Long userId, @Param("now") LocalDateTime now, @Param("thirtyDaysFromNow") LocalDateTime thirtyDaysFromNow);
     
     /**
-     * Find goals that are over 80% complete
+     * Find active goals that are 80% or more complete
      */
-    @Query("SELECT g FROM Goal g WHERE (g.currentAmount / g.targetAmount) >= 0.8 AND g.status = 'ACTIVE'")
+    @EntityGraph(attributePaths = {"user"})
+    @Query("SELECT g FROM Goal g WHERE g.alertState IN ('NEAR_LIMIT', 'OVER') AND g.status = 'ACTIVE'")
     List<Goal> findGoalsNearCompletion();
     
     /**
      * Find goals by user ID that are near completion
      */
-    @Query("SELECT g FROM Goal g WHERE g.user.id = :userId AND (g.currentAmount / g.targetAmount) >= 0.8 AND g.status = 'ACTIVE'")
+    @EntityGraph(attributePaths = {"user"})
+    @Query("SELECT g FROM Goal g WHERE g.alertState IN ('NEAR_LIMIT', 'OVER') AND g.user.id = :userId AND g.status = 'ACTIVE'")
     List<Goal> findGoalsNearCompletionByUserId(@Param("userId") Long userId);
     
     /**
      * Find overdue goals
      */
+    @EntityGraph(attributePaths = {"user"})
     @Query("SELECT g FROM Goal g WHERE g.targetDate < :now AND g.status = 'ACTIVE'")
     List<Goal> findOverdueGoals(@Param("now") LocalDateTime now);
     
     /**
      * Find overdue goals by user ID
      */
+    @EntityGraph(attributePaths = {"user"})
     @Query("SELECT g FROM Goal g WHERE g.user.id = :userId AND g.targetDate < :now AND g.status = 'ACTIVE'")
     List<Goal> findOverdueGoalsByUserId(@Param("userId") Long userId, @Param("now") LocalDateTime now);
     
@@ -122,4 +138,11 @@ public interface GoalRepository extends JpaRepository<Goal, Long> {
      */
     @Query("SELECT COUNT(g) FROM Goal g WHERE g.user.id = :userId AND g.status = 'COMPLETED'")
     long countCompletedGoalsByUserId(@Param("userId") Long userId);
+    
+    /**
+     * Delete every goal of a user
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM Goal g WHERE g.user.id = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
 } 
\ No newline at end of file
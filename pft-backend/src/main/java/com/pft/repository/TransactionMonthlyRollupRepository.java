@@ -0,0 +1,108 @@
+package com.pft.repository;
+
+import com.pft.entity.Transaction;
+import com.pft.entity.TransactionMonthlyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Repository
+public interface TransactionMonthlyRollupRepository extends JpaRepository<TransactionMonthlyRollup, Long> {
+    
+    /**
+     * Add an amount and count delta to a rollup row, creating the row if it does not exist yet
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("INSERT INTO TransactionMonthlyRollup (userId, yearMonth, categoryId, type, totalAmount, transactionCount, archived) " +
+           "VALUES (:userId, :yearMonth, :categoryId, :type, :amount, :count, false) " +
+           "ON CONFLICT (userId, yearMonth, categoryId, type) DO UPDATE " +
+           "SET totalAmount = totalAmount + excluded.totalAmount, transactionCount = transactionCount + excluded.transactionCount")
+    int applyDelta(@Param("userId") Long userId,
+                   @Param("yearMonth") Integer yearMonth,
+                   @Param("categoryId") Long categoryId,
+                   @Param("type") Transaction.TransactionType type,
+                   @Param("amount") BigDecimal amount,
+                   @Param("count") Long count);
+    
+    /**
+     * Get total amount by user ID and type
+     */
+    @Query("SELECT COALESCE(SUM(r.totalAmount), 0) FROM TransactionMonthlyRollup r WHERE r.userId = :userId AND r.type = :type")
+    BigDecimal getTotalAmountByUserIdAndType(@Param("userId") Long userId, @Param("type") Transaction.TransactionType type);
+    
+    /**
+     * Get total amount by user ID and category ID
+     */
+    @Query("SELECT COALESCE(SUM(r.totalAmount), 0) FROM TransactionMonthlyRollup r WHERE r.userId = :userId AND r.categoryId = :categoryId")
+    BigDecimal getTotalAmountByUserIdAndCategoryId(@Param("userId") Long userId, @Param("categoryId") Long categoryId);
+    
+    /**
+     * Get total amount by user ID for an inclusive range of yyyymm months
+     */
+    @Query("SELECT COALESCE(SUM(r.totalAmount), 0) FROM TransactionMonthlyRollup r " +
+           "WHERE r.userId = :userId AND r.yearMonth BETWEEN :fromMonth AND :toMonth")
+    BigDecimal getTotalAmountByUserIdAndMonthRange(@Param("userId") Long userId, @Param("fromMonth") Integer fromMonth, @Param("toMonth") Integer toMonth);
+    
+    /**
+     * Get amount totals per transaction type for one yyyymm month
+     */
+    @Query("SELECT r.type AS type, COALESCE(SUM(r.totalAmount), 0) AS total FROM TransactionMonthlyRollup r " +
+           "WHERE r.userId = :userId AND r.yearMonth = :yearMonth GROUP BY r.type")
+    List<TransactionRepository.TypeTotal> getTotalsByUserIdAndTypeForMonth(@Param("userId") Long userId, @Param("yearMonth") Integer yearMonth);
+    
+    /**
+     * Get amount totals and transaction counts per category, month and type for an inclusive range
+     * of yyyymm months, optionally of one type only
+     */
+    @Query("SELECT r.categoryId AS categoryId, r.yearMonth AS yearMonth, r.type AS type, " +
+           "r.totalAmount AS totalAmount, r.transactionCount AS transactionCount FROM TransactionMonthlyRollup r " +
+           "WHERE r.userId = :userId AND r.yearMonth BETWEEN :fromMonth AND :toMonth " +
+           "AND (:type IS NULL OR r.type = :type) AND r.transactionCount > 0")
+    List<TransactionRepository.CategoryMonthTotal> getCategoryTotalsByUserIdAndMonthRange(@Param("userId") Long userId, @Param("fromMonth") Integer fromMonth, @Param("toMonth") Integer toMonth, @Param("type") Transaction.TransactionType type);
+    
+    /**
+     * Get the last yyyymm month whose rollup rows are archived, or null when none are
+     */
+    @Query("SELECT MAX(r.yearMonth) FROM TransactionMonthlyRollup r WHERE r.archived = true")
+    Integer findLastArchivedYearMonth();
+    
+    /**
+     * Delete every rollup row that is not archived
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM TransactionMonthlyRollup r WHERE r.archived = false")
+    int deleteUnarchivedRollups();
+    
+    /**
+     * Recompute every rollup row from the transactions table, except those kept as archived;
+     * delete the other rows first
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("INSERT INTO TransactionMonthlyRollup (userId, yearMonth, categoryId, type, totalAmount, transactionCount, archived) " +
+           "SELECT t.user.id, YEAR(t.transactionDate) * 100 + MONTH(t.transactionDate), COALESCE(t.category.id, 0), t.type, SUM(t.amount), COUNT(t), false " +
+           "FROM Transaction t " +
+           "WHERE NOT EXISTS (SELECT 1 FROM TransactionMonthlyRollup r WHERE r.archived = true AND r.userId = t.user.id " +
+           "AND r.yearMonth = YEAR(t.transactionDate) * 100 + MONTH(t.transactionDate) " +
+           "AND r.categoryId = COALESCE(t.category.id, 0) AND r.type = t.type) " +
+           "GROUP BY t.user.id, YEAR(t.transactionDate) * 100 + MONTH(t.transactionDate), COALESCE(t.category.id, 0), t.type")
+    int insertAllRollups();
+    
+    /**
+     * Mark the rollup rows of the yyyymm months before a month as archived
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE TransactionMonthlyRollup r SET r.archived = true WHERE r.yearMonth < :yearMonth AND r.archived = false")
+    int markArchivedBefore(@Param("yearMonth") Integer yearMonth);
+    
+    /**
+     * Delete every rollup row of a user
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM TransactionMonthlyRollup r WHERE r.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+}
@@ -1,17 +1,28 @@
 package com.pft.repository;
 
 import com.pft.entity.Transaction;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.jpa.SpecHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
@@ -19,113 +30,346 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
     /**
      * Find transactions by account ID
      */
+    @EntityGraph(attributePaths = {"account", "user", "category", "toAccount"})
     List<Transaction> findByAccountId(Long accountId);
     
     /**
      * Find transactions by account ID with pagination
      */
+    @EntityGraph(attributePaths = {"account", "user", "category", "toAccount"})
     Page<Transaction> findByAccountId(Long accountId, Pageable pageable);
     
     /**
-     * Find transactions by user ID (through account)
+     * Find transactions by user ID
      */
-    @Query("SELECT t FROM Transaction t WHERE t.account.user.id = :userId")
+    @EntityGraph(attributePaths = {"account", "user", "category", "toAccount"})
+    @Query("SELECT t FROM Transaction t WHERE t.user.id = :userId")
     List<Transaction> findByUserId(@Param("userId") Long userId);
     
     /**
      * Find transactions by user ID with pagination
      */
-    @Query("SELECT t FROM Transaction t WHERE t.account.user.id = :userId")
+    @EntityGraph(attributePaths = {"account", "user", "category", "toAccount"})
+    @Query("SELECT t FROM Transaction t WHERE t.user.id = :userId")
     Page<Transaction> findByUserId(@Param("userId") Long userId, Pageable pageable);
     
     /**
      * Find transactions by category ID
      */
+    @EntityGraph(attributePaths = {"account", "user", "category", "toAccount"})
     List<Transaction> findByCategoryId(Long categoryId);
     
     /**
      * Find transactions by type
      */
+    @EntityGraph(attributePaths = {"account", "user", "category", "toAccount"})
     List<Transaction> findByType(Transaction.TransactionType type);
     
     /**
      * Find transactions by status
      */
+    @EntityGraph(attributePaths = {"account", "user", "category", "toAccount"})
     List<Transaction> findByStatus(Transaction.TransactionStatus status);
     
     /**
      * Find transactions by date range
      */
+    @EntityGraph(attributePaths = {"account", "user", "category", "toAccount"})
     @Query("SELECT t FROM Transaction t WHERE t.transactionDate BETWEEN :startDate AND :endDate")
     List<Transaction> findByTransactionDateBetween(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
     
     /**
      * Find transactions by user ID and date range
      */
-    @Query("SELECT t FROM Transaction t WHERE t.account.user.id = :userId AND t.transactionDate BETWEEN :startDate AND :endDate")
+    @EntityGraph(attributePaths = {"account", "user", "category", "toAccount"})
+    @Query("SELECT t FROM Transaction t WHERE t.user.id = :userId AND t.transactionDate BETWEEN :startDate AND :endDate")
     List<Transaction> findByUserIdAndTransactionDateBetween(@Param("userId") Long userId, @Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
     
     /**
      * Find transactions by user ID and type
      */
-    @Query("SELECT t FROM Transaction t WHERE t.account.user.id = :userId AND t.type = :type")
+    @EntityGraph(attributePaths = {"account", "user", "category", "toAccount"})
+    @Query("SELECT t FROM Transaction t WHERE t.user.id = :userId AND t.type = :type")
     List<Transaction> findByUserIdAndType(@Param("userId") Long userId, @Param("type") Transaction.TransactionType type);
     
     /**
      * Find transactions by user ID and category ID
      */
-    @Query("SELECT t FROM Transaction t WHERE t.account.user.id = :userId AND t.category.id = :categoryId")
+    @EntityGraph(attributePaths = {"account", "user", "category", "toAccount"})
+    @Query("SELECT t FROM Transaction t WHERE t.user.id = :userId AND t.category.id = :categoryId")
     List<Transaction> findByUserIdAndCategoryId(@Param("userId") Long userId, @Param("categoryId") Long categoryId);
     
     /**
      * Find recurring transactions
      */
+    @EntityGraph(attributePaths = {"account", "user", "category", "toAccount"})
     List<Transaction> findByIsRecurringTrue();
     
     /**
-     * Find transactions by description containing (case insensitive)
+     * Find transactions by IDs, with the relations needed for DTO mapping fetched
      */
-    List<Transaction> findByDescriptionContainingIgnoreCase(String description);
+    @EntityGraph(attributePaths = {"account", "user", "category", "toAccount"})
+    List<Transaction> findByIdIn(Collection<Long> ids);
+    
+    /**
+     * Search a user's transactions by description, notes or reference number (PostgreSQL only).
+     * Served by the trigram index from V7; results are ranked by word similarity to the term.
+     */
+    @Query(value = "SELECT t.id FROM transactions t WHERE t.user_id = :userId " +
+                   "AND lower(coalesce(t.description, '') || ' ' || coalesce(t.notes, '') || ' ' || coalesce(t.reference_number, '')) LIKE :pattern ESCAPE '\\' " +
+                   "ORDER BY word_similarity(:term, lower(coalesce(t.description, '') || ' ' || coalesce(t.notes, '') || ' ' || coalesce(t.reference_number, ''))) DESC, " +
+                   "t.transaction_date DESC, t.id DESC LIMIT :limit OFFSET :offset",
+           nativeQuery = true)
+    List<Long> searchIdsByUserIdRanked(@Param("userId") Long userId, @Param("term") String term, @Param("pattern") String pattern,
+                                       @Param("offset") int offset, @Param("limit") int limit);
+    
+    /**
+     * Search a user's transactions by description, notes or reference number on any database,
+     * description matches first
+     */
+    @Query("SELECT t.id FROM Transaction t WHERE t.user.id = :userId " +
+           "AND (LOWER(t.description) LIKE :pattern ESCAPE '\\' OR LOWER(t.notes) LIKE :pattern ESCAPE '\\' " +
+           "OR LOWER(t.referenceNumber) LIKE :pattern ESCAPE '\\') " +
+           "ORDER BY CASE WHEN LOWER(t.description) LIKE :pattern ESCAPE '\\' THEN 0 ELSE 1 END, t.transactionDate DESC, t.id DESC " +
+           "LIMIT :limit OFFSET :offset")
+    List<Long> searchIdsByUserId(@Param("userId") Long userId, @Param("pattern") String pattern,
+                                 @Param("offset") int offset, @Param("limit") int limit);
     
     /**
      * Find transactions by amount range
      */
+    @EntityGraph(attributePaths = {"account", "user", "category", "toAccount"})
     @Query("SELECT t FROM Transaction t WHERE t.amount BETWEEN :minAmount AND :maxAmount")
     List<Transaction> findByAmountBetween(@Param("minAmount") BigDecimal minAmount, @Param("maxAmount") BigDecimal maxAmount);
     
     /**
      * Get total amount by user ID and type
      */
-    @Query("SELECT COALESCE(SUM(t.amount), 0) FROM Transaction t WHERE t.account.user.id = :userId AND t.type = :type")
+    @Query("SELECT COALESCE(SUM(t.amount), 0) FROM Transaction t WHERE t.user.id = :userId AND t.type = :type")
     BigDecimal getTotalAmountByUserIdAndType(@Param("userId") Long userId, @Param("type") Transaction.TransactionType type);
     
     /**
      * Get total amount by user ID and category ID
      */
-    @Query("SELECT COALESCE(SUM(t.amount), 0) FROM Transaction t WHERE t.account.user.id = :userId AND t.category.id = :categoryId")
+    @Query("SELECT COALESCE(SUM(t.amount), 0) FROM Transaction t WHERE t.user.id = :userId AND t.category.id = :categoryId")
     BigDecimal getTotalAmountByUserIdAndCategoryId(@Param("userId") Long userId, @Param("categoryId") Long categoryId);
     
     /**
      * Get total amount by user ID and date range
      */
-    @Query("SELECT COALESCE(SUM(t.amount), 0) FROM Transaction t WHERE t.account.user.id = :userId AND t.transactionDate BETWEEN :startDate AND :endDate")
+    @Query("SELECT COALESCE(SUM(t.amount), 0) FROM Transaction t WHERE t.user.id = :userId AND t.transactionDate BETWEEN :startDate AND :endDate")
     BigDecimal getTotalAmountByUserIdAndDateRange(@Param("userId") Long userId, @Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
     
+    /**
+     * Get total amount by user ID within [startDate, endDate)
+     */
+    @Query("SELECT COALESCE(SUM(t.amount), 0) FROM Transaction t WHERE t.user.id = :userId AND t.transactionDate >= :startDate AND t.transactionDate < :endDate")
+    BigDecimal getTotalAmountByUserIdForPeriod(@Param("userId") Long userId, @Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+    
     /**
      * Count transactions by user ID
      */
-    @Query("SELECT COUNT(t) FROM Transaction t WHERE t.account.user.id = :userId")
+    @Query("SELECT COUNT(t) FROM Transaction t WHERE t.user.id = :userId")
     long countByUserId(@Param("userId") Long userId);
     
     /**
      * Count transactions by user ID and type
      */
-    @Query("SELECT COUNT(t) FROM Transaction t WHERE t.account.user.id = :userId AND t.type = :type")
+    @Query("SELECT COUNT(t) FROM Transaction t WHERE t.user.id = :userId AND t.type = :type")
     long countByUserIdAndType(@Param("userId") Long userId, @Param("type") Transaction.TransactionType type);
     
     /**
      * Find transactions that need to be processed for recurring
      */
+    @EntityGraph(attributePaths = {"account", "user", "category", "toAccount"})
     @Query("SELECT t FROM Transaction t WHERE t.isRecurring = true AND t.nextRecurringDate <= :currentDate")
     List<Transaction> findRecurringTransactionsToProcess(@Param("currentDate") LocalDateTime currentDate);
-} 
\ No newline at end of file
+    
+    /**
+     * Get total amount per transaction type for a user within [startDate, endDate)
+     */
+    @Query("SELECT t.type AS type, COALESCE(SUM(t.amount), 0) AS total FROM Transaction t " +
+           "WHERE t.user.id = :userId AND t.transactionDate >= :startDate AND t.transactionDate < :endDate " +
+           "GROUP BY t.type")
+    List<TypeTotal> getTotalsByUserIdAndTypeForPeriod(@Param("userId") Long userId, @Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+    
+    /**
+     * Find the most recent transactions for a user, with the relations needed for DTO mapping fetched
+     */
+    @Query("SELECT t FROM Transaction t JOIN FETCH t.account JOIN FETCH t.user u " +
+           "LEFT JOIN FETCH t.category LEFT JOIN FETCH t.toAccount " +
+           "WHERE u.id = :userId ORDER BY t.transactionDate DESC, t.id DESC")
+    List<Transaction> findRecentByUserId(@Param("userId") Long userId, Pageable pageable);
+    
+    /**
+     * Find the user's transactions strictly after the given (transactionDate, id) keyset position,
+     * in descending order. Seeks through the ordering instead of skipping rows with OFFSET.
+     */
+    @Query("SELECT t FROM Transaction t JOIN FETCH t.account JOIN FETCH t.user u " +
+           "LEFT JOIN FETCH t.category LEFT JOIN FETCH t.toAccount " +
+           "WHERE u.id = :userId AND (t.transactionDate < :transactionDate " +
+           "OR (t.transactionDate = :transactionDate AND t.id < :id)) " +
+           "ORDER BY t.transactionDate DESC, t.id DESC")
+    List<Transaction> findByUserIdBeforeKeyset(@Param("userId") Long userId, @Param("transactionDate") LocalDateTime transactionDate, @Param("id") Long id, Pageable pageable);
+    
+    /**
+     * Stream the user's transactions oldest first through a forward-only cursor, optionally limited to
+     * one account (as source or transfer destination) and a date range. Must be consumed in a transaction.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t FROM Transaction t JOIN FETCH t.account a JOIN FETCH t.user u " +
+           "LEFT JOIN FETCH t.category LEFT JOIN FETCH t.toAccount ta " +
+           "WHERE u.id = :userId " +
+           "AND (:accountId IS NULL OR a.id = :accountId OR ta.id = :accountId) " +
+           "AND (:startDate IS NULL OR t.transactionDate >= :startDate) " +
+           "AND (:endDate IS NULL OR t.transactionDate < :endDate) " +
+           "ORDER BY t.transactionDate, t.id")
+    Stream<Transaction> streamForExport(@Param("userId") Long userId, @Param("accountId") Long accountId, @Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+    
+    /**
+     * Lock up to a page of due recurring schedules for processing. Rows already locked by another
+     * worker are skipped (FOR UPDATE SKIP LOCKED), so concurrent workers claim disjoint chunks.
+     * Schedules that failed at or after :currentDate, or :maxFailures times, are left out.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_LOCK_TIMEOUT, value = "-2")) // LockOptions.SKIP_LOCKED
+    @Query("SELECT t FROM Transaction t WHERE t.isRecurring = true AND t.nextRecurringDate <= :currentDate " +
+           "AND t.status <> 'CANCELLED' AND t.recurringFailures < :maxFailures " +
+           "AND (t.recurringFailedAt IS NULL OR t.recurringFailedAt < :currentDate) ORDER BY t.nextRecurringDate, t.id")
+    List<Transaction> claimDueRecurringTransactions(@Param("currentDate") LocalDateTime currentDate,
+                                                    @Param("maxFailures") int maxFailures, Pageable pageable);
+    
+    /**
+     * Lock one due recurring schedule for processing, as claimDueRecurringTransactions does
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_LOCK_TIMEOUT, value = "-2")) // LockOptions.SKIP_LOCKED
+    @Query("SELECT t FROM Transaction t WHERE t.id = :id AND t.isRecurring = true AND t.nextRecurringDate <= :currentDate " +
+           "AND t.status <> 'CANCELLED' AND t.recurringFailures < :maxFailures " +
+           "AND (t.recurringFailedAt IS NULL OR t.recurringFailedAt < :currentDate)")
+    Optional<Transaction> claimDueRecurringTransaction(@Param("id") Long id, @Param("currentDate") LocalDateTime currentDate,
+                                                       @Param("maxFailures") int maxFailures);
+    
+    /**
+     * Count a failed run of a recurring schedule; runs at or before :failedAt do not claim it again
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Transaction t SET t.recurringFailures = t.recurringFailures + 1, t.recurringFailedAt = :failedAt " +
+           "WHERE t.id = :id")
+    int recordRecurringFailure(@Param("id") Long id, @Param("failedAt") LocalDateTime failedAt);
+    
+    /**
+     * Sum the user's expenses that fall in a budget's category (any category when null) and date window
+     */
+    @Query("SELECT COALESCE(SUM(t.amount), 0) FROM Transaction t WHERE t.user.id = :userId AND t.type = 'EXPENSE' " +
+           "AND (:categoryId IS NULL OR t.category.id = :categoryId) " +
+           "AND t.transactionDate >= :startDate AND (:endDate IS NULL OR t.transactionDate <= :endDate)")
+    BigDecimal getExpenseTotalForBudgetWindow(@Param("userId") Long userId, @Param("categoryId") Long categoryId, @Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+    
+    /**
+     * Sum amounts and count transactions per category (0 when uncategorized), day and type in
+     * [:startDate, :endDate), optionally of one type only
+     */
+    @Query("SELECT COALESCE(t.category.id, 0) AS categoryId, CAST(t.transactionDate AS LocalDate) AS transactionDay, " +
+           "t.type AS type, SUM(t.amount) AS totalAmount, COUNT(t) AS transactionCount FROM Transaction t " +
+           "WHERE t.user.id = :userId AND t.transactionDate >= :startDate AND t.transactionDate < :endDate " +
+           "AND (:type IS NULL OR t.type = :type) " +
+           "GROUP BY COALESCE(t.category.id, 0), CAST(t.transactionDate AS LocalDate), t.type")
+    List<CategoryDayTotal> getCategoryTotalsByDay(@Param("userId") Long userId, @Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate, @Param("type") Transaction.TransactionType type);
+    
+    /**
+     * Sum amounts and count transactions per category (0 when uncategorized), yyyymm month and
+     * type in [:startDate, :endDate), optionally of one type only
+     */
+    @Query("SELECT COALESCE(t.category.id, 0) AS categoryId, YEAR(t.transactionDate) * 100 + MONTH(t.transactionDate) AS yearMonth, " +
+           "t.type AS type, SUM(t.amount) AS totalAmount, COUNT(t) AS transactionCount FROM Transaction t " +
+           "WHERE t.user.id = :userId AND t.transactionDate >= :startDate AND t.transactionDate < :endDate " +
+           "AND (:type IS NULL OR t.type = :type) " +
+           "GROUP BY COALESCE(t.category.id, 0), YEAR(t.transactionDate) * 100 + MONTH(t.transactionDate), t.type")
+    List<CategoryMonthTotal> getCategoryTotalsByMonth(@Param("userId") Long userId, @Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate, @Param("type") Transaction.TransactionType type);
+    
+    /**
+     * Check if an account has transactions, as source or as transfer destination
+     */
+    @Query("SELECT CASE WHEN EXISTS (SELECT 1 FROM Transaction t WHERE t.account.id = :accountId OR t.toAccount.id = :accountId) " +
+           "THEN true ELSE false END")
+    boolean existsByAccountId(@Param("accountId") Long accountId);
+    
+    /**
+     * Check if a category has transactions
+     */
+    @Query("SELECT CASE WHEN EXISTS (SELECT 1 FROM Transaction t WHERE t.category.id = :categoryId) THEN true ELSE false END")
+    boolean existsByCategoryId(@Param("categoryId") Long categoryId);
+    
+    /**
+     * Delete up to a limit of a user's transactions
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "DELETE FROM transactions WHERE id IN (SELECT id FROM transactions WHERE user_id = :userId LIMIT :limit)",
+           nativeQuery = true)
+    int deleteChunkByUserId(@Param("userId") Long userId, @Param("limit") int limit);
+    
+    /**
+     * Delete every transaction of a user
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM Transaction t WHERE t.user.id = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+    
+    /**
+     * Create the yearly partitions missing in a range of years or holding rows in the default partition
+     */
+    @Query(value = "SELECT create_transactions_partitions(:fromYear, :toYear)", nativeQuery = true)
+    int createPartitions(@Param("fromYear") int fromYear, @Param("toYear") int toYear);
+    
+    /**
+     * Add a BRIN index on the transaction date to the yearly partitions before a year that lack one
+     */
+    @Query(value = "SELECT add_transactions_brin_indexes(:beforeYear)", nativeQuery = true)
+    int addPartitionBrinIndexes(@Param("beforeYear") int beforeYear);
+    
+    /**
+     * Detach the yearly partitions before a year and move them to the archive schema
+     */
+    @Query(value = "SELECT archive_transactions_partitions(:beforeYear)", nativeQuery = true)
+    int archivePartitions(@Param("beforeYear") int beforeYear);
+    
+    /**
+     * Delete a user's transactions from the archived partitions
+     */
+    @Query(value = "SELECT delete_archived_transactions(:userId)", nativeQuery = true)
+    int deleteArchivedByUserId(@Param("userId") Long userId);
+    
+    /**
+     * Projection of a summed amount grouped by transaction type
+     */
+    interface TypeTotal {
+        Transaction.TransactionType getType();
+        BigDecimal getTotal();
+    }
+    
+    /**
+     * Projection of an amount total and transaction count per category, day and type
+     */
+    interface CategoryDayTotal {
+        Long getCategoryId();
+        LocalDate getTransactionDay();
+        Transaction.TransactionType getType();
+        BigDecimal getTotalAmount();
+        Long getTransactionCount();
+    }
+    
+    /**
+     * Projection of an amount total and transaction count per category, yyyymm month and type
+     */
+    interface CategoryMonthTotal {
+        Long getCategoryId();
+        Integer getYearMonth();
+        Transaction.TransactionType getType();
+        BigDecimal getTotalAmount();
+        Long getTransactionCount();
+    }
+}
\ No newline at end of file
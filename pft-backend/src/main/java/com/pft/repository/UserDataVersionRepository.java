@@ -0,0 +1,38 @@
+package com.pft.repository;
+
+import com.pft.entity.UserDataVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface UserDataVersionRepository extends JpaRepository<UserDataVersion, Long> {
+    
+    /**
+     * Add increments to a user's data versions, creating the row if it does not exist yet
+     */
+    @Modifying
+    @Query("INSERT INTO UserDataVersion (userId, accountsVersion, categoriesVersion, transactionsVersion, budgetsVersion, goalsVersion) " +
+           "VALUES (:userId, :accounts, :categories, :transactions, :budgets, :goals) " +
+           "ON CONFLICT (userId) DO UPDATE " +
+           "SET accountsVersion = accountsVersion + excluded.accountsVersion, " +
+           "categoriesVersion = categoriesVersion + excluded.categoriesVersion, " +
+           "transactionsVersion = transactionsVersion + excluded.transactionsVersion, " +
+           "budgetsVersion = budgetsVersion + excluded.budgetsVersion, " +
+           "goalsVersion = goalsVersion + excluded.goalsVersion")
+    int increment(@Param("userId") Long userId,
+                  @Param("accounts") Long accounts,
+                  @Param("categories") Long categories,
+                  @Param("transactions") Long transactions,
+                  @Param("budgets") Long budgets,
+                  @Param("goals") Long goals);
+    
+    /**
+     * Delete the data versions of a user
+     */
+    @Modifying
+    @Query("DELETE FROM UserDataVersion v WHERE v.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+}
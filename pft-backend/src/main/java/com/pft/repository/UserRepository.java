@@ -22,11 +22,6 @@ public interface UserRepository extends JpaRepository<User, Long> {
      */
     boolean existsByEmail(String email);
     
-    /**
-     * Delete user by email
-     */
-    void deleteByEmail(String email);
-    
     /**
      * Find users by status
      */
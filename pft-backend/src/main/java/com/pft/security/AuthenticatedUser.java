@@ -0,0 +1,46 @@
+package com.pft.security;
+
+import com.pft.entity.User;
+import lombok.Getter;
+import org.springframework.security.core.AuthenticatedPrincipal;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Lightweight principal stored in the SecurityContext once a request has been
+ * authenticated, so controllers can read the caller's id without reloading the user.
+ */
+@Getter
+public class AuthenticatedUser implements AuthenticatedPrincipal {
+    
+    private final Long id;
+    private final String email;
+    private final String fullName;
+    private final Collection<? extends GrantedAuthority> authorities;
+    
+    public AuthenticatedUser(Long id, String email, String fullName, Collection<? extends GrantedAuthority> authorities) {
+        this.id = id;
+        this.email = email;
+        this.fullName = fullName;
+        this.authorities = List.copyOf(authorities);
+    }
+    
+    public static AuthenticatedUser from(User user) {
+        return new AuthenticatedUser(user.getId(), user.getEmail(), user.getFullName(), user.getAuthorities());
+    }
+    
+    @Override
+    public String getName() {
+        return email;
+    }
+    
+    @Override
+    public String toString() {
+        return "AuthenticatedUser{" +
+                "id=" + id +
+                ", email='" + email + '\'' +
+                '}';
+    }
+}
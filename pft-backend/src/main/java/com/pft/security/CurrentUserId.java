@@ -0,0 +1,20 @@
+package com.pft.security;
+
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Resolves a controller method parameter to the id of the authenticated user,
+ * taken from the {@link AuthenticatedUser} principal set by the JWT filter.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@AuthenticationPrincipal(expression = "id")
+public @interface CurrentUserId {
+}
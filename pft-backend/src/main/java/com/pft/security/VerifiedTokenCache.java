@@ -0,0 +1,75 @@
+package com.pft.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+
+/**
+ * Bounded in-memory cache of recently verified JWTs and the principal they resolved to,
+ * so repeat requests with the same token skip signature verification and claim parsing.
+ * Tokens are keyed by their SHA-256 digest, so no usable credential is held in memory. An entry
+ * lives for the configured time to live at most and never past the token's own expiration;
+ * the least recently used entries make room when the cache is full.
+ */
+@Component
+public class VerifiedTokenCache {
+    
+    // Null when the cache is disabled
+    private final Cache<String, Entry> entries;
+    
+    public VerifiedTokenCache(@Value("${app.jwt.verified-token-cache-size:10000}") int maxEntries,
+                              @Value("${app.jwt.verified-token-cache-ttl:5m}") Duration timeToLive) {
+        this.entries = maxEntries <= 0 ? null : Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfter(Expiry.writing((String key, Entry entry) -> {
+                    Duration untilTokenExpires = Duration.ofMillis(entry.expiresAtMillis() - System.currentTimeMillis());
+                    return untilTokenExpires.compareTo(timeToLive) < 0 ? untilTokenExpires : timeToLive;
+                }))
+                .build();
+    }
+    
+    public AuthenticatedUser get(String token) {
+        if (entries == null) {
+            return null;
+        }
+        Entry entry = entries.getIfPresent(digest(token));
+        return entry != null ? entry.principal() : null;
+    }
+    
+    public void put(String token, AuthenticatedUser principal, long expiresAtMillis) {
+        if (entries == null) {
+            return;
+        }
+        entries.put(digest(token), new Entry(principal, expiresAtMillis));
+    }
+    
+    /**
+     * Drops every cached token of a user, so the next request with one is verified again.
+     */
+    public void evictUser(Long userId) {
+        if (entries == null) {
+            return;
+        }
+        entries.asMap().values().removeIf(entry -> entry.principal().getId().equals(userId));
+    }
+    
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-256 is not available", e);
+        }
+    }
+    
+    private record Entry(AuthenticatedUser principal, long expiresAtMillis) {
+    }
+}
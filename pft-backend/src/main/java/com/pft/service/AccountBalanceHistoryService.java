@@ -0,0 +1,215 @@
+package com.pft.service;
+
+import com.pft.config.MetricsConfig;
+import com.pft.dto.AccountBalanceHistoryDto;
+import com.pft.entity.Account;
+import com.pft.entity.AccountBalanceSnapshot;
+import com.pft.entity.Transaction;
+import com.pft.repository.AccountBalanceSnapshotRepository;
+import com.pft.repository.AccountRepository;
+import com.pft.util.Granularity;
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Charts an account's closing balance per day, week, month or year. Closed days are read from
+ * daily snapshots, which are filled with one running-total query over the ledger (anchored at
+ * the initial balance or the last snapshot) the first time a history reaches past them; only
+ * the current day is summed live. Writing a transaction dated before today drops the
+ * account's snapshots from that day on, so they are recomputed on the next request. Filling
+ * and dropping both lock the account row, the row balance writers already hold until they
+ * commit, so a fill never misses a concurrent write nor outlives its invalidation.
+ * <p>
+ * The last point is the balance at the end of its day. It differs from the account's current
+ * balance when transactions are dated after that day, since those count towards the current
+ * balance as soon as they are written.
+ */
+@Service
+@Timed(MetricsConfig.SERVICE_METRIC)
+@RequiredArgsConstructor
+public class AccountBalanceHistoryService {
+    
+    private static final int MAX_POINTS = 1000;
+    private static final int DEFAULT_PERIODS = 30;
+    // Lower bound of the ledger scan when an account has no snapshots yet
+    private static final LocalDateTime LEDGER_START = LocalDateTime.of(1900, 1, 1, 0, 0);
+    
+    private final AccountBalanceSnapshotRepository snapshotRepository;
+    private final AccountService accountService;
+    private final AccountRepository accountRepository;
+    private final PlatformTransactionManager transactionManager;
+    
+    @Value("${app.balance-history.fill-chunk-size:500}")
+    private int fillChunkSize;
+    
+    private TransactionTemplate chunkTransaction;
+    
+    @PostConstruct
+    void init() {
+        chunkTransaction = new TransactionTemplate(transactionManager);
+        chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+    
+    /**
+     * Closing balances of the periods overlapping [from, to]. The range ends today at the
+     * latest; without a start it covers the last 30 periods up to its end.
+     */
+    @Transactional
+    public AccountBalanceHistoryDto getBalanceHistory(Long accountId, Long userId, LocalDate from, LocalDate to,
+                                                      Granularity granularity) {
+        Account account = accountService.getAccountEntityById(accountId);
+        
+        // Verify ownership
+        if (!account.getUser().getId().equals(userId)) {
+            throw new RuntimeException("Access denied: Account does not belong to user");
+        }
+        
+        LocalDate today = LocalDate.now();
+        LocalDate endDate = to == null || to.isAfter(today) ? today : to;
+        LocalDate startDate = from != null ? from : granularity.periodStartBefore(endDate, DEFAULT_PERIODS - 1);
+        if (startDate.isAfter(endDate)) {
+            throw new RuntimeException("Balance history start must not be after its end");
+        }
+        if (granularity.periods(startDate, endDate) > MAX_POINTS) {
+            throw new RuntimeException("Balance history is limited to " + MAX_POINTS + " points");
+        }
+        
+        LocalDate yesterday = today.minusDays(1);
+        fillSnapshots(account, yesterday);
+        
+        // Closing balances of the days in range that have one, and the balance before the range
+        NavigableMap<LocalDate, BigDecimal> closingBalances = new TreeMap<>();
+        for (AccountBalanceSnapshot snapshot : snapshotRepository.findByAccountIdAndBalanceDateBetweenOrderByBalanceDate(
+                accountId, startDate, endDate.isAfter(yesterday) ? yesterday : endDate)) {
+            closingBalances.put(snapshot.getBalanceDate(), snapshot.getBalance());
+        }
+        BigDecimal openingBalance = balanceAt(account, startDate.minusDays(1));
+        if (endDate.equals(today)) {
+            BigDecimal todayChange = snapshotRepository.getBalanceChange(accountId,
+                    today.atStartOfDay(), today.plusDays(1).atStartOfDay());
+            closingBalances.put(today, balanceAt(account, yesterday).add(todayChange));
+        }
+        
+        List<AccountBalanceHistoryDto.BalancePoint> points = new ArrayList<>();
+        for (LocalDate periodStart = granularity.periodStart(startDate); !periodStart.isAfter(endDate);
+             periodStart = granularity.nextPeriodStart(periodStart)) {
+            LocalDate periodEnd = granularity.nextPeriodStart(periodStart).minusDays(1);
+            if (periodEnd.isAfter(endDate)) {
+                periodEnd = endDate;
+            }
+            Map.Entry<LocalDate, BigDecimal> closing = closingBalances.floorEntry(periodEnd);
+            points.add(new AccountBalanceHistoryDto.BalancePoint(periodEnd,
+                    closing != null ? closing.getValue() : openingBalance));
+        }
+        
+        AccountBalanceHistoryDto history = new AccountBalanceHistoryDto();
+        history.setAccountId(accountId);
+        history.setAccountName(account.getName());
+        history.setGranularity(granularity.name());
+        history.setFrom(startDate);
+        history.setTo(endDate);
+        history.setPoints(points);
+        return history;
+    }
+    
+    /**
+     * Drops the snapshots a change to the transaction's balance makes stale, on its account and
+     * on the destination account of a transfer.
+     */
+    @Transactional
+    public void invalidate(Transaction transaction) {
+        invalidate(transaction.getAccount().getId(), transaction.getTransactionDate());
+        if (transaction.getType() == Transaction.TransactionType.TRANSFER && transaction.getToAccount() != null) {
+            invalidate(transaction.getToAccount().getId(), transaction.getTransactionDate());
+        }
+    }
+    
+    /**
+     * Drops an account's snapshots from the day of a balance change on. Changes dated today or
+     * later never touch a snapshot.
+     */
+    @Transactional
+    public void invalidate(Long accountId, LocalDateTime changeDate) {
+        LocalDate changeDay = changeDate.toLocalDate();
+        if (changeDay.isBefore(LocalDate.now())) {
+            // Waits for a fill in progress, which would otherwise store what this deletes
+            accountRepository.lockById(accountId);
+            snapshotRepository.deleteFromDate(accountId, changeDay);
+        }
+    }
+    
+    /**
+     * Extends every account's snapshots through the given day, so no balance up to it needs
+     * the transactions of those days any more; run before they are archived. Accounts are
+     * filled in id ranges, each committed in its own transaction, so neither the persistence
+     * context nor the database transaction grows with the number of accounts. Accounts are
+     * locked in id order as they are filled and stay locked until their range commits.
+     */
+    public void fillAllSnapshots(LocalDate throughDate) {
+        long maxId = accountRepository.findMaxId();
+        for (long fromId = 1; fromId <= maxId; fromId += fillChunkSize) {
+            long from = fromId;
+            long to = Math.min(fromId + fillChunkSize - 1, maxId);
+            chunkTransaction.executeWithoutResult(status -> {
+                for (Account account : accountRepository.findByIdBetween(from, to)) {
+                    fillSnapshots(account, throughDate);
+                }
+            });
+        }
+    }
+    
+    /**
+     * Extends the account's snapshots through the given day, starting after the last one. The
+     * account row stays locked until the surrounding transaction ends.
+     */
+    private void fillSnapshots(Account account, LocalDate throughDate) {
+        LocalDate lastSnapshotDate = snapshotRepository.findLatestBalanceDate(account.getId());
+        if (covers(lastSnapshotDate, throughDate)) {
+            return;
+        }
+        // Writers lock the row from their balance update or invalidation to their commit. Once
+        // the lock is ours, the ledger read below sees their transactions and their
+        // invalidations have run, so look at the snapshots again.
+        accountRepository.lockById(account.getId());
+        lastSnapshotDate = snapshotRepository.findLatestBalanceDate(account.getId());
+        if (covers(lastSnapshotDate, throughDate)) {
+            return;
+        }
+        LocalDateTime fromDate = lastSnapshotDate != null ? lastSnapshotDate.plusDays(1).atStartOfDay() : LEDGER_START;
+        snapshotRepository.insertDailyBalances(account.getId(), balanceAt(account, lastSnapshotDate),
+                fromDate, throughDate.plusDays(1).atStartOfDay(), throughDate);
+    }
+    
+    private static boolean covers(LocalDate lastSnapshotDate, LocalDate throughDate) {
+        return lastSnapshotDate != null && !lastSnapshotDate.isBefore(throughDate);
+    }
+    
+    /**
+     * Closing balance on a closed day: the latest snapshot on or before it, or the initial
+     * balance before the first one.
+     */
+    private BigDecimal balanceAt(Account account, LocalDate date) {
+        if (date == null) {
+            return account.getInitialBalance();
+        }
+        return snapshotRepository.findFirstByAccountIdAndBalanceDateLessThanEqualOrderByBalanceDateDesc(account.getId(), date)
+                .map(AccountBalanceSnapshot::getBalance)
+                .orElse(account.getInitialBalance());
+    }
+}
@@ -1,23 +1,36 @@
 package com.pft.service;
 
+import com.pft.config.CacheConfig;
+import com.pft.config.MetricsConfig;
 import com.pft.dto.AccountDto;
 import com.pft.entity.Account;
 import com.pft.entity.User;
+import com.pft.entity.UserDataVersion;
+import com.pft.repository.AccountBalanceSnapshotRepository;
 import com.pft.repository.AccountRepository;
+import com.pft.repository.TransactionRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(MetricsConfig.SERVICE_METRIC)
 @RequiredArgsConstructor
 public class AccountService {
     
     private final AccountRepository accountRepository;
+    private final AccountBalanceSnapshotRepository accountBalanceSnapshotRepository;
+    private final TransactionRepository transactionRepository;
     private final UserService userService;
+    private final DataVersionService dataVersionService;
     
     public AccountDto getAccountById(Long accountId, Long userId) {
         Account account = accountRepository.findById(accountId)
@@ -64,10 +77,12 @@ public class AccountService {
         }
         
         Account savedAccount = accountRepository.save(account);
+        dataVersionService.recordChange(userId, UserDataVersion.DataType.ACCOUNTS);
         return AccountDto.fromEntity(savedAccount);
     }
     
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.ACCOUNTS, key = "#accountId")
     public AccountDto updateAccount(Long accountId, AccountDto accountDto, Long userId) {
         Account account = accountRepository.findById(accountId)
                 .orElseThrow(() -> new RuntimeException("Account not found with ID: " + accountId));
@@ -98,10 +113,13 @@ public class AccountService {
         }
         
         Account updatedAccount = accountRepository.save(account);
+        // Transactions show the account name
+        dataVersionService.recordChange(userId, UserDataVersion.DataType.ACCOUNTS, UserDataVersion.DataType.TRANSACTIONS);
         return AccountDto.fromEntity(updatedAccount);
     }
     
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.ACCOUNTS, key = "#accountId")
     public void deleteAccount(Long accountId, Long userId) {
         Account account = accountRepository.findById(accountId)
                 .orElseThrow(() -> new RuntimeException("Account not found with ID: " + accountId));
@@ -111,12 +129,14 @@ public class AccountService {
             throw new RuntimeException("Access denied: Account does not belong to user");
         }
         
-        // Check if account has transactions
-        if (!account.getTransactions().isEmpty()) {
+        // Check if account has transactions, including transfers into it
+        if (transactionRepository.existsByAccountId(accountId)) {
             throw new RuntimeException("Cannot delete account with existing transactions");
         }
         
+        accountBalanceSnapshotRepository.deleteByAccountId(accountId);
         accountRepository.delete(account);
+        dataVersionService.recordChange(userId, UserDataVersion.DataType.ACCOUNTS);
     }
     
     @Transactional
@@ -141,16 +161,37 @@ public class AccountService {
         // Set this account as default
         account.setDefault(true);
         Account updatedAccount = accountRepository.save(account);
+        dataVersionService.recordChange(userId, UserDataVersion.DataType.ACCOUNTS);
         return AccountDto.fromEntity(updatedAccount);
     }
     
+    /**
+     * Applies a balance change in a single UPDATE so concurrent writers to the same
+     * account cannot overwrite each other's changes. Pending changes are flushed first and
+     * the persistence context is cleared afterwards: entities loaded before the call are
+     * detached, and only their ids may be used after it.
+     */
     @Transactional
     public void updateAccountBalance(Long accountId, BigDecimal amount) {
-        Account account = accountRepository.findById(accountId)
-                .orElseThrow(() -> new RuntimeException("Account not found with ID: " + accountId));
-        
-        account.updateBalance(amount);
-        accountRepository.save(account);
+        int updated = accountRepository.adjustBalance(accountId, amount, LocalDateTime.now());
+        if (updated == 0) {
+            throw new RuntimeException("Account not found with ID: " + accountId);
+        }
+    }
+    
+    /**
+     * Applies a balance change only if the account holds at least the required amount. The
+     * check is part of the UPDATE, so it always sees the current balance.
+     */
+    @Transactional
+    public void updateAccountBalanceIfSufficientFunds(Long accountId, BigDecimal amount, BigDecimal requiredBalance) {
+        int updated = accountRepository.adjustBalanceIfAtLeast(accountId, amount, requiredBalance, LocalDateTime.now());
+        if (updated == 0) {
+            if (!accountRepository.existsById(accountId)) {
+                throw new RuntimeException("Account not found with ID: " + accountId);
+            }
+            throw new RuntimeException("Insufficient funds in account");
+        }
     }
     
     public BigDecimal getTotalBalanceByUserId(Long userId) {
@@ -183,9 +224,33 @@ public class AccountService {
         return accountRepository.countByUserIdAndType(userId, type);
     }
     
-    // Internal method to get account entity
+    // Internal method to get account entity. Loaded afresh on every call, so the balance is current.
     public Account getAccountEntityById(Long accountId) {
         return accountRepository.findById(accountId)
                 .orElseThrow(() -> new RuntimeException("Account not found with ID: " + accountId));
     }
+    
+    /**
+     * Immutable summary of the account, cached by id, for ownership checks on every transaction
+     * write. Holds nothing that transactions change; the balance is read through the repository.
+     */
+    @Cacheable(cacheNames = CacheConfig.ACCOUNTS, key = "#accountId")
+    public AccountSummary getAccountSummary(Long accountId) {
+        Account account = getAccountEntityById(accountId);
+        return new AccountSummary(account.getId(), account.getUser().getId(), account.getName());
+    }
+    
+    /**
+     * Uninitialized reference to an account for setting a relationship; reading anything but its
+     * id loads the row.
+     */
+    public Account getAccountReference(Long accountId) {
+        return accountRepository.getReferenceById(accountId);
+    }
+    
+    /**
+     * What the account cache holds: the owner for access checks and the name shown on transactions
+     */
+    public record AccountSummary(Long id, Long userId, String name) {
+    }
 } 
\ No newline at end of file
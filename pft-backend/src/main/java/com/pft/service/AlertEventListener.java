@@ -0,0 +1,29 @@
+package com.pft.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Logs and counts committed alert state transitions.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AlertEventListener {
+    
+    public static final String ALERTS_METRIC = "pft.alerts";
+    
+    private final MeterRegistry meterRegistry;
+    
+    @TransactionalEventListener
+    public void onAlertStateChanged(AlertStateChangedEvent event) {
+        log.info("{} {} '{}' of user {} went from {} to {}", event.subject(), event.subjectId(), event.name(),
+                event.userId(), event.previousState(), event.alertState());
+        meterRegistry.counter(ALERTS_METRIC,
+                "subject", event.subject().name(),
+                "state", event.alertState().name()).increment();
+    }
+}
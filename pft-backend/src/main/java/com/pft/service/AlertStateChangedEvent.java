@@ -0,0 +1,16 @@
+package com.pft.service;
+
+import com.pft.entity.AlertState;
+
+/**
+ * Published when a budget or goal moves between alert states. Listeners that act on it outside
+ * the database should wait for the publishing transaction to commit.
+ */
+public record AlertStateChangedEvent(Subject subject, Long subjectId, Long userId, String name,
+                                     AlertState previousState, AlertState alertState) {
+    
+    public enum Subject {
+        BUDGET,
+        GOAL
+    }
+}
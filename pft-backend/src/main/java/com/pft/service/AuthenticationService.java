@@ -1,11 +1,13 @@
 package com.pft.service;
 
+import com.pft.config.MetricsConfig;
 import com.pft.dto.UserDto;
 import com.pft.dto.auth.AuthResponse;
 import com.pft.dto.auth.LoginRequest;
 import com.pft.dto.auth.RegisterRequest;
 import com.pft.entity.User;
 import com.pft.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -19,6 +21,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDate;
 
 @Service
+@Timed(MetricsConfig.SERVICE_METRIC)
 @RequiredArgsConstructor
 public class AuthenticationService {
     
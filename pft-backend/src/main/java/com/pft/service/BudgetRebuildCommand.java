@@ -0,0 +1,28 @@
+package com.pft.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Offline rebuild of budget spent amounts. Starting the application with {@code --rebuild-budgets}
+ * recomputes every active budget from the ledger and then exits, e.g. after a bulk load that
+ * bypassed the service layer. Manual add-spent and reset-spent adjustments are discarded.
+ */
+@Component
+@RequiredArgsConstructor
+public class BudgetRebuildCommand implements OfflineCommand {
+    
+    private final BudgetRebuildJob budgetRebuildJob;
+    
+    @Override
+    public String option() {
+        return "rebuild-budgets";
+    }
+    
+    @Override
+    public void run(List<String> values) {
+        budgetRebuildJob.rebuildAll();
+    }
+}
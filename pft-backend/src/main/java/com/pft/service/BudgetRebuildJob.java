@@ -0,0 +1,75 @@
+package com.pft.service;
+
+import com.pft.util.DaemonThreadFactory;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Recomputes every active budget's spent amount from the ledger. Budgets are split into id ranges
+ * that are rebuilt in parallel, each in its own short transaction. The result replaces the stored
+ * amounts, so manual add-spent and reset-spent adjustments are discarded; it therefore only runs
+ * on demand (--rebuild-budgets, see BudgetRebuildCommand) unless app.budgets.rebuild.cron is set.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BudgetRebuildJob {
+    
+    private final BudgetService budgetService;
+    
+    @Value("${app.budgets.rebuild.workers:4}")
+    private int workers;
+    
+    @Value("${app.budgets.rebuild.chunk-size:1000}")
+    private int chunkSize;
+    
+    private ExecutorService executor;
+    
+    @PostConstruct
+    void init() {
+        executor = Executors.newFixedThreadPool(workers, new DaemonThreadFactory("budget-rebuild"));
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+    
+    @Scheduled(cron = "${app.budgets.rebuild.cron:-}")
+    public void rebuildAll() {
+        long started = System.currentTimeMillis();
+        long maxId = budgetService.getMaxBudgetId();
+        
+        List<Future<Integer>> results = new ArrayList<>();
+        for (long fromId = 1; fromId <= maxId; fromId += chunkSize) {
+            long from = fromId;
+            long to = Math.min(fromId + chunkSize - 1, maxId);
+            results.add(executor.submit(() -> budgetService.rebuildSpentAmountsForIdRange(from, to)));
+        }
+        
+        int rebuilt = 0;
+        for (Future<Integer> result : results) {
+            try {
+                rebuilt += result.get();
+            } catch (ExecutionException e) {
+                log.error("Budget rebuild chunk failed", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        log.info("Rebuilt spent amounts of {} budgets in {} ms", rebuilt, System.currentTimeMillis() - started);
+    }
+}
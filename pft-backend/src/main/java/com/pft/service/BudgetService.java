@@ -1,26 +1,37 @@
 package com.pft.service;
 
+import com.pft.config.MetricsConfig;
 import com.pft.dto.BudgetDto;
+import com.pft.entity.AlertState;
 import com.pft.entity.Budget;
 import com.pft.entity.Category;
 import com.pft.entity.User;
+import com.pft.entity.UserDataVersion;
 import com.pft.repository.BudgetRepository;
+import com.pft.repository.TransactionRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(MetricsConfig.SERVICE_METRIC)
 @RequiredArgsConstructor
 public class BudgetService {
     
     private final BudgetRepository budgetRepository;
+    private final TransactionRepository transactionRepository;
     private final UserService userService;
     private final CategoryService categoryService;
+    private final DataVersionService dataVersionService;
+    private final ApplicationEventPublisher eventPublisher;
     
     public BudgetDto getBudgetById(Long budgetId, Long userId) {
         Budget budget = budgetRepository.findById(budgetId)
@@ -81,8 +92,15 @@ public class BudgetService {
         budget.setAlertThreshold(budgetDto.getAlertThreshold());
         budget.setUser(user);
         budget.setCategory(category);
+        // Start from the expenses already recorded in the budget's window
+        budget.setSpentAmount(calculateSpentAmount(budget));
+        budget.setAlertState(budget.calculateAlertState());
         
         Budget savedBudget = budgetRepository.save(budget);
+        if (savedBudget.getAlertState() != AlertState.NORMAL) {
+            publishAlertStateChange(savedBudget, AlertState.NORMAL);
+        }
+        dataVersionService.recordChange(userId, UserDataVersion.DataType.BUDGETS);
         return BudgetDto.fromEntity(savedBudget);
     }
     
@@ -115,8 +133,14 @@ public class BudgetService {
         if (budgetDto.getStatus() != null) {
             budget.setStatus(budgetDto.getStatus());
         }
+        // A changed window, or a budget that was inactive and missed deltas, needs a fresh total
+        if (budgetDto.getEndDate() != null || budgetDto.getStatus() != null) {
+            budget.setSpentAmount(calculateSpentAmount(budget));
+        }
+        updateAlertState(budget);
         
         Budget updatedBudget = budgetRepository.save(budget);
+        dataVersionService.recordChange(userId, UserDataVersion.DataType.BUDGETS);
         return BudgetDto.fromEntity(updatedBudget);
     }
     
@@ -131,8 +155,14 @@ public class BudgetService {
         }
         
         budgetRepository.delete(budget);
+        dataVersionService.recordChange(userId, UserDataVersion.DataType.BUDGETS);
     }
     
+    /**
+     * Adjusts the spent amount by hand, on top of what the ledger accounts for. The adjustment
+     * lasts until the budget is next recomputed from the ledger (recalculate-spent, a statement
+     * import, a window or status change, or a budget rebuild).
+     */
     @Transactional
     public void addSpentAmount(Long budgetId, BigDecimal amount, Long userId) {
         Budget budget = budgetRepository.findById(budgetId)
@@ -144,9 +174,14 @@ public class BudgetService {
         }
         
         budget.addSpentAmount(amount);
+        updateAlertState(budget);
         budgetRepository.save(budget);
+        dataVersionService.recordChange(userId, UserDataVersion.DataType.BUDGETS);
     }
     
+    /**
+     * Sets the spent amount to zero by hand; lasts until the next recompute, like addSpentAmount.
+     */
     @Transactional
     public void resetSpentAmount(Long budgetId, Long userId) {
         Budget budget = budgetRepository.findById(budgetId)
@@ -158,7 +193,124 @@ public class BudgetService {
         }
         
         budget.resetSpentAmount();
+        updateAlertState(budget);
         budgetRepository.save(budget);
+        dataVersionService.recordChange(userId, UserDataVersion.DataType.BUDGETS);
+    }
+    
+    /**
+     * Applies a transaction's spending change to every matching active budget in one UPDATE.
+     * Only expenses count towards budgets; callers pass the signed change in the expense amount.
+     */
+    @Transactional
+    public void applyTransactionSpending(Long userId, Long categoryId, LocalDateTime transactionDate, BigDecimal delta) {
+        if (delta.signum() != 0
+                && budgetRepository.applySpentDelta(userId, categoryId, transactionDate, delta, LocalDateTime.now()) > 0) {
+            refreshAlertStates(budgetRepository.findStaleAlertStatesByUserId(userId));
+        }
+    }
+    
+    /**
+     * Applies the spending changes of many transactions of one user and category, given per
+     * transaction date, with one UPDATE per budget whose window they fall in rather than one
+     * per date. Budgets are updated in id order, as the rebuilds lock them.
+     */
+    @Transactional
+    public void applyTransactionSpending(Long userId, Long categoryId, Map<LocalDateTime, BigDecimal> deltasByDate) {
+        boolean applied = false;
+        for (BudgetRepository.BudgetWindow window : budgetRepository.findActiveBudgetWindows(userId, categoryId)) {
+            BigDecimal delta = BigDecimal.ZERO;
+            for (Map.Entry<LocalDateTime, BigDecimal> entry : deltasByDate.entrySet()) {
+                LocalDateTime transactionDate = entry.getKey();
+                if (!transactionDate.isBefore(window.getStartDate())
+                        && (window.getEndDate() == null || !transactionDate.isAfter(window.getEndDate()))) {
+                    delta = delta.add(entry.getValue());
+                }
+            }
+            if (delta.signum() != 0 && budgetRepository.addSpentDelta(window.getId(), delta, LocalDateTime.now()) > 0) {
+                applied = true;
+            }
+        }
+        if (applied) {
+            refreshAlertStates(budgetRepository.findStaleAlertStatesByUserId(userId));
+        }
+    }
+    
+    /**
+     * Recomputes the spent amounts of the user's active budgets from the ledger. The budgets are
+     * locked before the sums are read: a writer that has already applied a spending delta holds
+     * its budget's lock until it commits, so the sums, read in the next statement, include its
+     * transaction; a writer that has not is blocked until the rebuild commits and then applies
+     * its delta on top. Without the lock, the sums could miss a transaction whose delta the
+     * rebuild then overwrites. Ledger writers change the transactions before the budgets.
+     */
+    @Transactional
+    public void rebuildSpentAmountsByUserId(Long userId) {
+        budgetRepository.lockActiveBudgetsByUserId(userId);
+        budgetRepository.rebuildSpentAmountsByUserId(userId);
+        refreshAlertStates(budgetRepository.findStaleAlertStatesByUserId(userId));
+        dataVersionService.recordChange(userId, UserDataVersion.DataType.BUDGETS);
+    }
+    
+    /**
+     * Recomputes the spent amounts of the active budgets with IDs in [fromId, toId] from the
+     * ledger, locking them first as rebuildSpentAmountsByUserId does.
+     */
+    @Transactional
+    public int rebuildSpentAmountsForIdRange(Long fromId, Long toId) {
+        budgetRepository.lockActiveBudgetsForIdRange(fromId, toId);
+        int rebuilt = budgetRepository.rebuildSpentAmountsForIdRange(fromId, toId);
+        refreshAlertStates(budgetRepository.findStaleAlertStatesForIdRange(fromId, toId));
+        dataVersionService.recordChange(budgetRepository.findActiveBudgetUserIdsForIdRange(fromId, toId),
+                UserDataVersion.DataType.BUDGETS);
+        return rebuilt;
+    }
+    
+    public long getMaxBudgetId() {
+        return budgetRepository.findMaxId();
+    }
+    
+    /**
+     * Stores the alert state the budget's amounts now call for, publishing the transition if any.
+     */
+    private void updateAlertState(Budget budget) {
+        AlertState previousState = budget.getAlertState();
+        budget.setAlertState(budget.calculateAlertState());
+        if (budget.getAlertState() != previousState) {
+            publishAlertStateChange(budget, previousState);
+        }
+    }
+    
+    /**
+     * Moves budgets whose spent amounts were changed in bulk to their new alert states, one
+     * UPDATE per state.
+     */
+    private void refreshAlertStates(List<BudgetRepository.AlertStateView> staleBudgets) {
+        if (staleBudgets.isEmpty()) {
+            return;
+        }
+        Map<AlertState, List<BudgetRepository.AlertStateView>> byState = staleBudgets.stream()
+                .collect(Collectors.groupingBy(view ->
+                        Budget.alertStateOf(view.getSpentAmount(), view.getAmount(), view.getAlertThreshold())));
+        byState.forEach((alertState, budgets) -> {
+            budgetRepository.updateAlertState(
+                    budgets.stream().map(BudgetRepository.AlertStateView::getId).collect(Collectors.toList()),
+                    alertState);
+            budgets.forEach(view -> eventPublisher.publishEvent(new AlertStateChangedEvent(
+                    AlertStateChangedEvent.Subject.BUDGET, view.getId(), view.getUserId(), view.getName(),
+                    view.getAlertState(), alertState)));
+        });
+    }
+    
+    private void publishAlertStateChange(Budget budget, AlertState previousState) {
+        eventPublisher.publishEvent(new AlertStateChangedEvent(AlertStateChangedEvent.Subject.BUDGET,
+                budget.getId(), budget.getUser().getId(), budget.getName(), previousState, budget.getAlertState()));
+    }
+    
+    private BigDecimal calculateSpentAmount(Budget budget) {
+        Long categoryId = budget.getCategory() != null ? budget.getCategory().getId() : null;
+        return transactionRepository.getExpenseTotalForBudgetWindow(
+                budget.getUser().getId(), categoryId, budget.getStartDate(), budget.getEndDate());
     }
     
     public List<BudgetDto> getOverBudgetBudgetsByUserId(Long userId) {
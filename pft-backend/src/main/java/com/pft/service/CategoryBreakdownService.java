@@ -0,0 +1,171 @@
+package com.pft.service;
+
+import com.pft.config.MetricsConfig;
+import com.pft.dto.CategoryBreakdownDto;
+import com.pft.entity.Category;
+import com.pft.entity.Transaction;
+import com.pft.entity.TransactionMonthlyRollup;
+import com.pft.repository.CategoryRepository;
+import com.pft.repository.TransactionMonthlyRollupRepository;
+import com.pft.repository.TransactionRepository;
+import com.pft.util.Granularity;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Breaks a user's transactions down by category, period and type in one response. Day and
+ * week buckets come from one grouped query over the transactions; month and year buckets read
+ * the calendar months lying wholly inside the range from the monthly rollup and only group the
+ * partial months at either edge from the transactions. Archived months are left only in the
+ * rollup, so a range reaching into them must be bucketed by month or year and cover whole months.
+ */
+@Service
+@Timed(MetricsConfig.SERVICE_METRIC)
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class CategoryBreakdownService {
+    
+    private static final int MAX_PERIODS = 366;
+    private static final int DEFAULT_PERIODS = 12;
+    
+    private final TransactionRepository transactionRepository;
+    private final TransactionMonthlyRollupRepository rollupRepository;
+    private final CategoryRepository categoryRepository;
+    
+    /**
+     * Totals per category, type and period overlapping [from, to], optionally of one type only.
+     * The range ends today by default; without a start it covers the last 12 periods up to its end.
+     */
+    public CategoryBreakdownDto getCategoryBreakdown(Long userId, LocalDate from, LocalDate to,
+                                                     Granularity granularity, Transaction.TransactionType type) {
+        LocalDate endDate = to != null ? to : LocalDate.now();
+        LocalDate startDate = from != null ? from : granularity.periodStartBefore(endDate, DEFAULT_PERIODS - 1);
+        if (startDate.isAfter(endDate)) {
+            throw new RuntimeException("Breakdown start must not be after its end");
+        }
+        if (granularity.periods(startDate, endDate) > MAX_PERIODS) {
+            throw new RuntimeException("Breakdown is limited to " + MAX_PERIODS + " periods");
+        }
+        checkArchivedMonths(startDate, endDate, granularity);
+        
+        Map<Long, String> categoryNames = categoryRepository.findByUserId(userId).stream()
+                .collect(Collectors.toMap(Category::getId, Category::getName));
+        Map<EntryKey, CategoryBreakdownDto.Entry> entries = new HashMap<>();
+        if (granularity == Granularity.DAY || granularity == Granularity.WEEK) {
+            for (TransactionRepository.CategoryDayTotal total : transactionRepository.getCategoryTotalsByDay(userId,
+                    startDate.atStartOfDay(), endDate.plusDays(1).atStartOfDay(), type)) {
+                add(entries, categoryNames, granularity.periodStart(total.getTransactionDay()), total.getCategoryId(),
+                        total.getType(), total.getTotalAmount(), total.getTransactionCount());
+            }
+        } else {
+            for (TransactionRepository.CategoryMonthTotal total : getMonthlyTotals(userId, startDate, endDate, type)) {
+                LocalDate month = YearMonth.of(total.getYearMonth() / 100, total.getYearMonth() % 100).atDay(1);
+                add(entries, categoryNames, granularity.periodStart(month), total.getCategoryId(),
+                        total.getType(), total.getTotalAmount(), total.getTransactionCount());
+            }
+        }
+        
+        List<CategoryBreakdownDto.Entry> sortedEntries = new ArrayList<>(entries.values());
+        sortedEntries.sort(Comparator.comparing(CategoryBreakdownDto.Entry::getPeriodStart)
+                .thenComparing(CategoryBreakdownDto.Entry::getType)
+                .thenComparing(CategoryBreakdownDto.Entry::getTotalAmount, Comparator.reverseOrder()));
+        
+        CategoryBreakdownDto breakdown = new CategoryBreakdownDto();
+        breakdown.setFrom(startDate);
+        breakdown.setTo(endDate);
+        breakdown.setGranularity(granularity.name());
+        breakdown.setType(type);
+        breakdown.setEntries(sortedEntries);
+        return breakdown;
+    }
+    
+    /**
+     * Monthly totals of [startDate, endDate]: whole months from the rollup, the partial months at
+     * either edge from the transactions.
+     */
+    private List<TransactionRepository.CategoryMonthTotal> getMonthlyTotals(Long userId, LocalDate startDate, LocalDate endDate,
+                                                                           Transaction.TransactionType type) {
+        YearMonth firstMonth = YearMonth.from(startDate);
+        if (startDate.getDayOfMonth() != 1) {
+            firstMonth = firstMonth.plusMonths(1);
+        }
+        YearMonth lastMonth = YearMonth.from(endDate);
+        if (!endDate.equals(lastMonth.atEndOfMonth())) {
+            lastMonth = lastMonth.minusMonths(1);
+        }
+        if (firstMonth.isAfter(lastMonth)) {
+            return transactionRepository.getCategoryTotalsByMonth(userId,
+                    startDate.atStartOfDay(), endDate.plusDays(1).atStartOfDay(), type);
+        }
+        
+        List<TransactionRepository.CategoryMonthTotal> totals = new ArrayList<>(
+                rollupRepository.getCategoryTotalsByUserIdAndMonthRange(userId,
+                        TransactionMonthlyRollup.toYearMonth(firstMonth), TransactionMonthlyRollup.toYearMonth(lastMonth), type));
+        LocalDate wholeMonthsStart = firstMonth.atDay(1);
+        LocalDate wholeMonthsEnd = lastMonth.plusMonths(1).atDay(1);
+        if (startDate.isBefore(wholeMonthsStart)) {
+            totals.addAll(transactionRepository.getCategoryTotalsByMonth(userId,
+                    startDate.atStartOfDay(), wholeMonthsStart.atStartOfDay(), type));
+        }
+        if (!endDate.isBefore(wholeMonthsEnd)) {
+            totals.addAll(transactionRepository.getCategoryTotalsByMonth(userId,
+                    wholeMonthsEnd.atStartOfDay(), endDate.plusDays(1).atStartOfDay(), type));
+        }
+        return totals;
+    }
+    
+    /**
+     * Rejects ranges the archive cannot answer: archived transactions are only summed by month in
+     * the rollup, so neither day and week buckets nor a partial month can be taken from them.
+     */
+    private void checkArchivedMonths(LocalDate startDate, LocalDate endDate, Granularity granularity) {
+        // Only years before the previous one can be archived; skip the lookup for recent ranges
+        if (!startDate.isBefore(LocalDate.now().minusYears(1).withDayOfYear(1))) {
+            return;
+        }
+        Integer lastArchivedYearMonth = rollupRepository.findLastArchivedYearMonth();
+        if (lastArchivedYearMonth == null
+                || TransactionMonthlyRollup.toYearMonth(YearMonth.from(startDate)) > lastArchivedYearMonth) {
+            return;
+        }
+        if (granularity == Granularity.DAY || granularity == Granularity.WEEK) {
+            throw new RuntimeException("Day and week breakdowns cannot reach into archived months");
+        }
+        boolean partialEndInArchive = TransactionMonthlyRollup.toYearMonth(YearMonth.from(endDate)) <= lastArchivedYearMonth
+                && !endDate.equals(YearMonth.from(endDate).atEndOfMonth());
+        if (startDate.getDayOfMonth() != 1 || partialEndInArchive) {
+            throw new RuntimeException("Breakdowns reaching into archived months must start and end on month boundaries");
+        }
+    }
+    
+    private static void add(Map<EntryKey, CategoryBreakdownDto.Entry> entries, Map<Long, String> categoryNames,
+                            LocalDate periodStart, Long categoryId, Transaction.TransactionType type,
+                            BigDecimal totalAmount, long transactionCount) {
+        Long entryCategoryId = categoryId == TransactionMonthlyRollup.NO_CATEGORY ? null : categoryId;
+        CategoryBreakdownDto.Entry entry = entries.computeIfAbsent(new EntryKey(periodStart, entryCategoryId, type), key -> {
+            CategoryBreakdownDto.Entry newEntry = new CategoryBreakdownDto.Entry();
+            newEntry.setPeriodStart(periodStart);
+            newEntry.setCategoryId(entryCategoryId);
+            newEntry.setCategoryName(entryCategoryId != null ? categoryNames.get(entryCategoryId) : "Uncategorized");
+            newEntry.setType(type);
+            return newEntry;
+        });
+        entry.setTotalAmount(entry.getTotalAmount().add(totalAmount));
+        entry.setTransactionCount(entry.getTransactionCount() + transactionCount);
+    }
+    
+    private record EntryKey(LocalDate periodStart, Long categoryId, Transaction.TransactionType type) {
+    }
+}
@@ -1,10 +1,18 @@
 package com.pft.service;
 
+import com.pft.config.CacheConfig;
+import com.pft.config.MetricsConfig;
 import com.pft.dto.CategoryDto;
 import com.pft.entity.Category;
 import com.pft.entity.User;
+import com.pft.entity.UserDataVersion;
+import com.pft.repository.BudgetRepository;
 import com.pft.repository.CategoryRepository;
+import com.pft.repository.TransactionRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -12,11 +20,15 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(MetricsConfig.SERVICE_METRIC)
 @RequiredArgsConstructor
 public class CategoryService {
     
     private final CategoryRepository categoryRepository;
+    private final TransactionRepository transactionRepository;
+    private final BudgetRepository budgetRepository;
     private final UserService userService;
+    private final DataVersionService dataVersionService;
     
     public CategoryDto getCategoryById(Long categoryId, Long userId) {
         Category category = categoryRepository.findById(categoryId)
@@ -66,10 +78,12 @@ public class CategoryService {
         category.setUser(user);
         
         Category savedCategory = categoryRepository.save(category);
+        dataVersionService.recordChange(userId, UserDataVersion.DataType.CATEGORIES);
         return CategoryDto.fromEntity(savedCategory);
     }
     
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.CATEGORIES, key = "#categoryId")
     public CategoryDto updateCategory(Long categoryId, CategoryDto categoryDto, Long userId) {
         Category category = categoryRepository.findById(categoryId)
                 .orElseThrow(() -> new RuntimeException("Category not found with ID: " + categoryId));
@@ -104,10 +118,14 @@ public class CategoryService {
         }
         
         Category updatedCategory = categoryRepository.save(category);
+        // Transactions and budgets show the category name
+        dataVersionService.recordChange(userId, UserDataVersion.DataType.CATEGORIES,
+                UserDataVersion.DataType.TRANSACTIONS, UserDataVersion.DataType.BUDGETS);
         return CategoryDto.fromEntity(updatedCategory);
     }
     
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.CATEGORIES, key = "#categoryId")
     public void deleteCategory(Long categoryId, Long userId) {
         Category category = categoryRepository.findById(categoryId)
                 .orElseThrow(() -> new RuntimeException("Category not found with ID: " + categoryId));
@@ -123,11 +141,14 @@ public class CategoryService {
         }
         
         // Check if category has transactions
-        if (!category.getTransactions().isEmpty()) {
+        if (transactionRepository.existsByCategoryId(categoryId)) {
             throw new RuntimeException("Cannot delete category with existing transactions");
         }
         
+        // The category's budgets go with it
+        budgetRepository.deleteByCategoryId(categoryId);
         categoryRepository.delete(category);
+        dataVersionService.recordChange(userId, UserDataVersion.DataType.CATEGORIES, UserDataVersion.DataType.BUDGETS);
     }
     
     public List<CategoryDto> getDefaultCategories() {
@@ -150,9 +171,32 @@ public class CategoryService {
         return categoryRepository.countByUserIdAndType(userId, type);
     }
     
-    // Internal method to get category entity
+    // Internal method to get category entity, loaded afresh on every call
     public Category getCategoryEntityById(Long categoryId) {
         return categoryRepository.findById(categoryId)
                 .orElseThrow(() -> new RuntimeException("Category not found with ID: " + categoryId));
     }
+    
+    /**
+     * Immutable summary of the category, cached by id, for ownership checks on every transaction write.
+     */
+    @Cacheable(cacheNames = CacheConfig.CATEGORIES, key = "#categoryId")
+    public CategorySummary getCategorySummary(Long categoryId) {
+        Category category = getCategoryEntityById(categoryId);
+        return new CategorySummary(category.getId(), category.getUser().getId(), category.getName());
+    }
+    
+    /**
+     * Uninitialized reference to a category for setting a relationship; reading anything but its
+     * id loads the row.
+     */
+    public Category getCategoryReference(Long categoryId) {
+        return categoryRepository.getReferenceById(categoryId);
+    }
+    
+    /**
+     * What the category cache holds: the owner for access checks and the name shown on transactions
+     */
+    public record CategorySummary(Long id, Long userId, String name) {
+    }
 } 
\ No newline at end of file
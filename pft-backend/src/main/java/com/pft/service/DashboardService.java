@@ -0,0 +1,89 @@
+package com.pft.service;
+
+import com.pft.config.MetricsConfig;
+import com.pft.dto.BudgetDto;
+import com.pft.dto.DashboardStatsDto;
+import com.pft.dto.GoalDto;
+import com.pft.dto.TransactionDto;
+import com.pft.entity.Transaction;
+import com.pft.repository.TransactionRepository;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+/**
+ * Builds the dashboard overview from aggregate queries so the cost of a
+ * dashboard load does not grow with the user's transaction history. The
+ * queries are independent and run concurrently, each in its own read-only
+ * transaction, so no transaction is held on the request thread.
+ */
+@Service
+@Timed(MetricsConfig.SERVICE_METRIC)
+@RequiredArgsConstructor
+public class DashboardService {
+
+    private static final int RECENT_TRANSACTION_LIMIT = 5;
+
+    private final TransactionRepository transactionRepository;
+    private final TransactionRollupService transactionRollupService;
+    private final AccountService accountService;
+    private final BudgetService budgetService;
+    private final GoalService goalService;
+    private final QueryFanOut queryFanOut;
+
+    public DashboardStatsDto getDashboardStats(Long userId) {
+        YearMonth currentMonth = YearMonth.now();
+
+        try (QueryFanOut.Request fanOut = queryFanOut.start()) {
+            Future<BigDecimal> totalBalance = fanOut.submit(() -> accountService.getTotalBalanceByUserId(userId));
+            Future<List<TransactionRepository.TypeTotal>> monthlyTotals = fanOut.submit(() ->
+                    transactionRollupService.getTotalsByUserIdAndTypeForMonth(userId, currentMonth));
+            Future<Long> activeBudgets = fanOut.submit(() -> budgetService.getActiveBudgetCountByUserId(userId));
+            Future<Long> activeGoals = fanOut.submit(() -> goalService.getActiveGoalCountByUserId(userId));
+            Future<List<BudgetDto>> budgetAlerts = fanOut.submit(() -> budgetService.getOverBudgetBudgetsByUserId(userId));
+            Future<List<GoalDto>> goalAlerts = fanOut.submit(() -> goalService.getGoalsNearCompletionByUserId(userId));
+            // Recent transactions, limited in the query and mapped while the transaction is open
+            Future<List<TransactionDto>> recentTransactions = fanOut.submit(() -> transactionRepository
+                    .findRecentByUserId(userId, PageRequest.of(0, RECENT_TRANSACTION_LIMIT)).stream()
+                    .map(TransactionDto::fromEntity)
+                    .collect(Collectors.toList()));
+
+            DashboardStatsDto stats = new DashboardStatsDto();
+
+            // Account statistics
+            BigDecimal balance = fanOut.get(totalBalance, BigDecimal.ZERO);
+            stats.setTotalBalance(balance);
+            stats.setNetWorth(balance);
+
+            // Income and expenses for the current month, read from the monthly rollup
+            BigDecimal monthlyIncome = BigDecimal.ZERO;
+            BigDecimal monthlyExpenses = BigDecimal.ZERO;
+            for (TransactionRepository.TypeTotal total : fanOut.get(monthlyTotals, List.of())) {
+                if (total.getType() == Transaction.TransactionType.INCOME) {
+                    monthlyIncome = total.getTotal();
+                } else if (total.getType() == Transaction.TransactionType.EXPENSE) {
+                    monthlyExpenses = total.getTotal().abs();
+                }
+            }
+            stats.setMonthlyIncome(monthlyIncome);
+            stats.setMonthlyExpenses(monthlyExpenses);
+
+            // Budget and goal statistics
+            stats.setActiveBudgets(fanOut.get(activeBudgets, 0L));
+            stats.setActiveGoals(fanOut.get(activeGoals, 0L));
+            stats.setBudgetAlerts(fanOut.get(budgetAlerts, List.of()));
+            stats.setGoalAlerts(fanOut.get(goalAlerts, List.of()));
+            stats.setRecentTransactions(fanOut.get(recentTransactions, List.of()));
+
+            stats.setPartial(fanOut.isPartial());
+            return stats;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.pft.service;
+
+import com.pft.config.MetricsConfig;
+import com.pft.entity.UserDataVersion;
+import com.pft.entity.UserDataVersion.DataType;
+import com.pft.repository.UserDataVersionRepository;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeSet;
+
+/**
+ * Tracks per-user data versions and turns them into ETags for the list endpoints. Write paths
+ * record their changes here inside their own database transaction, so the new version becomes
+ * visible together with the data, and an unchanged list can be answered with 304 Not Modified
+ * after a single primary key lookup.
+ * <p>
+ * Every write upserts the user's one version row and holds its row lock until commit, so a
+ * user's concurrent writes queue behind each other here. Ledger writes to one account already
+ * queue on the account row; writes to different accounts (or lists) of the same user are the
+ * ones this serializes.
+ */
+@Service
+@Timed(MetricsConfig.SERVICE_METRIC)
+@RequiredArgsConstructor
+public class DataVersionService {
+    
+    // A ledger write changes the transaction list, account balances and budget spending together
+    public static final DataType[] LEDGER = {DataType.TRANSACTIONS, DataType.ACCOUNTS, DataType.BUDGETS};
+    
+    private final UserDataVersionRepository userDataVersionRepository;
+    
+    @Transactional
+    public void recordChange(Long userId, DataType... types) {
+        EnumSet<DataType> changed = EnumSet.noneOf(DataType.class);
+        changed.addAll(List.of(types));
+        userDataVersionRepository.increment(userId,
+                increment(changed, DataType.ACCOUNTS),
+                increment(changed, DataType.CATEGORIES),
+                increment(changed, DataType.TRANSACTIONS),
+                increment(changed, DataType.BUDGETS),
+                increment(changed, DataType.GOALS));
+    }
+    
+    /**
+     * Records a change for several users at once. Users are visited in id order, so concurrent
+     * batches lock their version rows in the same order and cannot deadlock on them.
+     */
+    @Transactional
+    public void recordChange(Collection<Long> userIds, DataType... types) {
+        for (Long userId : new TreeSet<>(userIds)) {
+            recordChange(userId, types);
+        }
+    }
+    
+    @Transactional(readOnly = true)
+    public String getETag(Long userId, DataType type) {
+        long version = userDataVersionRepository.findById(userId)
+                .map(versions -> versions.getVersion(type))
+                .orElse(0L);
+        String eTag = type.name().toLowerCase(Locale.ROOT) + "-" + userId + "-" + version;
+        // Goals report days remaining and an overdue flag derived from the clock. Target dates
+        // are whole days, so those fields change at midnight and goal ETags carry the date.
+        if (type == DataType.GOALS) {
+            eTag += "-" + LocalDate.now();
+        }
+        return "\"" + eTag + "\"";
+    }
+    
+    private static long increment(EnumSet<DataType> changed, DataType type) {
+        return changed.contains(type) ? 1L : 0L;
+    }
+}
@@ -1,10 +1,15 @@
 package com.pft.service;
 
+import com.pft.config.MetricsConfig;
 import com.pft.dto.GoalDto;
+import com.pft.entity.AlertState;
 import com.pft.entity.Goal;
 import com.pft.entity.User;
+import com.pft.entity.UserDataVersion;
 import com.pft.repository.GoalRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -14,11 +19,14 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(MetricsConfig.SERVICE_METRIC)
 @RequiredArgsConstructor
 public class GoalService {
     
     private final GoalRepository goalRepository;
     private final UserService userService;
+    private final DataVersionService dataVersionService;
+    private final ApplicationEventPublisher eventPublisher;
     
     public GoalDto getGoalById(Long goalId, Long userId) {
         Goal goal = goalRepository.findById(goalId)
@@ -76,8 +84,13 @@ public class GoalService {
         goal.setColor(goalDto.getColor());
         goal.setIcon(goalDto.getIcon());
         goal.setUser(user);
+        goal.setAlertState(goal.calculateAlertState());
         
         Goal savedGoal = goalRepository.save(goal);
+        if (savedGoal.getAlertState() != AlertState.NORMAL) {
+            publishAlertStateChange(savedGoal, AlertState.NORMAL);
+        }
+        dataVersionService.recordChange(userId, UserDataVersion.DataType.GOALS);
         return GoalDto.fromEntity(savedGoal);
     }
     
@@ -116,8 +129,10 @@ public class GoalService {
         if (goalDto.getStatus() != null) {
             goal.setStatus(goalDto.getStatus());
         }
+        updateAlertState(goal);
         
         Goal updatedGoal = goalRepository.save(goal);
+        dataVersionService.recordChange(userId, UserDataVersion.DataType.GOALS);
         return GoalDto.fromEntity(updatedGoal);
     }
     
@@ -132,6 +147,7 @@ public class GoalService {
         }
         
         goalRepository.delete(goal);
+        dataVersionService.recordChange(userId, UserDataVersion.DataType.GOALS);
     }
     
     @Transactional
@@ -152,8 +168,10 @@ public class GoalService {
         if (newCurrentAmount.compareTo(goal.getTargetAmount()) >= 0) {
             goal.setStatus(Goal.GoalStatus.COMPLETED);
         }
+        updateAlertState(goal);
         
         Goal updatedGoal = goalRepository.save(goal);
+        dataVersionService.recordChange(userId, UserDataVersion.DataType.GOALS);
         return GoalDto.fromEntity(updatedGoal);
     }
     
@@ -174,11 +192,29 @@ public class GoalService {
         if (amount.compareTo(goal.getTargetAmount()) >= 0) {
             goal.setStatus(Goal.GoalStatus.COMPLETED);
         }
+        updateAlertState(goal);
         
         Goal updatedGoal = goalRepository.save(goal);
+        dataVersionService.recordChange(userId, UserDataVersion.DataType.GOALS);
         return GoalDto.fromEntity(updatedGoal);
     }
     
+    /**
+     * Stores the alert state the goal's amounts now call for, publishing the transition if any.
+     */
+    private void updateAlertState(Goal goal) {
+        AlertState previousState = goal.getAlertState();
+        goal.setAlertState(goal.calculateAlertState());
+        if (goal.getAlertState() != previousState) {
+            publishAlertStateChange(goal, previousState);
+        }
+    }
+    
+    private void publishAlertStateChange(Goal goal, AlertState previousState) {
+        eventPublisher.publishEvent(new AlertStateChangedEvent(AlertStateChangedEvent.Subject.GOAL,
+                goal.getId(), goal.getUser().getId(), goal.getName(), previousState, goal.getAlertState()));
+    }
+    
     public List<GoalDto> getGoalsDueSoonByUserId(Long userId) {
         LocalDateTime now = LocalDateTime.now();
         LocalDateTime thirtyDaysFromNow = now.plusDays(30);
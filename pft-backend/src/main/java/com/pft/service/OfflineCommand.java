@@ -0,0 +1,20 @@
+package com.pft.service;
+
+import java.util.List;
+
+/**
+ * A maintenance task run by starting the application with its option instead of serving
+ * requests. OfflineCommandRunner picks the command, runs it and exits.
+ */
+public interface OfflineCommand {
+    
+    /**
+     * The command line option that selects the command, without the leading dashes
+     */
+    String option();
+    
+    /**
+     * Runs the command with the values given to its option (empty for a bare flag)
+     */
+    void run(List<String> values);
+}
@@ -0,0 +1,46 @@
+package com.pft.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Runs the offline command selected on the command line, then closes the application and exits
+ * with status 0. A failing command fails the startup instead, so the process exits non-zero.
+ * Without a command option the application starts normally.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OfflineCommandRunner implements ApplicationRunner {
+    
+    private final List<OfflineCommand> commands;
+    private final ConfigurableApplicationContext context;
+    
+    @Override
+    public void run(ApplicationArguments args) {
+        List<OfflineCommand> selected = commands.stream()
+                .filter(command -> args.containsOption(command.option()))
+                .toList();
+        if (selected.isEmpty()) {
+            return;
+        }
+        if (selected.size() > 1) {
+            throw new RuntimeException("Only one command can run at a time, got " + selected.stream()
+                    .map(command -> "--" + command.option())
+                    .collect(Collectors.joining(", ")));
+        }
+        OfflineCommand command = selected.get(0);
+        long started = System.currentTimeMillis();
+        command.run(args.getOptionValues(command.option()));
+        log.info("--{} finished in {} ms", command.option(), System.currentTimeMillis() - started);
+        System.exit(SpringApplication.exit(context, () -> 0));
+    }
+}
@@ -0,0 +1,148 @@
+package com.pft.service;
+
+import com.pft.config.SqlStatementCounter;
+import com.pft.util.DaemonThreadFactory;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs independent read-only queries of one request concurrently, so the request takes about
+ * as long as its slowest query rather than the sum of all of them. Each query gets its own
+ * read-only transaction (and pool connection) on a bounded worker pool. Results not ready by
+ * the request's deadline are replaced by a fallback and the request is marked partial; so are
+ * queries shed because the pool and its queue are full, as running them on the request thread
+ * would hold it without a deadline. A query that fails makes the whole request fail.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class QueryFanOut {
+    
+    private final PlatformTransactionManager transactionManager;
+    
+    // Keep below the connection pool size so fanned-out queries cannot starve other requests
+    @Value("${app.fan-out.workers:6}")
+    private int workers;
+    
+    @Value("${app.fan-out.queue-capacity:100}")
+    private int queueCapacity;
+    
+    @Value("${app.fan-out.timeout-ms:2000}")
+    private long timeoutMs;
+    
+    private ExecutorService executor;
+    private TransactionTemplate readOnlyTransaction;
+    
+    @PostConstruct
+    void init() {
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new DaemonThreadFactory("query-fan-out"),
+                new ThreadPoolExecutor.AbortPolicy());
+        
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+    
+    /**
+     * Starts a fan-out whose deadline is the configured timeout from now. Close it when done
+     * so queries still running past the deadline are cancelled.
+     */
+    public Request start() {
+        return new Request(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs));
+    }
+    
+    public final class Request implements AutoCloseable {
+        
+        private final long deadline;
+        private final List<Future<?>> futures = new ArrayList<>();
+        private boolean partial;
+        
+        private Request(long deadline) {
+            this.deadline = deadline;
+        }
+        
+        public <T> Future<T> submit(Supplier<T> query) {
+            // Statements run by the workers still count towards the request that fanned out
+            AtomicInteger statements = SqlStatementCounter.current();
+            Future<T> future;
+            try {
+                future = executor.submit(() -> {
+                    try (SqlStatementCounter.Scope ignored = SqlStatementCounter.bind(statements)) {
+                        return readOnlyTransaction.execute(status -> query.get());
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                log.warn("Query fan-out pool is saturated, skipping query");
+                future = new CompletableFuture<>();
+                future.cancel(false);
+            }
+            futures.add(future);
+            return future;
+        }
+        
+        /**
+         * Waits for a query until the request's deadline. Returns the fallback, and marks the
+         * request partial, if the query did not finish in time or was skipped; rethrows what
+         * the query threw if it failed.
+         */
+        public <T> T get(Future<T> future, T fallback) {
+            try {
+                return future.get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                log.warn("Query did not finish within {} ms, returning partial results", timeoutMs);
+            } catch (CancellationException e) {
+                log.debug("Query was skipped, returning partial results");
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                if (e.getCause() instanceof Error cause) {
+                    throw cause;
+                }
+                throw new RuntimeException(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            partial = true;
+            return fallback;
+        }
+        
+        public boolean isPartial() {
+            return partial;
+        }
+        
+        @Override
+        public void close() {
+            futures.forEach(future -> future.cancel(true));
+        }
+    }
+}
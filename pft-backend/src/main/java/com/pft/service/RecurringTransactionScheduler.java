@@ -0,0 +1,89 @@
+package com.pft.service;
+
+import com.pft.util.DaemonThreadFactory;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Periodically drains the backlog of due recurring transactions on a bounded pool of workers.
+ * Each worker keeps claiming chunks until none are left, so the work spreads across the pool
+ * without any coordination beyond the row locks.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(prefix = "app.recurring", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class RecurringTransactionScheduler {
+    
+    private final RecurringTransactionService recurringTransactionService;
+    
+    @Value("${app.recurring.workers:4}")
+    private int workers;
+    
+    @Value("${app.recurring.chunk-size:500}")
+    private int chunkSize;
+    
+    private ExecutorService executor;
+    
+    @PostConstruct
+    void init() {
+        executor = Executors.newFixedThreadPool(workers, new DaemonThreadFactory("recurring"));
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+    
+    @Scheduled(fixedDelayString = "${app.recurring.interval-ms:60000}",
+               initialDelayString = "${app.recurring.initial-delay-ms:30000}")
+    public void processDueTransactions() {
+        // A fixed cut-off keeps the run finite while new occurrences fall due
+        LocalDateTime now = LocalDateTime.now();
+        long started = System.currentTimeMillis();
+        
+        List<Future<Integer>> results = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            results.add(executor.submit(() -> drain(now)));
+        }
+        
+        int processed = 0;
+        for (Future<Integer> result : results) {
+            try {
+                processed += result.get();
+            } catch (ExecutionException e) {
+                log.error("Recurring transaction worker failed", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        if (processed > 0) {
+            log.info("Processed {} recurring transaction schedules in {} ms", processed, System.currentTimeMillis() - started);
+        }
+    }
+    
+    private int drain(LocalDateTime now) {
+        int processed = 0;
+        int claimed;
+        do {
+            claimed = recurringTransactionService.processDueChunk(now, chunkSize);
+            processed += claimed;
+        } while (claimed > 0);
+        return processed;
+    }
+}
@@ -0,0 +1,237 @@
+package com.pft.service;
+
+import com.pft.config.MetricsConfig;
+import com.pft.entity.Transaction;
+import com.pft.repository.TransactionRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Materializes due occurrences of recurring transactions, one locked chunk of schedules per
+ * database transaction. Chunks are independent, so several workers (or application
+ * instances) can process the backlog concurrently. A chunk that fails is rolled back and
+ * retried one schedule at a time, so a single schedule that cannot run does not hold back
+ * the others; such a schedule counts a failure, waits for the next run, and is no longer
+ * claimed once it has failed MAX_FAILURES times in a row.
+ */
+@Service
+@Timed(MetricsConfig.SERVICE_METRIC)
+@RequiredArgsConstructor
+@Slf4j
+public class RecurringTransactionService {
+    
+    // Bounds the catch-up done for one schedule per chunk; the rest is picked up by a later chunk
+    private static final int MAX_OCCURRENCES_PER_SCHEDULE = 400;
+    
+    // Failed runs in a row after which a schedule is no longer claimed; resetting its
+    // recurring_failures column resumes it
+    static final int MAX_FAILURES = 3;
+    
+    private final TransactionRepository transactionRepository;
+    private final AccountService accountService;
+    private final AccountBalanceHistoryService accountBalanceHistoryService;
+    private final BudgetService budgetService;
+    private final TransactionRollupService transactionRollupService;
+    private final EntityManager entityManager;
+    private final DataVersionService dataVersionService;
+    private final PlatformTransactionManager transactionManager;
+    
+    // Occurrences flushed per batch, the same as Hibernate's JDBC batch
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size}")
+    private int batchSize;
+    
+    private TransactionTemplate chunkTransaction;
+    
+    @PostConstruct
+    void init() {
+        chunkTransaction = new TransactionTemplate(transactionManager);
+    }
+    
+    /**
+     * Claims up to chunkSize schedules due at now, generates every missed occurrence up to now
+     * and advances each schedule past it. Returns the number of schedules claimed, 0 once
+     * nothing is left to claim.
+     */
+    public int processDueChunk(LocalDateTime now, int chunkSize) {
+        List<Long> claimedIds = new ArrayList<>();
+        try {
+            return chunkTransaction.execute(status -> {
+                List<Transaction> schedules = transactionRepository.claimDueRecurringTransactions(now, MAX_FAILURES,
+                        PageRequest.of(0, chunkSize));
+                schedules.forEach(schedule -> claimedIds.add(schedule.getId()));
+                return generate(schedules, now);
+            });
+        } catch (RuntimeException e) {
+            if (claimedIds.isEmpty()) {
+                throw e;
+            }
+            if (claimedIds.size() == 1) {
+                recordFailure(claimedIds.get(0), now, e);
+                return 1;
+            }
+            log.warn("Recurring chunk of {} schedules failed, retrying them one at a time", claimedIds.size(), e);
+            for (Long scheduleId : claimedIds) {
+                try {
+                    chunkTransaction.executeWithoutResult(status -> transactionRepository
+                            .claimDueRecurringTransaction(scheduleId, now, MAX_FAILURES)
+                            .ifPresent(schedule -> generate(List.of(schedule), now)));
+                } catch (RuntimeException scheduleFailure) {
+                    recordFailure(scheduleId, now, scheduleFailure);
+                }
+            }
+            return claimedIds.size();
+        }
+    }
+    
+    /**
+     * Generates the due occurrences of claimed schedules and resets their failures, in the
+     * caller's transaction. Returns the number of schedules.
+     */
+    private int generate(List<Transaction> schedules, LocalDateTime now) {
+        Map<Long, BigDecimal> balanceDeltas = new TreeMap<>();
+        Map<Long, LocalDateTime> earliestBalanceChanges = new HashMap<>();
+        Map<BudgetKey, Map<LocalDateTime, BigDecimal>> spendingDeltas = new HashMap<>();
+        TransactionRollupService.Batch rollupBatch = new TransactionRollupService.Batch();
+        List<Transaction> pending = new ArrayList<>(batchSize);
+        for (Transaction schedule : schedules) {
+            schedule.setRecurringFailures(0);
+            schedule.setRecurringFailedAt(null);
+            Transaction.RecurringFrequency frequency = schedule.getRecurringFrequency();
+            if (frequency == null) {
+                // Nothing to repeat on, stop scheduling it
+                schedule.setNextRecurringDate(null);
+                continue;
+            }
+            
+            // Steps are taken from the anchor, never from the clipped date of the last run; a new
+            // schedule, or one whose next date was moved off its sequence, starts a new anchor
+            LocalDateTime occurrence = schedule.getNextRecurringDate();
+            LocalDateTime anchor = schedule.getRecurringAnchorDate();
+            long index = anchor != null ? frequency.indexOf(anchor, occurrence) : -1;
+            if (index < 0) {
+                anchor = occurrence;
+                index = 0;
+                schedule.setRecurringAnchorDate(anchor);
+            }
+            int generated = 0;
+            while (!occurrence.isAfter(now) && generated < MAX_OCCURRENCES_PER_SCHEDULE) {
+                Transaction transaction = newOccurrence(schedule, occurrence);
+                entityManager.persist(transaction);
+                addBalanceDeltas(balanceDeltas, transaction);
+                addEarliestBalanceChanges(earliestBalanceChanges, transaction);
+                addSpendingDelta(spendingDeltas, transaction);
+                rollupBatch.add(transaction);
+                
+                // Send full insert batches and drop them from the persistence context
+                pending.add(transaction);
+                if (pending.size() == batchSize) {
+                    flushAndDetach(pending);
+                }
+                occurrence = frequency.occurrence(anchor, index + ++generated);
+            }
+            schedule.setNextRecurringDate(occurrence);
+        }
+        flushAndDetach(pending);
+        
+        // One UPDATE per account, in id order so concurrent chunks cannot deadlock on account rows
+        balanceDeltas.forEach((accountId, delta) -> {
+            if (delta.signum() != 0) {
+                accountService.updateAccountBalance(accountId, delta);
+            }
+        });
+        earliestBalanceChanges.forEach(accountBalanceHistoryService::invalidate);
+        // One UPDATE per budget touched, however many occurrence dates fall in its window
+        spendingDeltas.forEach((key, deltasByDate) ->
+                budgetService.applyTransactionSpending(key.userId(), key.categoryId(), deltasByDate));
+        transactionRollupService.applyBatch(rollupBatch);
+        // Advancing a schedule changes its own row too, so every claimed schedule's owner has new data
+        dataVersionService.recordChange(schedules.stream()
+                .map(schedule -> schedule.getUser().getId())
+                .collect(Collectors.toSet()), DataVersionService.LEDGER);
+        return schedules.size();
+    }
+    
+    private void recordFailure(Long scheduleId, LocalDateTime now, RuntimeException failure) {
+        chunkTransaction.executeWithoutResult(status -> transactionRepository.recordRecurringFailure(scheduleId, now));
+        log.error("Recurring schedule {} failed; it is retried by the next run and skipped after {} failures in a row",
+                scheduleId, MAX_FAILURES, failure);
+    }
+    
+    private Transaction newOccurrence(Transaction schedule, LocalDateTime occurrence) {
+        Transaction transaction = new Transaction();
+        transaction.setAmount(schedule.getAmount());
+        transaction.setDescription(schedule.getDescription());
+        transaction.setType(schedule.getType());
+        transaction.setTransactionDate(occurrence);
+        transaction.setNotes(schedule.getNotes());
+        transaction.setStatus(Transaction.TransactionStatus.COMPLETED);
+        // Relations are shared as uninitialized proxies, so no extra selects are issued
+        transaction.setAccount(schedule.getAccount());
+        transaction.setUser(schedule.getUser());
+        transaction.setCategory(schedule.getCategory());
+        transaction.setToAccount(schedule.getToAccount());
+        return transaction;
+    }
+    
+    /**
+     * Mirrors TransactionService#updateAccountBalance for a generated occurrence.
+     */
+    private void addBalanceDeltas(Map<Long, BigDecimal> balanceDeltas, Transaction transaction) {
+        balanceDeltas.merge(transaction.getAccount().getId(), transaction.getSignedAmount(), BigDecimal::add);
+        if (transaction.getType() == Transaction.TransactionType.TRANSFER && transaction.getToAccount() != null) {
+            balanceDeltas.merge(transaction.getToAccount().getId(), transaction.getAmount(), BigDecimal::add);
+        }
+    }
+    
+    /**
+     * Tracks the earliest occurrence per account, from which its balance snapshots are stale.
+     */
+    private void addEarliestBalanceChanges(Map<Long, LocalDateTime> earliestBalanceChanges, Transaction transaction) {
+        LocalDateTime date = transaction.getTransactionDate();
+        earliestBalanceChanges.merge(transaction.getAccount().getId(), date, (a, b) -> a.isBefore(b) ? a : b);
+        if (transaction.getType() == Transaction.TransactionType.TRANSFER && transaction.getToAccount() != null) {
+            earliestBalanceChanges.merge(transaction.getToAccount().getId(), date, (a, b) -> a.isBefore(b) ? a : b);
+        }
+    }
+    
+    /**
+     * Mirrors TransactionService#updateBudgetSpending, collecting the occurrences of a user and
+     * category by date.
+     */
+    private void addSpendingDelta(Map<BudgetKey, Map<LocalDateTime, BigDecimal>> spendingDeltas, Transaction transaction) {
+        if (transaction.getType() == Transaction.TransactionType.EXPENSE) {
+            Long categoryId = transaction.getCategory() != null ? transaction.getCategory().getId() : null;
+            spendingDeltas.computeIfAbsent(new BudgetKey(transaction.getUser().getId(), categoryId), key -> new HashMap<>())
+                    .merge(transaction.getTransactionDate(), transaction.getAmount(), BigDecimal::add);
+        }
+    }
+    
+    private void flushAndDetach(List<Transaction> pending) {
+        if (pending.isEmpty()) {
+            return;
+        }
+        entityManager.flush();
+        pending.forEach(entityManager::detach);
+        pending.clear();
+    }
+    
+    private record BudgetKey(Long userId, Long categoryId) {
+    }
+}
@@ -0,0 +1,36 @@
+package com.pft.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Offline archiving of cold years. Starting the application with
+ * {@code --archive-transactions-before=<year>} detaches the transaction partitions of every
+ * earlier year into the archive schema and then exits; dump and drop them from there. See
+ * TransactionPartitionService#archivePartitionsBefore for what is checked and kept first.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TransactionArchiveCommand implements OfflineCommand {
+    
+    private final TransactionPartitionService transactionPartitionService;
+    
+    @Override
+    public String option() {
+        return "archive-transactions-before";
+    }
+    
+    @Override
+    public void run(List<String> values) {
+        if (values.size() != 1) {
+            throw new RuntimeException("--" + option() + " takes one year");
+        }
+        int year = Integer.parseInt(values.get(0).trim());
+        int archived = transactionPartitionService.archivePartitionsBefore(year);
+        log.info("Archived {} transaction partitions before {}", archived, year);
+    }
+}
@@ -0,0 +1,124 @@
+package com.pft.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pft.config.MetricsConfig;
+import com.pft.dto.TransactionDto;
+import com.pft.entity.Transaction;
+import com.pft.repository.TransactionRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Writes a user's transaction history straight from a database cursor to the response,
+ * one row at a time, so memory use does not depend on the size of the history.
+ */
+@Service
+@Timed(MetricsConfig.SERVICE_METRIC)
+@RequiredArgsConstructor
+public class TransactionExportService {
+    
+    private static final String CSV_HEADER =
+            "Id,Date,Type,Status,Amount,Description,Account,To Account,Category,Reference,Notes\n";
+    
+    private final TransactionRepository transactionRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+        
+        private final String contentType;
+        private final String extension;
+        
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+        
+        public String getContentType() {
+            return contentType;
+        }
+        
+        public String getExtension() {
+            return extension;
+        }
+        
+        public static Format resolve(String format) {
+            try {
+                return valueOf(format.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new RuntimeException("Unsupported export format: " + format);
+            }
+        }
+    }
+    
+    @Transactional(readOnly = true)
+    public void exportTransactions(Long userId, Long accountId, LocalDateTime startDate, LocalDateTime endDate,
+                                   Format format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == Format.CSV) {
+            writer.write(CSV_HEADER);
+        }
+        
+        try (Stream<Transaction> transactions =
+                     transactionRepository.streamForExport(userId, accountId, startDate, endDate)) {
+            Iterator<Transaction> iterator = transactions.iterator();
+            while (iterator.hasNext()) {
+                Transaction transaction = iterator.next();
+                if (format == Format.CSV) {
+                    writeCsvRow(writer, transaction);
+                } else {
+                    writer.write(objectMapper.writeValueAsString(TransactionDto.fromEntity(transaction)));
+                    writer.write('\n');
+                }
+                // Written rows are not needed again; detach them so the persistence context stays small
+                entityManager.detach(transaction);
+            }
+        }
+        writer.flush();
+    }
+    
+    private void writeCsvRow(Writer writer, Transaction transaction) throws IOException {
+        writer.write(String.valueOf(transaction.getId()));
+        writeCsvField(writer, String.valueOf(transaction.getTransactionDate()));
+        writeCsvField(writer, transaction.getType().name());
+        writeCsvField(writer, transaction.getStatus().name());
+        writeCsvField(writer, transaction.getAmount().toPlainString());
+        writeCsvField(writer, transaction.getDescription());
+        writeCsvField(writer, transaction.getAccount().getName());
+        writeCsvField(writer, transaction.getToAccount() != null ? transaction.getToAccount().getName() : null);
+        writeCsvField(writer, transaction.getCategory() != null ? transaction.getCategory().getName() : null);
+        writeCsvField(writer, transaction.getReferenceNumber());
+        writeCsvField(writer, transaction.getNotes());
+        writer.write('\n');
+    }
+    
+    private void writeCsvField(Writer writer, String value) throws IOException {
+        writer.write(',');
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        } else {
+            writer.write(value);
+        }
+    }
+}
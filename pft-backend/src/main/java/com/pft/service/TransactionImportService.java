@@ -0,0 +1,133 @@
+package com.pft.service;
+
+import com.pft.config.MetricsConfig;
+import com.pft.dto.TransactionImportResultDto;
+import com.pft.entity.Account;
+import com.pft.entity.Category;
+import com.pft.entity.Transaction;
+import com.pft.entity.User;
+import com.pft.repository.CategoryRepository;
+import com.pft.util.StatementFormat;
+import com.pft.util.StatementLine;
+import com.pft.util.StatementReader;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Imports bank statement exports into an account. The file is read one entry at a time,
+ * ownership is checked once per distinct account and category, rows are inserted in JDBC
+ * batches and the account balance, budgets and monthly rollup are adjusted once for the
+ * whole import.
+ */
+@Service
+@Timed(MetricsConfig.SERVICE_METRIC)
+@RequiredArgsConstructor
+public class TransactionImportService {
+    
+    private final EntityManager entityManager;
+    private final AccountService accountService;
+    private final AccountBalanceHistoryService accountBalanceHistoryService;
+    private final BudgetService budgetService;
+    private final TransactionRollupService transactionRollupService;
+    private final CategoryRepository categoryRepository;
+    private final DataVersionService dataVersionService;
+    
+    // Rows flushed per batch, the same as Hibernate's JDBC batch
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size}")
+    private int batchSize;
+    
+    /**
+     * Imports every entry of the statement, or none of them if any entry is invalid.
+     * Entries are recorded as they happened, so no sufficient-funds check is applied, and
+     * category names that match none of the user's categories are left uncategorized.
+     */
+    @Transactional
+    public TransactionImportResultDto importTransactions(Long accountId, StatementFormat format,
+                                                         InputStream in, Long userId) throws IOException {
+        AccountService.AccountSummary account = accountService.getAccountSummary(accountId);
+        if (!account.userId().equals(userId)) {
+            throw new RuntimeException("Access denied: Account does not belong to user");
+        }
+        
+        Map<String, Optional<Long>> categoryIds = new HashMap<>();
+        TransactionRollupService.Batch rollupBatch = new TransactionRollupService.Batch();
+        BigDecimal totalIncome = BigDecimal.ZERO;
+        BigDecimal totalExpenses = BigDecimal.ZERO;
+        LocalDateTime earliestDate = null;
+        long imported = 0;
+        
+        try (StatementReader reader = format.open(in)) {
+            StatementLine line;
+            while ((line = reader.next()) != null) {
+                Transaction transaction = new Transaction();
+                transaction.setAmount(line.amount().abs());
+                transaction.setType(line.amount().signum() < 0
+                        ? Transaction.TransactionType.EXPENSE
+                        : Transaction.TransactionType.INCOME);
+                transaction.setDescription(line.description());
+                transaction.setTransactionDate(line.date());
+                transaction.setReferenceNumber(line.referenceNumber());
+                transaction.setNotes(line.notes());
+                // References are proxies, so linking rows costs no extra selects
+                transaction.setAccount(entityManager.getReference(Account.class, accountId));
+                transaction.setUser(entityManager.getReference(User.class, userId));
+                if (line.categoryName() != null) {
+                    Optional<Long> categoryId = categoryIds.computeIfAbsent(line.categoryName(),
+                            name -> categoryRepository.findByNameAndUserId(name, userId).map(Category::getId));
+                    categoryId.ifPresent(id -> transaction.setCategory(entityManager.getReference(Category.class, id)));
+                }
+                entityManager.persist(transaction);
+                rollupBatch.add(transaction);
+                if (earliestDate == null || transaction.getTransactionDate().isBefore(earliestDate)) {
+                    earliestDate = transaction.getTransactionDate();
+                }
+                
+                if (transaction.getType() == Transaction.TransactionType.INCOME) {
+                    totalIncome = totalIncome.add(transaction.getAmount());
+                } else {
+                    totalExpenses = totalExpenses.add(transaction.getAmount());
+                }
+                
+                // Flush each full batch and detach it so memory stays flat for large files
+                if (++imported % batchSize == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+        }
+        
+        BigDecimal balanceChange = totalIncome.subtract(totalExpenses);
+        if (balanceChange.signum() != 0) {
+            accountService.updateAccountBalance(accountId, balanceChange);
+        }
+        if (earliestDate != null) {
+            accountBalanceHistoryService.invalidate(accountId, earliestDate);
+        }
+        // Imported expenses can span many budget windows, so recompute the user's budgets in one pass
+        if (totalExpenses.signum() != 0) {
+            budgetService.rebuildSpentAmountsByUserId(userId);
+        }
+        transactionRollupService.applyBatch(rollupBatch);
+        dataVersionService.recordChange(userId, DataVersionService.LEDGER);
+        
+        TransactionImportResultDto result = new TransactionImportResultDto();
+        result.setAccountId(accountId);
+        result.setImportedCount(imported);
+        result.setTotalIncome(totalIncome);
+        result.setTotalExpenses(totalExpenses);
+        result.setBalanceChange(balanceChange);
+        return result;
+    }
+}
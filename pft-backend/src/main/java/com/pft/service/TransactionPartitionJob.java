@@ -0,0 +1,39 @@
+package com.pft.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the transactions table partitioned ahead of time: on startup and then nightly it creates
+ * the partitions of the coming years and adds BRIN indexes to the years that have closed.
+ * Disable it on databases without the partitioned schema (H2).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(prefix = "app.transactions.partitions", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class TransactionPartitionJob {
+    
+    private final TransactionPartitionService transactionPartitionService;
+    
+    @Value("${app.transactions.partitions.years-ahead:1}")
+    private int yearsAhead;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${app.transactions.partitions.cron:0 0 4 * * *}")
+    public void maintainPartitions() {
+        try {
+            int created = transactionPartitionService.createPartitions(yearsAhead);
+            int indexed = transactionPartitionService.indexClosedPartitions();
+            log.info("Created {} transaction partitions and {} BRIN indexes", created, indexed);
+        } catch (RuntimeException e) {
+            log.error("Transaction partition maintenance failed", e);
+        }
+    }
+}
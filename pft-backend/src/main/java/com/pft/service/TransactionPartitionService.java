@@ -0,0 +1,100 @@
+package com.pft.service;
+
+import com.pft.config.MetricsConfig;
+import com.pft.entity.TransactionMonthlyRollup;
+import com.pft.repository.BudgetRepository;
+import com.pft.repository.TransactionMonthlyRollupRepository;
+import com.pft.repository.TransactionRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains the yearly partitions of the transactions table (PostgreSQL only, see
+ * V11__partition_transactions.sql). The partition DDL lives in database functions created by
+ * that migration; this service only decides which years they are applied to.
+ */
+@Service
+@Timed(MetricsConfig.SERVICE_METRIC)
+@RequiredArgsConstructor
+public class TransactionPartitionService {
+    
+    // Blocking budgets named in the error when archiving is refused
+    private static final int MAX_REPORTED_BUDGETS = 20;
+    
+    private final TransactionRepository transactionRepository;
+    private final BudgetRepository budgetRepository;
+    private final TransactionMonthlyRollupRepository rollupRepository;
+    private final AccountBalanceHistoryService accountBalanceHistoryService;
+    private final PlatformTransactionManager transactionManager;
+    
+    private TransactionTemplate archiveTransaction;
+    
+    @PostConstruct
+    void init() {
+        archiveTransaction = new TransactionTemplate(transactionManager);
+    }
+    
+    /**
+     * Creates the partitions of the current year and the given number of years ahead that do
+     * not exist yet, so new transactions do not land in the default partition, and moves the
+     * rows that did (backdated imports) into partitions of their own years.
+     */
+    @Transactional
+    public int createPartitions(int yearsAhead) {
+        int currentYear = Year.now().getValue();
+        return transactionRepository.createPartitions(currentYear, currentYear + yearsAhead);
+    }
+    
+    /**
+     * Adds a BRIN index on the transaction date to every closed year's partition lacking one.
+     */
+    @Transactional
+    public int indexClosedPartitions() {
+        return transactionRepository.addPartitionBrinIndexes(Year.now().getValue());
+    }
+    
+    /**
+     * Detaches the partitions of the years before the given one into the archive schema. Their
+     * transactions disappear from every listing, search, export and ledger scan. What is derived
+     * from them is secured first: every account's balance snapshots are filled through the last
+     * archived day, and the rollup rows of the archived months are marked so rebuilds keep them.
+     * Years an active budget's window reaches into are refused, naming the budgets, as budgets
+     * are recomputed from the ledger. Transactions must not be written into archived years
+     * afterwards. The snapshots are filled in transactions of their own first; the rollups are
+     * marked and the partitions detached together in one.
+     */
+    public int archivePartitionsBefore(int year) {
+        if (year > Year.now().getValue() - 1) {
+            throw new RuntimeException("Only years before the previous one can be archived");
+        }
+        LocalDateTime archiveEnd = Year.of(year).atDay(1).atStartOfDay();
+        List<Long> blockingBudgetIds = budgetRepository.findActiveBudgetIdsStartingBefore(archiveEnd,
+                PageRequest.of(0, MAX_REPORTED_BUDGETS));
+        if (!blockingBudgetIds.isEmpty()) {
+            long blocking = budgetRepository.countActiveBudgetsStartingBefore(archiveEnd);
+            String ids = blockingBudgetIds.stream().map(String::valueOf).collect(Collectors.joining(", "));
+            if (blocking > blockingBudgetIds.size()) {
+                ids += " and " + (blocking - blockingBudgetIds.size()) + " more";
+            }
+            throw new RuntimeException("Active budgets start before " + year + " (IDs " + ids +
+                    "); deactivate them or archive an earlier year");
+        }
+        accountBalanceHistoryService.fillAllSnapshots(archiveEnd.toLocalDate().minusDays(1));
+        return archiveTransaction.execute(status -> {
+            rollupRepository.markArchivedBefore(TransactionMonthlyRollup.toYearMonth(YearMonth.of(year, 1)));
+            return transactionRepository.archivePartitions(year);
+        });
+    }
+}
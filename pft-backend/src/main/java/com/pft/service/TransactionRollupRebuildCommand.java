@@ -0,0 +1,31 @@
+package com.pft.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Offline rebuild of the monthly transaction rollup. Starting the application with
+ * {@code --rebuild-rollups} recomputes the rollup table from the ledger and then exits,
+ * e.g. after a bulk load that bypassed the service layer.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TransactionRollupRebuildCommand implements OfflineCommand {
+    
+    private final TransactionRollupService transactionRollupService;
+    
+    @Override
+    public String option() {
+        return "rebuild-rollups";
+    }
+    
+    @Override
+    public void run(List<String> values) {
+        int rows = transactionRollupService.rebuildAll();
+        log.info("Rebuilt {} transaction rollup rows", rows);
+    }
+}
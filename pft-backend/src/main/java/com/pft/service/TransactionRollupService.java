@@ -0,0 +1,139 @@
+package com.pft.service;
+
+import com.pft.config.MetricsConfig;
+import com.pft.entity.Transaction;
+import com.pft.entity.TransactionMonthlyRollup;
+import com.pft.repository.TransactionMonthlyRollupRepository;
+import com.pft.repository.TransactionRepository;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains the per user, month, category and type rollup of transaction amounts and answers
+ * totals from it. Write paths apply deltas in the same database transaction as the change to
+ * the ledger, so whole-month totals never need to scan the transactions table.
+ */
+@Service
+@Timed(MetricsConfig.SERVICE_METRIC)
+@RequiredArgsConstructor
+public class TransactionRollupService {
+    
+    private final TransactionMonthlyRollupRepository rollupRepository;
+    private final TransactionRepository transactionRepository;
+    
+    /**
+     * Adds a change to a single transaction to its rollup row: the amount delta, and a count
+     * delta of 1 on create, -1 on delete and 0 on update.
+     */
+    @Transactional
+    public void applyTransactionChange(Transaction transaction, BigDecimal amountDelta, long countDelta) {
+        rollupRepository.applyDelta(transaction.getUser().getId(),
+                TransactionMonthlyRollup.toYearMonth(transaction.getTransactionDate()),
+                TransactionMonthlyRollup.toCategoryId(transaction.getCategory()),
+                transaction.getType(), amountDelta, countDelta);
+    }
+    
+    /**
+     * Applies the rollup deltas collected for a batch of new transactions, one upsert per row touched.
+     */
+    @Transactional
+    public void applyBatch(Batch batch) {
+        batch.deltas.forEach((key, delta) ->
+                rollupRepository.applyDelta(key.userId(), key.yearMonth(), key.categoryId(), key.type(),
+                        delta.amount, delta.count));
+    }
+    
+    /**
+     * Recomputes the whole rollup table from the ledger, except the rows of archived months,
+     * whose transactions the ledger no longer holds. Meant to be run offline, as writes made
+     * while it runs may be counted twice or not at all.
+     */
+    @Transactional
+    public int rebuildAll() {
+        rollupRepository.deleteUnarchivedRollups();
+        return rollupRepository.insertAllRollups();
+    }
+    
+    @Transactional(readOnly = true)
+    public BigDecimal getTotalAmountByUserIdAndType(Long userId, Transaction.TransactionType type) {
+        return rollupRepository.getTotalAmountByUserIdAndType(userId, type);
+    }
+    
+    @Transactional(readOnly = true)
+    public BigDecimal getTotalAmountByUserIdAndCategoryId(Long userId, Long categoryId) {
+        return rollupRepository.getTotalAmountByUserIdAndCategoryId(userId, categoryId);
+    }
+    
+    /**
+     * Total of the inclusive range [startDate, endDate]. Calendar months lying wholly inside the
+     * range are read from the rollup; only the partial months at either edge scan transactions.
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal getTotalAmountByUserIdAndDateRange(Long userId, LocalDateTime startDate, LocalDateTime endDate) {
+        YearMonth firstMonth = YearMonth.from(startDate);
+        if (!startDate.equals(firstMonth.atDay(1).atStartOfDay())) {
+            firstMonth = firstMonth.plusMonths(1);
+        }
+        // The end is inclusive, so its month is whole only if the range reaches the month's last microsecond
+        YearMonth lastMonth = YearMonth.from(endDate);
+        if (endDate.plusNanos(1000).isBefore(lastMonth.plusMonths(1).atDay(1).atStartOfDay())) {
+            lastMonth = lastMonth.minusMonths(1);
+        }
+        if (firstMonth.isAfter(lastMonth)) {
+            return transactionRepository.getTotalAmountByUserIdAndDateRange(userId, startDate, endDate);
+        }
+        
+        LocalDateTime wholeMonthsStart = firstMonth.atDay(1).atStartOfDay();
+        LocalDateTime wholeMonthsEnd = lastMonth.plusMonths(1).atDay(1).atStartOfDay();
+        BigDecimal total = rollupRepository.getTotalAmountByUserIdAndMonthRange(userId,
+                TransactionMonthlyRollup.toYearMonth(firstMonth), TransactionMonthlyRollup.toYearMonth(lastMonth));
+        if (startDate.isBefore(wholeMonthsStart)) {
+            total = total.add(transactionRepository.getTotalAmountByUserIdForPeriod(userId, startDate, wholeMonthsStart));
+        }
+        if (!endDate.isBefore(wholeMonthsEnd)) {
+            total = total.add(transactionRepository.getTotalAmountByUserIdAndDateRange(userId, wholeMonthsEnd, endDate));
+        }
+        return total;
+    }
+    
+    @Transactional(readOnly = true)
+    public List<TransactionRepository.TypeTotal> getTotalsByUserIdAndTypeForMonth(Long userId, YearMonth month) {
+        return rollupRepository.getTotalsByUserIdAndTypeForMonth(userId, TransactionMonthlyRollup.toYearMonth(month));
+    }
+    
+    /**
+     * Collects rollup deltas for many new transactions in memory, so a bulk write touches each
+     * rollup row once instead of once per transaction.
+     */
+    public static final class Batch {
+        
+        private final Map<Key, Delta> deltas = new HashMap<>();
+        
+        public void add(Transaction transaction) {
+            Key key = new Key(transaction.getUser().getId(),
+                    TransactionMonthlyRollup.toYearMonth(transaction.getTransactionDate()),
+                    TransactionMonthlyRollup.toCategoryId(transaction.getCategory()),
+                    transaction.getType());
+            Delta delta = deltas.computeIfAbsent(key, k -> new Delta());
+            delta.amount = delta.amount.add(transaction.getAmount());
+            delta.count++;
+        }
+    }
+    
+    private record Key(Long userId, int yearMonth, long categoryId, Transaction.TransactionType type) {
+    }
+    
+    private static final class Delta {
+        private BigDecimal amount = BigDecimal.ZERO;
+        private long count;
+    }
+}
@@ -0,0 +1,86 @@
+package com.pft.service;
+
+import com.pft.config.MetricsConfig;
+import com.pft.dto.TransactionDto;
+import com.pft.entity.Transaction;
+import com.pft.repository.TransactionRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Searches one user's transactions by description, notes and reference number. On PostgreSQL
+ * the search uses the trigram index and ranks by similarity; other databases (H2 in tests) get
+ * a plain LIKE search with description matches first. Results come in slices without a total
+ * count, so a broad term never has to count every match.
+ */
+@Service
+@Timed(MetricsConfig.SERVICE_METRIC)
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class TransactionSearchService {
+    
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    
+    private final TransactionRepository transactionRepository;
+    private final DataSource dataSource;
+    
+    private boolean trigramSearch;
+    
+    @PostConstruct
+    void detectDatabase() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            trigramSearch = "PostgreSQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName());
+        }
+    }
+    
+    public Slice<TransactionDto> searchTransactions(Long userId, String query, Integer page, Integer size) {
+        if (query == null || query.isBlank()) {
+            throw new RuntimeException("Search query is required");
+        }
+        int pageNumber = page == null ? 0 : Math.max(0, page);
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        
+        String term = query.trim().toLowerCase(Locale.ROOT);
+        String pattern = "%" + escapeLike(term) + "%";
+        // Fetch one extra id to know whether another slice exists
+        int offset = pageNumber * pageSize;
+        List<Long> ids = trigramSearch
+                ? transactionRepository.searchIdsByUserIdRanked(userId, term, pattern, offset, pageSize + 1)
+                : transactionRepository.searchIdsByUserId(userId, pattern, offset, pageSize + 1);
+        
+        boolean hasNext = ids.size() > pageSize;
+        List<Long> pageIds = hasNext ? ids.subList(0, pageSize) : ids;
+        if (pageIds.isEmpty()) {
+            return new SliceImpl<>(List.of(), PageRequest.of(pageNumber, pageSize), false);
+        }
+        
+        // Load the matches with their relations in one query, then restore the ranked order
+        Map<Long, Transaction> transactions = transactionRepository.findByIdIn(pageIds).stream()
+                .collect(Collectors.toMap(Transaction::getId, Function.identity()));
+        List<TransactionDto> content = pageIds.stream()
+                .map(transactions::get)
+                .map(TransactionDto::fromEntity)
+                .collect(Collectors.toList());
+        return new SliceImpl<>(content, PageRequest.of(pageNumber, pageSize), hasNext);
+    }
+    
+    private static String escapeLike(String term) {
+        return term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -1,12 +1,15 @@
 package com.pft.service;
 
+import com.pft.config.MetricsConfig;
+import com.pft.dto.CursorPageResponse;
 import com.pft.dto.TransactionDto;
-import com.pft.entity.Account;
-import com.pft.entity.Category;
 import com.pft.entity.Transaction;
 import com.pft.repository.TransactionRepository;
+import com.pft.util.TransactionCursor;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -17,20 +20,28 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(MetricsConfig.SERVICE_METRIC)
 @RequiredArgsConstructor
 public class TransactionService {
     
+    private static final int DEFAULT_CURSOR_PAGE_SIZE = 50;
+    private static final int MAX_CURSOR_PAGE_SIZE = 200;
+    
     private final TransactionRepository transactionRepository;
     private final AccountService accountService;
+    private final AccountBalanceHistoryService accountBalanceHistoryService;
     private final CategoryService categoryService;
+    private final BudgetService budgetService;
+    private final TransactionRollupService transactionRollupService;
     private final UserService userService;
+    private final DataVersionService dataVersionService;
     
     public TransactionDto getTransactionById(Long transactionId, Long userId) {
         Transaction transaction = transactionRepository.findById(transactionId)
                 .orElseThrow(() -> new RuntimeException("Transaction not found with ID: " + transactionId));
         
-        // Verify ownership through account
-        if (!transaction.getAccount().getUser().getId().equals(userId)) {
+        // Verify ownership
+        if (!transaction.getUser().getId().equals(userId)) {
             throw new RuntimeException("Access denied: Transaction does not belong to user");
         }
         
@@ -38,7 +49,7 @@ public class TransactionService {
     }
     
     public TransactionDto getTransactionById(Long transactionId, String userEmail) {
-        Long userId = userService.getUserEntityByEmail(userEmail).getId();
+        Long userId = userService.getUserIdByEmail(userEmail);
         return getTransactionById(transactionId, userId);
     }
     
@@ -49,7 +60,7 @@ public class TransactionService {
     }
     
     public List<TransactionDto> getTransactionsByUserEmail(String userEmail) {
-        Long userId = userService.getUserEntityByEmail(userEmail).getId();
+        Long userId = userService.getUserIdByEmail(userEmail);
         return transactionRepository.findByUserId(userId).stream()
                 .map(TransactionDto::fromEntity)
                 .collect(Collectors.toList());
@@ -60,6 +71,33 @@ public class TransactionService {
                 .map(TransactionDto::fromEntity);
     }
     
+    public CursorPageResponse<TransactionDto> getTransactionsByUserIdAfterCursor(Long userId, String cursor, Integer size) {
+        int pageSize = size == null ? DEFAULT_CURSOR_PAGE_SIZE : Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+        // Fetch one extra row to know whether another page exists
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+        
+        List<Transaction> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = transactionRepository.findRecentByUserId(userId, limit);
+        } else {
+            TransactionCursor position = TransactionCursor.decode(cursor);
+            rows = transactionRepository.findByUserIdBeforeKeyset(userId, position.transactionDate(), position.id(), limit);
+        }
+        
+        boolean hasMore = rows.size() > pageSize;
+        List<Transaction> page = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            Transaction last = page.get(page.size() - 1);
+            nextCursor = new TransactionCursor(last.getTransactionDate(), last.getId()).encode();
+        }
+        
+        List<TransactionDto> content = page.stream()
+                .map(TransactionDto::fromEntity)
+                .collect(Collectors.toList());
+        return new CursorPageResponse<>(content, nextCursor, hasMore, pageSize);
+    }
+    
     public List<TransactionDto> getTransactionsByAccountId(Long accountId, Long userId) {
         // Verify account ownership first
         accountService.getAccountById(accountId, userId);
@@ -70,7 +108,7 @@ public class TransactionService {
     }
     
     public List<TransactionDto> getTransactionsByAccountId(Long accountId, String userEmail) {
-        Long userId = userService.getUserEntityByEmail(userEmail).getId();
+        Long userId = userService.getUserIdByEmail(userEmail);
         return getTransactionsByAccountId(accountId, userId);
     }
     
@@ -87,7 +125,7 @@ public class TransactionService {
     }
     
     public List<TransactionDto> getTransactionsByUserEmailAndCategoryId(String userEmail, Long categoryId) {
-        Long userId = userService.getUserEntityByEmail(userEmail).getId();
+        Long userId = userService.getUserIdByEmail(userEmail);
         return transactionRepository.findByUserIdAndCategoryId(userId, categoryId).stream()
                 .map(TransactionDto::fromEntity)
                 .collect(Collectors.toList());
@@ -100,7 +138,7 @@ public class TransactionService {
     }
     
     public List<TransactionDto> getTransactionsByUserEmailAndDateRange(String userEmail, LocalDateTime startDate, LocalDateTime endDate) {
-        Long userId = userService.getUserEntityByEmail(userEmail).getId();
+        Long userId = userService.getUserIdByEmail(userEmail);
         return transactionRepository.findByUserIdAndTransactionDateBetween(userId, startDate, endDate).stream()
                 .map(TransactionDto::fromEntity)
                 .collect(Collectors.toList());
@@ -108,38 +146,31 @@ public class TransactionService {
     
     @Transactional
     public TransactionDto createTransaction(TransactionDto transactionDto, Long userId) {
-        // Verify account ownership
-        Account account = accountService.getAccountEntityById(transactionDto.getAccountId());
-        if (!account.getUser().getId().equals(userId)) {
+        // Verify ownership on the cached summaries; the relationships below are references, so
+        // creating a transaction loads none of the related rows
+        AccountService.AccountSummary account = accountService.getAccountSummary(transactionDto.getAccountId());
+        if (!account.userId().equals(userId)) {
             throw new RuntimeException("Access denied: Account does not belong to user");
         }
         
         // Verify category ownership if provided
-        Category category = null;
+        CategoryService.CategorySummary category = null;
         if (transactionDto.getCategoryId() != null) {
-            category = categoryService.getCategoryEntityById(transactionDto.getCategoryId());
-            if (!category.getUser().getId().equals(userId)) {
+            category = categoryService.getCategorySummary(transactionDto.getCategoryId());
+            if (!category.userId().equals(userId)) {
                 throw new RuntimeException("Access denied: Category does not belong to user");
             }
         }
         
         // Verify toAccount ownership for transfers
-        Account toAccount = null;
+        AccountService.AccountSummary toAccount = null;
         if (transactionDto.getToAccountId() != null) {
-            toAccount = accountService.getAccountEntityById(transactionDto.getToAccountId());
-            if (!toAccount.getUser().getId().equals(userId)) {
+            toAccount = accountService.getAccountSummary(transactionDto.getToAccountId());
+            if (!toAccount.userId().equals(userId)) {
                 throw new RuntimeException("Access denied: To account does not belong to user");
             }
         }
         
-        // Check sufficient funds for expenses and transfers
-        if (transactionDto.getType() == Transaction.TransactionType.EXPENSE || 
-            transactionDto.getType() == Transaction.TransactionType.TRANSFER) {
-            if (!account.hasSufficientFunds(transactionDto.getAmount())) {
-                throw new RuntimeException("Insufficient funds in account");
-            }
-        }
-        
         Transaction transaction = new Transaction();
         transaction.setAmount(transactionDto.getAmount());
         transaction.setDescription(transactionDto.getDescription());
@@ -151,21 +182,31 @@ public class TransactionService {
         transaction.setRecurring(transactionDto.isRecurring());
         transaction.setRecurringFrequency(transactionDto.getRecurringFrequency());
         transaction.setNextRecurringDate(transactionDto.getNextRecurringDate());
-        transaction.setAccount(account);
-        transaction.setCategory(category);
-        transaction.setToAccount(toAccount);
+        transaction.setAccount(accountService.getAccountReference(account.id()));
+        transaction.setUser(userService.getUserReference(userId));
+        transaction.setCategory(category != null ? categoryService.getCategoryReference(category.id()) : null);
+        transaction.setToAccount(toAccount != null ? accountService.getAccountReference(toAccount.id()) : null);
         
         Transaction savedTransaction = transactionRepository.save(transaction);
         
-        // Update account balance
-        updateAccountBalance(transaction);
+        // Update account balance, budget spending and the monthly rollup. Expenses and transfers
+        // need sufficient funds, checked against the current balance by the balance update itself.
+        boolean requiresFunds = transaction.getType() == Transaction.TransactionType.EXPENSE ||
+                transaction.getType() == Transaction.TransactionType.TRANSFER;
+        updateAccountBalance(transaction, requiresFunds ? transaction.getAmount() : null);
+        updateBudgetSpending(transaction, transaction.getAmount());
+        transactionRollupService.applyTransactionChange(transaction, transaction.getAmount(), 1);
+        dataVersionService.recordChange(userId, DataVersionService.LEDGER);
         
-        return TransactionDto.fromEntity(savedTransaction);
+        return TransactionDto.fromEntity(savedTransaction, account.name(),
+                category != null ? category.name() : null,
+                toAccount != null ? toAccount.name() : null,
+                userService.getUserSummary(userId).fullName());
     }
     
     @Transactional
     public TransactionDto createTransaction(TransactionDto transactionDto, String userEmail) {
-        Long userId = userService.getUserEntityByEmail(userEmail).getId();
+        Long userId = userService.getUserIdByEmail(userEmail);
         return createTransaction(transactionDto, userId);
     }
     
@@ -175,7 +216,7 @@ public class TransactionService {
                 .orElseThrow(() -> new RuntimeException("Transaction not found with ID: " + transactionId));
         
         // Verify ownership
-        if (!transaction.getAccount().getUser().getId().equals(userId)) {
+        if (!transaction.getUser().getId().equals(userId)) {
             throw new RuntimeException("Access denied: Transaction does not belong to user");
         }
         
@@ -199,7 +240,10 @@ public class TransactionService {
             transaction.setStatus(transactionDto.getStatus());
         }
         
-        Transaction updatedTransaction = transactionRepository.save(transaction);
+        Transaction updatedTransaction = transactionRepository.saveAndFlush(transaction);
+        // Mapped now: the budget update below may clear the persistence context, leaving the
+        // transaction's relations unloadable
+        TransactionDto result = TransactionDto.fromEntity(updatedTransaction);
         
         // Update account balance if amount changed
         if (oldAmount.compareTo(transactionDto.getAmount()) != 0) {
@@ -207,14 +251,18 @@ public class TransactionService {
             reverseAccountBalance(transaction, oldAmount);
             // Apply new amount
             updateAccountBalance(updatedTransaction);
+            updateBudgetSpending(updatedTransaction, updatedTransaction.getAmount().subtract(oldAmount));
+            transactionRollupService.applyTransactionChange(updatedTransaction,
+                    updatedTransaction.getAmount().subtract(oldAmount), 0);
         }
+        dataVersionService.recordChange(userId, DataVersionService.LEDGER);
         
-        return TransactionDto.fromEntity(updatedTransaction);
+        return result;
     }
     
     @Transactional
     public TransactionDto updateTransaction(Long transactionId, TransactionDto transactionDto, String userEmail) {
-        Long userId = userService.getUserEntityByEmail(userEmail).getId();
+        Long userId = userService.getUserIdByEmail(userEmail);
         return updateTransaction(transactionId, transactionDto, userId);
     }
     
@@ -224,30 +272,43 @@ public class TransactionService {
                 .orElseThrow(() -> new RuntimeException("Transaction not found with ID: " + transactionId));
         
         // Verify ownership
-        if (!transaction.getAccount().getUser().getId().equals(userId)) {
+        if (!transaction.getUser().getId().equals(userId)) {
             throw new RuntimeException("Access denied: Transaction does not belong to user");
         }
         
-        // Reverse account balance
-        reverseAccountBalance(transaction, transaction.getAmount());
-        
+        // Removed first, while still managed: the budget update may clear the persistence context
         transactionRepository.delete(transaction);
+        
+        // Reverse account balance, budget spending and the monthly rollup
+        reverseAccountBalance(transaction, transaction.getAmount());
+        updateBudgetSpending(transaction, transaction.getAmount().negate());
+        transactionRollupService.applyTransactionChange(transaction, transaction.getAmount().negate(), -1);
+        dataVersionService.recordChange(userId, DataVersionService.LEDGER);
     }
     
     @Transactional
     public void deleteTransaction(Long transactionId, String userEmail) {
-        Long userId = userService.getUserEntityByEmail(userEmail).getId();
+        Long userId = userService.getUserIdByEmail(userEmail);
         deleteTransaction(transactionId, userId);
     }
     
     private void updateAccountBalance(Transaction transaction) {
+        updateAccountBalance(transaction, null);
+    }
+    
+    private void updateAccountBalance(Transaction transaction, BigDecimal requiredBalance) {
         BigDecimal amount = transaction.getSignedAmount();
-        accountService.updateAccountBalance(transaction.getAccount().getId(), amount);
+        if (requiredBalance != null) {
+            accountService.updateAccountBalanceIfSufficientFunds(transaction.getAccount().getId(), amount, requiredBalance);
+        } else {
+            accountService.updateAccountBalance(transaction.getAccount().getId(), amount);
+        }
         
         // For transfers, also update the destination account
         if (transaction.getType() == Transaction.TransactionType.TRANSFER && transaction.getToAccount() != null) {
             accountService.updateAccountBalance(transaction.getToAccount().getId(), transaction.getAmount());
         }
+        accountBalanceHistoryService.invalidate(transaction);
     }
     
     private void reverseAccountBalance(Transaction transaction, BigDecimal amount) {
@@ -264,18 +325,27 @@ public class TransactionService {
         if (transaction.getType() == Transaction.TransactionType.TRANSFER && transaction.getToAccount() != null) {
             accountService.updateAccountBalance(transaction.getToAccount().getId(), amount.negate());
         }
+        accountBalanceHistoryService.invalidate(transaction);
+    }
+    
+    private void updateBudgetSpending(Transaction transaction, BigDecimal delta) {
+        if (transaction.getType() == Transaction.TransactionType.EXPENSE) {
+            Long categoryId = transaction.getCategory() != null ? transaction.getCategory().getId() : null;
+            budgetService.applyTransactionSpending(transaction.getUser().getId(), categoryId,
+                    transaction.getTransactionDate(), delta);
+        }
     }
     
     public BigDecimal getTotalAmountByUserIdAndType(Long userId, Transaction.TransactionType type) {
-        return transactionRepository.getTotalAmountByUserIdAndType(userId, type);
+        return transactionRollupService.getTotalAmountByUserIdAndType(userId, type);
     }
     
     public BigDecimal getTotalAmountByUserIdAndCategoryId(Long userId, Long categoryId) {
-        return transactionRepository.getTotalAmountByUserIdAndCategoryId(userId, categoryId);
+        return transactionRollupService.getTotalAmountByUserIdAndCategoryId(userId, categoryId);
     }
     
     public BigDecimal getTotalAmountByUserIdAndDateRange(Long userId, LocalDateTime startDate, LocalDateTime endDate) {
-        return transactionRepository.getTotalAmountByUserIdAndDateRange(userId, startDate, endDate);
+        return transactionRollupService.getTotalAmountByUserIdAndDateRange(userId, startDate, endDate);
     }
     
     public List<TransactionDto> getRecurringTransactions() {
@@ -284,18 +354,12 @@ public class TransactionService {
                 .collect(Collectors.toList());
     }
     
-    public List<TransactionDto> searchTransactionsByDescription(String description) {
-        return transactionRepository.findByDescriptionContainingIgnoreCase(description).stream()
-                .map(TransactionDto::fromEntity)
-                .collect(Collectors.toList());
-    }
-    
     public long getTransactionCountByUserId(Long userId) {
         return transactionRepository.countByUserId(userId);
     }
     
     public long getTransactionCountByUserEmail(String userEmail) {
-        Long userId = userService.getUserEntityByEmail(userEmail).getId();
+        Long userId = userService.getUserIdByEmail(userEmail);
         return transactionRepository.countByUserId(userId);
     }
     
@@ -1,24 +1,74 @@
 package com.pft.service;
 
+import com.pft.config.CacheConfig;
+import com.pft.config.MetricsConfig;
 import com.pft.dto.UserDto;
 import com.pft.entity.User;
+import com.pft.entity.UserDataVersion;
+import com.pft.repository.AccountBalanceSnapshotRepository;
+import com.pft.repository.AccountRepository;
+import com.pft.repository.BudgetRepository;
+import com.pft.repository.CategoryRepository;
+import com.pft.repository.GoalRepository;
+import com.pft.repository.TransactionMonthlyRollupRepository;
+import com.pft.repository.TransactionRepository;
+import com.pft.repository.UserDataVersionRepository;
 import com.pft.repository.UserRepository;
+import com.pft.security.VerifiedTokenCache;
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(MetricsConfig.SERVICE_METRIC)
 @RequiredArgsConstructor
+@Slf4j
 public class UserService implements UserDetailsService {
     
     private final UserRepository userRepository;
+    private final DataVersionService dataVersionService;
+    private final TransactionRepository transactionRepository;
+    private final TransactionMonthlyRollupRepository transactionMonthlyRollupRepository;
+    private final AccountBalanceSnapshotRepository accountBalanceSnapshotRepository;
+    private final AccountRepository accountRepository;
+    private final CategoryRepository categoryRepository;
+    private final BudgetRepository budgetRepository;
+    private final GoalRepository goalRepository;
+    private final UserDataVersionRepository userDataVersionRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final VerifiedTokenCache verifiedTokenCache;
+    
+    @Value("${app.users.deletion-chunk-size:10000}")
+    private int deletionChunkSize;
+    
+    // False on databases without the partitioned schema (H2), which have no archive either
+    @Value("${app.transactions.partitions.enabled:true}")
+    private boolean partitionsEnabled;
+    
+    private TransactionTemplate deletionTransaction;
+    
+    @PostConstruct
+    void init() {
+        deletionTransaction = new TransactionTemplate(transactionManager);
+        deletionTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
     
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
@@ -57,6 +107,11 @@ public class UserService implements UserDetailsService {
     }
     
     @Transactional
+    // Users are cached by id and by email; changes are rare, so both caches are cleared
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.USERS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.USERS_BY_EMAIL, allEntries = true)
+    })
     public UserDto updateUserProfile(Long userId, UserDto userDto) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found with ID: " + userId));
@@ -82,10 +137,16 @@ public class UserService implements UserDetailsService {
         }
         
         User updatedUser = userRepository.save(user);
+        // Every list shows the owner's full name
+        dataVersionService.recordChange(userId, UserDataVersion.DataType.values());
         return UserDto.fromEntity(updatedUser);
     }
     
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.USERS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.USERS_BY_EMAIL, allEntries = true)
+    })
     public UserDto updateUserProfileByEmail(String email, UserDto userDto) {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found with email: " + email));
@@ -111,33 +172,85 @@ public class UserService implements UserDetailsService {
         }
         
         User updatedUser = userRepository.save(user);
+        dataVersionService.recordChange(updatedUser.getId(), UserDataVersion.DataType.values());
         return UserDto.fromEntity(updatedUser);
     }
     
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.USERS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.USERS_BY_EMAIL, allEntries = true)
+    })
     public UserDto updateUserStatus(Long userId, User.UserStatus status) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found with ID: " + userId));
         
         user.setStatus(status);
         User updatedUser = userRepository.save(user);
+        verifiedTokenCache.evictUser(userId);
         return UserDto.fromEntity(updatedUser);
     }
     
-    @Transactional
+    /**
+     * Deletes a user and everything they own with set-based deletes, never loading the rows.
+     * Transactions go first in chunks, each committed on its own so a long ledger neither holds
+     * locks for long nor piles up in one database transaction; the remaining rows and the user
+     * follow in a final transaction, together with the user's rows in archived partitions. A
+     * deletion that fails midway can simply be retried.
+     */
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.USERS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.USERS_BY_EMAIL, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.ACCOUNTS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.CATEGORIES, allEntries = true)
+    })
     public void deleteUser(Long userId) {
         if (!userRepository.existsById(userId)) {
             throw new RuntimeException("User not found with ID: " + userId);
         }
-        userRepository.deleteById(userId);
+        purgeUser(userId);
     }
     
-    @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.USERS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.USERS_BY_EMAIL, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.ACCOUNTS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.CATEGORIES, allEntries = true)
+    })
     public void deleteUserByEmail(String email) {
-        if (!userRepository.existsByEmail(email)) {
-            throw new RuntimeException("User not found with email: " + email);
-        }
-        userRepository.deleteByEmail(email);
+        User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found with email: " + email));
+        purgeUser(user.getId());
+    }
+    
+    private void purgeUser(Long userId) {
+        long started = System.currentTimeMillis();
+        long deletedTransactions = 0;
+        int deleted;
+        do {
+            deleted = deletionTransaction.execute(status -> transactionRepository.deleteChunkByUserId(userId, deletionChunkSize));
+            deletedTransactions += deleted;
+        } while (deleted == deletionChunkSize);
+        
+        // Children before parents; also catches transactions written while the chunks ran
+        deletedTransactions += deletionTransaction.execute(status -> {
+            int remaining = transactionRepository.deleteByUserId(userId);
+            if (partitionsEnabled) {
+                // Archived partitions have no foreign keys, so nothing else removes these
+                remaining += transactionRepository.deleteArchivedByUserId(userId);
+            }
+            transactionMonthlyRollupRepository.deleteByUserId(userId);
+            accountBalanceSnapshotRepository.deleteByUserId(userId);
+            budgetRepository.deleteByUserId(userId);
+            goalRepository.deleteByUserId(userId);
+            accountRepository.deleteByUserId(userId);
+            categoryRepository.deleteByUserId(userId);
+            userDataVersionRepository.deleteByUserId(userId);
+            userRepository.deleteById(userId);
+            return remaining;
+        });
+        verifiedTokenCache.evictUser(userId);
+        log.info("Deleted user {} with {} transactions in {} ms", userId, deletedTransactions, System.currentTimeMillis() - started);
     }
     
     public boolean existsByEmail(String email) {
@@ -152,6 +265,7 @@ public class UserService implements UserDetailsService {
         return userRepository.countByStatus(User.UserStatus.ACTIVE);
     }
     
+    // Loads the user afresh; entities are never cached, so each caller gets its own instance
     public User getUserEntityById(Long userId) {
         return userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found with ID: " + userId));
@@ -161,4 +275,36 @@ public class UserService implements UserDetailsService {
         return userRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found with email: " + email));
     }
+    
+    /**
+     * The user's id, cached by email for the many lookups of the caller by email.
+     */
+    @Cacheable(cacheNames = CacheConfig.USERS_BY_EMAIL, key = "#email")
+    public Long getUserIdByEmail(String email) {
+        return getUserEntityByEmail(email).getId();
+    }
+    
+    /**
+     * Immutable summary of the user, cached by id, for linking new rows to the user without
+     * loading it (see getUserReference).
+     */
+    @Cacheable(cacheNames = CacheConfig.USERS, key = "#userId")
+    public UserSummary getUserSummary(Long userId) {
+        User user = getUserEntityById(userId);
+        return new UserSummary(user.getId(), user.getFullName());
+    }
+    
+    /**
+     * Uninitialized reference to a user for setting a relationship; reading anything but its id
+     * loads the row.
+     */
+    public User getUserReference(Long userId) {
+        return userRepository.getReferenceById(userId);
+    }
+    
+    /**
+     * What the user cache holds: the fields shown next to a user's rows
+     */
+    public record UserSummary(Long id, String fullName) {
+    }
 } 
\ No newline at end of file
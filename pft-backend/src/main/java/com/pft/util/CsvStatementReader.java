@@ -0,0 +1,203 @@
+package com.pft.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads comma separated statement exports. The first line must be a header naming
+ * at least the date, amount and description columns; type, category, reference and
+ * notes columns are optional. Quoted fields may contain commas but not line breaks.
+ */
+public class CsvStatementReader implements StatementReader {
+    
+    private static final Map<String, String> COLUMN_ALIASES = Map.ofEntries(
+            Map.entry("date", "date"),
+            Map.entry("transaction date", "date"),
+            Map.entry("posted date", "date"),
+            Map.entry("amount", "amount"),
+            Map.entry("description", "description"),
+            Map.entry("payee", "description"),
+            Map.entry("name", "description"),
+            Map.entry("type", "type"),
+            Map.entry("category", "category"),
+            Map.entry("reference", "reference"),
+            Map.entry("reference number", "reference"),
+            Map.entry("notes", "notes"),
+            Map.entry("memo", "notes")
+    );
+    
+    private static final List<DateTimeFormatter> DATE_FORMATS = List.of(
+            DateTimeFormatter.ISO_LOCAL_DATE,
+            DateTimeFormatter.ofPattern("MM/dd/yyyy"),
+            DateTimeFormatter.ofPattern("M/d/yyyy")
+    );
+    
+    private final BufferedReader reader;
+    private Map<String, Integer> columns;
+    private int lineNumber;
+    
+    public CsvStatementReader(Reader reader) {
+        this.reader = new BufferedReader(reader);
+    }
+    
+    @Override
+    public StatementLine next() throws IOException {
+        if (columns == null) {
+            readHeader();
+        }
+        
+        String line;
+        do {
+            line = reader.readLine();
+            lineNumber++;
+            if (line == null) {
+                return null;
+            }
+        } while (line.isBlank());
+        
+        List<String> fields = split(line);
+        LocalDateTime date = parseDate(required(fields, "date"));
+        BigDecimal amount = parseAmount(required(fields, "amount"));
+        
+        // An explicit type column wins over the sign of the amount
+        String type = field(fields, "type");
+        if (type != null) {
+            switch (type.toLowerCase(Locale.ROOT)) {
+                case "income", "credit" -> amount = amount.abs();
+                case "expense", "debit" -> amount = amount.abs().negate();
+                default -> throw error("Unsupported transaction type '" + type + "'");
+            }
+        }
+        
+        return new StatementLine(
+                lineNumber,
+                date,
+                amount,
+                field(fields, "description"),
+                field(fields, "reference"),
+                field(fields, "category"),
+                field(fields, "notes"));
+    }
+    
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+    
+    private void readHeader() throws IOException {
+        String header = reader.readLine();
+        lineNumber++;
+        if (header == null) {
+            throw new RuntimeException("Import file is empty");
+        }
+        if (!header.isEmpty() && header.charAt(0) == '\uFEFF') {
+            header = header.substring(1);
+        }
+        
+        columns = new HashMap<>();
+        List<String> names = split(header);
+        for (int i = 0; i < names.size(); i++) {
+            String column = COLUMN_ALIASES.get(names.get(i).toLowerCase(Locale.ROOT));
+            if (column != null) {
+                columns.putIfAbsent(column, i);
+            }
+        }
+        for (String column : List.of("date", "amount", "description")) {
+            if (!columns.containsKey(column)) {
+                throw new RuntimeException("Import file header is missing the '" + column + "' column");
+            }
+        }
+    }
+    
+    private String field(List<String> fields, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index);
+        return value.isEmpty() ? null : value;
+    }
+    
+    private String required(List<String> fields, String column) {
+        String value = field(fields, column);
+        if (value == null) {
+            throw error("Missing " + column);
+        }
+        return value;
+    }
+    
+    private LocalDateTime parseDate(String value) {
+        if (value.length() > 10 && value.charAt(10) == 'T') {
+            try {
+                return LocalDateTime.parse(value);
+            } catch (DateTimeParseException e) {
+                throw error("Invalid date '" + value + "'");
+            }
+        }
+        for (DateTimeFormatter format : DATE_FORMATS) {
+            try {
+                return LocalDate.parse(value, format).atStartOfDay();
+            } catch (DateTimeParseException e) {
+                // Try the next format
+            }
+        }
+        throw error("Invalid date '" + value + "'");
+    }
+    
+    private BigDecimal parseAmount(String value) {
+        String amount = value.replace(",", "").replace("$", "").replace(" ", "");
+        boolean negative = amount.startsWith("(") && amount.endsWith(")");
+        if (negative) {
+            amount = amount.substring(1, amount.length() - 1);
+        }
+        try {
+            BigDecimal parsed = new BigDecimal(amount);
+            return negative ? parsed.negate() : parsed;
+        } catch (NumberFormatException e) {
+            throw error("Invalid amount '" + value + "'");
+        }
+    }
+    
+    private RuntimeException error(String message) {
+        return new RuntimeException("Line " + lineNumber + ": " + message);
+    }
+    
+    private static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString().trim());
+        return fields;
+    }
+}
@@ -0,0 +1,25 @@
+package com.pft.util;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the daemon threads of a worker pool, named prefix-1, prefix-2 and so on, so the pool
+ * never keeps the JVM from shutting down.
+ */
+public class DaemonThreadFactory implements ThreadFactory {
+    
+    private final String namePrefix;
+    private final AtomicInteger threadNumber = new AtomicInteger();
+    
+    public DaemonThreadFactory(String namePrefix) {
+        this.namePrefix = namePrefix;
+    }
+    
+    @Override
+    public Thread newThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, namePrefix + "-" + threadNumber.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    }
+}
@@ -0,0 +1,60 @@
+package com.pft.util;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
+
+/**
+ * Calendar periods that time series are bucketed by. Weeks start on Monday.
+ */
+public enum Granularity {
+    DAY(ChronoUnit.DAYS),
+    WEEK(ChronoUnit.WEEKS),
+    MONTH(ChronoUnit.MONTHS),
+    YEAR(ChronoUnit.YEARS);
+    
+    private final ChronoUnit unit;
+    
+    Granularity(ChronoUnit unit) {
+        this.unit = unit;
+    }
+    
+    public static Granularity resolve(String granularity) {
+        try {
+            return valueOf(granularity.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Unsupported granularity: " + granularity);
+        }
+    }
+    
+    /**
+     * First day of the period containing the date.
+     */
+    public LocalDate periodStart(LocalDate date) {
+        return switch (this) {
+            case DAY -> date;
+            case WEEK -> date.with(DayOfWeek.MONDAY);
+            case MONTH -> date.withDayOfMonth(1);
+            case YEAR -> date.withDayOfYear(1);
+        };
+    }
+    
+    public LocalDate nextPeriodStart(LocalDate periodStart) {
+        return periodStart.plus(1, unit);
+    }
+    
+    /**
+     * Start of the period the given number of periods before the one containing the date.
+     */
+    public LocalDate periodStartBefore(LocalDate date, int periods) {
+        return periodStart(date).minus(periods, unit);
+    }
+    
+    /**
+     * Number of periods overlapping the inclusive range [from, to].
+     */
+    public long periods(LocalDate from, LocalDate to) {
+        return unit.between(periodStart(from), periodStart(to)) + 1;
+    }
+}
@@ -0,0 +1,160 @@
+package com.pft.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads the STMTTRN entries of an OFX/QFX statement. Both the SGML (1.x) form, where
+ * leaf elements are not closed, and the XML (2.x) form are accepted; the file is
+ * tokenized element by element so line layout does not matter.
+ */
+public class OfxStatementReader implements StatementReader {
+    
+    private static final DateTimeFormatter OFX_DATE = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final DateTimeFormatter OFX_DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+    
+    private final BufferedReader reader;
+    private int entryNumber;
+    private int pending = -1;
+    
+    public OfxStatementReader(Reader reader) {
+        this.reader = new BufferedReader(reader);
+    }
+    
+    @Override
+    public StatementLine next() throws IOException {
+        Map<String, String> fields = null;
+        String tag;
+        while ((tag = nextTag()) != null) {
+            String value = readText();
+            switch (tag) {
+                case "STMTTRN" -> fields = new HashMap<>();
+                case "/STMTTRN" -> {
+                    if (fields != null) {
+                        entryNumber++;
+                        return toLine(fields);
+                    }
+                }
+                default -> {
+                    if (fields != null && !tag.startsWith("/") && !value.isEmpty()) {
+                        fields.put(tag, value);
+                    }
+                }
+            }
+        }
+        return null;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+    
+    private StatementLine toLine(Map<String, String> fields) {
+        String posted = fields.get("DTPOSTED");
+        String amount = fields.get("TRNAMT");
+        if (posted == null || amount == null) {
+            throw error("Missing DTPOSTED or TRNAMT");
+        }
+        
+        String name = fields.get("NAME");
+        String memo = fields.get("MEMO");
+        return new StatementLine(
+                entryNumber,
+                parseDate(posted),
+                parseAmount(amount),
+                name != null ? name : memo,
+                fields.get("FITID"),
+                null,
+                name != null && memo != null && !memo.equals(name) ? memo : null);
+    }
+    
+    /**
+     * Advances to the next element and returns its upper-cased name, skipping
+     * processing instructions and the plain-text OFX 1.x header.
+     */
+    private String nextTag() throws IOException {
+        int c;
+        while ((c = read()) != -1) {
+            if (c != '<') {
+                continue;
+            }
+            StringBuilder name = new StringBuilder();
+            while ((c = read()) != -1 && c != '>') {
+                name.append((char) c);
+            }
+            if (name.length() > 0 && name.charAt(0) != '?' && name.charAt(0) != '!') {
+                return name.toString().trim().toUpperCase(Locale.ROOT);
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Reads the text up to the next element, leaving the '<' to be read by {@link #nextTag()}.
+     */
+    private String readText() throws IOException {
+        StringBuilder text = new StringBuilder();
+        int c;
+        while ((c = read()) != -1) {
+            if (c == '<') {
+                pending = c;
+                break;
+            }
+            text.append((char) c);
+        }
+        return unescape(text.toString().trim());
+    }
+    
+    private int read() throws IOException {
+        if (pending != -1) {
+            int c = pending;
+            pending = -1;
+            return c;
+        }
+        return reader.read();
+    }
+    
+    private LocalDateTime parseDate(String value) {
+        // Dates look like 20240131, 20240131120000 or 20240131120000.000[-5:EST]
+        String digits = value.length() > 14 ? value.substring(0, 14) : value;
+        try {
+            if (digits.length() >= 14) {
+                return LocalDateTime.parse(digits, OFX_DATE_TIME);
+            }
+            return LocalDate.parse(digits.substring(0, Math.min(8, digits.length())), OFX_DATE).atStartOfDay();
+        } catch (DateTimeParseException e) {
+            throw error("Invalid DTPOSTED '" + value + "'");
+        }
+    }
+    
+    private BigDecimal parseAmount(String value) {
+        try {
+            // Some institutions use a decimal comma
+            return new BigDecimal(value.replace(',', '.'));
+        } catch (NumberFormatException e) {
+            throw error("Invalid TRNAMT '" + value + "'");
+        }
+    }
+    
+    private RuntimeException error(String message) {
+        return new RuntimeException("Entry " + entryNumber + ": " + message);
+    }
+    
+    private static String unescape(String value) {
+        return value.replace("&lt;", "<")
+                .replace("&gt;", ">")
+                .replace("&quot;", "\"")
+                .replace("&apos;", "'")
+                .replace("&amp;", "&");
+    }
+}
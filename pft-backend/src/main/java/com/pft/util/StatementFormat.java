@@ -0,0 +1,42 @@
+package com.pft.util;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Bank statement export formats accepted by the transaction import.
+ */
+public enum StatementFormat {
+    CSV,
+    OFX;
+    
+    public StatementReader open(InputStream in) {
+        Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8);
+        return switch (this) {
+            case CSV -> new CsvStatementReader(reader);
+            case OFX -> new OfxStatementReader(reader);
+        };
+    }
+    
+    /**
+     * Uses the explicit format when given, otherwise infers it from the file extension.
+     */
+    public static StatementFormat resolve(String format, String filename) {
+        String value = format;
+        if (value == null || value.isBlank()) {
+            int dot = filename != null ? filename.lastIndexOf('.') : -1;
+            if (dot < 0) {
+                throw new RuntimeException("Cannot determine import format, specify csv or ofx");
+            }
+            value = filename.substring(dot + 1);
+        }
+        return switch (value.trim().toLowerCase(Locale.ROOT)) {
+            case "csv" -> CSV;
+            case "ofx", "qfx" -> OFX;
+            default -> throw new RuntimeException("Unsupported import format: " + value);
+        };
+    }
+}
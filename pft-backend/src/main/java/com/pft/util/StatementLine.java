@@ -0,0 +1,18 @@
+package com.pft.util;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One entry read from a bank statement export. The amount is signed: money
+ * into the account is positive, money out is negative.
+ */
+public record StatementLine(
+        int lineNumber,
+        LocalDateTime date,
+        BigDecimal amount,
+        String description,
+        String referenceNumber,
+        String categoryName,
+        String notes) {
+}
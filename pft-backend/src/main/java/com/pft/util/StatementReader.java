@@ -0,0 +1,15 @@
+package com.pft.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Reads a statement export one entry at a time so large files are never held in memory.
+ */
+public interface StatementReader extends Closeable {
+    
+    /**
+     * Returns the next entry, or null once the statement is exhausted.
+     */
+    StatementLine next() throws IOException;
+}
@@ -0,0 +1,13 @@
+-- Closing balance of an account on each day it changed, plus a row for the last
+-- day covered, so the latest row is also the high-water mark of the snapshots.
+-- Rows are filled from the ledger when a balance history is requested and
+-- deleted from a day on whenever a transaction dated that day or earlier is
+-- written; the current day is never stored.
+
+CREATE TABLE IF NOT EXISTS account_balance_snapshots (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    account_id BIGINT NOT NULL REFERENCES accounts (id) ON DELETE CASCADE,
+    balance_date DATE NOT NULL,
+    balance NUMERIC(19, 2) NOT NULL,
+    CONSTRAINT uk_account_balance_snapshots_key UNIQUE (account_id, balance_date)
+);
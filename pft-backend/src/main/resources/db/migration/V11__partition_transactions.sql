@@ -0,0 +1,212 @@
+-- Range-partition transactions by transaction_date, one partition per calendar
+-- year (transactions_y2024, ...). Date-bounded queries only visit the partitions
+-- of the years they cover, each year's indexes stay the size of one year, and
+-- cold years can be detached and archived as a whole. Years rather than months
+-- keep the partition count low for the lookups that carry no date (by id, due
+-- recurring schedules), which still visit every partition.
+--
+-- The primary key has to include the partition key, so it becomes
+-- (id, transaction_date); ids still come from transactions_id_seq alone.
+-- Requires PostgreSQL 11 or later.
+
+ALTER TABLE transactions RENAME TO transactions_unpartitioned;
+ALTER SEQUENCE transactions_id_seq OWNED BY NONE;
+
+CREATE TABLE transactions (
+    id                   BIGINT NOT NULL DEFAULT nextval('transactions_id_seq'),
+    amount               NUMERIC(19, 2) NOT NULL,
+    description          VARCHAR(255),
+    type                 VARCHAR(255) NOT NULL CHECK (type IN ('INCOME', 'EXPENSE', 'TRANSFER', 'ADJUSTMENT')),
+    transaction_date     TIMESTAMP(6) NOT NULL,
+    reference_number     VARCHAR(255),
+    notes                VARCHAR(255),
+    is_recurring         BOOLEAN,
+    recurring_frequency  VARCHAR(255) CHECK (recurring_frequency IN ('DAILY', 'WEEKLY', 'MONTHLY', 'YEARLY')),
+    next_recurring_date  TIMESTAMP(6),
+    status               VARCHAR(255) NOT NULL CHECK (status IN ('PENDING', 'COMPLETED', 'CANCELLED', 'FAILED')),
+    created_at           TIMESTAMP(6) NOT NULL,
+    updated_at           TIMESTAMP(6),
+    account_id           BIGINT NOT NULL,
+    category_id          BIGINT,
+    to_account_id        BIGINT,
+    user_id              BIGINT NOT NULL,
+    CONSTRAINT fk_transactions_account FOREIGN KEY (account_id) REFERENCES accounts (id),
+    CONSTRAINT fk_transactions_category FOREIGN KEY (category_id) REFERENCES categories (id),
+    CONSTRAINT fk_transactions_to_account FOREIGN KEY (to_account_id) REFERENCES accounts (id),
+    CONSTRAINT fk_transactions_user FOREIGN KEY (user_id) REFERENCES users (id)
+) PARTITION BY RANGE (transaction_date);
+
+-- Catches rows of years without a partition (e.g. an old statement imported);
+-- the maintenance job creates their year's partition, which moves them over.
+CREATE TABLE transactions_default PARTITION OF transactions DEFAULT;
+
+-- Creates the partition of a year unless it exists. It is built detached and
+-- filled with the year's rows from the default partition before being attached,
+-- as attaching a range the default partition still holds rows for would fail.
+-- Returns whether the partition was created.
+CREATE OR REPLACE FUNCTION create_transactions_partition(partition_year INTEGER)
+RETURNS BOOLEAN
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    partition_name TEXT := 'transactions_y' || partition_year;
+    range_start TIMESTAMP := make_timestamp(partition_year, 1, 1, 0, 0, 0);
+    range_end TIMESTAMP := make_timestamp(partition_year + 1, 1, 1, 0, 0, 0);
+BEGIN
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN FALSE;
+    END IF;
+    EXECUTE format('CREATE TABLE %I (LIKE transactions INCLUDING DEFAULTS INCLUDING CONSTRAINTS)', partition_name);
+    EXECUTE format('WITH moved AS (DELETE FROM transactions_default ' ||
+                   'WHERE transaction_date >= $1 AND transaction_date < $2 RETURNING *) ' ||
+                   'INSERT INTO %I SELECT * FROM moved', partition_name)
+        USING range_start, range_end;
+    EXECUTE format('ALTER TABLE transactions ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                   partition_name, range_start, range_end);
+    RETURN TRUE;
+END;
+$$;
+
+-- Creates the missing partitions of a range of years and of every year with rows
+-- in the default partition; returns how many were created
+CREATE OR REPLACE FUNCTION create_transactions_partitions(from_year INTEGER, to_year INTEGER)
+RETURNS INTEGER
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    partition_year INTEGER;
+    created INTEGER := 0;
+BEGIN
+    FOR partition_year IN
+        SELECT generate_series(from_year, to_year)
+        UNION
+        SELECT DISTINCT CAST(EXTRACT(YEAR FROM transaction_date) AS INTEGER) FROM transactions_default
+    LOOP
+        IF create_transactions_partition(partition_year) THEN
+            created := created + 1;
+        END IF;
+    END LOOP;
+    RETURN created;
+END;
+$$;
+
+-- Adds a BRIN index on transaction_date to the attached yearly partitions before
+-- a year that lack one. Closed years no longer change and were mostly written in
+-- date order, so an index of a few pages serves the date-range scans across all
+-- users (rollup rebuilds, budget rebuilds of old windows) that the per-user
+-- btree indexes do not. Returns how many indexes were created.
+CREATE OR REPLACE FUNCTION add_transactions_brin_indexes(before_year INTEGER)
+RETURNS INTEGER
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    partition_name TEXT;
+    created INTEGER := 0;
+BEGIN
+    FOR partition_name IN
+        SELECT c.relname
+        FROM pg_inherits i
+        JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = 'transactions'::regclass
+          AND c.relname ~ '^transactions_y[0-9]+$'
+          AND CAST(substring(c.relname FROM 15) AS INTEGER) < before_year
+    LOOP
+        IF to_regclass(partition_name || '_date_brin') IS NULL THEN
+            EXECUTE format('CREATE INDEX %I ON %I USING brin (transaction_date)',
+                           partition_name || '_date_brin', partition_name);
+            created := created + 1;
+        END IF;
+    END LOOP;
+    RETURN created;
+END;
+$$;
+
+-- Detaches the yearly partitions before a year and moves them to the archive
+-- schema, from where they can be dumped and dropped. Their foreign keys are
+-- dropped so archived rows never block deleting a user, account or category.
+-- Returns how many partitions were archived.
+CREATE OR REPLACE FUNCTION archive_transactions_partitions(before_year INTEGER)
+RETURNS INTEGER
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    partition_name TEXT;
+    foreign_key TEXT;
+    archived INTEGER := 0;
+BEGIN
+    CREATE SCHEMA IF NOT EXISTS archive;
+    FOR partition_name IN
+        SELECT c.relname
+        FROM pg_inherits i
+        JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = 'transactions'::regclass
+          AND c.relname ~ '^transactions_y[0-9]+$'
+          AND CAST(substring(c.relname FROM 15) AS INTEGER) < before_year
+    LOOP
+        EXECUTE format('ALTER TABLE transactions DETACH PARTITION %I', partition_name);
+        FOR foreign_key IN
+            SELECT conname FROM pg_constraint WHERE conrelid = to_regclass(partition_name) AND contype = 'f'
+        LOOP
+            EXECUTE format('ALTER TABLE %I DROP CONSTRAINT %I', partition_name, foreign_key);
+        END LOOP;
+        EXECUTE format('ALTER TABLE %I SET SCHEMA archive', partition_name);
+        archived := archived + 1;
+    END LOOP;
+    RETURN archived;
+END;
+$$;
+
+-- A partition for every year that has transactions, plus this year and the next
+DO $$
+DECLARE
+    partition_year INTEGER;
+BEGIN
+    FOR partition_year IN
+        SELECT DISTINCT CAST(EXTRACT(YEAR FROM transaction_date) AS INTEGER) FROM transactions_unpartitioned
+        UNION
+        SELECT CAST(EXTRACT(YEAR FROM CURRENT_DATE) AS INTEGER) + ahead FROM generate_series(0, 1) AS ahead
+    LOOP
+        PERFORM create_transactions_partition(partition_year);
+    END LOOP;
+END;
+$$;
+
+INSERT INTO transactions (id, amount, description, type, transaction_date, reference_number, notes,
+                          is_recurring, recurring_frequency, next_recurring_date, status, created_at,
+                          updated_at, account_id, category_id, to_account_id, user_id)
+SELECT id, amount, description, type, transaction_date, reference_number, notes,
+       is_recurring, recurring_frequency, next_recurring_date, status, created_at,
+       updated_at, account_id, category_id, to_account_id, user_id
+FROM transactions_unpartitioned;
+
+DROP TABLE transactions_unpartitioned;
+ALTER SEQUENCE transactions_id_seq OWNED BY transactions.id;
+
+-- Keys and indexes are built after the copy, on every partition at once. These
+-- are the indexes of V2, V3 and V7; the search index expression must still match
+-- TransactionRepository#searchIdsByUserIdRanked exactly.
+ALTER TABLE transactions ADD CONSTRAINT transactions_pkey PRIMARY KEY (id, transaction_date);
+
+CREATE INDEX idx_transactions_account_date
+    ON transactions (account_id, transaction_date, id);
+CREATE INDEX idx_transactions_category
+    ON transactions (category_id);
+CREATE INDEX idx_transactions_to_account
+    ON transactions (to_account_id)
+    WHERE to_account_id IS NOT NULL;
+CREATE INDEX idx_transactions_recurring_next_date
+    ON transactions (is_recurring, next_recurring_date);
+CREATE INDEX idx_transactions_due_recurring
+    ON transactions (next_recurring_date)
+    WHERE is_recurring = TRUE;
+CREATE INDEX idx_transactions_user_date
+    ON transactions (user_id, transaction_date, id);
+CREATE INDEX idx_transactions_user_category
+    ON transactions (user_id, category_id);
+CREATE INDEX idx_transactions_search_trgm
+    ON transactions USING gin (
+        user_id,
+        (lower(coalesce(description, '') || ' ' || coalesce(notes, '') || ' ' || coalesce(reference_number, ''))) gin_trgm_ops
+    );
+
+SELECT add_transactions_brin_indexes(CAST(EXTRACT(YEAR FROM CURRENT_DATE) AS INTEGER));
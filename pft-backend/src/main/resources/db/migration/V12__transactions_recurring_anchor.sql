@@ -0,0 +1,5 @@
+-- First occurrence of a recurring schedule. Occurrences are stepped from it so
+-- month ends do not drift (Jan 31 -> Feb 28 -> Mar 31, not Mar 28); set by the
+-- scheduler on a schedule's first run and reset when its next date is moved.
+
+ALTER TABLE transactions ADD COLUMN IF NOT EXISTS recurring_anchor_date TIMESTAMP(6);
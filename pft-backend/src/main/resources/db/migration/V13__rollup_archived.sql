@@ -0,0 +1,5 @@
+-- Rollup rows of months whose transactions were archived (see
+-- archive_transactions_partitions in V11). The ledger no longer holds those
+-- rows, so a rollup rebuild keeps archived rows instead of recomputing them.
+
+ALTER TABLE transaction_monthly_rollup ADD COLUMN IF NOT EXISTS archived BOOLEAN NOT NULL DEFAULT FALSE;
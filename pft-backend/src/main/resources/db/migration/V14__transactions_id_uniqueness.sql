@@ -0,0 +1,11 @@
+-- Since V11 the primary key of transactions is (id, transaction_date), as a key
+-- of a partitioned table must include the partition key; nothing in the database
+-- rejects two rows with the same id in different years any more. Ids stay unique
+-- because they only ever come from transactions_id_seq: the column default and
+-- the entity's sequence generator both draw from it, V11 copied the ids of the
+-- old single-column key unchanged, and the partition functions move rows between
+-- partitions with their ids rather than inserting new ones. Any other writer must
+-- take its ids from the sequence too.
+
+COMMENT ON COLUMN transactions.id IS
+    'Unique by convention, not by constraint: always assigned from transactions_id_seq (see V14)';
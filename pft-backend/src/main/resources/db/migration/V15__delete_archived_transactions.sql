@@ -0,0 +1,25 @@
+-- Deletes a user's rows from the partitions archive_transactions_partitions (V11)
+-- moved to the archive schema. Archived partitions have no foreign keys, so
+-- deleting the user never fails on them, and nothing else would remove their
+-- rows. Each keeps its copy of the (user_id, transaction_date, id) index.
+-- Returns how many rows were deleted.
+CREATE OR REPLACE FUNCTION delete_archived_transactions(owner_id BIGINT)
+RETURNS INTEGER
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    partition_name TEXT;
+    row_count INTEGER;
+    deleted INTEGER := 0;
+BEGIN
+    FOR partition_name IN
+        SELECT tablename FROM pg_tables
+        WHERE schemaname = 'archive' AND tablename ~ '^transactions_y[0-9]+$'
+    LOOP
+        EXECUTE format('DELETE FROM archive.%I WHERE user_id = $1', partition_name) USING owner_id;
+        GET DIAGNOSTICS row_count = ROW_COUNT;
+        deleted := deleted + row_count;
+    END LOOP;
+    RETURN deleted;
+END;
+$$;
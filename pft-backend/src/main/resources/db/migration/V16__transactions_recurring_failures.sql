@@ -0,0 +1,7 @@
+-- Failed runs of a recurring schedule. A chunk that fails is retried one schedule
+-- at a time; a schedule that fails on its own counts a failure, is skipped for the
+-- rest of the run, and is no longer claimed once it has failed too often. Both
+-- columns are reset when the schedule runs.
+
+ALTER TABLE transactions ADD COLUMN IF NOT EXISTS recurring_failures INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE transactions ADD COLUMN IF NOT EXISTS recurring_failed_at TIMESTAMP(6);
@@ -0,0 +1,111 @@
+-- Initial schema, equivalent to what Hibernate generated while ddl-auto was in use.
+-- Existing databases are baselined at this version and skip this script.
+
+CREATE TABLE IF NOT EXISTS users (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    email           VARCHAR(255) NOT NULL UNIQUE,
+    password        VARCHAR(255) NOT NULL,
+    first_name      VARCHAR(255) NOT NULL,
+    last_name       VARCHAR(255) NOT NULL,
+    phone_number    VARCHAR(255),
+    date_of_birth   DATE,
+    currency        VARCHAR(10),
+    time_zone       VARCHAR(50),
+    status          VARCHAR(255) NOT NULL CHECK (status IN ('ACTIVE', 'INACTIVE', 'SUSPENDED')),
+    created_at      TIMESTAMP(6) NOT NULL,
+    updated_at      TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS accounts (
+    id                BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name              VARCHAR(255) NOT NULL,
+    type              VARCHAR(255) NOT NULL CHECK (type IN ('CHECKING', 'SAVINGS', 'CREDIT_CARD', 'CASH', 'INVESTMENT', 'LOAN', 'OTHER')),
+    initial_balance   NUMERIC(19, 2) NOT NULL,
+    current_balance   NUMERIC(19, 2) NOT NULL,
+    account_number    VARCHAR(255),
+    institution_name  VARCHAR(255),
+    color             VARCHAR(7),
+    icon              VARCHAR(255),
+    status            VARCHAR(255) NOT NULL CHECK (status IN ('ACTIVE', 'INACTIVE', 'CLOSED')),
+    is_default        BOOLEAN,
+    created_at        TIMESTAMP(6) NOT NULL,
+    updated_at        TIMESTAMP(6),
+    user_id           BIGINT NOT NULL,
+    CONSTRAINT fk_accounts_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE IF NOT EXISTS categories (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name         VARCHAR(255) NOT NULL,
+    type         VARCHAR(255) NOT NULL CHECK (type IN ('INCOME', 'EXPENSE', 'TRANSFER')),
+    description  VARCHAR(255),
+    color        VARCHAR(7),
+    icon         VARCHAR(255),
+    is_default   BOOLEAN,
+    status       VARCHAR(255) NOT NULL CHECK (status IN ('ACTIVE', 'INACTIVE')),
+    created_at   TIMESTAMP(6) NOT NULL,
+    updated_at   TIMESTAMP(6),
+    user_id      BIGINT NOT NULL,
+    CONSTRAINT fk_categories_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE IF NOT EXISTS budgets (
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name             VARCHAR(255) NOT NULL,
+    amount           NUMERIC(19, 2) NOT NULL,
+    spent_amount     NUMERIC(19, 2) NOT NULL,
+    period           VARCHAR(255) NOT NULL CHECK (period IN ('WEEKLY', 'MONTHLY', 'QUARTERLY', 'YEARLY')),
+    start_date       TIMESTAMP(6) NOT NULL,
+    end_date         TIMESTAMP(6),
+    description      VARCHAR(255),
+    color            VARCHAR(7),
+    alert_threshold  INTEGER,
+    is_active        BOOLEAN,
+    status           VARCHAR(255) NOT NULL CHECK (status IN ('ACTIVE', 'INACTIVE', 'COMPLETED', 'CANCELLED')),
+    created_at       TIMESTAMP(6) NOT NULL,
+    updated_at       TIMESTAMP(6),
+    user_id          BIGINT NOT NULL,
+    category_id      BIGINT,
+    CONSTRAINT fk_budgets_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_budgets_category FOREIGN KEY (category_id) REFERENCES categories (id)
+);
+
+CREATE TABLE IF NOT EXISTS goals (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name            VARCHAR(255) NOT NULL,
+    target_amount   NUMERIC(19, 2) NOT NULL,
+    current_amount  NUMERIC(19, 2) NOT NULL,
+    description     VARCHAR(255),
+    type            VARCHAR(255) NOT NULL CHECK (type IN ('SAVINGS', 'DEBT_PAYOFF', 'EMERGENCY_FUND', 'INVESTMENT', 'PURCHASE', 'TRAVEL', 'EDUCATION', 'OTHER')),
+    target_date     TIMESTAMP(6),
+    color           VARCHAR(7),
+    icon            VARCHAR(255),
+    is_primary      BOOLEAN,
+    status          VARCHAR(255) NOT NULL CHECK (status IN ('ACTIVE', 'COMPLETED', 'PAUSED', 'CANCELLED')),
+    created_at      TIMESTAMP(6) NOT NULL,
+    updated_at      TIMESTAMP(6),
+    user_id         BIGINT NOT NULL,
+    CONSTRAINT fk_goals_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE IF NOT EXISTS transactions (
+    id                   BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    amount               NUMERIC(19, 2) NOT NULL,
+    description          VARCHAR(255),
+    type                 VARCHAR(255) NOT NULL CHECK (type IN ('INCOME', 'EXPENSE', 'TRANSFER', 'ADJUSTMENT')),
+    transaction_date     TIMESTAMP(6) NOT NULL,
+    reference_number     VARCHAR(255),
+    notes                VARCHAR(255),
+    is_recurring         BOOLEAN,
+    recurring_frequency  VARCHAR(255) CHECK (recurring_frequency IN ('DAILY', 'WEEKLY', 'MONTHLY', 'YEARLY')),
+    next_recurring_date  TIMESTAMP(6),
+    status               VARCHAR(255) NOT NULL CHECK (status IN ('PENDING', 'COMPLETED', 'CANCELLED', 'FAILED')),
+    created_at           TIMESTAMP(6) NOT NULL,
+    updated_at           TIMESTAMP(6),
+    account_id           BIGINT NOT NULL,
+    category_id          BIGINT,
+    to_account_id        BIGINT,
+    CONSTRAINT fk_transactions_account FOREIGN KEY (account_id) REFERENCES accounts (id),
+    CONSTRAINT fk_transactions_category FOREIGN KEY (category_id) REFERENCES categories (id),
+    CONSTRAINT fk_transactions_to_account FOREIGN KEY (to_account_id) REFERENCES accounts (id)
+);
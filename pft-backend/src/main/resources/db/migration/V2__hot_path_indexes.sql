@@ -0,0 +1,47 @@
+-- Indexes for the hot repository query paths.
+-- Foreign keys are not indexed automatically by PostgreSQL, so every
+-- owner/parent column used in a WHERE clause or join gets one here.
+
+-- transactions
+CREATE INDEX IF NOT EXISTS idx_transactions_account_date
+    ON transactions (account_id, transaction_date, id);
+CREATE INDEX IF NOT EXISTS idx_transactions_category
+    ON transactions (category_id);
+CREATE INDEX IF NOT EXISTS idx_transactions_to_account
+    ON transactions (to_account_id)
+    WHERE to_account_id IS NOT NULL;
+CREATE INDEX IF NOT EXISTS idx_transactions_recurring_next_date
+    ON transactions (is_recurring, next_recurring_date);
+-- Partial index for the recurring scheduler: only the few recurring rows are indexed
+CREATE INDEX IF NOT EXISTS idx_transactions_due_recurring
+    ON transactions (next_recurring_date)
+    WHERE is_recurring = TRUE;
+
+-- accounts
+CREATE INDEX IF NOT EXISTS idx_accounts_user_status
+    ON accounts (user_id, status);
+CREATE INDEX IF NOT EXISTS idx_accounts_user_active
+    ON accounts (user_id)
+    WHERE status = 'ACTIVE';
+
+-- categories
+CREATE INDEX IF NOT EXISTS idx_categories_user_status
+    ON categories (user_id, status);
+CREATE INDEX IF NOT EXISTS idx_categories_user_name
+    ON categories (user_id, name);
+
+-- budgets
+CREATE INDEX IF NOT EXISTS idx_budgets_user_status_active
+    ON budgets (user_id, status, is_active);
+CREATE INDEX IF NOT EXISTS idx_budgets_category
+    ON budgets (category_id);
+CREATE INDEX IF NOT EXISTS idx_budgets_user_active
+    ON budgets (user_id)
+    WHERE is_active = TRUE AND status = 'ACTIVE';
+
+-- goals
+CREATE INDEX IF NOT EXISTS idx_goals_user_status
+    ON goals (user_id, status);
+CREATE INDEX IF NOT EXISTS idx_goals_user_active_target_date
+    ON goals (user_id, target_date)
+    WHERE status = 'ACTIVE';
@@ -0,0 +1,20 @@
+-- Denormalize the owning user onto transactions so user-scoped queries
+-- read a single table instead of joining through accounts.
+
+ALTER TABLE transactions ADD COLUMN IF NOT EXISTS user_id BIGINT;
+
+UPDATE transactions t
+SET user_id = a.user_id
+FROM accounts a
+WHERE a.id = t.account_id
+  AND t.user_id IS NULL;
+
+ALTER TABLE transactions ALTER COLUMN user_id SET NOT NULL;
+
+ALTER TABLE transactions
+    ADD CONSTRAINT fk_transactions_user FOREIGN KEY (user_id) REFERENCES users (id);
+
+CREATE INDEX IF NOT EXISTS idx_transactions_user_date
+    ON transactions (user_id, transaction_date, id);
+CREATE INDEX IF NOT EXISTS idx_transactions_user_category
+    ON transactions (user_id, category_id);
@@ -0,0 +1,5 @@
+-- Optimistic version column for accounts. Balance changes are applied with a
+-- single atomic UPDATE that also bumps the version, so a concurrent
+-- read-modify-write of the same account fails instead of losing the change.
+
+ALTER TABLE accounts ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
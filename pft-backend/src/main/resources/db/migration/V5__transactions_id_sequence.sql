@@ -0,0 +1,13 @@
+-- Switch transactions from an IDENTITY column to a sequence that hands out ids
+-- in blocks of 50 (matching the entity's allocationSize), so Hibernate can
+-- batch inserts. The column default keeps plain SQL inserts working.
+
+ALTER TABLE transactions ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE IF NOT EXISTS transactions_id_seq INCREMENT BY 50 OWNED BY transactions.id;
+
+-- Hibernate's pooled optimizer treats each value as the top of a block of 50, so
+-- the first value handed out must leave room for a whole block above MAX(id).
+SELECT setval('transactions_id_seq', COALESCE((SELECT MAX(id) FROM transactions), 0) + 50, false);
+
+ALTER TABLE transactions ALTER COLUMN id SET DEFAULT nextval('transactions_id_seq');
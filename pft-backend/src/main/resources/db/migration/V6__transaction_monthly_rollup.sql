@@ -0,0 +1,26 @@
+-- Running totals of transactions per user, calendar month (yyyymm), category and
+-- type. Maintained by the application on every ledger write; uncategorized
+-- transactions are stored under category 0 so the key never contains a NULL and
+-- can back an ON CONFLICT upsert.
+
+CREATE TABLE IF NOT EXISTS transaction_monthly_rollup (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    year_month INTEGER NOT NULL,
+    category_id BIGINT NOT NULL,
+    type VARCHAR(255) NOT NULL CHECK (type IN ('INCOME', 'EXPENSE', 'TRANSFER', 'ADJUSTMENT')),
+    total_amount NUMERIC(19, 2) NOT NULL DEFAULT 0,
+    transaction_count BIGINT NOT NULL DEFAULT 0,
+    CONSTRAINT uk_transaction_monthly_rollup_key UNIQUE (user_id, year_month, category_id, type)
+);
+
+-- Seed the rollup from the existing history
+INSERT INTO transaction_monthly_rollup (user_id, year_month, category_id, type, total_amount, transaction_count)
+SELECT user_id,
+       CAST(EXTRACT(YEAR FROM transaction_date) * 100 + EXTRACT(MONTH FROM transaction_date) AS INTEGER),
+       COALESCE(category_id, 0),
+       type,
+       SUM(amount),
+       COUNT(*)
+FROM transactions
+GROUP BY 1, 2, 3, 4;
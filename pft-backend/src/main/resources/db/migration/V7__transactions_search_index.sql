@@ -0,0 +1,13 @@
+-- Trigram index for user-scoped transaction search over description, notes and
+-- reference number. btree_gin lets user_id live in the same GIN index, so a
+-- search only visits the searching user's entries. The indexed expression must
+-- match TransactionRepository#searchIdsByUserIdRanked exactly.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE EXTENSION IF NOT EXISTS btree_gin;
+
+CREATE INDEX IF NOT EXISTS idx_transactions_search_trgm
+    ON transactions USING gin (
+        user_id,
+        (lower(coalesce(description, '') || ' ' || coalesce(notes, '') || ' ' || coalesce(reference_number, ''))) gin_trgm_ops
+    );
@@ -0,0 +1,13 @@
+-- Per-user data versions, one counter per entity type. Every write that changes
+-- what a user's list endpoint returns increments the matching counter in the
+-- same transaction, and the list endpoints derive their ETags from it. A user
+-- without a row is at version 0 for every type.
+
+CREATE TABLE IF NOT EXISTS user_data_versions (
+    user_id BIGINT PRIMARY KEY,
+    accounts_version BIGINT NOT NULL DEFAULT 0,
+    categories_version BIGINT NOT NULL DEFAULT 0,
+    transactions_version BIGINT NOT NULL DEFAULT 0,
+    budgets_version BIGINT NOT NULL DEFAULT 0,
+    goals_version BIGINT NOT NULL DEFAULT 0
+);
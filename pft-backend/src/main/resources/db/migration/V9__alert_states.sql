@@ -0,0 +1,24 @@
+-- Stored alert state of budgets and goals, so alert listings are index lookups
+-- instead of a computed ratio per row. The application recomputes it whenever
+-- the amounts or the threshold change; the expressions below must match
+-- Budget#alertStateOf and Goal#alertStateOf.
+
+ALTER TABLE budgets ADD COLUMN IF NOT EXISTS alert_state VARCHAR(255) NOT NULL DEFAULT 'NORMAL'
+    CHECK (alert_state IN ('NORMAL', 'NEAR_LIMIT', 'OVER'));
+ALTER TABLE goals ADD COLUMN IF NOT EXISTS alert_state VARCHAR(255) NOT NULL DEFAULT 'NORMAL'
+    CHECK (alert_state IN ('NORMAL', 'NEAR_LIMIT', 'OVER'));
+
+UPDATE budgets
+SET alert_state = CASE WHEN spent_amount > amount THEN 'OVER' ELSE 'NEAR_LIMIT' END
+WHERE spent_amount > amount
+   OR spent_amount * 100 >= amount * COALESCE(alert_threshold, 80);
+
+UPDATE goals
+SET alert_state = CASE WHEN current_amount >= target_amount THEN 'OVER' ELSE 'NEAR_LIMIT' END
+WHERE current_amount * 100 >= target_amount * 80;
+
+-- Leading alert_state serves the global listings, user_id the per-user ones
+CREATE INDEX IF NOT EXISTS idx_budgets_alert_state
+    ON budgets (alert_state, user_id);
+CREATE INDEX IF NOT EXISTS idx_goals_alert_state
+    ON goals (alert_state, user_id);
@@ -0,0 +1,20 @@
+package com.pft;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a test class that needs a Docker daemon for its containers. Without one the class is
+ * skipped, or fails when the build runs with -Dpft.require-docker=true, as CI does, so the
+ * PostgreSQL-only checks cannot go missing unnoticed. Use instead of
+ * {@code @Testcontainers(disabledWithoutDocker = true)}.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(RequiresDockerCondition.class)
+public @interface RequiresDocker {
+}
@@ -0,0 +1,31 @@
+package com.pft;
+
+import org.junit.jupiter.api.extension.ConditionEvaluationResult;
+import org.junit.jupiter.api.extension.ExecutionCondition;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.testcontainers.DockerClientFactory;
+
+/**
+ * Evaluates {@link RequiresDocker}: enabled when Docker is available, a failure when it is not
+ * but -Dpft.require-docker=true was given, otherwise skipped with a warning.
+ */
+class RequiresDockerCondition implements ExecutionCondition {
+    
+    static final String REQUIRE_DOCKER_PROPERTY = "pft.require-docker";
+    
+    @Override
+    public ConditionEvaluationResult evaluateExecutionCondition(ExtensionContext context) {
+        if (DockerClientFactory.instance().isDockerAvailable()) {
+            return ConditionEvaluationResult.enabled("Docker is available");
+        }
+        String testClass = context.getRequiredTestClass().getSimpleName();
+        if (Boolean.getBoolean(REQUIRE_DOCKER_PROPERTY)) {
+            throw new IllegalStateException(testClass + " needs Docker, which is not available, and "
+                    + REQUIRE_DOCKER_PROPERTY + " is set");
+        }
+        String reason = testClass + " SKIPPED: Docker is not available; run with -D" + REQUIRE_DOCKER_PROPERTY
+                + "=true to fail instead";
+        System.err.println("WARNING: " + reason);
+        return ConditionEvaluationResult.disabled(reason);
+    }
+}
@@ -0,0 +1,46 @@
+package com.pft;
+
+import com.pft.entity.Account;
+import com.pft.entity.Category;
+import com.pft.entity.Transaction;
+import com.pft.entity.User;
+import com.pft.repository.AccountRepository;
+import com.pft.repository.CategoryRepository;
+import com.pft.repository.TransactionRepository;
+import com.pft.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.test.context.TestComponent;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Saves the entities tests start from. Every user gets a fresh email, so tests sharing a cached
+ * application context (and its database) never see each other's rows through their own user.
+ */
+@TestComponent
+@RequiredArgsConstructor
+public class TestData {
+    
+    private final UserRepository userRepository;
+    private final AccountRepository accountRepository;
+    private final CategoryRepository categoryRepository;
+    private final TransactionRepository transactionRepository;
+    
+    public User user() {
+        return userRepository.save(new User(UUID.randomUUID() + "@example.com", "password", "Test", "User"));
+    }
+    
+    public Account account(User user) {
+        return accountRepository.save(new Account("Checking", Account.AccountType.CHECKING, BigDecimal.ZERO, user));
+    }
+    
+    public Category category(User user) {
+        return categoryRepository.save(new Category("Category " + UUID.randomUUID(), Category.CategoryType.EXPENSE, user));
+    }
+    
+    public Transaction transaction(Account account, Transaction.TransactionType type, String amount, LocalDateTime date) {
+        return transactionRepository.save(new Transaction(new BigDecimal(amount), type.getDisplayName(), type, date, account));
+    }
+}
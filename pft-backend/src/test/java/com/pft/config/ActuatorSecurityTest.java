@@ -0,0 +1,46 @@
+package com.pft.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The Prometheus scrape needs no credentials on the management port, and the application port
+ * does not serve the actuator at all.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureObservability
+@ActiveProfiles("test")
+class ActuatorSecurityTest {
+    
+    @LocalManagementPort
+    private int managementPort;
+    
+    @Autowired
+    private TestRestTemplate restTemplate;
+    
+    @Test
+    void prometheusIsOpenOnManagementPortOnly() {
+        assertThat(restTemplate.getForEntity(managementUrl("/actuator/prometheus"), String.class).getStatusCode())
+                .isEqualTo(HttpStatus.OK);
+        assertThat(restTemplate.getForEntity("/actuator/prometheus", String.class).getStatusCode())
+                .isNotEqualTo(HttpStatus.OK);
+    }
+    
+    @Test
+    void otherEndpointsNeedAuthentication() {
+        assertThat(restTemplate.getForEntity(managementUrl("/actuator/metrics"), String.class).getStatusCode())
+                .isEqualTo(HttpStatus.FORBIDDEN);
+    }
+    
+    private String managementUrl(String path) {
+        return "http://localhost:" + managementPort + path;
+    }
+}
@@ -0,0 +1,139 @@
+package com.pft.controller;
+
+import com.pft.TestData;
+import com.pft.entity.Goal;
+import com.pft.entity.User;
+import com.pft.entity.UserDataVersion;
+import com.pft.repository.GoalRepository;
+import com.pft.security.AuthenticatedUser;
+import com.pft.service.AccountService;
+import com.pft.service.DataVersionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Data-version ETags on the list endpoints and the 304 Not Modified answer to a matching
+ * If-None-Match.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(TestData.class)
+class ConditionalGetTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private DataVersionService dataVersionService;
+    
+    @MockitoSpyBean
+    private AccountService accountService;
+    
+    @Autowired
+    private GoalRepository goalRepository;
+    
+    @Autowired
+    private TestData testData;
+    
+    @Test
+    void eTagNamesTheListTheUserAndItsVersion() throws Exception {
+        User user = testData.user();
+        testData.account(user);
+        
+        mockMvc.perform(request(user, "/accounts"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"accounts-" + user.getId() + "-0\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+                .andExpect(jsonPath("$.length()").value(1));
+    }
+    
+    @Test
+    void matchingIfNoneMatchIsAnsweredWithoutBuildingTheBody() throws Exception {
+        User user = testData.user();
+        String eTag = "\"accounts-" + user.getId() + "-0\"";
+        
+        for (String ifNoneMatch : new String[] {eTag, "W/" + eTag, "\"other\", " + eTag, "*"}) {
+            mockMvc.perform(request(user, "/accounts").header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                    .andExpect(content().string(""));
+        }
+        verify(accountService, never()).getAccountsByUserId(anyLong());
+    }
+    
+    @Test
+    void recordedChangeMovesOnlyTheETagsOfTheChangedLists() throws Exception {
+        User user = testData.user();
+        String accounts = "\"accounts-" + user.getId() + "-0\"";
+        String categories = "\"categories-" + user.getId() + "-0\"";
+        
+        dataVersionService.recordChange(user.getId(), DataVersionService.LEDGER);
+        
+        mockMvc.perform(request(user, "/accounts").header(HttpHeaders.IF_NONE_MATCH, accounts))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"accounts-" + user.getId() + "-1\""));
+        mockMvc.perform(request(user, "/transactions").header(HttpHeaders.IF_NONE_MATCH, "\"transactions-" + user.getId() + "-0\""))
+                .andExpect(status().isOk());
+        mockMvc.perform(request(user, "/categories").header(HttpHeaders.IF_NONE_MATCH, categories))
+                .andExpect(status().isNotModified());
+        assertETag(user, UserDataVersion.DataType.BUDGETS, "\"budgets-" + user.getId() + "-1\"");
+        assertETag(user, UserDataVersion.DataType.GOALS, "\"goals-" + user.getId() + "-0-" + LocalDate.now() + "\"");
+    }
+    
+    @Test
+    void goalFieldsDerivedFromTheClockOnlyUseTheDateTheirETagCarries() throws Exception {
+        User user = testData.user();
+        LocalDate today = LocalDate.now();
+        goalRepository.save(goal(user, "Due today", today.atTime(23, 59)));
+        goalRepository.save(goal(user, "Due yesterday", today.minusDays(1).atTime(23, 59)));
+        goalRepository.save(goal(user, "Due tomorrow", today.plusDays(1).atStartOfDay()));
+        
+        mockMvc.perform(request(user, "/goals"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"goals-" + user.getId() + "-0-" + today + "\""))
+                .andExpect(jsonPath("$[?(@.name == 'Due today')].daysRemaining").value(0))
+                .andExpect(jsonPath("$[?(@.name == 'Due today')].overdue").value(false))
+                .andExpect(jsonPath("$[?(@.name == 'Due yesterday')].daysRemaining").value(-1))
+                .andExpect(jsonPath("$[?(@.name == 'Due yesterday')].overdue").value(true))
+                .andExpect(jsonPath("$[?(@.name == 'Due tomorrow')].daysRemaining").value(1));
+    }
+    
+    private void assertETag(User user, UserDataVersion.DataType type, String expected) {
+        assertThat(dataVersionService.getETag(user.getId(), type)).isEqualTo(expected);
+    }
+    
+    private static Goal goal(User user, String name, LocalDateTime targetDate) {
+        return new Goal(name, new BigDecimal("1000.00"), Goal.GoalType.SAVINGS, targetDate, user);
+    }
+    
+    private static MockHttpServletRequestBuilder request(User user, String path) {
+        AuthenticatedUser principal = AuthenticatedUser.from(user);
+        return get(path).with(authentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities())));
+    }
+}
@@ -0,0 +1,125 @@
+package com.pft.controller;
+
+import com.pft.TestData;
+import com.pft.entity.Account;
+import com.pft.entity.Budget;
+import com.pft.entity.Category;
+import com.pft.entity.Goal;
+import com.pft.entity.Transaction;
+import com.pft.entity.User;
+import com.pft.repository.BudgetRepository;
+import com.pft.repository.GoalRepository;
+import com.pft.repository.TransactionRepository;
+import com.pft.security.AuthenticatedUser;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.function.BiConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The list endpoints fetch the relations their DTOs read with entity graphs, so the number of
+ * statements a request prepares must not grow with the number of rows it returns. Every row gets
+ * its own category (and account), so a relation left lazy would show up as one select per row.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(TestData.class)
+class ListEndpointStatementCountTest {
+    
+    private static final int ROWS = 5;
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    @Autowired
+    private TransactionRepository transactionRepository;
+    
+    @Autowired
+    private BudgetRepository budgetRepository;
+    
+    @Autowired
+    private GoalRepository goalRepository;
+    
+    @Autowired
+    private TestData testData;
+    
+    @Test
+    void transactions() throws Exception {
+        assertStatementsIndependentOfRows("/transactions", (user, row) -> {
+            Account account = testData.account(user);
+            Transaction transaction = new Transaction(new BigDecimal("10.00"), "Expense " + row,
+                    Transaction.TransactionType.EXPENSE, LocalDateTime.of(2025, 1, 1 + row, 12, 0), account,
+                    testData.category(user));
+            transaction.setToAccount(testData.account(user));
+            transactionRepository.save(transaction);
+        });
+    }
+    
+    @Test
+    void budgets() throws Exception {
+        assertStatementsIndependentOfRows("/budgets", (user, row) -> budgetRepository.save(
+                new Budget("Budget " + row, new BigDecimal("100.00"), Budget.BudgetPeriod.MONTHLY,
+                        LocalDateTime.of(2025, 1, 1, 0, 0), user, testData.category(user))));
+    }
+    
+    @Test
+    void goals() throws Exception {
+        assertStatementsIndependentOfRows("/goals", (user, row) -> goalRepository.save(
+                new Goal("Goal " + row, new BigDecimal("1000.00"), Goal.GoalType.SAVINGS,
+                        LocalDateTime.of(2030, 1, 1, 0, 0), user)));
+    }
+    
+    @Test
+    void accounts() throws Exception {
+        assertStatementsIndependentOfRows("/accounts", (user, row) -> testData.account(user));
+    }
+    
+    @Test
+    void categories() throws Exception {
+        assertStatementsIndependentOfRows("/categories", (user, row) -> testData.category(user));
+    }
+    
+    private void assertStatementsIndependentOfRows(String path, BiConsumer<User, Integer> seedRow) throws Exception {
+        long oneRow = statementsFor(path, seed(1, seedRow));
+        long manyRows = statementsFor(path, seed(ROWS, seedRow));
+        assertThat(manyRows).as("statements for %d rows vs 1 row of %s", ROWS, path).isEqualTo(oneRow);
+    }
+    
+    private User seed(int rows, BiConsumer<User, Integer> seedRow) {
+        User user = testData.user();
+        for (int row = 0; row < rows; row++) {
+            seedRow.accept(user, row);
+        }
+        return user;
+    }
+    
+    private long statementsFor(String path, User user) throws Exception {
+        AuthenticatedUser principal = AuthenticatedUser.from(user);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        mockMvc.perform(get(path).with(authentication(
+                        new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()))))
+                .andExpect(status().isOk());
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,52 @@
+package com.pft.controller;
+
+import com.pft.TestData;
+import com.pft.entity.Transaction;
+import com.pft.entity.User;
+import com.pft.security.AuthenticatedUser;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(TestData.class)
+class TransactionControllerTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private TestData testData;
+    
+    @Test
+    void searchTakesTheTermAsQOrAsTheFormerDescriptionParameter() throws Exception {
+        User user = testData.user();
+        Transaction income = testData.transaction(testData.account(user), Transaction.TransactionType.INCOME, "10.00",
+                LocalDateTime.of(2025, 1, 1, 12, 0));
+        AuthenticatedUser principal = AuthenticatedUser.from(user);
+        UsernamePasswordAuthenticationToken token =
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+        
+        for (String parameter : new String[] {"q", "description"}) {
+            mockMvc.perform(get("/transactions/search").param(parameter, "income").with(authentication(token)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content.length()").value(1))
+                    .andExpect(jsonPath("$.content[0].id").value(income.getId()))
+                    .andExpect(jsonPath("$.last").value(true));
+        }
+    }
+}
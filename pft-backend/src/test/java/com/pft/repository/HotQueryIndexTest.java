@@ -0,0 +1,92 @@
+package com.pft.repository;
+
+import com.pft.RequiresDocker;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.output.MigrateResult;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the Flyway migrations against PostgreSQL and checks that the hot repository queries can be
+ * served by the indexes they were given. Sequential scans are disabled for each EXPLAIN: the tables
+ * are empty, so the question is whether an index matches the query, not whether the planner would
+ * prefer it at this size. The SQL mirrors the JPQL of the repository methods named on each test.
+ * Skipped when no Docker daemon is available.
+ */
+@RequiresDocker
+@Testcontainers
+class HotQueryIndexTest {
+    
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+    
+    @BeforeAll
+    static void migrate() {
+        MigrateResult result = Flyway.configure()
+                .dataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword())
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+        assertThat(result.success).isTrue();
+        assertThat(result.migrationsExecuted).isPositive();
+    }
+    
+    /** TransactionRepository#findByUserIdAndTransactionDateBetween */
+    @Test
+    void transactionsByUserAndDateRange() throws SQLException {
+        assertIndexScan("SELECT * FROM transactions WHERE user_id = 1 " +
+                "AND transaction_date BETWEEN '2025-01-01' AND '2025-01-31'");
+    }
+    
+    /** TransactionRepository#claimDueRecurringTransactions */
+    @Test
+    void dueRecurringClaim() throws SQLException {
+        assertIndexScan("SELECT * FROM transactions WHERE is_recurring = TRUE " +
+                "AND next_recurring_date <= '2025-01-01' AND status <> 'CANCELLED' AND recurring_failures < 3 " +
+                "AND (recurring_failed_at IS NULL OR recurring_failed_at < '2025-01-01') " +
+                "ORDER BY next_recurring_date, id LIMIT 100 FOR UPDATE SKIP LOCKED");
+    }
+    
+    /** AccountRepository#findActiveAccountsByUserId */
+    @Test
+    void activeAccountsByUser() throws SQLException {
+        assertIndexScan("SELECT * FROM accounts WHERE user_id = 1 AND status = 'ACTIVE'");
+    }
+    
+    /** BudgetRepository#findActiveBudgetsByUserId */
+    @Test
+    void activeBudgetsByUser() throws SQLException {
+        assertIndexScan("SELECT * FROM budgets WHERE user_id = 1 AND is_active = TRUE AND status = 'ACTIVE'");
+    }
+    
+    private static void assertIndexScan(String query) throws SQLException {
+        String plan = explain(query);
+        assertThat(plan).as(plan).contains("Index").doesNotContain("Seq Scan");
+    }
+    
+    private static String explain(String query) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(
+                POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+             Statement statement = connection.createStatement()) {
+            statement.execute("SET enable_seqscan = off");
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet rows = statement.executeQuery("EXPLAIN " + query)) {
+                while (rows.next()) {
+                    plan.append(rows.getString(1)).append('\n');
+                }
+            }
+            return plan.toString();
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.pft.repository;
+
+import com.pft.RequiresDocker;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.configuration.FluentConfiguration;
+import org.flywaydb.core.api.output.MigrateResult;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs V11__partition_transactions.sql on a populated schema and then the partition maintenance
+ * functions it creates. The schema is migrated to V10 and filled with transactions of several
+ * years first, so the migration has to carry existing rows, ids and the id sequence over into
+ * the partitioned table. The tests share the database and run in order, archiving last.
+ * Skipped when no Docker daemon is available.
+ */
+@RequiresDocker
+@Testcontainers
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class TransactionPartitionMigrationTest {
+    
+    // Transactions per year written before the migration
+    private static final int PER_YEAR = 3;
+    private static final int[] YEARS = {2019, 2020, 2023};
+    
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+    
+    private static long maxIdBeforeMigration;
+    
+    @BeforeAll
+    static void migrateFilledSchema() throws SQLException {
+        flyway("10").migrate();
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO users (email, password, first_name, last_name, status, created_at) " +
+                    "VALUES ('partitions@example.com', 'password', 'Test', 'User', 'ACTIVE', now())");
+            statement.execute("INSERT INTO accounts (name, type, initial_balance, current_balance, status, created_at, user_id) " +
+                    "SELECT 'Checking', 'CHECKING', 0, 0, 'ACTIVE', now(), id FROM users");
+            for (int year : YEARS) {
+                for (int day = 1; day <= PER_YEAR; day++) {
+                    statement.execute(insertTransaction(year + "-03-0" + day + " 12:00"));
+                }
+            }
+            maxIdBeforeMigration = queryLong(statement, "SELECT MAX(id) FROM transactions");
+        }
+        
+        MigrateResult result = flyway(null).migrate();
+        assertThat(result.success).isTrue();
+    }
+    
+    @Test
+    @Order(1)
+    void migrationMovesEveryTransactionIntoItsYearsPartition() throws SQLException {
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            assertThat(queryLong(statement, "SELECT COUNT(*) FROM transactions_y2019")).isEqualTo(PER_YEAR);
+            assertThat(queryLong(statement, "SELECT COUNT(*) FROM transactions_y2020")).isEqualTo(PER_YEAR);
+            assertThat(queryLong(statement, "SELECT COUNT(*) FROM transactions_y2023")).isEqualTo(PER_YEAR);
+            assertThat(queryLong(statement, "SELECT COUNT(*) FROM ONLY transactions_default")).isZero();
+            assertThat(queryLong(statement, "SELECT COUNT(DISTINCT id) FROM transactions WHERE id <= " + maxIdBeforeMigration))
+                    .isEqualTo((long) PER_YEAR * YEARS.length);
+            assertThat(queryString(statement, "SELECT pg_get_constraintdef(oid) FROM pg_constraint " +
+                    "WHERE conname = 'transactions_pkey' AND conrelid = 'transactions'::regclass"))
+                    .isEqualTo("PRIMARY KEY (id, transaction_date)");
+        }
+    }
+    
+    @Test
+    @Order(2)
+    void sequenceContinuesAboveTheCopiedIds() throws SQLException {
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            statement.execute(insertTransaction("2023-06-01 12:00"));
+            assertThat(queryLong(statement, "SELECT MAX(id) FROM transactions")).isGreaterThan(maxIdBeforeMigration);
+            assertThat(queryLong(statement, "SELECT COUNT(*) - COUNT(DISTINCT id) FROM transactions")).isZero();
+        }
+    }
+    
+    @Test
+    @Order(3)
+    void createPartitionsMovesRowsOutOfTheDefaultPartition() throws SQLException {
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            statement.execute(insertTransaction("2010-05-01 12:00"));
+            assertThat(queryLong(statement, "SELECT COUNT(*) FROM ONLY transactions_default")).isEqualTo(1);
+            
+            assertThat(queryLong(statement, "SELECT create_transactions_partitions(2024, 2024)")).isPositive();
+            
+            assertThat(queryLong(statement, "SELECT COUNT(*) FROM ONLY transactions_default")).isZero();
+            assertThat(queryLong(statement, "SELECT COUNT(*) FROM transactions_y2010")).isEqualTo(1);
+            assertThat(queryString(statement, "SELECT CAST(to_regclass('transactions_y2024') AS TEXT)"))
+                    .isEqualTo("transactions_y2024");
+            // Existing partitions are left alone
+            assertThat(queryLong(statement, "SELECT create_transactions_partitions(2024, 2024)")).isZero();
+        }
+    }
+    
+    @Test
+    @Order(4)
+    void archivePartitionsDetachesEarlierYearsWithoutForeignKeys() throws SQLException {
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            assertThat(queryLong(statement, "SELECT archive_transactions_partitions(2021)")).isGreaterThanOrEqualTo(2);
+            
+            assertThat(queryLong(statement, "SELECT COUNT(*) FROM transactions WHERE transaction_date < '2021-01-01'")).isZero();
+            assertThat(queryLong(statement, "SELECT COUNT(*) FROM archive.transactions_y2019")).isEqualTo(PER_YEAR);
+            assertThat(queryLong(statement, "SELECT COUNT(*) FROM archive.transactions_y2020")).isEqualTo(PER_YEAR);
+            assertThat(queryLong(statement, "SELECT COUNT(*) FROM pg_constraint " +
+                    "WHERE conrelid = 'archive.transactions_y2019'::regclass AND contype = 'f'")).isZero();
+            assertThat(queryLong(statement, "SELECT COUNT(*) FROM transactions_y2023")).isGreaterThanOrEqualTo(PER_YEAR);
+        }
+    }
+    
+    private static String insertTransaction(String date) {
+        return "INSERT INTO transactions (amount, description, type, transaction_date, status, created_at, account_id, user_id) " +
+               "SELECT 10.00, 'Groceries', 'EXPENSE', TIMESTAMP '" + date + "', 'COMPLETED', now(), a.id, a.user_id " +
+               "FROM accounts a";
+    }
+    
+    private static Flyway flyway(String target) {
+        FluentConfiguration configuration = Flyway.configure()
+                .dataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword())
+                .locations("classpath:db/migration");
+        if (target != null) {
+            configuration.target(target);
+        }
+        return configuration.load();
+    }
+    
+    private static Connection connect() throws SQLException {
+        return DriverManager.getConnection(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+    }
+    
+    private static long queryLong(Statement statement, String query) throws SQLException {
+        try (ResultSet rows = statement.executeQuery(query)) {
+            rows.next();
+            return rows.getLong(1);
+        }
+    }
+    
+    private static String queryString(Statement statement, String query) throws SQLException {
+        try (ResultSet rows = statement.executeQuery(query)) {
+            rows.next();
+            return rows.getString(1);
+        }
+    }
+}
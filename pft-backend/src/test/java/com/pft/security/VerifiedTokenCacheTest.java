@@ -0,0 +1,56 @@
+package com.pft.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VerifiedTokenCacheTest {
+    
+    private static final long IN_AN_HOUR = System.currentTimeMillis() + Duration.ofHours(1).toMillis();
+    
+    private final VerifiedTokenCache cache = new VerifiedTokenCache(100, Duration.ofMinutes(5));
+    
+    @Test
+    void returnsThePrincipalOfAVerifiedToken() {
+        AuthenticatedUser principal = principal(1L);
+        cache.put("token-a", principal, IN_AN_HOUR);
+        
+        assertThat(cache.get("token-a")).isSameAs(principal);
+        assertThat(cache.get("token-b")).isNull();
+    }
+    
+    @Test
+    void neverOutlivesTheToken() {
+        cache.put("expired", principal(1L), System.currentTimeMillis() - 1);
+        
+        assertThat(cache.get("expired")).isNull();
+    }
+    
+    @Test
+    void evictsEveryTokenOfAUser() {
+        cache.put("first", principal(1L), IN_AN_HOUR);
+        cache.put("second", principal(1L), IN_AN_HOUR);
+        cache.put("other", principal(2L), IN_AN_HOUR);
+        
+        cache.evictUser(1L);
+        
+        assertThat(cache.get("first")).isNull();
+        assertThat(cache.get("second")).isNull();
+        assertThat(cache.get("other")).isNotNull();
+    }
+    
+    @Test
+    void disabledWithoutEntries() {
+        VerifiedTokenCache disabled = new VerifiedTokenCache(0, Duration.ofMinutes(5));
+        disabled.put("token", principal(1L), IN_AN_HOUR);
+        
+        assertThat(disabled.get("token")).isNull();
+    }
+    
+    private static AuthenticatedUser principal(Long id) {
+        return new AuthenticatedUser(id, "user" + id + "@example.com", "User " + id, List.of());
+    }
+}
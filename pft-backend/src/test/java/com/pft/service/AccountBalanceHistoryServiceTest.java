@@ -0,0 +1,177 @@
+package com.pft.service;
+
+import com.pft.TestData;
+import com.pft.dto.AccountBalanceHistoryDto;
+import com.pft.entity.Account;
+import com.pft.entity.AccountBalanceSnapshot;
+import com.pft.entity.Transaction;
+import com.pft.entity.User;
+import com.pft.repository.AccountBalanceSnapshotRepository;
+import com.pft.repository.AccountRepository;
+import com.pft.repository.TransactionRepository;
+import com.pft.util.Granularity;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest(properties = "app.balance-history.fill-chunk-size=2")
+@ActiveProfiles("test")
+@Import(TestData.class)
+class AccountBalanceHistoryServiceTest {
+    
+    @Autowired
+    private AccountBalanceHistoryService accountBalanceHistoryService;
+    
+    @Autowired
+    private AccountBalanceSnapshotRepository snapshotRepository;
+    
+    @MockitoSpyBean
+    private AccountRepository accountRepository;
+    
+    @Autowired
+    private TransactionRepository transactionRepository;
+    
+    @Autowired
+    private TestData testData;
+    
+    @Test
+    void fillAllSnapshotsCoversEveryAccountInChunks() {
+        List<Account> accounts = List.of(testData.account(testData.user()), testData.account(testData.user()),
+                testData.account(testData.user()));
+        for (Account account : accounts) {
+            testData.transaction(account, Transaction.TransactionType.EXPENSE, "10.00", LocalDateTime.of(2019, 3, 1, 12, 0));
+            testData.transaction(account, Transaction.TransactionType.INCOME, "25.00", LocalDateTime.of(2019, 7, 1, 12, 0));
+            // After the filled range, so not part of its balance
+            testData.transaction(account, Transaction.TransactionType.INCOME, "99.00", LocalDateTime.of(2020, 2, 1, 12, 0));
+        }
+        LocalDate throughDate = LocalDate.of(2019, 12, 31);
+        
+        accountBalanceHistoryService.fillAllSnapshots(throughDate);
+        
+        // Three accounts at two per chunk
+        verify(accountRepository, atLeast(2)).findByIdBetween(anyLong(), anyLong());
+        for (Account account : accounts) {
+            assertThat(snapshotRepository.findLatestBalanceDate(account.getId())).isEqualTo(throughDate);
+            assertThat(snapshotRepository.findFirstByAccountIdAndBalanceDateLessThanEqualOrderByBalanceDateDesc(
+                    account.getId(), throughDate)).map(AccountBalanceSnapshot::getBalance)
+                    .hasValueSatisfying(balance -> assertThat(balance).isEqualByComparingTo("15.00"));
+        }
+    }
+    
+    @Test
+    void dailyHistoryIsARunningTotalFromTheInitialBalance() {
+        User user = testData.user();
+        Account account = withInitialBalance(testData.account(user), "100.00");
+        testData.transaction(account, Transaction.TransactionType.EXPENSE, "10.00", LocalDateTime.of(2024, 1, 2, 9, 0));
+        testData.transaction(account, Transaction.TransactionType.INCOME, "25.00", LocalDateTime.of(2024, 1, 2, 18, 0));
+        testData.transaction(account, Transaction.TransactionType.EXPENSE, "5.00", LocalDateTime.of(2024, 1, 4, 12, 0));
+        transferInto(account, "40.00", LocalDateTime.of(2024, 1, 5, 12, 0));
+        
+        AccountBalanceHistoryDto history = accountBalanceHistoryService.getBalanceHistory(account.getId(), user.getId(),
+                LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 5), Granularity.DAY);
+        
+        assertThat(points(history)).containsExactly(
+                "2024-01-01 100", "2024-01-02 115", "2024-01-03 115", "2024-01-04 110", "2024-01-05 150");
+    }
+    
+    @Test
+    void weeksStartOnMondayAndTheLastOneIsCutAtTheRangeEnd() {
+        User user = testData.user();
+        Account account = withInitialBalance(testData.account(user), "100.00");
+        testData.transaction(account, Transaction.TransactionType.INCOME, "10.00", LocalDateTime.of(2024, 1, 3, 12, 0));
+        testData.transaction(account, Transaction.TransactionType.EXPENSE, "5.00", LocalDateTime.of(2024, 1, 9, 12, 0));
+        testData.transaction(account, Transaction.TransactionType.INCOME, "1.00", LocalDateTime.of(2024, 1, 20, 12, 0));
+        // The day after the range
+        testData.transaction(account, Transaction.TransactionType.INCOME, "1000.00", LocalDateTime.of(2024, 1, 21, 12, 0));
+        
+        // Wednesday to Saturday
+        AccountBalanceHistoryDto history = accountBalanceHistoryService.getBalanceHistory(account.getId(), user.getId(),
+                LocalDate.of(2024, 1, 3), LocalDate.of(2024, 1, 20), Granularity.WEEK);
+        
+        assertThat(points(history)).containsExactly("2024-01-07 110", "2024-01-14 105", "2024-01-20 106");
+    }
+    
+    @Test
+    void monthsCloseOnTheirLastDayAndStartFromTheBalanceBeforeTheRange() {
+        User user = testData.user();
+        Account account = withInitialBalance(testData.account(user), "100.00");
+        testData.transaction(account, Transaction.TransactionType.INCOME, "50.00", LocalDateTime.of(2023, 12, 31, 12, 0));
+        testData.transaction(account, Transaction.TransactionType.INCOME, "7.00", LocalDateTime.of(2024, 2, 29, 12, 0));
+        testData.transaction(account, Transaction.TransactionType.EXPENSE, "3.00", LocalDateTime.of(2024, 3, 11, 12, 0));
+        
+        AccountBalanceHistoryDto history = accountBalanceHistoryService.getBalanceHistory(account.getId(), user.getId(),
+                LocalDate.of(2024, 1, 15), LocalDate.of(2024, 3, 10), Granularity.MONTH);
+        
+        assertThat(points(history)).containsExactly("2024-01-31 150", "2024-02-29 157", "2024-03-10 157");
+    }
+    
+    @Test
+    void lastPointIsTheBalanceAtTheEndOfTodayWithoutLaterTransactions() {
+        User user = testData.user();
+        Account account = testData.account(user);
+        LocalDate today = LocalDate.now();
+        testData.transaction(account, Transaction.TransactionType.INCOME, "10.00", today.minusDays(1).atTime(12, 0));
+        testData.transaction(account, Transaction.TransactionType.INCOME, "5.00", today.atStartOfDay());
+        // Counts towards the current balance already, but not towards today's
+        testData.transaction(account, Transaction.TransactionType.INCOME, "100.00", today.plusDays(1).atStartOfDay());
+        
+        AccountBalanceHistoryDto history = accountBalanceHistoryService.getBalanceHistory(account.getId(), user.getId(),
+                today.minusDays(1), today.plusDays(5), Granularity.DAY);
+        
+        assertThat(history.getTo()).isEqualTo(today);
+        assertThat(points(history)).containsExactly(today.minusDays(1) + " 10", today + " 15");
+    }
+    
+    @Test
+    void backdatedTransactionDropsTheSnapshotsItMakesStale() {
+        User user = testData.user();
+        Account account = testData.account(user);
+        testData.transaction(account, Transaction.TransactionType.INCOME, "10.00", LocalDateTime.of(2024, 1, 1, 12, 0));
+        LocalDate from = LocalDate.of(2024, 1, 1);
+        LocalDate to = LocalDate.of(2024, 1, 3);
+        accountBalanceHistoryService.getBalanceHistory(account.getId(), user.getId(), from, to, Granularity.DAY);
+        
+        Transaction backdated = testData.transaction(account, Transaction.TransactionType.EXPENSE, "4.00",
+                LocalDateTime.of(2024, 1, 2, 12, 0));
+        accountBalanceHistoryService.invalidate(backdated);
+        
+        assertThat(snapshotRepository.findLatestBalanceDate(account.getId())).isEqualTo(from);
+        assertThat(points(accountBalanceHistoryService.getBalanceHistory(account.getId(), user.getId(), from, to,
+                Granularity.DAY))).containsExactly("2024-01-01 10", "2024-01-02 6", "2024-01-03 6");
+        // The fill, the invalidation and the refill each took the account row lock
+        verify(accountRepository, times(3)).lockById(account.getId());
+    }
+    
+    private Account withInitialBalance(Account account, String balance) {
+        account.setInitialBalance(new BigDecimal(balance));
+        return accountRepository.save(account);
+    }
+    
+    private void transferInto(Account account, String amount, LocalDateTime date) {
+        Transaction transfer = testData.transaction(testData.account(account.getUser()),
+                Transaction.TransactionType.TRANSFER, amount, date);
+        transfer.setToAccount(account);
+        transactionRepository.save(transfer);
+    }
+    
+    // "date balance" per point, the balance without trailing zeros
+    private static List<String> points(AccountBalanceHistoryDto history) {
+        return history.getPoints().stream()
+                .map(point -> point.getDate() + " " + point.getBalance().stripTrailingZeros().toPlainString())
+                .toList();
+    }
+}
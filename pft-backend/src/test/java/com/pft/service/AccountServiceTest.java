@@ -0,0 +1,148 @@
+package com.pft.service;
+
+import com.pft.TestData;
+import com.pft.dto.AccountDto;
+import com.pft.entity.Account;
+import com.pft.entity.Transaction;
+import com.pft.entity.User;
+import com.pft.repository.AccountRepository;
+import com.pft.repository.TransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestData.class)
+class AccountServiceTest {
+    
+    @Autowired
+    private AccountService accountService;
+    
+    @Autowired
+    private AccountRepository accountRepository;
+    
+    @Autowired
+    private TransactionRepository transactionRepository;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private TestData testData;
+    
+    @Test
+    void deleteAccountRemovesAccountWithoutTransactions() {
+        User user = testData.user();
+        Account account = testData.account(user);
+        
+        accountService.deleteAccount(account.getId(), user.getId());
+        
+        assertThat(accountRepository.existsById(account.getId())).isFalse();
+    }
+    
+    @Test
+    void deleteAccountRejectsAccountWithIncomingTransfers() {
+        User user = testData.user();
+        Account source = testData.account(user);
+        Account target = testData.account(user);
+        Transaction transfer = testData.transaction(source, Transaction.TransactionType.TRANSFER, "50.00",
+                LocalDateTime.of(2025, 1, 10, 12, 0));
+        transfer.setToAccount(target);
+        transactionRepository.save(transfer);
+        
+        assertThatThrownBy(() -> accountService.deleteAccount(target.getId(), user.getId()))
+                .hasMessage("Cannot delete account with existing transactions");
+        assertThat(accountRepository.existsById(target.getId())).isTrue();
+    }
+    
+    @Test
+    void accountSummaryIsCachedUntilTheAccountIsUpdated() {
+        User user = testData.user();
+        Account account = testData.account(user);
+        assertThat(accountService.getAccountSummary(account.getId()).name()).isEqualTo("Checking");
+        
+        // A change behind the service's back is not seen until the entry is evicted
+        account.setName("Renamed directly");
+        accountRepository.save(account);
+        assertThat(accountService.getAccountSummary(account.getId()).name()).isEqualTo("Checking");
+        
+        AccountDto update = new AccountDto();
+        update.setName("Savings");
+        accountService.updateAccount(account.getId(), update, user.getId());
+        
+        assertThat(accountService.getAccountSummary(account.getId()))
+                .isEqualTo(new AccountService.AccountSummary(account.getId(), user.getId(), "Savings"));
+    }
+    
+    @Test
+    void accountSummaryIsEvictedWhenTheAccountIsDeleted() {
+        User user = testData.user();
+        Account account = testData.account(user);
+        accountService.getAccountSummary(account.getId());
+        
+        accountService.deleteAccount(account.getId(), user.getId());
+        
+        assertThatThrownBy(() -> accountService.getAccountSummary(account.getId()))
+                .hasMessage("Account not found with ID: " + account.getId());
+    }
+    
+    @Test
+    void balanceUpdateRequiringFundsRejectsInsufficientBalance() {
+        Account account = testData.account(testData.user());
+        account.setCurrentBalance(new BigDecimal("30.00"));
+        accountRepository.save(account);
+        
+        assertThatThrownBy(() -> accountService.updateAccountBalanceIfSufficientFunds(account.getId(),
+                new BigDecimal("-30.01"), new BigDecimal("30.01")))
+                .hasMessage("Insufficient funds in account");
+        assertThat(balanceOf(account)).isEqualByComparingTo("30.00");
+        
+        // Exactly the balance is enough
+        accountService.updateAccountBalanceIfSufficientFunds(account.getId(),
+                new BigDecimal("-30.00"), new BigDecimal("30.00"));
+        assertThat(balanceOf(account)).isEqualByComparingTo("0.00");
+    }
+    
+    @Test
+    void balanceUpdateRequiringFundsRejectsUnknownAccount() {
+        assertThatThrownBy(() -> accountService.updateAccountBalanceIfSufficientFunds(-1L,
+                new BigDecimal("-1.00"), new BigDecimal("1.00")))
+                .hasMessage("Account not found with ID: -1");
+    }
+    
+    @Test
+    void balanceUpdatesLeaveNoStaleAccountInThePersistenceContext() {
+        Account account = testData.account(testData.user());
+        
+        transactionTemplate.executeWithoutResult(status -> {
+            Account loaded = accountRepository.findById(account.getId()).orElseThrow();
+            accountService.updateAccountBalance(account.getId(), new BigDecimal("40.00"));
+            accountService.updateAccountBalanceIfSufficientFunds(account.getId(), new BigDecimal("-15.00"),
+                    new BigDecimal("15.00"));
+            
+            Account reloaded = accountRepository.findById(account.getId()).orElseThrow();
+            assertThat(reloaded).isNotSameAs(loaded);
+            assertThat(reloaded.getCurrentBalance()).isEqualByComparingTo("25.00");
+            assertThat(reloaded.getVersion()).isEqualTo(loaded.getVersion() + 2);
+            // Saving the fresh entity must not trip over the versions the bulk updates bumped
+            reloaded.setName("Renamed");
+            accountRepository.saveAndFlush(reloaded);
+        });
+        
+        assertThat(balanceOf(account)).isEqualByComparingTo("25.00");
+    }
+    
+    private BigDecimal balanceOf(Account account) {
+        return accountRepository.findById(account.getId()).orElseThrow().getCurrentBalance();
+    }
+}
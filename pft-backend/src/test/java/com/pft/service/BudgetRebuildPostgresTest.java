@@ -0,0 +1,117 @@
+package com.pft.service;
+
+import com.pft.RequiresDocker;
+import com.pft.TestData;
+import com.pft.entity.Account;
+import com.pft.entity.Budget;
+import com.pft.entity.Transaction;
+import com.pft.entity.User;
+import com.pft.repository.BudgetRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A budget rebuild racing a ledger writer on PostgreSQL, where an UPDATE that waited for a row
+ * lock is re-checked against its original snapshot. Skipped when no Docker daemon is available.
+ */
+@SpringBootTest
+@ActiveProfiles("postgres")
+@Import(TestData.class)
+@RequiresDocker
+@Testcontainers
+class BudgetRebuildPostgresTest {
+    
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final LocalDateTime IN_WINDOW = LocalDateTime.of(2025, 1, 10, 12, 0);
+    
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+    
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+    
+    @Autowired
+    private BudgetService budgetService;
+    
+    @Autowired
+    private BudgetRepository budgetRepository;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private TestData testData;
+    
+    @Test
+    void rebuildWaitingForAWriterCountsTheWritersTransaction() throws Exception {
+        User user = testData.user();
+        Account account = testData.account(user);
+        Budget budget = budgetRepository.save(new Budget("Everything", new BigDecimal("100.00"),
+                Budget.BudgetPeriod.MONTHLY, START, user));
+        CountDownLatch applied = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            // The writer books an expense and its budget delta, then holds its locks
+            Future<?> writer = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                testData.transaction(account, Transaction.TransactionType.EXPENSE, "25.00", IN_WINDOW);
+                budgetService.applyTransactionSpending(user.getId(), null, IN_WINDOW, new BigDecimal("25.00"));
+                applied.countDown();
+                try {
+                    commit.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            assertThat(applied.await(10, TimeUnit.SECONDS)).isTrue();
+            
+            Future<?> rebuild = executor.submit(() -> budgetService.rebuildSpentAmountsByUserId(user.getId()));
+            awaitLockWait();
+            commit.countDown();
+            writer.get(10, TimeUnit.SECONDS);
+            rebuild.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        
+        assertThat(budgetRepository.findById(budget.getId()).orElseThrow().getSpentAmount()).isEqualByComparingTo("25.00");
+    }
+    
+    // Until the rebuild is queued behind the writer's row lock
+    private void awaitLockWait() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pg_stat_activity WHERE wait_event_type = 'Lock' " +
+                "AND datname = current_database()", Integer.class) == 0) {
+            assertThat(System.nanoTime()).as("rebuild waiting for the writer's lock").isLessThan(deadline);
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.pft.service;
+
+import com.pft.TestData;
+import com.pft.dto.BudgetDto;
+import com.pft.entity.Account;
+import com.pft.entity.AlertState;
+import com.pft.entity.Budget;
+import com.pft.entity.Category;
+import com.pft.entity.Transaction;
+import com.pft.entity.User;
+import com.pft.repository.BudgetRepository;
+import com.pft.repository.TransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestData.class)
+@RecordApplicationEvents
+class BudgetServiceTest {
+    
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final LocalDateTime IN_WINDOW = LocalDateTime.of(2025, 1, 10, 12, 0);
+    
+    @Autowired
+    private BudgetService budgetService;
+    
+    @Autowired
+    private BudgetRepository budgetRepository;
+    
+    @Autowired
+    private TransactionRepository transactionRepository;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private ApplicationEvents events;
+    
+    @Autowired
+    private TestData testData;
+    
+    @Test
+    void javaAndJpqlClassifyAlertStatesAlike() {
+        User user = testData.user();
+        List<Budget> budgets = new ArrayList<>();
+        // Each side of every boundary: the threshold (null falls back to 80) and the amount itself
+        for (Integer threshold : new Integer[] {null, 80, 50, 0, 100}) {
+            for (String spent : new String[] {"0.00", "49.99", "50.00", "79.99", "80.00", "80.01",
+                    "99.99", "100.00", "100.01"}) {
+                budgets.add(budget(user, "100.00", spent, threshold));
+            }
+        }
+        budgets.add(budget(user, "0.00", "0.00", null));
+        budgets.add(budget(user, "0.00", "0.01", null));
+        
+        // Stored as Java classifies them, the JPQL finds none stale
+        for (Budget budget : budgets) {
+            budget.setAlertState(Budget.alertStateOf(budget.getSpentAmount(), budget.getAmount(), budget.getAlertThreshold()));
+        }
+        budgetRepository.saveAll(budgets);
+        assertThat(budgetRepository.findStaleAlertStatesByUserId(user.getId())).isEmpty();
+        
+        // Stored as anything else, the JPQL finds every one stale
+        for (Budget budget : budgets) {
+            budget.setAlertState(otherThan(budget.getAlertState()));
+        }
+        budgetRepository.saveAll(budgets);
+        assertThat(budgetRepository.findStaleAlertStatesByUserId(user.getId())).hasSize(budgets.size());
+    }
+    
+    @Test
+    void spendingMovesTheBudgetThroughItsAlertStates() {
+        User user = testData.user();
+        Category category = testData.category(user);
+        Budget budget = budgetRepository.save(new Budget("Food", new BigDecimal("100.00"), Budget.BudgetPeriod.MONTHLY,
+                START, user, category));
+        
+        spend(user, category, "79.99");
+        assertThat(alertStateOf(budget)).isEqualTo(AlertState.NORMAL);
+        spend(user, category, "0.01");
+        assertThat(alertStateOf(budget)).isEqualTo(AlertState.NEAR_LIMIT);
+        spend(user, category, "20.01");
+        assertThat(alertStateOf(budget)).isEqualTo(AlertState.OVER);
+        spend(user, category, "-100.01");
+        assertThat(alertStateOf(budget)).isEqualTo(AlertState.NORMAL);
+        
+        assertThat(transitionsOf(budget)).containsExactly(
+                transition(budget, AlertState.NORMAL, AlertState.NEAR_LIMIT),
+                transition(budget, AlertState.NEAR_LIMIT, AlertState.OVER),
+                transition(budget, AlertState.OVER, AlertState.NORMAL));
+    }
+    
+    @Test
+    void rebuildRefreshesEveryStaleBudgetInBulk() {
+        User user = testData.user();
+        Account account = testData.account(user);
+        Category food = testData.category(user);
+        Category rent = testData.category(user);
+        Budget near = budgetRepository.save(new Budget("Food", new BigDecimal("100.00"), Budget.BudgetPeriod.MONTHLY,
+                START, user, food));
+        Budget over = budgetRepository.save(new Budget("Rent", new BigDecimal("100.00"), Budget.BudgetPeriod.MONTHLY,
+                START, user, rent));
+        // Saved straight to the ledger, as a bulk load would, so only a rebuild sees them
+        expense(account, food, "85.00");
+        expense(account, rent, "150.00");
+        
+        budgetService.rebuildSpentAmountsByUserId(user.getId());
+        
+        assertThat(alertStateOf(near)).isEqualTo(AlertState.NEAR_LIMIT);
+        assertThat(alertStateOf(over)).isEqualTo(AlertState.OVER);
+        assertThat(transitionsOf(near)).containsExactly(transition(near, AlertState.NORMAL, AlertState.NEAR_LIMIT));
+        assertThat(transitionsOf(over)).containsExactly(transition(over, AlertState.NORMAL, AlertState.OVER));
+        assertThat(budgetRepository.findStaleAlertStatesByUserId(user.getId())).isEmpty();
+    }
+    
+    @Test
+    void bulkRefreshLeavesNoStaleBudgetInThePersistenceContext() {
+        User user = testData.user();
+        Category category = testData.category(user);
+        Budget saved = budgetRepository.save(new Budget("Food", new BigDecimal("100.00"), Budget.BudgetPeriod.MONTHLY,
+                START, user, category));
+        
+        AlertState seen = transactionTemplate.execute(status -> {
+            // Managed from here on; the bulk UPDATEs bypass it
+            budgetRepository.findById(saved.getId()).orElseThrow();
+            budgetService.applyTransactionSpending(user.getId(), category.getId(), IN_WINDOW, new BigDecimal("90.00"));
+            return budgetRepository.findById(saved.getId()).orElseThrow().getAlertState();
+        });
+        
+        assertThat(seen).isEqualTo(AlertState.NEAR_LIMIT);
+    }
+    
+    @Test
+    void changingTheAmountPublishesTheTransition() {
+        User user = testData.user();
+        Category category = testData.category(user);
+        Budget budget = budgetRepository.save(new Budget("Food", new BigDecimal("100.00"), Budget.BudgetPeriod.MONTHLY,
+                START, user, category));
+        spend(user, category, "60.00");
+        
+        BudgetDto update = new BudgetDto();
+        update.setAmount(new BigDecimal("50.00"));
+        budgetService.updateBudget(budget.getId(), update, user.getId());
+        
+        assertThat(alertStateOf(budget)).isEqualTo(AlertState.OVER);
+        assertThat(transitionsOf(budget)).containsExactly(transition(budget, AlertState.NORMAL, AlertState.OVER));
+    }
+    
+    private Budget budget(User user, String amount, String spent, Integer threshold) {
+        Budget budget = new Budget("Budget", new BigDecimal(amount), Budget.BudgetPeriod.MONTHLY, START, user);
+        budget.setSpentAmount(new BigDecimal(spent));
+        budget.setAlertThreshold(threshold);
+        return budget;
+    }
+    
+    private void spend(User user, Category category, String amount) {
+        budgetService.applyTransactionSpending(user.getId(), category.getId(), IN_WINDOW, new BigDecimal(amount));
+    }
+    
+    private void expense(Account account, Category category, String amount) {
+        Transaction expense = testData.transaction(account, Transaction.TransactionType.EXPENSE, amount, IN_WINDOW);
+        expense.setCategory(category);
+        transactionRepository.save(expense);
+    }
+    
+    private AlertState alertStateOf(Budget budget) {
+        return budgetRepository.findById(budget.getId()).orElseThrow().getAlertState();
+    }
+    
+    private List<AlertStateChangedEvent> transitionsOf(Budget budget) {
+        return events.stream(AlertStateChangedEvent.class)
+                .filter(event -> event.subjectId().equals(budget.getId()))
+                .toList();
+    }
+    
+    private static AlertStateChangedEvent transition(Budget budget, AlertState from, AlertState to) {
+        return new AlertStateChangedEvent(AlertStateChangedEvent.Subject.BUDGET, budget.getId(),
+                budget.getUser().getId(), budget.getName(), from, to);
+    }
+    
+    private static AlertState otherThan(AlertState alertState) {
+        return alertState == AlertState.NORMAL ? AlertState.OVER : AlertState.NORMAL;
+    }
+}
@@ -0,0 +1,173 @@
+package com.pft.service;
+
+import com.pft.TestData;
+import com.pft.dto.CategoryBreakdownDto;
+import com.pft.entity.Account;
+import com.pft.entity.Category;
+import com.pft.entity.Transaction;
+import com.pft.repository.TransactionMonthlyRollupRepository;
+import com.pft.repository.TransactionRepository;
+import com.pft.util.Granularity;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestData.class)
+class CategoryBreakdownServiceTest {
+    
+    @Autowired
+    private CategoryBreakdownService categoryBreakdownService;
+    
+    @Autowired
+    private TransactionRollupService transactionRollupService;
+    
+    @Autowired
+    private TransactionRepository transactionRepository;
+    
+    @MockitoSpyBean
+    private TransactionMonthlyRollupRepository rollupRepository;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private TestData testData;
+    
+    @Test
+    void monthTotalsSplitIntoRollupAndEdgeMonthsMatchTheLedger() {
+        Account account = testData.account(testData.user());
+        Long userId = account.getUser().getId();
+        Category category = testData.category(account.getUser());
+        // Last year, so the range can never reach into archived months
+        int year = Year.now().getValue() - 1;
+        book(account, null, Transaction.TransactionType.INCOME, "1.00", LocalDateTime.of(year, 1, 1, 0, 0));
+        book(account, category, Transaction.TransactionType.EXPENSE, "2.00", LocalDateTime.of(year, 1, 15, 12, 0));
+        book(account, null, Transaction.TransactionType.EXPENSE, "4.00", LocalDateTime.of(year, 1, 31, 23, 59, 59));
+        book(account, category, Transaction.TransactionType.INCOME, "8.00", LocalDateTime.of(year, 2, 10, 8, 0));
+        book(account, category, Transaction.TransactionType.EXPENSE, "16.00", LocalDateTime.of(year, 2, 28, 23, 0));
+        book(account, category, Transaction.TransactionType.EXPENSE, "32.00", LocalDateTime.of(year, 3, 1, 0, 0));
+        book(account, null, Transaction.TransactionType.INCOME, "64.00", LocalDateTime.of(year, 3, 20, 12, 0));
+        book(account, category, Transaction.TransactionType.EXPENSE, "128.00", LocalDateTime.of(year, 4, 5, 12, 0));
+        book(account, category, Transaction.TransactionType.EXPENSE, "256.00", LocalDateTime.of(year, 4, 30, 18, 0));
+        
+        List<LocalDate[]> ranges = List.of(
+                // Whole months only
+                range(LocalDate.of(year, 1, 1), LocalDate.of(year, 3, 31)),
+                // Partial first and last month around whole ones
+                range(LocalDate.of(year, 1, 15), LocalDate.of(year, 4, 5)),
+                // Partial months only, next to each other and within a single month
+                range(LocalDate.of(year, 1, 31), LocalDate.of(year, 2, 10)),
+                range(LocalDate.of(year, 2, 5), LocalDate.of(year, 2, 27)),
+                // A whole first month with a partial last one, and the other way round
+                range(LocalDate.of(year, 1, 1), LocalDate.of(year, 4, 29)),
+                range(LocalDate.of(year, 1, 2), LocalDate.of(year, 4, 30)));
+        
+        for (LocalDate[] range : ranges) {
+            // Day buckets are grouped from the transactions alone
+            Map<List<Object>, BigDecimal> ledger = monthTotals(categoryBreakdownService.getCategoryBreakdown(userId,
+                    range[0], range[1], Granularity.DAY, null));
+            assertThat(monthTotals(categoryBreakdownService.getCategoryBreakdown(userId, range[0], range[1], Granularity.MONTH, null)))
+                    .as("%s to %s", range[0], range[1])
+                    .isEqualTo(ledger);
+            assertThat(categoryBreakdownService.getCategoryBreakdown(userId, range[0], range[1], Granularity.YEAR, null)
+                    .getEntries().stream().map(CategoryBreakdownDto.Entry::getTotalAmount).reduce(BigDecimal.ZERO, BigDecimal::add))
+                    .as("year of %s to %s", range[0], range[1])
+                    .isEqualByComparingTo(ledger.values().stream().reduce(BigDecimal.ZERO, BigDecimal::add));
+        }
+    }
+    
+    @Test
+    void wholeMonthsInsideTheRangeAreReadFromTheRollup() {
+        Account account = testData.account(testData.user());
+        Long userId = account.getUser().getId();
+        int year = Year.now().getValue() - 1;
+        book(account, null, Transaction.TransactionType.EXPENSE, "5.00", LocalDateTime.of(year, 2, 10, 8, 0));
+        clearInvocations(rollupRepository);
+        
+        categoryBreakdownService.getCategoryBreakdown(userId, LocalDate.of(year, 1, 15), LocalDate.of(year, 4, 10),
+                Granularity.MONTH, null);
+        
+        verify(rollupRepository).getCategoryTotalsByUserIdAndMonthRange(userId, year * 100 + 2, year * 100 + 3, null);
+    }
+    
+    @Test
+    void archivedMonthsAreAnsweredWholeFromTheRollupOrRejected() {
+        Account account = testData.account(testData.user());
+        Long userId = account.getUser().getId();
+        Category category = testData.category(account.getUser());
+        List<Transaction> archived = List.of(
+                book(account, category, Transaction.TransactionType.EXPENSE, "20.00", LocalDateTime.of(2023, 3, 10, 12, 0)),
+                book(account, category, Transaction.TransactionType.EXPENSE, "30.00", LocalDateTime.of(2023, 4, 30, 12, 0)));
+        book(account, category, Transaction.TransactionType.EXPENSE, "40.00", LocalDateTime.of(2024, 1, 10, 12, 0));
+        // What archiving 2023 leaves behind: the rollup rows, but not the transactions
+        transactionTemplate.executeWithoutResult(status -> {
+            rollupRepository.markArchivedBefore(202401);
+            transactionRepository.deleteAll(archived);
+        });
+        
+        assertThat(monthTotals(categoryBreakdownService.getCategoryBreakdown(userId, LocalDate.of(2023, 3, 1),
+                LocalDate.of(2024, 1, 15), Granularity.MONTH, null))).isEqualTo(Map.of(
+                List.of(LocalDate.of(2023, 3, 1), category.getId(), Transaction.TransactionType.EXPENSE), new BigDecimal("20.00"),
+                List.of(LocalDate.of(2023, 4, 1), category.getId(), Transaction.TransactionType.EXPENSE), new BigDecimal("30.00"),
+                List.of(LocalDate.of(2024, 1, 1), category.getId(), Transaction.TransactionType.EXPENSE), new BigDecimal("40.00")));
+        assertThat(categoryBreakdownService.getCategoryBreakdown(userId, LocalDate.of(2023, 1, 1), LocalDate.of(2023, 12, 31),
+                Granularity.YEAR, null).getEntries()).singleElement()
+                .satisfies(entry -> {
+                    assertThat(entry.getTotalAmount()).isEqualByComparingTo("50.00");
+                    assertThat(entry.getTransactionCount()).isEqualTo(2);
+                });
+        
+        assertThatThrownBy(() -> categoryBreakdownService.getCategoryBreakdown(userId, LocalDate.of(2023, 3, 15),
+                LocalDate.of(2023, 4, 30), Granularity.MONTH, null))
+                .hasMessage("Breakdowns reaching into archived months must start and end on month boundaries");
+        assertThatThrownBy(() -> categoryBreakdownService.getCategoryBreakdown(userId, LocalDate.of(2023, 3, 1),
+                LocalDate.of(2023, 4, 20), Granularity.YEAR, null))
+                .hasMessage("Breakdowns reaching into archived months must start and end on month boundaries");
+        assertThatThrownBy(() -> categoryBreakdownService.getCategoryBreakdown(userId, LocalDate.of(2023, 3, 1),
+                LocalDate.of(2023, 3, 31), Granularity.WEEK, null))
+                .hasMessage("Day and week breakdowns cannot reach into archived months");
+    }
+    
+    // Saves a transaction and applies it to the rollup, as the write paths do
+    private Transaction book(Account account, Category category, Transaction.TransactionType type, String amount,
+                             LocalDateTime date) {
+        Transaction transaction = transactionRepository.save(new Transaction(new BigDecimal(amount), type.getDisplayName(),
+                type, date, account, category));
+        transactionRollupService.applyTransactionChange(transaction, transaction.getAmount(), 1);
+        return transaction;
+    }
+    
+    // Totals keyed by month, category and type, whatever granularity the breakdown was bucketed by
+    private static Map<List<Object>, BigDecimal> monthTotals(CategoryBreakdownDto breakdown) {
+        Map<List<Object>, BigDecimal> totals = new HashMap<>();
+        for (CategoryBreakdownDto.Entry entry : breakdown.getEntries()) {
+            totals.merge(List.of(entry.getPeriodStart().withDayOfMonth(1), entry.getCategoryId() != null ? entry.getCategoryId() : 0L,
+                    entry.getType()), entry.getTotalAmount().setScale(2, RoundingMode.UNNECESSARY), BigDecimal::add);
+        }
+        return totals;
+    }
+    
+    private static LocalDate[] range(LocalDate start, LocalDate end) {
+        return new LocalDate[] {start, end};
+    }
+}
@@ -0,0 +1,98 @@
+package com.pft.service;
+
+import com.pft.TestData;
+import com.pft.dto.CategoryDto;
+import com.pft.entity.Budget;
+import com.pft.entity.Category;
+import com.pft.entity.Transaction;
+import com.pft.entity.User;
+import com.pft.repository.BudgetRepository;
+import com.pft.repository.CategoryRepository;
+import com.pft.repository.TransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestData.class)
+class CategoryServiceTest {
+    
+    @Autowired
+    private CategoryService categoryService;
+    
+    @Autowired
+    private CategoryRepository categoryRepository;
+    
+    @Autowired
+    private BudgetRepository budgetRepository;
+    
+    @Autowired
+    private TransactionRepository transactionRepository;
+    
+    @Autowired
+    private TestData testData;
+    
+    @Test
+    void deleteCategoryRemovesItsBudgets() {
+        User user = testData.user();
+        Category category = testData.category(user);
+        Category other = testData.category(user);
+        Budget budget = budgetRepository.save(budget(user, category));
+        Budget otherBudget = budgetRepository.save(budget(user, other));
+        
+        categoryService.deleteCategory(category.getId(), user.getId());
+        
+        assertThat(categoryRepository.existsById(category.getId())).isFalse();
+        assertThat(budgetRepository.existsById(budget.getId())).isFalse();
+        assertThat(budgetRepository.existsById(otherBudget.getId())).isTrue();
+    }
+    
+    @Test
+    void deleteCategoryRejectsCategoryWithTransactions() {
+        User user = testData.user();
+        Category category = testData.category(user);
+        Budget budget = budgetRepository.save(budget(user, category));
+        Transaction expense = testData.transaction(testData.account(user), Transaction.TransactionType.EXPENSE,
+                "10.00", LocalDateTime.of(2025, 1, 1, 12, 0));
+        expense.setCategory(category);
+        transactionRepository.save(expense);
+        
+        assertThatThrownBy(() -> categoryService.deleteCategory(category.getId(), user.getId()))
+                .hasMessage("Cannot delete category with existing transactions");
+        assertThat(budgetRepository.existsById(budget.getId())).isTrue();
+    }
+    
+    @Test
+    void categorySummaryIsCachedUntilTheCategoryIsUpdated() {
+        User user = testData.user();
+        Category category = testData.category(user);
+        String name = category.getName();
+        assertThat(categoryService.getCategorySummary(category.getId()).name()).isEqualTo(name);
+        
+        // A change behind the service's back is not seen until the entry is evicted
+        category.setName("Renamed directly");
+        categoryRepository.save(category);
+        assertThat(categoryService.getCategorySummary(category.getId()).name()).isEqualTo(name);
+        
+        CategoryDto update = new CategoryDto();
+        update.setName("Groceries");
+        categoryService.updateCategory(category.getId(), update, user.getId());
+        
+        assertThat(categoryService.getCategorySummary(category.getId()))
+                .isEqualTo(new CategoryService.CategorySummary(category.getId(), user.getId(), "Groceries"));
+    }
+    
+    private static Budget budget(User user, Category category) {
+        return new Budget("Groceries", new BigDecimal("100.00"), Budget.BudgetPeriod.MONTHLY,
+                LocalDateTime.of(2025, 1, 1, 0, 0), user, category);
+    }
+}
@@ -0,0 +1,65 @@
+package com.pft.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class OfflineCommandRunnerTest {
+    
+    private final List<String> ran = new ArrayList<>();
+    private final OfflineCommandRunner runner = new OfflineCommandRunner(
+            List.of(command("rebuild-rollups"), command("rebuild-budgets")), mock(ConfigurableApplicationContext.class));
+    
+    @Test
+    void withoutACommandOptionTheApplicationStartsNormally() {
+        runner.run(new DefaultApplicationArguments("--server.port=9000", "rebuild-rollups"));
+        
+        assertThat(ran).isEmpty();
+    }
+    
+    @Test
+    void twoCommandsAreRefusedBeforeEitherRuns() {
+        assertThatThrownBy(() -> runner.run(new DefaultApplicationArguments("--rebuild-budgets", "--rebuild-rollups")))
+                .hasMessage("Only one command can run at a time, got --rebuild-rollups, --rebuild-budgets");
+        assertThat(ran).isEmpty();
+    }
+    
+    @Test
+    void failingCommandFailsTheStartupInsteadOfExiting() {
+        OfflineCommandRunner failing = new OfflineCommandRunner(List.of(new OfflineCommand() {
+            @Override
+            public String option() {
+                return "archive-transactions-before";
+            }
+            
+            @Override
+            public void run(List<String> values) {
+                throw new RuntimeException("--archive-transactions-before takes one year");
+            }
+        }), mock(ConfigurableApplicationContext.class));
+        
+        assertThatThrownBy(() -> failing.run(new DefaultApplicationArguments("--archive-transactions-before")))
+                .hasMessage("--archive-transactions-before takes one year");
+    }
+    
+    private OfflineCommand command(String option) {
+        return new OfflineCommand() {
+            @Override
+            public String option() {
+                return option;
+            }
+            
+            @Override
+            public void run(List<String> values) {
+                ran.add(option);
+            }
+        };
+    }
+}
@@ -0,0 +1,97 @@
+package com.pft.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class QueryFanOutTest {
+    
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final QueryFanOut queryFanOut = new QueryFanOut(new NoOpTransactionManager());
+    
+    @AfterEach
+    void shutdown() {
+        release.countDown();
+        queryFanOut.shutdown();
+    }
+    
+    @Test
+    void failedQueryFailsTheRequest() {
+        start(2, 10, 1000);
+        try (QueryFanOut.Request fanOut = queryFanOut.start()) {
+            Future<Long> failing = fanOut.submit(() -> {
+                throw new IllegalStateException("query failed");
+            });
+            
+            assertThatThrownBy(() -> fanOut.get(failing, 0L))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessage("query failed");
+        }
+    }
+    
+    @Test
+    void slowQueryFallsBackAtTheDeadline() {
+        start(2, 10, 50);
+        try (QueryFanOut.Request fanOut = queryFanOut.start()) {
+            Future<Long> slow = fanOut.submit(this::blockUntilReleased);
+            
+            assertThat(fanOut.get(slow, -1L)).isEqualTo(-1L);
+            assertThat(fanOut.isPartial()).isTrue();
+        }
+    }
+    
+    @Test
+    void saturatedPoolSkipsTheQuery() {
+        start(1, 1, 1000);
+        try (QueryFanOut.Request fanOut = queryFanOut.start()) {
+            fanOut.submit(this::blockUntilReleased);
+            fanOut.submit(this::blockUntilReleased);
+            Future<Long> skipped = fanOut.submit(() -> 1L);
+            
+            assertThat(fanOut.get(skipped, -1L)).isEqualTo(-1L);
+            assertThat(fanOut.isPartial()).isTrue();
+        }
+    }
+    
+    private void start(int workers, int queueCapacity, long timeoutMs) {
+        ReflectionTestUtils.setField(queryFanOut, "workers", workers);
+        ReflectionTestUtils.setField(queryFanOut, "queueCapacity", queueCapacity);
+        ReflectionTestUtils.setField(queryFanOut, "timeoutMs", timeoutMs);
+        queryFanOut.init();
+    }
+    
+    private Long blockUntilReleased() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return 0L;
+    }
+    
+    private static final class NoOpTransactionManager implements PlatformTransactionManager {
+        
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+        
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+        
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    }
+}
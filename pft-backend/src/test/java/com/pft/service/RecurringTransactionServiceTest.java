@@ -0,0 +1,221 @@
+package com.pft.service;
+
+import com.pft.TestData;
+import com.pft.entity.Account;
+import com.pft.entity.Budget;
+import com.pft.entity.Category;
+import com.pft.entity.Transaction;
+import com.pft.entity.User;
+import com.pft.repository.BudgetRepository;
+import com.pft.repository.TransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestData.class)
+class RecurringTransactionServiceTest {
+    
+    private static final LocalDateTime JAN_31 = LocalDateTime.of(2025, 1, 31, 9, 0);
+    
+    @Autowired
+    private RecurringTransactionService recurringTransactionService;
+    
+    @Autowired
+    private TransactionRepository transactionRepository;
+    
+    @MockitoSpyBean
+    private AccountService accountService;
+    
+    @MockitoSpyBean
+    private BudgetRepository budgetRepository;
+    
+    @Autowired
+    private TestData testData;
+    
+    @Test
+    void monthEndScheduleKeepsItsDayAcrossChunks() {
+        Account account = testData.account(testData.user());
+        Transaction schedule = monthlySchedule(account);
+        
+        // One run a month, each starting from the date the previous run stored
+        for (int month = 2; month <= 7; month++) {
+            processAllDue(LocalDateTime.of(2025, month, 1, 0, 0));
+        }
+        
+        assertThat(occurrenceDates(account, schedule)).containsExactly(
+                JAN_31,
+                LocalDateTime.of(2025, 2, 28, 9, 0),
+                LocalDateTime.of(2025, 3, 31, 9, 0),
+                LocalDateTime.of(2025, 4, 30, 9, 0),
+                LocalDateTime.of(2025, 5, 31, 9, 0),
+                LocalDateTime.of(2025, 6, 30, 9, 0));
+        assertThat(transactionRepository.findById(schedule.getId()).orElseThrow().getNextRecurringDate())
+                .isEqualTo(LocalDateTime.of(2025, 7, 31, 9, 0));
+    }
+    
+    @Test
+    void catchUpInOneRunMatchesMonthlyRuns() {
+        Account account = testData.account(testData.user());
+        Transaction schedule = monthlySchedule(account);
+        
+        processAllDue(LocalDateTime.of(2025, 4, 1, 0, 0));
+        processAllDue(LocalDateTime.of(2025, 6, 1, 0, 0));
+        
+        assertThat(occurrenceDates(account, schedule)).containsExactly(
+                JAN_31,
+                LocalDateTime.of(2025, 2, 28, 9, 0),
+                LocalDateTime.of(2025, 3, 31, 9, 0),
+                LocalDateTime.of(2025, 4, 30, 9, 0),
+                LocalDateTime.of(2025, 5, 31, 9, 0));
+    }
+    
+    @Test
+    void movedNextDateStartsANewAnchor() {
+        Account account = testData.account(testData.user());
+        Transaction schedule = monthlySchedule(account);
+        processAllDue(LocalDateTime.of(2025, 2, 1, 0, 0));
+        
+        // Moved by hand off the Jan 31 sequence: later occurrences follow the new day
+        Transaction stored = transactionRepository.findById(schedule.getId()).orElseThrow();
+        stored.setNextRecurringDate(LocalDateTime.of(2025, 2, 15, 9, 0));
+        transactionRepository.save(stored);
+        processAllDue(LocalDateTime.of(2025, 4, 1, 0, 0));
+        
+        assertThat(occurrenceDates(account, schedule)).containsExactly(
+                JAN_31,
+                LocalDateTime.of(2025, 2, 15, 9, 0),
+                LocalDateTime.of(2025, 3, 15, 9, 0));
+    }
+    
+    @Test
+    void failingScheduleIsRetriedAloneAndParkedWithoutHoldingBackItsChunk() {
+        Account healthy = testData.account(testData.user());
+        Account poisoned = testData.account(testData.user());
+        Transaction healthySchedule = monthlySchedule(healthy);
+        Transaction poisonedSchedule = monthlySchedule(poisoned);
+        doThrow(new RuntimeException("Balance update failed"))
+                .when(accountService).updateAccountBalance(eq(poisoned.getId()), any());
+        
+        // Both schedules share the first chunk; the rolled back chunk is retried one by one
+        while (recurringTransactionService.processDueChunk(LocalDateTime.of(2025, 2, 1, 0, 0), 10) > 0) {
+            // keep claiming
+        }
+        
+        assertThat(occurrenceDates(healthy, healthySchedule)).containsExactly(JAN_31);
+        assertThat(occurrenceDates(poisoned, poisonedSchedule)).isEmpty();
+        assertThat(failuresOf(poisonedSchedule)).isEqualTo(1);
+        
+        // Retried once per run, then no longer claimed
+        processAllDue(LocalDateTime.of(2025, 2, 2, 0, 0));
+        processAllDue(LocalDateTime.of(2025, 2, 3, 0, 0));
+        assertThat(failuresOf(poisonedSchedule)).isEqualTo(RecurringTransactionService.MAX_FAILURES);
+        assertThat(recurringTransactionService.processDueChunk(LocalDateTime.of(2025, 2, 4, 0, 0), 10)).isZero();
+        assertThat(occurrenceDates(poisoned, poisonedSchedule)).isEmpty();
+    }
+    
+    @Test
+    void scheduleThatRunsAgainAfterAFailureStartsCountingAfresh() {
+        Account account = testData.account(testData.user());
+        Transaction schedule = monthlySchedule(account);
+        doThrow(new RuntimeException("Balance update failed"))
+                .when(accountService).updateAccountBalance(eq(account.getId()), any());
+        processAllDue(LocalDateTime.of(2025, 2, 1, 0, 0));
+        assertThat(failuresOf(schedule)).isEqualTo(1);
+        
+        reset(accountService);
+        processAllDue(LocalDateTime.of(2025, 2, 2, 0, 0));
+        
+        assertThat(occurrenceDates(account, schedule)).containsExactly(JAN_31);
+        Transaction stored = transactionRepository.findById(schedule.getId()).orElseThrow();
+        assertThat(stored.getRecurringFailures()).isZero();
+        assertThat(stored.getRecurringFailedAt()).isNull();
+    }
+    
+    @Test
+    void dailyOccurrencesUpdateEachBudgetOnce() {
+        Account account = testData.account(testData.user());
+        User user = account.getUser();
+        Category category = testData.category(user);
+        Budget firstHalf = budget(user, category, LocalDateTime.of(2025, 1, 1, 0, 0), LocalDateTime.of(2025, 1, 15, 23, 59));
+        Budget overall = budget(user, null, LocalDateTime.of(2025, 1, 10, 0, 0), null);
+        Budget otherCategory = budget(user, testData.category(user), LocalDateTime.of(2025, 1, 1, 0, 0), null);
+        Transaction schedule = monthlySchedule(account);
+        schedule.setRecurringFrequency(Transaction.RecurringFrequency.DAILY);
+        schedule.setNextRecurringDate(LocalDateTime.of(2025, 1, 1, 9, 0));
+        schedule.setCategory(category);
+        transactionRepository.save(schedule);
+        clearInvocations(budgetRepository);
+        
+        // Jan 1 to Jan 31, one occurrence a day
+        processAllDue(LocalDateTime.of(2025, 1, 31, 12, 0));
+        
+        assertThat(spentOf(firstHalf)).isEqualByComparingTo("150.00");
+        assertThat(spentOf(overall)).isEqualByComparingTo("220.00");
+        assertThat(spentOf(otherCategory)).isEqualByComparingTo("0.00");
+        verify(budgetRepository, times(2)).addSpentDelta(anyLong(), any(), any());
+        verify(budgetRepository, never()).applySpentDelta(anyLong(), any(), any(), any(), any());
+    }
+    
+    private Budget budget(User user, Category category, LocalDateTime startDate, LocalDateTime endDate) {
+        Budget budget = new Budget("Budget", new BigDecimal("1000.00"), Budget.BudgetPeriod.MONTHLY, startDate, user, category);
+        budget.setEndDate(endDate);
+        return budgetRepository.save(budget);
+    }
+    
+    private BigDecimal spentOf(Budget budget) {
+        return budgetRepository.findById(budget.getId()).orElseThrow().getSpentAmount();
+    }
+    
+    private Transaction monthlySchedule(Account account) {
+        Transaction schedule = new Transaction();
+        schedule.setAmount(new BigDecimal("10.00"));
+        schedule.setDescription("Rent");
+        schedule.setType(Transaction.TransactionType.EXPENSE);
+        schedule.setTransactionDate(JAN_31.minusMonths(1));
+        schedule.setAccount(account);
+        schedule.setUser(account.getUser());
+        schedule.setRecurring(true);
+        schedule.setRecurringFrequency(Transaction.RecurringFrequency.MONTHLY);
+        schedule.setNextRecurringDate(JAN_31);
+        return transactionRepository.save(schedule);
+    }
+    
+    // Chunks of one schedule, so every run spans several chunks
+    private void processAllDue(LocalDateTime now) {
+        while (recurringTransactionService.processDueChunk(now, 1) > 0) {
+            // keep claiming
+        }
+    }
+    
+    private int failuresOf(Transaction schedule) {
+        return transactionRepository.findById(schedule.getId()).orElseThrow().getRecurringFailures();
+    }
+    
+    private List<LocalDateTime> occurrenceDates(Account account, Transaction schedule) {
+        return transactionRepository.findByAccountId(account.getId()).stream()
+                .filter(transaction -> !transaction.getId().equals(schedule.getId()))
+                .map(Transaction::getTransactionDate)
+                .sorted()
+                .toList();
+    }
+}
@@ -0,0 +1,113 @@
+package com.pft.service;
+
+import com.pft.RequiresDocker;
+import com.pft.TestData;
+import com.pft.entity.Account;
+import com.pft.entity.Budget;
+import com.pft.entity.Transaction;
+import com.pft.entity.User;
+import com.pft.repository.BudgetRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Archiving and what depends on it, against PostgreSQL with the migrated, partitioned schema.
+ * Skipped when no Docker daemon is available.
+ */
+@SpringBootTest
+@ActiveProfiles("postgres")
+@Import(TestData.class)
+@RequiresDocker
+@Testcontainers
+class TransactionPartitionServiceTest {
+    
+    // Every test archives the years before this one
+    private static final int ARCHIVE_BEFORE = 2020;
+    
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+    
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+    
+    @Autowired
+    private TransactionPartitionService transactionPartitionService;
+    
+    @Autowired
+    private UserService userService;
+    
+    @Autowired
+    private BudgetRepository budgetRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private TestData testData;
+    
+    @Test
+    void archivingIsRefusedNamingTheActiveBudgetsThatStartEarlier() {
+        User user = testData.user();
+        Budget blocking = budgetRepository.save(new Budget("Old", new BigDecimal("100.00"), Budget.BudgetPeriod.MONTHLY,
+                LocalDateTime.of(2015, 6, 1, 0, 0), user));
+        Budget later = budgetRepository.save(new Budget("Later", new BigDecimal("100.00"), Budget.BudgetPeriod.MONTHLY,
+                LocalDateTime.of(2016, 6, 1, 0, 0), user));
+        
+        assertThatThrownBy(() -> transactionPartitionService.archivePartitionsBefore(2016))
+                .hasMessage("Active budgets start before 2016 (IDs " + blocking.getId() + "); " +
+                        "deactivate them or archive an earlier year");
+        
+        // Out of the way of the other tests' archiving
+        for (Budget budget : List.of(blocking, later)) {
+            budget.setActive(false);
+            budgetRepository.save(budget);
+        }
+    }
+    
+    @Test
+    void deletingUserRemovesTheirArchivedTransactions() {
+        Account deleted = testData.account(testData.user());
+        Account kept = testData.account(testData.user());
+        testData.transaction(deleted, Transaction.TransactionType.EXPENSE, "10.00", LocalDateTime.of(2019, 3, 1, 12, 0));
+        testData.transaction(deleted, Transaction.TransactionType.EXPENSE, "20.00", LocalDateTime.of(2019, 4, 1, 12, 0));
+        testData.transaction(kept, Transaction.TransactionType.EXPENSE, "30.00", LocalDateTime.of(2019, 5, 1, 12, 0));
+        archive();
+        assertThat(archivedTransactions(deleted.getUser())).isEqualTo(2);
+        
+        userService.deleteUser(deleted.getUser().getId());
+        
+        assertThat(archivedTransactions(deleted.getUser())).isZero();
+        assertThat(archivedTransactions(kept.getUser())).isEqualTo(1);
+    }
+    
+    private void archive() {
+        // Moves the rows written since startup out of the default partition first
+        transactionPartitionService.createPartitions(0);
+        transactionPartitionService.archivePartitionsBefore(ARCHIVE_BEFORE);
+    }
+    
+    private long archivedTransactions(User user) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM archive.transactions_y2019 WHERE user_id = ?",
+                Long.class, user.getId());
+    }
+}
@@ -0,0 +1,132 @@
+package com.pft.service;
+
+import com.pft.TestData;
+import com.pft.entity.Account;
+import com.pft.entity.Category;
+import com.pft.entity.Transaction;
+import com.pft.entity.TransactionMonthlyRollup;
+import com.pft.repository.TransactionMonthlyRollupRepository;
+import com.pft.repository.TransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestData.class)
+class TransactionRollupServiceTest {
+    
+    @Autowired
+    private TransactionRollupService transactionRollupService;
+    
+    @Autowired
+    private TransactionMonthlyRollupRepository rollupRepository;
+    
+    @MockitoSpyBean
+    private TransactionRepository transactionRepository;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private TestData testData;
+    
+    @Test
+    void rebuildKeepsArchivedMonths() {
+        Account account = testData.account(testData.user());
+        Long userId = account.getUser().getId();
+        // The archived month's ledger rows are gone; one later transaction is left behind in it
+        transactionTemplate.executeWithoutResult(status -> {
+            rollupRepository.applyDelta(userId, 200003, TransactionMonthlyRollup.NO_CATEGORY,
+                    Transaction.TransactionType.EXPENSE, new BigDecimal("25.00"), 2L);
+            rollupRepository.markArchivedBefore(200101);
+        });
+        testData.transaction(account, Transaction.TransactionType.EXPENSE, "10.00", LocalDateTime.of(2000, 3, 5, 12, 0));
+        testData.transaction(account, Transaction.TransactionType.EXPENSE, "40.00", LocalDateTime.of(2001, 2, 5, 12, 0));
+        
+        transactionRollupService.rebuildAll();
+        
+        assertThat(rollupRepository.getTotalAmountByUserIdAndMonthRange(userId, 200003, 200003))
+                .isEqualByComparingTo("25.00");
+        assertThat(rollupRepository.getTotalAmountByUserIdAndMonthRange(userId, 200102, 200102))
+                .isEqualByComparingTo("40.00");
+    }
+    
+    @Test
+    void dateRangeTotalSplitIntoRollupAndEdgeMonthsMatchesTheLedger() {
+        Account account = testData.account(testData.user());
+        Long userId = account.getUser().getId();
+        Category category = testData.category(account.getUser());
+        // Month boundaries, mid-month days, and rows with and without a category
+        book(account, null, Transaction.TransactionType.INCOME, "1.00", LocalDateTime.of(2024, 1, 1, 0, 0));
+        book(account, category, Transaction.TransactionType.EXPENSE, "2.00", LocalDateTime.of(2024, 1, 15, 12, 0));
+        book(account, null, Transaction.TransactionType.EXPENSE, "4.00", LocalDateTime.of(2024, 1, 31, 23, 59, 59, 999_999_000));
+        book(account, category, Transaction.TransactionType.INCOME, "8.00", LocalDateTime.of(2024, 2, 10, 8, 0));
+        book(account, null, Transaction.TransactionType.EXPENSE, "16.00", LocalDateTime.of(2024, 2, 29, 23, 0));
+        book(account, category, Transaction.TransactionType.EXPENSE, "32.00", LocalDateTime.of(2024, 3, 1, 0, 0));
+        book(account, null, Transaction.TransactionType.INCOME, "64.00", LocalDateTime.of(2024, 3, 20, 12, 0));
+        book(account, category, Transaction.TransactionType.EXPENSE, "128.00", LocalDateTime.of(2024, 4, 5, 12, 0));
+        
+        List<LocalDateTime[]> ranges = List.of(
+                // Whole months only
+                range(LocalDateTime.of(2024, 1, 1, 0, 0), LocalDateTime.of(2024, 3, 31, 23, 59, 59, 999_999_000)),
+                // Partial first and last month around a whole one
+                range(LocalDateTime.of(2024, 1, 15, 12, 0), LocalDateTime.of(2024, 3, 20, 12, 0)),
+                // Partial months only, ending exactly at the start of a month
+                range(LocalDateTime.of(2024, 1, 31, 23, 59, 59, 999_999_000), LocalDateTime.of(2024, 3, 1, 0, 0)),
+                // Within a single month, and a single whole month
+                range(LocalDateTime.of(2024, 2, 5, 0, 0), LocalDateTime.of(2024, 2, 20, 0, 0)),
+                range(LocalDateTime.of(2024, 2, 1, 0, 0), LocalDateTime.of(2024, 2, 29, 23, 59, 59, 999_999_000)),
+                // Whole months with a partial last month, and one ending a microsecond short of a month end
+                range(LocalDateTime.of(2024, 1, 1, 0, 0), LocalDateTime.of(2024, 4, 5, 12, 0)),
+                range(LocalDateTime.of(2024, 1, 1, 0, 0), LocalDateTime.of(2024, 1, 31, 23, 59, 59, 999_998_000)));
+        
+        for (LocalDateTime[] range : ranges) {
+            assertThat(transactionRollupService.getTotalAmountByUserIdAndDateRange(userId, range[0], range[1]))
+                    .as("%s to %s", range[0], range[1])
+                    .isEqualByComparingTo(transactionRepository.getTotalAmountByUserIdAndDateRange(userId, range[0], range[1]));
+        }
+    }
+    
+    @Test
+    void wholeMonthRangeIsReadFromTheRollupAlone() {
+        Account account = testData.account(testData.user());
+        Long userId = account.getUser().getId();
+        book(account, null, Transaction.TransactionType.EXPENSE, "5.00", LocalDateTime.of(2024, 2, 10, 8, 0));
+        clearInvocations(transactionRepository);
+        
+        BigDecimal total = transactionRollupService.getTotalAmountByUserIdAndDateRange(userId,
+                LocalDateTime.of(2024, 1, 1, 0, 0), LocalDateTime.of(2024, 2, 29, 23, 59, 59, 999_999_000));
+        
+        assertThat(total).isEqualByComparingTo("5.00");
+        verify(transactionRepository, never()).getTotalAmountByUserIdForPeriod(anyLong(), any(), any());
+        verify(transactionRepository, never()).getTotalAmountByUserIdAndDateRange(anyLong(), any(), any());
+    }
+    
+    // Saves a transaction and applies it to the rollup, as the write paths do
+    private void book(Account account, Category category, Transaction.TransactionType type, String amount,
+                        LocalDateTime date) {
+        Transaction transaction = transactionRepository.save(new Transaction(new BigDecimal(amount), type.getDisplayName(),
+                type, date, account, category));
+        transactionRollupService.applyTransactionChange(transaction, transaction.getAmount(), 1);
+    }
+    
+    private static LocalDateTime[] range(LocalDateTime start, LocalDateTime end) {
+        return new LocalDateTime[] {start, end};
+    }
+}
@@ -0,0 +1,102 @@
+package com.pft.service;
+
+import com.pft.RequiresDocker;
+import com.pft.TestData;
+import com.pft.dto.TransactionDto;
+import com.pft.entity.Account;
+import com.pft.entity.Transaction;
+import com.pft.entity.User;
+import com.pft.repository.TransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Slice;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The trigram-indexed search PostgreSQL gets; TransactionSearchServiceTest covers the LIKE
+ * search. Skipped when no Docker daemon is available.
+ */
+@SpringBootTest
+@ActiveProfiles("postgres")
+@Import(TestData.class)
+@RequiresDocker
+@Testcontainers
+class TransactionSearchServicePostgresTest {
+    
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+    
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+    
+    @Autowired
+    private TransactionSearchService transactionSearchService;
+    
+    @Autowired
+    private TransactionRepository transactionRepository;
+    
+    @Autowired
+    private TestData testData;
+    
+    @Test
+    void searchOnlyReturnsTheCallersTransactions() {
+        User user = testData.user();
+        User other = testData.user();
+        Account account = testData.account(user);
+        Transaction partial = save(account, "Coffee beans from the roastery", 2);
+        Transaction exact = save(account, "Coffee", 1);
+        Transaction byNotes = save(account, "Breakfast", 3);
+        byNotes.setNotes("coffee and cake");
+        transactionRepository.save(byNotes);
+        save(testData.account(other), "Coffee", 1);
+        
+        List<Long> ids = ids(transactionSearchService.searchTransactions(user.getId(), "COFFEE", null, null));
+        
+        assertThat(ids).containsExactlyInAnyOrder(exact.getId(), partial.getId(), byNotes.getId());
+    }
+    
+    @Test
+    void likeWildcardsInTheTermMatchLiterally() {
+        User user = testData.user();
+        Account account = testData.account(user);
+        Transaction percent = save(account, "100% refund", 1);
+        save(account, "1000 refund", 2);
+        Transaction underscore = save(account, "fee_a", 3);
+        save(account, "feeXa", 4);
+        Transaction backslash = save(account, "dir\\share", 5);
+        save(account, "dirshare", 6);
+        
+        assertThat(ids(transactionSearchService.searchTransactions(user.getId(), "100%", null, null)))
+                .containsExactly(percent.getId());
+        assertThat(ids(transactionSearchService.searchTransactions(user.getId(), "_", null, null)))
+                .containsExactly(underscore.getId());
+        assertThat(ids(transactionSearchService.searchTransactions(user.getId(), "dir\\s", null, null)))
+                .containsExactly(backslash.getId());
+    }
+    
+    private Transaction save(Account account, String description, int day) {
+        return transactionRepository.save(new Transaction(new BigDecimal("10.00"), description,
+                Transaction.TransactionType.EXPENSE, LocalDateTime.of(2025, 1, day, 12, 0), account));
+    }
+    
+    private static List<Long> ids(Slice<TransactionDto> slice) {
+        return slice.getContent().stream().map(TransactionDto::getId).toList();
+    }
+}
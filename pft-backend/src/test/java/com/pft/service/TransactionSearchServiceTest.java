@@ -0,0 +1,120 @@
+package com.pft.service;
+
+import com.pft.TestData;
+import com.pft.dto.TransactionDto;
+import com.pft.entity.Account;
+import com.pft.entity.Transaction;
+import com.pft.entity.User;
+import com.pft.repository.TransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Slice;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Covers the portable LIKE search the tests' H2 database gets; HotQueryIndexTest covers the
+ * trigram search on PostgreSQL.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestData.class)
+class TransactionSearchServiceTest {
+    
+    @Autowired
+    private TransactionSearchService transactionSearchService;
+    
+    @Autowired
+    private TransactionRepository transactionRepository;
+    
+    @Autowired
+    private TestData testData;
+    
+    @Test
+    void searchOnlyReturnsTheCallersTransactions() {
+        User user = testData.user();
+        User other = testData.user();
+        Transaction own = save(testData.account(user), "Coffee shop", 1);
+        save(testData.account(other), "Coffee shop", 1);
+        
+        assertThat(ids(transactionSearchService.searchTransactions(user.getId(), "COFFEE", null, null)))
+                .containsExactly(own.getId());
+    }
+    
+    @Test
+    void searchMatchesNotesAndReferenceNumberAfterDescriptions() {
+        User user = testData.user();
+        Account account = testData.account(user);
+        Transaction byReference = save(account, "Transfer", 3);
+        byReference.setReferenceNumber("INV-rent-2025");
+        transactionRepository.save(byReference);
+        Transaction byNotes = save(account, "Landlord", 2);
+        byNotes.setNotes("January rent");
+        transactionRepository.save(byNotes);
+        Transaction byDescription = save(account, "Rent", 1);
+        save(account, "Groceries", 4);
+        
+        // Description matches first, then newest first
+        assertThat(ids(transactionSearchService.searchTransactions(user.getId(), " rent ", null, null)))
+                .containsExactly(byDescription.getId(), byReference.getId(), byNotes.getId());
+    }
+    
+    @Test
+    void likeWildcardsInTheTermMatchLiterally() {
+        User user = testData.user();
+        Account account = testData.account(user);
+        Transaction percent = save(account, "100% refund", 1);
+        save(account, "1000 refund", 2);
+        Transaction underscore = save(account, "fee_a", 3);
+        save(account, "feeXa", 4);
+        Transaction backslash = save(account, "dir\\share", 5);
+        save(account, "dirshare", 6);
+        
+        assertThat(ids(transactionSearchService.searchTransactions(user.getId(), "100%", null, null)))
+                .containsExactly(percent.getId());
+        assertThat(ids(transactionSearchService.searchTransactions(user.getId(), "_", null, null)))
+                .containsExactly(underscore.getId());
+        assertThat(ids(transactionSearchService.searchTransactions(user.getId(), "dir\\s", null, null)))
+                .containsExactly(backslash.getId());
+    }
+    
+    @Test
+    void resultsComeInSlicesWithoutATotal() {
+        User user = testData.user();
+        Account account = testData.account(user);
+        Transaction oldest = save(account, "Lunch", 1);
+        Transaction middle = save(account, "Lunch", 2);
+        Transaction newest = save(account, "Lunch", 3);
+        
+        Slice<TransactionDto> first = transactionSearchService.searchTransactions(user.getId(), "lunch", 0, 2);
+        Slice<TransactionDto> second = transactionSearchService.searchTransactions(user.getId(), "lunch", 1, 2);
+        
+        assertThat(ids(first)).containsExactly(newest.getId(), middle.getId());
+        assertThat(first.hasNext()).isTrue();
+        assertThat(ids(second)).containsExactly(oldest.getId());
+        assertThat(second.hasNext()).isFalse();
+    }
+    
+    @Test
+    void blankQueryIsRejected() {
+        assertThatThrownBy(() -> transactionSearchService.searchTransactions(1L, "  ", null, null))
+                .hasMessage("Search query is required");
+    }
+    
+    private Transaction save(Account account, String description, int day) {
+        return transactionRepository.save(new Transaction(new BigDecimal("10.00"), description,
+                Transaction.TransactionType.EXPENSE, LocalDateTime.of(2025, 1, day, 12, 0), account));
+    }
+    
+    private static List<Long> ids(Slice<TransactionDto> slice) {
+        return slice.getContent().stream().map(TransactionDto::getId).toList();
+    }
+}
@@ -0,0 +1,140 @@
+package com.pft.service;
+
+import com.pft.TestData;
+import com.pft.dto.TransactionDto;
+import com.pft.entity.Account;
+import com.pft.entity.AlertState;
+import com.pft.entity.Budget;
+import com.pft.entity.Category;
+import com.pft.entity.Transaction;
+import com.pft.entity.User;
+import com.pft.repository.AccountRepository;
+import com.pft.repository.BudgetRepository;
+import com.pft.repository.TransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestData.class)
+class TransactionServiceTest {
+    
+    @Autowired
+    private TransactionService transactionService;
+    
+    @Autowired
+    private AccountRepository accountRepository;
+    
+    @Autowired
+    private TransactionRepository transactionRepository;
+    
+    @Autowired
+    private BudgetRepository budgetRepository;
+    
+    @Autowired
+    private TestData testData;
+    
+    @Test
+    void createdTransactionShowsTheNamesOfItsAccountsCategoryAndUser() {
+        User user = testData.user();
+        Account source = fund(testData.account(user), "100.00");
+        Account target = testData.account(user);
+        Category category = testData.category(user);
+        
+        TransactionDto expense = transactionService.createTransaction(
+                dto(source, Transaction.TransactionType.EXPENSE, "10.00"), user.getId());
+        TransactionDto transfer = transactionService.createTransaction(
+                withCategoryAndTarget(dto(source, Transaction.TransactionType.TRANSFER, "20.00"), category, target),
+                user.getId());
+        
+        assertThat(expense.getAccountName()).isEqualTo("Checking");
+        assertThat(expense.getUserFullName()).isEqualTo("Test User");
+        assertThat(expense.getCategoryName()).isNull();
+        assertThat(transfer.getCategoryName()).isEqualTo(category.getName());
+        assertThat(transfer.getToAccountId()).isEqualTo(target.getId());
+        assertThat(transfer.getToAccountName()).isEqualTo("Checking");
+        assertThat(balanceOf(target)).isEqualByComparingTo("20.00");
+    }
+    
+    @Test
+    void expenseLargerThanTheBalanceIsRejectedAndNothingIsSaved() {
+        User user = testData.user();
+        Account account = fund(testData.account(user), "30.00");
+        
+        assertThatThrownBy(() -> transactionService.createTransaction(
+                dto(account, Transaction.TransactionType.EXPENSE, "30.01"), user.getId()))
+                .hasMessage("Insufficient funds in account");
+        
+        assertThat(balanceOf(account)).isEqualByComparingTo("30.00");
+        assertThat(transactionRepository.existsByAccountId(account.getId())).isFalse();
+    }
+    
+    @Test
+    void createTransactionRejectsAnotherUsersAccount() {
+        User user = testData.user();
+        Account foreign = fund(testData.account(testData.user()), "30.00");
+        
+        assertThatThrownBy(() -> transactionService.createTransaction(
+                dto(foreign, Transaction.TransactionType.EXPENSE, "1.00"), user.getId()))
+                .hasMessage("Access denied: Account does not belong to user");
+    }
+    
+    @Test
+    void updateAndDeleteSurviveTheBudgetAlertRefreshClearingThePersistenceContext() {
+        User user = testData.user();
+        Account account = fund(testData.account(user), "500.00");
+        Category category = testData.category(user);
+        Budget budget = budgetRepository.save(new Budget("Food", new BigDecimal("100.00"), Budget.BudgetPeriod.MONTHLY,
+                LocalDateTime.of(2025, 3, 1, 0, 0), user, category));
+        TransactionDto expense = dto(account, Transaction.TransactionType.EXPENSE, "10.00");
+        expense.setCategoryId(category.getId());
+        Long id = transactionService.createTransaction(expense, user.getId()).getId();
+        
+        TransactionDto update = new TransactionDto();
+        update.setAmount(new BigDecimal("90.00"));
+        TransactionDto updated = transactionService.updateTransaction(id, update, user.getId());
+        
+        assertThat(updated.getAccountName()).isEqualTo("Checking");
+        assertThat(updated.getCategoryName()).isEqualTo(category.getName());
+        assertThat(budgetRepository.findById(budget.getId()).orElseThrow().getAlertState()).isEqualTo(AlertState.NEAR_LIMIT);
+        
+        transactionService.deleteTransaction(id, user.getId());
+        
+        assertThat(transactionRepository.existsById(id)).isFalse();
+        assertThat(budgetRepository.findById(budget.getId()).orElseThrow().getAlertState()).isEqualTo(AlertState.NORMAL);
+    }
+    
+    private Account fund(Account account, String balance) {
+        account.setCurrentBalance(new BigDecimal(balance));
+        return accountRepository.save(account);
+    }
+    
+    private BigDecimal balanceOf(Account account) {
+        return accountRepository.findById(account.getId()).orElseThrow().getCurrentBalance();
+    }
+    
+    private static TransactionDto dto(Account account, Transaction.TransactionType type, String amount) {
+        TransactionDto dto = new TransactionDto();
+        dto.setAccountId(account.getId());
+        dto.setType(type);
+        dto.setAmount(new BigDecimal(amount));
+        dto.setDescription(type.getDisplayName());
+        dto.setTransactionDate(LocalDateTime.of(2025, 3, 10, 12, 0));
+        return dto;
+    }
+    
+    private static TransactionDto withCategoryAndTarget(TransactionDto dto, Category category, Account target) {
+        dto.setCategoryId(category.getId());
+        dto.setToAccountId(target.getId());
+        return dto;
+    }
+}
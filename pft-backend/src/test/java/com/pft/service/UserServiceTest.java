@@ -0,0 +1,186 @@
+package com.pft.service;
+
+import com.pft.TestData;
+import com.pft.dto.UserDto;
+import com.pft.entity.Account;
+import com.pft.entity.AccountBalanceSnapshot;
+import com.pft.entity.Budget;
+import com.pft.entity.Category;
+import com.pft.entity.Goal;
+import com.pft.entity.Transaction;
+import com.pft.entity.User;
+import com.pft.entity.UserDataVersion;
+import com.pft.repository.AccountBalanceSnapshotRepository;
+import com.pft.repository.AccountRepository;
+import com.pft.repository.BudgetRepository;
+import com.pft.repository.CategoryRepository;
+import com.pft.repository.GoalRepository;
+import com.pft.repository.TransactionMonthlyRollupRepository;
+import com.pft.repository.TransactionRepository;
+import com.pft.repository.UserDataVersionRepository;
+import com.pft.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest(properties = "app.users.deletion-chunk-size=2")
+@ActiveProfiles("test")
+@Import(TestData.class)
+class UserServiceTest {
+    
+    // Five expenses and a transfer between the user's accounts
+    private static final int TRANSACTIONS = 6;
+    
+    @Autowired
+    private UserService userService;
+    
+    @Autowired
+    private DataVersionService dataVersionService;
+    
+    @MockitoSpyBean
+    private TransactionRepository transactionRepository;
+    
+    @MockitoSpyBean
+    private GoalRepository goalRepository;
+    
+    @Autowired
+    private TransactionMonthlyRollupRepository rollupRepository;
+    
+    @Autowired
+    private AccountBalanceSnapshotRepository snapshotRepository;
+    
+    @Autowired
+    private AccountRepository accountRepository;
+    
+    @Autowired
+    private CategoryRepository categoryRepository;
+    
+    @Autowired
+    private BudgetRepository budgetRepository;
+    
+    @Autowired
+    private UserDataVersionRepository userDataVersionRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private TestData testData;
+    
+    @Test
+    void deleteUserRemovesEverythingTheUserOwnsInChunks() {
+        User user = userWithData();
+        List<Long> accountIds = accountIds(user);
+        
+        userService.deleteUser(user.getId());
+        
+        // 2 + 2 + 2, then an empty chunk ends the loop
+        verify(transactionRepository, times(4)).deleteChunkByUserId(user.getId(), 2);
+        assertUserGone(user, accountIds);
+    }
+    
+    @Test
+    void failedDeletionCanBeRetried() {
+        User user = userWithData();
+        List<Long> accountIds = accountIds(user);
+        doThrow(new RuntimeException("connection lost")).when(goalRepository).deleteByUserId(any());
+        
+        assertThatThrownBy(() -> userService.deleteUser(user.getId())).hasMessage("connection lost");
+        
+        // The committed chunks stay deleted, the final transaction was rolled back
+        assertThat(transactionRepository.findByUserId(user.getId())).isEmpty();
+        assertThat(userRepository.existsById(user.getId())).isTrue();
+        assertThat(accountRepository.findByUserId(user.getId())).hasSize(2);
+        
+        reset(goalRepository);
+        userService.deleteUser(user.getId());
+        
+        assertUserGone(user, accountIds);
+    }
+    
+    private User userWithData() {
+        User user = testData.user();
+        Account checking = testData.account(user);
+        Account savings = testData.account(user);
+        Category category = testData.category(user);
+        for (int day = 1; day <= TRANSACTIONS - 1; day++) {
+            Transaction expense = testData.transaction(checking, Transaction.TransactionType.EXPENSE, "10.00",
+                    LocalDateTime.of(2025, 1, day, 12, 0));
+            expense.setCategory(category);
+            transactionRepository.save(expense);
+        }
+        Transaction transfer = testData.transaction(checking, Transaction.TransactionType.TRANSFER, "50.00",
+                LocalDateTime.of(2025, 1, 10, 12, 0));
+        transfer.setToAccount(savings);
+        transactionRepository.save(transfer);
+        
+        budgetRepository.save(new Budget("Groceries", new BigDecimal("100.00"), Budget.BudgetPeriod.MONTHLY,
+                LocalDateTime.of(2025, 1, 1, 0, 0), user, category));
+        goalRepository.save(new Goal("Holiday", new BigDecimal("1000.00"), Goal.GoalType.SAVINGS,
+                LocalDateTime.of(2030, 1, 1, 0, 0), user));
+        AccountBalanceSnapshot snapshot = new AccountBalanceSnapshot();
+        snapshot.setAccountId(savings.getId());
+        snapshot.setBalanceDate(LocalDate.of(2025, 1, 10));
+        snapshot.setBalance(new BigDecimal("50.00"));
+        snapshotRepository.save(snapshot);
+        transactionTemplate.executeWithoutResult(status -> rollupRepository.applyDelta(user.getId(), 202501,
+                category.getId(), Transaction.TransactionType.EXPENSE, new BigDecimal("50.00"), 5L));
+        dataVersionService.recordChange(user.getId(), UserDataVersion.DataType.TRANSACTIONS);
+        return user;
+    }
+    
+    private List<Long> accountIds(User user) {
+        return accountRepository.findByUserId(user.getId()).stream().map(Account::getId).toList();
+    }
+    
+    @Test
+    void cachedUserLookupsAreEvictedOnProfileUpdateAndDeletion() {
+        User user = testData.user();
+        assertThat(userService.getUserSummary(user.getId()).fullName()).isEqualTo("Test User");
+        assertThat(userService.getUserIdByEmail(user.getEmail())).isEqualTo(user.getId());
+        
+        UserDto update = new UserDto();
+        update.setFirstName("Renamed");
+        userService.updateUserProfile(user.getId(), update);
+        assertThat(userService.getUserSummary(user.getId()).fullName()).isEqualTo("Renamed User");
+        
+        userService.deleteUser(user.getId());
+        assertThatThrownBy(() -> userService.getUserIdByEmail(user.getEmail()))
+                .hasMessage("User not found with email: " + user.getEmail());
+        assertThatThrownBy(() -> userService.getUserSummary(user.getId()))
+                .hasMessage("User not found with ID: " + user.getId());
+    }
+    
+    private void assertUserGone(User user, List<Long> accountIds) {
+        Long userId = user.getId();
+        assertThat(userRepository.existsById(userId)).isFalse();
+        assertThat(transactionRepository.findByUserId(userId)).isEmpty();
+        assertThat(accountRepository.findByUserId(userId)).isEmpty();
+        assertThat(categoryRepository.findByUserId(userId)).isEmpty();
+        assertThat(budgetRepository.findByUserId(userId)).isEmpty();
+        assertThat(goalRepository.findByUserId(userId)).isEmpty();
+        assertThat(accountIds).allMatch(accountId -> snapshotRepository.findLatestBalanceDate(accountId) == null);
+        assertThat(rollupRepository.findAll()).noneMatch(rollup -> rollup.getUserId().equals(userId));
+        assertThat(userDataVersionRepository.existsById(userId)).isFalse();
+    }
+}
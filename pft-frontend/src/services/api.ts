@@ -7,6 +7,9 @@ import type {
   Transaction, 
   Budget, 
   Goal,
+  CursorPage,
+  Slice,
+  TransactionImportResult,
   LoginForm,
   RegisterForm,
   CreateAccountForm,
@@ -129,6 +132,30 @@ class ApiService {
     return response.data;
   }
 
+  async getTransactionsPage(cursor?: string | null, size?: number): Promise<CursorPage<Transaction>> {
+    const response: AxiosResponse<CursorPage<Transaction>> = await this.api.get('/transactions/page', {
+      params: { cursor: cursor || undefined, size },
+    });
+    return response.data;
+  }
+
+  // Walks the full history newest-first, one keyset page per request
+  async *iterateTransactionPages(size?: number): AsyncGenerator<Transaction[]> {
+    let cursor: string | null | undefined = undefined;
+    do {
+      const page: CursorPage<Transaction> = await this.getTransactionsPage(cursor, size);
+      yield page.content;
+      cursor = page.hasMore ? page.nextCursor : null;
+    } while (cursor);
+  }
+
+  async searchTransactions(q: string, page?: number, size?: number): Promise<Slice<Transaction>> {
+    const response: AxiosResponse<Slice<Transaction>> = await this.api.get('/transactions/search', {
+      params: { q, page, size },
+    });
+    return response.data;
+  }
+
   async getTransaction(id: number): Promise<Transaction> {
     const response: AxiosResponse<Transaction> = await this.api.get(`/transactions/${id}`);
     return response.data;
@@ -139,6 +166,24 @@ class ApiService {
     return response.data;
   }
 
+  async importTransactions(accountId: number, file: File, format?: 'csv' | 'ofx'): Promise<TransactionImportResult> {
+    const formData = new FormData();
+    formData.append('file', file);
+    const response: AxiosResponse<TransactionImportResult> = await this.api.post('/transactions/import', formData, {
+      params: { accountId, format },
+      headers: { 'Content-Type': 'multipart/form-data' },
+    });
+    return response.data;
+  }
+
+  async exportTransactions(params: { format?: 'csv' | 'ndjson'; accountId?: number; startDate?: string; endDate?: string } = {}): Promise<Blob> {
+    const response: AxiosResponse<Blob> = await this.api.get('/transactions/export', {
+      params,
+      responseType: 'blob',
+    });
+    return response.data;
+  }
+
   async updateTransaction(id: number, transactionData: Partial<CreateTransactionForm>): Promise<Transaction> {
     const response: AxiosResponse<Transaction> = await this.api.put(`/transactions/${id}`, transactionData);
     return response.data;
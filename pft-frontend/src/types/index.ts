@@ -207,6 +207,31 @@ export interface PaginatedResponse<T> {
   number: number;
 }
 
+export interface CursorPage<T> {
+  content: T[];
+  nextCursor?: string | null;
+  hasMore: boolean;
+  size: number;
+}
+
+// One slice of search results; there is no total count, only whether more results follow
+export interface Slice<T> {
+  content: T[];
+  number: number;
+  size: number;
+  numberOfElements: number;
+  first: boolean;
+  last: boolean;
+}
+
+export interface TransactionImportResult {
+  accountId: number;
+  importedCount: number;
+  totalIncome: number;
+  totalExpenses: number;
+  balanceChange: number;
+}
+
 // Dashboard Types
 export interface DashboardStats {
   totalBalance: number;